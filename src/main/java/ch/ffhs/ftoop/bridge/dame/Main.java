@@ -9,6 +9,12 @@ import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
 import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
 import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
 import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.book.OpeningBook;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngines;
+import ch.ffhs.ftoop.bridge.dame.game.engine.telemetry.SearchTelemetry;
+import ch.ffhs.ftoop.bridge.dame.game.record.GameRecorder;
+import ch.ffhs.ftoop.bridge.dame.game.tablebase.Tablebase;
 import ch.ffhs.ftoop.bridge.dame.ui.UIConstants;
 import ch.ffhs.ftoop.bridge.dame.ui.layout.GameUI;
 import ch.ffhs.ftoop.bridge.dame.ui.layout.MenuUI;
@@ -20,12 +26,24 @@ import org.apache.commons.configuration2.ex.ConfigurationException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.ALERT_UNCAUGHT_EXCEPTION_BODY;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.ALERT_UNCAUGHT_EXCEPTION_TITLE;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.APPLICATION_ICON_FILENAME;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MESSAGE_COULD_NOT_START_GAME_BODY;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MESSAGE_COULD_NOT_START_GAME_TITLE;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.PIECE_DARK_KING_FILENAME;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.PIECE_DARK_NORMAL_FILENAME;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.PIECE_LIGHT_KING_FILENAME;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.PIECE_LIGHT_NORMAL_FILENAME;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.PIECE_SELECTED_MARKER_FILENAME;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.PIECE_VALID_MOVE_MARKER_FILENAME;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIUtils.imageFromClassLoader;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIUtils.preloadImages;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIUtils.showErrorAlert;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIUtils.showException;
 
@@ -43,13 +61,63 @@ public class Main extends Application {
             this.config = new GameConfig();
             this.game = new Game(config);
             this.player = new Player(config.getHumanPlayerName(), PieceColor.DARK);
-            this.computer = new Computer(config.getComputerPlayerName(), PieceColor.LIGHT, config.getComputerMaxNumberOfAttemptsWhenFindingValidMove());
+            this.computer = new Computer(config.getComputerPlayerName(), PieceColor.LIGHT, config.getComputerMaxNumberOfAttemptsWhenFindingValidMove(),
+                    new Random(config.getComputerSeed()));
+            this.loadOpeningBook();
+            this.loadTablebase();
+            this.recordGames();
+            SearchEngines.create(config).ifPresent(this::useSearchEngine);
+            this.computer.setPonderingEnabled(config.isEnginePonder());
         } catch (ConfigurationException | InvalidNumberOfPiecesPerPlayerException | InvalidBoardDimensionsException e) {
             logger.error("Could not start game", e);
             showErrorAlert(MESSAGE_COULD_NOT_START_GAME_TITLE, MESSAGE_COULD_NOT_START_GAME_BODY, Platform::exit);
         }
     }
 
+    private void useSearchEngine(SearchEngine engine) {
+        this.computer.setSearchEngine(engine, SearchEngines.limitsOf(this.config));
+
+        SearchTelemetry telemetry = new SearchTelemetry();
+        engine.registerSearchFinishedObserver(telemetry);
+        try {
+            telemetry.register(this.computer.getName());
+        } catch (JMException e) {
+            logger.warn("Could not export the search telemetry via JMX", e);
+        }
+    }
+
+    private void loadOpeningBook() {
+        if (this.config.getOpeningBookFile() == null) {
+            return;
+        }
+
+        try {
+            this.computer.setOpeningBook(OpeningBook.open(Paths.get(this.config.getOpeningBookFile())));
+        } catch (IOException e) {
+            logger.warn("Could not load the opening book, playing without it", e);
+        }
+    }
+
+    private void loadTablebase() {
+        if (this.config.getTablebaseDirectory() == null) {
+            return;
+        }
+
+        try {
+            Tablebase tablebase = Tablebase.open(Paths.get(this.config.getTablebaseDirectory()));
+            this.game.setTablebase(tablebase);
+            this.computer.setTablebase(tablebase);
+        } catch (IOException e) {
+            logger.warn("Could not load the endgame tablebase, playing without it", e);
+        }
+    }
+
+    private void recordGames() {
+        if (this.config.getGameJournalDirectory() != null) {
+            new GameRecorder(Paths.get(this.config.getGameJournalDirectory()), this.config).attachTo(this.game);
+        }
+    }
+
     @Override
     public void start(Stage primaryStage) {
         // Register general exception handler
@@ -62,6 +130,10 @@ public class Main extends Application {
             });
         });
 
+        // Decode the images of the board once, instead of when the tiles are rendered
+        preloadImages(this.getClass(), PIECE_DARK_NORMAL_FILENAME, PIECE_DARK_KING_FILENAME, PIECE_LIGHT_NORMAL_FILENAME,
+                PIECE_LIGHT_KING_FILENAME, PIECE_VALID_MOVE_MARKER_FILENAME, PIECE_SELECTED_MARKER_FILENAME);
+
         GameUI gameUI = new GameUI(this.game, this.player, this.computer, this.config.isShowDebugAids());
         Scene gameScene = new Scene(gameUI);
 
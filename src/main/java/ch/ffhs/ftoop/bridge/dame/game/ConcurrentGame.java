@@ -0,0 +1,191 @@
+package ch.ffhs.ftoop.bridge.dame.game;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Makes a {@link Game} usable by many threads without locking it. A {@link Game} itself is not thread-safe: a move
+ * changes the tiles of the board step by step, while eg. the {@link ch.ffhs.ftoop.bridge.dame.game.move.MoveFinder}
+ * reads them from several threads.
+ * <p>
+ * So all commands changing or reading the game are queued and executed one after another, in the order they have been
+ * submitted, like the messages of an actor. The commands of a game are run by the threads of an executor, which can be
+ * shared by many games: a thread takes the commands queued at that moment and executes them, while no other thread
+ * executes commands of the same game. Commands should be short, as they hold up the commands queued after them; eg. a
+ * computer player should search its move on a copy of the position and only play it with a command.
+ * <p>
+ * Threads only interested in the state of the game read its latest {@link GameSnapshot}, which does not wait for the
+ * queue. The snapshot is taken by observers registered when creating this object, so observers registered later already
+ * see the snapshot of the event they are called for. The game must not be used other than by commands after it has
+ * been wrapped, and a command must not wait for another command of the same game.
+ */
+public class ConcurrentGame {
+    private static final Logger logger = LogManager.getLogger(ConcurrentGame.class);
+    private static final int MAX_COMMANDS_PER_RUN = 64;
+
+    private final Game game;
+    private final Executor executor;
+    private final Queue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile GameSnapshot snapshot;
+
+    /**
+     * Wraps a game. Must be called before registering other observers of the game, and before the game is used by
+     * other threads.
+     *
+     * @param game     The game, which may already have been started.
+     * @param executor The threads executing the commands.
+     */
+    public ConcurrentGame(Game game, Executor executor) {
+        this.game = checkNotNull(game);
+        this.executor = checkNotNull(executor);
+
+        game.registerGameStartedObserver(this::takeSnapshot);
+        game.registerHistoryChangedObserver(player -> this.takeSnapshot());
+        // The current player is switched only after the observers of the move, so the side to move is taken from the move
+        game.registerMovePlayedObserver((player, move, capturedPieces) -> this.snapshot = new GameSnapshot(
+                BoardNotation.of(game.getBoard(), Position.opponentOf(player.getColor())),
+                this.snapshot.getNumberOfPlayedMoves() + 1, false, null));
+        game.registerGameEndedObserver((winner, loser) -> this.snapshot = new GameSnapshot(
+                BoardNotation.of(game.getBoard(), winner.getColor()), this.snapshot.getNumberOfPlayedMoves(), true,
+                winner.getColor()));
+        this.takeSnapshot();
+    }
+
+    private void takeSnapshot() {
+        PieceColor sideToMove = this.game.getCurrentPlayer() == null ? PieceColor.DARK : this.game.getCurrentPlayer().getColor();
+        List<PlayedMove> moves = this.game.getPlayedMoves();
+        boolean over = !moves.isEmpty() && moves.get(moves.size() - 1).isGameOver();
+
+        this.snapshot = new GameSnapshot(BoardNotation.of(this.game.getBoard(), sideToMove), moves.size(), over,
+                over ? sideToMove : null);
+    }
+
+    /**
+     * Queues a command.
+     *
+     * @param command The command, which is executed after all commands submitted before.
+     * @param <T>     The type of the result.
+     * @return Completed with the result of the command, or exceptionally with the exception thrown by the command or
+     * a {@link RejectedExecutionException} if the executor has been shut down.
+     */
+    public <T> CompletableFuture<T> submit(Command<T> command) {
+        checkNotNull(command);
+
+        Task<T> task = new Task<>(command);
+        this.queue.add(task);
+        this.schedule();
+        return task.result;
+    }
+
+    /**
+     * Queues a move.
+     *
+     * @param move The move.
+     * @return Completed when the move has been played, or exceptionally with the exception thrown by
+     * {@link Game#doMove(Move)}.
+     */
+    public CompletableFuture<Void> doMove(Move move) {
+        checkNotNull(move);
+        return this.submit(game -> {
+            game.doMove(move);
+            return null;
+        });
+    }
+
+    /**
+     * Queues a restart of the game.
+     *
+     * @return Completed when the game has been restarted.
+     */
+    public CompletableFuture<Void> restart() {
+        return this.submit(game -> {
+            game.restart();
+            return null;
+        });
+    }
+
+    private void schedule() {
+        if (!this.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            this.executor.execute(this::run);
+        } catch (RejectedExecutionException e) {
+            this.scheduled.set(false);
+            Task<?> task;
+            while ((task = this.queue.poll()) != null) {
+                task.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void run() {
+        try {
+            Task<?> task;
+            for (int i = 0; i < MAX_COMMANDS_PER_RUN && (task = this.queue.poll()) != null; i++) {
+                task.execute(this.game);
+            }
+        } finally {
+            this.scheduled.set(false);
+        }
+
+        // A command queued after the last poll could not schedule another run, as this one was still scheduled. Also
+        // gives the threads of the executor to other games after a number of commands.
+        if (!this.queue.isEmpty()) {
+            this.schedule();
+        }
+    }
+
+    /**
+     * The latest state of the game, which can be read by any thread at any time.
+     *
+     * @return The snapshot.
+     */
+    public GameSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * A command executed with exclusive access to the game.
+     *
+     * @param <T> The type of the result.
+     */
+    @FunctionalInterface
+    public interface Command<T> {
+        T execute(Game game) throws Exception;
+    }
+
+    private static final class Task<T> {
+        private final Command<T> command;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Task(Command<T> command) {
+            this.command = command;
+        }
+
+        private void execute(Game game) {
+            try {
+                this.result.complete(this.command.execute(game));
+            } catch (Exception e) {
+                logger.debug("Command failed", e);
+                this.result.completeExceptionally(e);
+            }
+        }
+    }
+}
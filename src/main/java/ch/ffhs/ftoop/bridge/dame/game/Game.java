@@ -2,27 +2,41 @@ package ch.ffhs.ftoop.bridge.dame.game;
 
 import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
 import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition;
 import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
 import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
 import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
 import ch.ffhs.ftoop.bridge.dame.game.board.Piece;
 import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
 import ch.ffhs.ftoop.bridge.dame.game.board.Tile;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
 import ch.ffhs.ftoop.bridge.dame.game.move.InvalidMoveException;
 import ch.ffhs.ftoop.bridge.dame.game.move.Move;
 import ch.ffhs.ftoop.bridge.dame.game.move.MoveFinder;
 import ch.ffhs.ftoop.bridge.dame.game.move.MoveRuleValidator;
+import ch.ffhs.ftoop.bridge.dame.game.observer.Delivery;
 import ch.ffhs.ftoop.bridge.dame.game.observer.GameEndedObserver;
 import ch.ffhs.ftoop.bridge.dame.game.observer.GameStartedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.HistoryChangedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.MovePlayedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.ObserverBus;
 import ch.ffhs.ftoop.bridge.dame.game.observer.TurnFinishedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.tablebase.Tablebase;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 /**
  * This is the game engine, that implements the "Dame"/"Checkers" game with all it's rules. It encapsulates
@@ -33,12 +47,17 @@ public class Game {
 
     private final GameConfig config;
     private final Board board;
-    private final List<GameStartedObserver> gameStartedObservers = new ArrayList<>();
-    private final List<GameEndedObserver> gameEndedObservers = new ArrayList<>();
-    private final List<TurnFinishedObserver> turnFinishedObservers = new ArrayList<>();
+    private final ObserverBus<GameStartedObserver> gameStartedObservers;
+    private final ObserverBus<GameEndedObserver> gameEndedObservers;
+    private final ObserverBus<TurnFinishedObserver> turnFinishedObservers;
+    private final ObserverBus<MovePlayedObserver> movePlayedObservers;
+    private final ObserverBus<HistoryChangedObserver> historyChangedObservers;
+    private final List<PlayedMove> history = new ArrayList<>();
+    private int historyIndex;
     private Player player1;
     private Player player2;
     private Player currentPlayer;
+    private Tablebase tablebase;
 
     /**
      * Setups a new game with the given config.
@@ -50,6 +69,12 @@ public class Game {
     public Game(GameConfig config) throws InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
         this.config = config;
         this.board = new Board(this.config.getNumberOfRowsAndColumnsOfBoard());
+        // The start and the end happen once per game and must never be dropped
+        this.gameStartedObservers = new ObserverBus<>(config.getEventQueueSize(), true);
+        this.gameEndedObservers = new ObserverBus<>(config.getEventQueueSize(), true);
+        this.turnFinishedObservers = new ObserverBus<>(config.getEventQueueSize());
+        this.movePlayedObservers = new ObserverBus<>(config.getEventQueueSize());
+        this.historyChangedObservers = new ObserverBus<>(config.getEventQueueSize());
         this.board.populateWithInitialPieces(this.config.getNumberOfPiecesPerPlayer());
     }
 
@@ -74,6 +99,36 @@ public class Game {
         this.notifyGameStartedObservers();
     }
 
+    /**
+     * Starts a game between two players from a position reached before, eg. to continue a game that has been saved.
+     * The score of each player is the number of opponent pieces missing from the board, and the game starts with the
+     * player to move of the position, without moves to take back.
+     *
+     * @param player1  The first player.
+     * @param player2  The second player.
+     * @param position The position to start from, which must have the size of the board.
+     * @throws PlayersUsingSamePieceColorException Thrown when both players are using the same color of pieces.
+     * @throws GameAlreadyStartedException         Thrown when the game has already been started and is currently ongoing.
+     */
+    public void start(Player player1, Player player2, BoardNotation position) throws PlayersUsingSamePieceColorException, GameAlreadyStartedException {
+        checkNotNull(position);
+        this.verifyNewGame();
+        this.verifyPlayersUsingDifferentColors(player1, player2);
+
+        position.applyTo(this.board);
+        logger.info("Continuing game with {} as Player 1 and {} as Player 2 from {}", player1, player2, position);
+
+        this.player1 = player1;
+        this.player2 = player2;
+        Position pieces = Position.from(position);
+        int piecesPerPlayer = this.config.getNumberOfPiecesPerPlayer();
+        this.player1.setScore(piecesPerPlayer - pieces.count(Position.opponentOf(player1.getColor())));
+        this.player2.setScore(piecesPerPlayer - pieces.count(Position.opponentOf(player2.getColor())));
+        this.currentPlayer = this.findPlayerWithColor(position.getSideToMove());
+
+        this.notifyGameStartedObservers();
+    }
+
     private void verifyNewGame() throws GameAlreadyStartedException {
         if (this.currentPlayer != null) {
             throw new GameAlreadyStartedException("The game was already started");
@@ -95,7 +150,7 @@ public class Game {
     }
 
     private void notifyGameStartedObservers() {
-        this.gameStartedObservers.forEach(GameStartedObserver::onGameStarted);
+        this.gameStartedObservers.publish(GameStartedObserver::onGameStarted);
     }
 
     /**
@@ -115,6 +170,8 @@ public class Game {
         this.player1.setScore(0);
         this.player2.setScore(0);
         this.currentPlayer = this.findPlayerWithColor(PieceColor.DARK); // Dark starts again
+        this.history.clear();
+        this.historyIndex = 0;
 
         this.notifyGameStartedObservers();
     }
@@ -136,6 +193,8 @@ public class Game {
                 .filter(Tile::isOccupied)
                 .filter(t -> t.getPiece().getColor() != this.currentPlayer.getColor())
                 .collect(Collectors.toList());
+        Map<BoardPosition, Piece> capturedPieces = new LinkedHashMap<>();
+        opponentTiles.forEach(tile -> capturedPieces.put(tile.getPosition(), tile.getPiece()));
 
         /*
          * Moving a piece follows the following 4 steps:
@@ -151,8 +210,10 @@ public class Game {
         // Check, if player has reach "Kings Row", if so, it will become
         // a king in it's new position
         Piece piece = move.getPiece();
+        boolean promotion = false;
         if (this.board.isKingsRow(move.getTo(), move.getPiece().getColor())) {
             logger.info("{} has become king!", piece);
+            promotion = !piece.isKing();
             piece.setKing(true);
         }
 
@@ -173,14 +234,112 @@ public class Game {
             });
         }
 
+        this.notifyMovePlayedObservers(move, opponentTiles.size());
+
+        // Remember the move, so it can be taken back. Moves that have been taken back cannot be played again anymore.
+        boolean gameOver = this.isGameOver();
+        this.history.subList(this.historyIndex, this.history.size()).clear();
+        this.history.add(new PlayedMove(move, this.currentPlayer, capturedPieces, promotion, gameOver));
+        this.historyIndex++;
+
         // Finish the turn
-        if (!this.isGameOver()) {
+        if (!gameOver) {
             this.finishTurn();
         } else {
             this.wrapUpGame();
         }
     }
 
+    /**
+     * Takes back the last move played (or played again). The board, the scores and the current player are restored
+     * from the history, which takes constant time.
+     *
+     * @throws IllegalStateException Thrown if there is no move to take back.
+     */
+    public void undo() {
+        checkState(this.canUndo(), "There is no move to take back");
+
+        PlayedMove played = this.history.get(--this.historyIndex);
+        Move move = played.getMove();
+        try {
+            this.board.removePiece(move.getTo());
+            if (played.isPromotion()) {
+                move.getPiece().setKing(false);
+            }
+            this.board.setPiece(move.getPiece(), move.getFrom());
+
+            for (Map.Entry<BoardPosition, Piece> captured : played.getCapturedPieces().entrySet()) {
+                this.board.setPiece(captured.getValue(), captured.getKey());
+            }
+        } catch (InvalidBoardPositionException e) {
+            throw new IllegalStateException("Could not take back " + played, e);
+        }
+
+        played.getPlayer().setScore(played.getPlayer().getScore() - played.getCapturedPieces().size());
+        this.currentPlayer = played.getPlayer();
+
+        logger.info("Took back {}, current player is {}", played, this.currentPlayer);
+        this.notifyHistoryChangedObservers();
+    }
+
+    /**
+     * Plays the last move taken back again, in constant time.
+     *
+     * @throws IllegalStateException Thrown if there is no move to play again.
+     */
+    public void redo() {
+        checkState(this.canRedo(), "There is no move to play again");
+
+        PlayedMove played = this.history.get(this.historyIndex++);
+        Move move = played.getMove();
+        try {
+            this.board.removePiece(move.getFrom());
+            if (played.isPromotion()) {
+                move.getPiece().setKing(true);
+            }
+            this.board.setPiece(move.getPiece(), move.getTo());
+
+            for (BoardPosition captured : played.getCapturedPieces().keySet()) {
+                this.board.removePiece(captured);
+            }
+        } catch (InvalidBoardPositionException e) {
+            throw new IllegalStateException("Could not play again " + played, e);
+        }
+
+        played.getPlayer().setScore(played.getPlayer().getScore() + played.getCapturedPieces().size());
+        this.currentPlayer = played.isGameOver() ? played.getPlayer() : this.findOpponent(played.getPlayer());
+
+        logger.info("Played again {}, current player is {}", played, this.currentPlayer);
+        this.notifyHistoryChangedObservers();
+    }
+
+    public boolean canUndo() {
+        return this.historyIndex > 0;
+    }
+
+    public boolean canRedo() {
+        return this.historyIndex < this.history.size();
+    }
+
+    /**
+     * Whether the last move played has ended the game. This is also the case after the move ending the game has been
+     * played again, when no GameEnded event is published.
+     *
+     * @return Whether the game is over.
+     */
+    public boolean isOver() {
+        return this.historyIndex > 0 && this.history.get(this.historyIndex - 1).isGameOver();
+    }
+
+    /**
+     * The moves that lead to the current position, without the moves taken back.
+     *
+     * @return The moves, starting with the first move of the game.
+     */
+    public List<PlayedMove> getPlayedMoves() {
+        return Collections.unmodifiableList(new ArrayList<>(this.history.subList(0, this.historyIndex)));
+    }
+
     private boolean isGameOver() {
         // If there are no pieces left, the game is over
         if (this.board.getPieces(PieceColor.DARK).size() == 0 || this.board.getPieces(PieceColor.LIGHT).size() == 0) {
@@ -193,13 +352,7 @@ public class Game {
          * So we need to check each occupied tile if it can make a move
          */
         if (this.config.isCompulsoryJumpRuleEnabled()) {
-            boolean stillPossibleToMakeMoves = this.board.getTiles().stream()
-                    .filter(Tile::isOccupied)
-                    .anyMatch(tile -> {
-                        Player owner = this.findPlayerWithColor(tile.getPiece().getColor());
-                        List<Move> movesForTile = MoveFinder.findValidMoves(this.board, owner, tile.getPiece(), tile.getPosition(), this.config.getEnabledRules());
-                        return movesForTile.size() > 0;
-                    });
+            boolean stillPossibleToMakeMoves = this.isStillPossibleToMakeMoves();
 
             if (!stillPossibleToMakeMoves) {
                 logger.info("Game finished as both players cannot make any more moves");
@@ -210,6 +363,27 @@ public class Game {
         return false;
     }
 
+    private boolean isStillPossibleToMakeMoves() {
+        // In endgames covered by the tablebase, it can simply be looked up whether the players can still move
+        if (this.tablebase != null) {
+            Position position = Position.from(this.board, this.currentPlayer.getColor());
+            Optional<Boolean> darkCanMove = this.tablebase.hasMoves(position, PieceColor.DARK);
+            Optional<Boolean> lightCanMove = this.tablebase.hasMoves(position, PieceColor.LIGHT);
+
+            if (darkCanMove.isPresent() && lightCanMove.isPresent()) {
+                return darkCanMove.get() || lightCanMove.get();
+            }
+        }
+
+        return this.board.getTiles().stream()
+                .filter(Tile::isOccupied)
+                .anyMatch(tile -> {
+                    Player owner = this.findPlayerWithColor(tile.getPiece().getColor());
+                    List<Move> movesForTile = MoveFinder.findValidMoves(this.board, owner, tile.getPiece(), tile.getPosition(), this.config.getEnabledRules());
+                    return movesForTile.size() > 0;
+                });
+    }
+
     private void finishTurn() {
         this.currentPlayer = this.findOpponent(this.currentPlayer);
 
@@ -232,12 +406,24 @@ public class Game {
         return this.player1;
     }
 
+    // The events take the current player with them, as asynchronous observers receive them later
     private void notifyTurnFinishedObservers() {
-        this.turnFinishedObservers.forEach(observer -> observer.onTurnFinished(this.currentPlayer));
+        Player player = this.currentPlayer;
+        this.turnFinishedObservers.publish(observer -> observer.onTurnFinished(player));
+    }
+
+    private void notifyMovePlayedObservers(Move move, int capturedPieces) {
+        Player player = this.currentPlayer;
+        this.movePlayedObservers.publish(observer -> observer.onMovePlayed(player, move, capturedPieces));
+    }
+
+    private void notifyHistoryChangedObservers() {
+        Player player = this.currentPlayer;
+        this.historyChangedObservers.publish(observer -> observer.onHistoryChanged(player));
     }
 
     private void notifyGameEndedObservers(Player winner, Player loser) {
-        this.gameEndedObservers.forEach(observer -> observer.onGameEnded(winner, loser));
+        this.gameEndedObservers.publish(observer -> observer.onGameEnded(winner, loser));
     }
 
     /**
@@ -246,8 +432,17 @@ public class Game {
      * @param observer The observer.
      */
     public void registerGameStartedObserver(GameStartedObserver observer) {
-        checkNotNull(observer);
-        this.gameStartedObservers.add(observer);
+        this.registerGameStartedObserver(observer, Delivery.SYNCHRONOUS);
+    }
+
+    /**
+     * Registers an observer for when the game has been started.
+     *
+     * @param observer The observer.
+     * @param delivery Whether the observer is called on the thread playing the game or later on a thread of its own.
+     */
+    public void registerGameStartedObserver(GameStartedObserver observer, Delivery delivery) {
+        this.gameStartedObservers.register(observer, delivery);
     }
 
     /**
@@ -256,8 +451,17 @@ public class Game {
      * @param observer The observer.
      */
     public void registerGameEndedObserver(GameEndedObserver observer) {
-        checkNotNull(observer);
-        this.gameEndedObservers.add(observer);
+        this.registerGameEndedObserver(observer, Delivery.SYNCHRONOUS);
+    }
+
+    /**
+     * Registers an observer for when the game has ended.
+     *
+     * @param observer The observer.
+     * @param delivery Whether the observer is called on the thread playing the game or later on a thread of its own.
+     */
+    public void registerGameEndedObserver(GameEndedObserver observer, Delivery delivery) {
+        this.gameEndedObservers.register(observer, delivery);
     }
 
     /**
@@ -266,8 +470,72 @@ public class Game {
      * @param observer The observer.
      */
     public void registerTurnFinishedObserver(TurnFinishedObserver observer) {
-        checkNotNull(observer);
-        this.turnFinishedObservers.add(observer);
+        this.registerTurnFinishedObserver(observer, Delivery.SYNCHRONOUS);
+    }
+
+    /**
+     * Registers an observer for when the turn has finished.
+     *
+     * @param observer The observer.
+     * @param delivery Whether the observer is called on the thread playing the game or later on a thread of its own.
+     */
+    public void registerTurnFinishedObserver(TurnFinishedObserver observer, Delivery delivery) {
+        this.turnFinishedObservers.register(observer, delivery);
+    }
+
+    /**
+     * Registers an observer for when a move has been played.
+     *
+     * @param observer The observer.
+     */
+    public void registerMovePlayedObserver(MovePlayedObserver observer) {
+        this.registerMovePlayedObserver(observer, Delivery.SYNCHRONOUS);
+    }
+
+    /**
+     * Registers an observer for when a move has been played.
+     *
+     * @param observer The observer.
+     * @param delivery Whether the observer is called on the thread playing the game or later on a thread of its own.
+     */
+    public void registerMovePlayedObserver(MovePlayedObserver observer, Delivery delivery) {
+        this.movePlayedObservers.register(observer, delivery);
+    }
+
+    /**
+     * Registers an observer for when moves have been taken back or played again.
+     *
+     * @param observer The observer.
+     */
+    public void registerHistoryChangedObserver(HistoryChangedObserver observer) {
+        this.registerHistoryChangedObserver(observer, Delivery.SYNCHRONOUS);
+    }
+
+    /**
+     * Registers an observer for when moves have been taken back or played again.
+     *
+     * @param observer The observer.
+     * @param delivery Whether the observer is called on the thread playing the game or later on a thread of its own.
+     */
+    public void registerHistoryChangedObserver(HistoryChangedObserver observer, Delivery delivery) {
+        this.historyChangedObservers.register(observer, delivery);
+    }
+
+    /**
+     * Sets the endgame tablebase, which is used to determine faster whether the game is over. It is ignored, if it
+     * has been generated for a different board or rules.
+     *
+     * @param tablebase The tablebase.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        checkNotNull(tablebase);
+
+        if (!tablebase.supports(this.config.getNumberOfRowsAndColumnsOfBoard(), RuleSet.from(this.config.getEnabledRules()))) {
+            logger.warn("Tablebase has been generated for a different board or rules and will not be used");
+            return;
+        }
+
+        this.tablebase = tablebase;
     }
 
     public GameConfig getConfig() {
@@ -1,5 +1,9 @@
 package ch.ffhs.ftoop.bridge.dame.game;
 
+import ch.ffhs.ftoop.bridge.dame.game.engine.Difficulty;
+import ch.ffhs.ftoop.bridge.dame.game.engine.EngineType;
+import ch.ffhs.ftoop.bridge.dame.game.engine.mcts.MctsEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.mcts.MctsParallelism;
 import ch.ffhs.ftoop.bridge.dame.game.move.MoveRule;
 import org.apache.commons.configuration2.PropertiesConfiguration;
 import org.apache.commons.configuration2.builder.fluent.Configurations;
@@ -38,6 +42,37 @@ public class GameConfig {
     private String humanPlayerName = "Spieler";
     private String computerPlayerName = "Computer";
     private int computerMaxNumberOfAttemptsWhenFindingValidMove = 10;
+    private long computerTurnTimeoutMillis = 30000;
+    private Difficulty computerDifficulty = Difficulty.MEDIUM;
+    private long computerSeed = System.nanoTime();
+
+    private String tablebaseDirectory = null;
+    private String openingBookFile = null;
+    private String evaluatorWeightsFile = null;
+    private EngineType engineType = EngineType.ALPHA_BETA;
+    private int engineThreads = Runtime.getRuntime().availableProcessors();
+    private int engineHashMegabytes = 16;
+    private boolean enginePonder = true;
+    private MctsParallelism mctsParallelism = MctsParallelism.TREE;
+    private double mctsExploration = MctsEngine.DEFAULT_EXPLORATION;
+
+    private int headlessGames = 10;
+    private int headlessMaxPlies = 300;
+    private String headlessResultsFile = "results.csv";
+
+    private String gameJournalDirectory = null;
+    private int eventQueueSize = 1024;
+
+    private int serverMaxSessions = 1000;
+    private long serverSessionIdleTimeoutMillis = 600000;
+    private int serverSessionMaxPlies = 300;
+    private int serverEngineThreads = 2 * Runtime.getRuntime().availableProcessors();
+    private int serverEngineMaxRunning = Runtime.getRuntime().availableProcessors();
+    private long serverEngineQuantumMillis = 50;
+    private Difficulty serverAnalysisDifficulty = Difficulty.HARD;
+    private int serverAnalysisHashMegabytes = 64;
+    private String serverStoreDirectory = null;
+    private long serverStoreSnapshotIntervalMillis = 60000;
 
     private boolean showMenuScreen = true;
     private boolean showDebugAids = false;
@@ -76,10 +111,42 @@ public class GameConfig {
         this.humanPlayerName = config.getString("player.human.name", this.humanPlayerName);
         this.computerPlayerName = config.getString("player.computer.name", this.computerPlayerName);
         this.computerMaxNumberOfAttemptsWhenFindingValidMove = config.getInt("player.computer.max.attempts.finding.move", this.computerMaxNumberOfAttemptsWhenFindingValidMove);
+        this.computerTurnTimeoutMillis = config.getLong("player.computer.turn.timeout.millis", this.computerTurnTimeoutMillis);
+        this.computerDifficulty = config.get(Difficulty.class, "player.computer.difficulty", this.computerDifficulty);
+        this.computerSeed = config.getLong("player.computer.seed", this.computerSeed);
+        logger.info("Computer plays on level {} with seed {}", this.computerDifficulty, this.computerSeed);
 
         this.enabledRules = config.getList(MoveRule.class, "game.rules", this.enabledRules);
         logger.info("Enabled rules: {}", this.enabledRules);
 
+        this.tablebaseDirectory = config.getString("engine.tablebase.directory", this.tablebaseDirectory);
+        this.openingBookFile = config.getString("engine.book.file", this.openingBookFile);
+        this.evaluatorWeightsFile = config.getString("engine.eval.weights.file", this.evaluatorWeightsFile);
+        this.engineType = config.get(EngineType.class, "engine.type", this.engineType);
+        this.engineThreads = config.getInt("engine.threads", this.engineThreads);
+        this.engineHashMegabytes = config.getInt("engine.hash.mb", this.engineHashMegabytes);
+        this.enginePonder = config.getBoolean("engine.ponder", this.enginePonder);
+        this.mctsParallelism = config.get(MctsParallelism.class, "engine.mcts.parallelism", this.mctsParallelism);
+        this.mctsExploration = config.getDouble("engine.mcts.exploration", this.mctsExploration);
+
+        this.headlessGames = config.getInt("headless.games", this.headlessGames);
+        this.headlessMaxPlies = config.getInt("headless.max.plies", this.headlessMaxPlies);
+        this.headlessResultsFile = config.getString("headless.results.file", this.headlessResultsFile);
+
+        this.gameJournalDirectory = config.getString("game.journal.directory", this.gameJournalDirectory);
+        this.eventQueueSize = config.getInt("game.events.queue.size", this.eventQueueSize);
+
+        this.serverMaxSessions = config.getInt("server.sessions.max", this.serverMaxSessions);
+        this.serverSessionIdleTimeoutMillis = config.getLong("server.session.idle.timeout.millis", this.serverSessionIdleTimeoutMillis);
+        this.serverSessionMaxPlies = config.getInt("server.session.max.plies", this.serverSessionMaxPlies);
+        this.serverEngineThreads = config.getInt("server.engine.threads", this.serverEngineThreads);
+        this.serverEngineMaxRunning = config.getInt("server.engine.max.running", this.serverEngineMaxRunning);
+        this.serverEngineQuantumMillis = config.getLong("server.engine.quantum.millis", this.serverEngineQuantumMillis);
+        this.serverAnalysisDifficulty = config.get(Difficulty.class, "server.analysis.difficulty", this.serverAnalysisDifficulty);
+        this.serverAnalysisHashMegabytes = config.getInt("server.analysis.hash.mb", this.serverAnalysisHashMegabytes);
+        this.serverStoreDirectory = config.getString("server.store.directory", this.serverStoreDirectory);
+        this.serverStoreSnapshotIntervalMillis = config.getLong("server.store.snapshot.interval.millis", this.serverStoreSnapshotIntervalMillis);
+
         this.showMenuScreen = config.getBoolean("ui.show.menu.screen", this.showMenuScreen);
         this.showDebugAids = config.getBoolean("ui.show.debug.aids", this.showDebugAids);
     }
@@ -104,10 +171,118 @@ public class GameConfig {
         return computerMaxNumberOfAttemptsWhenFindingValidMove;
     }
 
+    public long getComputerTurnTimeoutMillis() {
+        return computerTurnTimeoutMillis;
+    }
+
+    public Difficulty getComputerDifficulty() {
+        return computerDifficulty;
+    }
+
+    public long getComputerSeed() {
+        return computerSeed;
+    }
+
     public List<MoveRule> getEnabledRules() {
         return enabledRules;
     }
 
+    public String getTablebaseDirectory() {
+        return tablebaseDirectory;
+    }
+
+    public String getOpeningBookFile() {
+        return openingBookFile;
+    }
+
+    public String getEvaluatorWeightsFile() {
+        return evaluatorWeightsFile;
+    }
+
+    public EngineType getEngineType() {
+        return engineType;
+    }
+
+    public int getEngineThreads() {
+        return engineThreads;
+    }
+
+    public int getEngineHashMegabytes() {
+        return engineHashMegabytes;
+    }
+
+    public boolean isEnginePonder() {
+        return enginePonder;
+    }
+
+    public MctsParallelism getMctsParallelism() {
+        return mctsParallelism;
+    }
+
+    public double getMctsExploration() {
+        return mctsExploration;
+    }
+
+    public int getHeadlessGames() {
+        return headlessGames;
+    }
+
+    public int getHeadlessMaxPlies() {
+        return headlessMaxPlies;
+    }
+
+    public String getHeadlessResultsFile() {
+        return headlessResultsFile;
+    }
+
+    public String getGameJournalDirectory() {
+        return gameJournalDirectory;
+    }
+
+    public int getEventQueueSize() {
+        return eventQueueSize;
+    }
+
+    public int getServerMaxSessions() {
+        return serverMaxSessions;
+    }
+
+    public long getServerSessionIdleTimeoutMillis() {
+        return serverSessionIdleTimeoutMillis;
+    }
+
+    public int getServerSessionMaxPlies() {
+        return serverSessionMaxPlies;
+    }
+
+    public int getServerEngineThreads() {
+        return serverEngineThreads;
+    }
+
+    public int getServerEngineMaxRunning() {
+        return serverEngineMaxRunning;
+    }
+
+    public long getServerEngineQuantumMillis() {
+        return serverEngineQuantumMillis;
+    }
+
+    public Difficulty getServerAnalysisDifficulty() {
+        return serverAnalysisDifficulty;
+    }
+
+    public int getServerAnalysisHashMegabytes() {
+        return serverAnalysisHashMegabytes;
+    }
+
+    public String getServerStoreDirectory() {
+        return serverStoreDirectory;
+    }
+
+    public long getServerStoreSnapshotIntervalMillis() {
+        return serverStoreSnapshotIntervalMillis;
+    }
+
     public boolean isShowMenuScreen() {
         return showMenuScreen;
     }
@@ -0,0 +1,68 @@
+package ch.ffhs.ftoop.bridge.dame.game;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The state of a {@link ConcurrentGame} after a command or move, which does not change anymore. So it can be read by
+ * any thread without synchronisation, while the game goes on.
+ */
+public final class GameSnapshot {
+    private final BoardNotation position;
+    private final int numberOfPlayedMoves;
+    private final boolean over;
+    private final PieceColor winner;
+
+    GameSnapshot(BoardNotation position, int numberOfPlayedMoves, boolean over, PieceColor winner) {
+        this.position = checkNotNull(position);
+        this.numberOfPlayedMoves = numberOfPlayedMoves;
+        this.over = over;
+        this.winner = winner;
+    }
+
+    /**
+     * The position of the board.
+     *
+     * @return The position, with the player to move as side to move, or the winner once the game is over.
+     */
+    public BoardNotation getPosition() {
+        return this.position;
+    }
+
+    public PieceColor getSideToMove() {
+        return this.position.getSideToMove();
+    }
+
+    /**
+     * The number of moves that lead to the position, without the moves taken back.
+     *
+     * @return The number of moves.
+     */
+    public int getNumberOfPlayedMoves() {
+        return this.numberOfPlayedMoves;
+    }
+
+    public boolean isOver() {
+        return this.over;
+    }
+
+    /**
+     * The winner of the game.
+     *
+     * @return The color of the winner, or null if the game is not over yet.
+     */
+    public PieceColor getWinner() {
+        return this.winner;
+    }
+
+    @Override
+    public String toString() {
+        return "GameSnapshot{" +
+                "position=" + position +
+                ", numberOfPlayedMoves=" + numberOfPlayedMoves +
+                ", over=" + over +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package ch.ffhs.ftoop.bridge.dame.game;
+
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition;
+import ch.ffhs.ftoop.bridge.dame.game.board.Piece;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A move of the game's history, with everything needed to take it back and play it again without checking the
+ * rules or searching the board: the pieces it captured, whether it made the piece a king and whether it ended the
+ * game.
+ */
+public final class PlayedMove {
+    private final Move move;
+    private final Player player;
+    private final Map<BoardPosition, Piece> capturedPieces;
+    private final boolean promotion;
+    private final boolean gameOver;
+
+    PlayedMove(Move move, Player player, Map<BoardPosition, Piece> capturedPieces, boolean promotion, boolean gameOver) {
+        this.move = move;
+        this.player = player;
+        this.capturedPieces = Collections.unmodifiableMap(capturedPieces);
+        this.promotion = promotion;
+        this.gameOver = gameOver;
+    }
+
+    public Move getMove() {
+        return this.move;
+    }
+
+    public Player getPlayer() {
+        return this.player;
+    }
+
+    /**
+     * The opponent's pieces captured by the move.
+     *
+     * @return The pieces by the position they were captured on.
+     */
+    public Map<BoardPosition, Piece> getCapturedPieces() {
+        return this.capturedPieces;
+    }
+
+    /**
+     * Whether the piece became a king with this move.
+     *
+     * @return True if the piece has been promoted.
+     */
+    public boolean isPromotion() {
+        return this.promotion;
+    }
+
+    public boolean isGameOver() {
+        return this.gameOver;
+    }
+
+    @Override
+    public String toString() {
+        return "PlayedMove{" +
+                "move=" + move +
+                ", player=" + player.getName() +
+                ", captured=" + capturedPieces.size() +
+                ", promotion=" + promotion +
+                '}';
+    }
+}
@@ -1,18 +1,31 @@
 package ch.ffhs.ftoop.bridge.dame.game.actor;
 
 import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.book.OpeningBook;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
 import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
 import ch.ffhs.ftoop.bridge.dame.game.board.Tile;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Ponderer;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchLimits;
 import ch.ffhs.ftoop.bridge.dame.game.move.Move;
 import ch.ffhs.ftoop.bridge.dame.game.move.MoveFinder;
 import ch.ffhs.ftoop.bridge.dame.game.move.MoveRule;
+import ch.ffhs.ftoop.bridge.dame.game.tablebase.Tablebase;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Optional;
+import java.util.Random;
 import java.util.stream.Collectors;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Implements a computer player, serving as an opponent to a human player.
  */
@@ -20,14 +33,38 @@ public class Computer extends Player {
     private static final Logger logger = LogManager.getLogger(Computer.class);
 
     private final int maxNumberOfAttemptsWhenFindingValidMove;
+    private final Random random;
+    private OpeningBook openingBook;
+    private Tablebase tablebase;
+    private SearchEngine searchEngine;
+    private SearchLimits searchLimits;
+    private Ponderer ponderer;
 
     public Computer(String name, PieceColor color, int maxNumberOfAttemptsWhenFindingValidMove) {
+        this(name, color, maxNumberOfAttemptsWhenFindingValidMove, new Random());
+    }
+
+    /**
+     * Creates a computer player, which makes all its random choices with the given source of randomness. With a seeded
+     * source, the same moves are chosen in the same situations.
+     *
+     * @param name                                    The name of the player.
+     * @param color                                   The color of the player's pieces.
+     * @param maxNumberOfAttemptsWhenFindingValidMove The number of attempts to find a random move.
+     * @param random                                  The source of randomness.
+     */
+    public Computer(String name, PieceColor color, int maxNumberOfAttemptsWhenFindingValidMove, Random random) {
         super(name, color);
+        checkNotNull(random);
+
         this.maxNumberOfAttemptsWhenFindingValidMove = maxNumberOfAttemptsWhenFindingValidMove;
+        this.random = random;
     }
 
     /**
-     * Finds the next, valid move. The following strategy is used:
+     * Finds the next, valid move. In the opening, a move from the opening book is played. If the position is covered
+     * by the endgame tablebase, the best move according to it is played. Otherwise the move is searched by the search
+     * engine, if one is set. Without an engine the following strategy is used:
      * <ol>
      * <li>All tiles of the board, which are occupied (contain a piece) are determined</li>
      * <li>From the position of this tile, all valid moves are calculated</li>
@@ -41,6 +78,13 @@ public class Computer extends Player {
      * @throws NoValidComputerMoveFoundException Thrown if no move could be found.
      */
     public Move findNextMove(Board board, List<MoveRule> enabledRules) throws NoValidComputerMoveFoundException {
+        this.stopPondering();
+
+        Optional<Move> knownMove = this.findKnownMove(board, enabledRules);
+        if (knownMove.isPresent()) {
+            return knownMove.get();
+        }
+
         for (int i = 0; i < this.maxNumberOfAttemptsWhenFindingValidMove; i++) {
             List<Tile> availableTiles = this.findAvailableTiles(board);
             Tile selectedTile = this.selectRandomTile(availableTiles);
@@ -57,6 +101,48 @@ public class Computer extends Player {
         throw new NoValidComputerMoveFoundException("Could not find any valid moves for computer to play!");
     }
 
+    /**
+     * Looks the move up in the opening book and the endgame tablebase, or searches it with the search engine.
+     */
+    private Optional<Move> findKnownMove(Board board, List<MoveRule> enabledRules) {
+        RuleSet rules = RuleSet.from(enabledRules);
+        int size = board.getNumberOfRowsAndColumns();
+        boolean useOpeningBook = this.openingBook != null && this.openingBook.supports(size, rules);
+        boolean useTablebase = this.tablebase != null && this.tablebase.supports(size, rules);
+        boolean useSearchEngine = this.searchEngine != null;
+        if (!rules.isSupported() || (!useOpeningBook && !useTablebase && !useSearchEngine)) {
+            return Optional.empty();
+        }
+
+        Position position = Position.from(board, this.getColor());
+        MoveGenerator generator = new MoveGenerator(rules);
+        int move = PackedMove.NONE;
+
+        if (useOpeningBook) {
+            move = this.openingBook.selectMove(position, generator, this.random);
+        }
+
+        if (move == PackedMove.NONE && useTablebase) {
+            move = this.tablebase.findBestMove(position, generator);
+        }
+
+        if (move == PackedMove.NONE && useSearchEngine) {
+            move = this.searchEngine.search(position, this.searchLimits);
+        }
+
+        if (move == PackedMove.NONE) {
+            return Optional.empty();
+        }
+
+        try {
+            logger.debug("Playing move {}", PackedMove.toString(move));
+            return Optional.of(PackedMove.toMove(move, position.getGeometry(), board, this));
+        } catch (InvalidBoardPositionException e) {
+            logger.error("Could not convert the move", e);
+            return Optional.empty();
+        }
+    }
+
     private List<Tile> findAvailableTiles(Board board) {
         return board.getTiles().stream()
                 .filter(Tile::isOccupied)
@@ -66,11 +152,81 @@ public class Computer extends Player {
     }
 
     private Tile selectRandomTile(List<Tile> tiles) {
-        return tiles.get(ThreadLocalRandom.current().nextInt(0, tiles.size()));
+        return tiles.get(this.random.nextInt(tiles.size()));
     }
 
     private Move selectRandomMove(List<Move> moves) {
-        return moves.get(ThreadLocalRandom.current().nextInt(0, moves.size()));
+        return moves.get(this.random.nextInt(moves.size()));
+
+    }
 
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Sets the engine used to search moves which are neither in the opening book nor in the tablebase.
+     *
+     * @param searchEngine The engine, or null to play random moves.
+     * @param searchLimits The limits of each search.
+     */
+    public void setSearchEngine(SearchEngine searchEngine, SearchLimits searchLimits) {
+        this.searchEngine = searchEngine;
+        this.searchLimits = searchLimits;
+    }
+
+    /**
+     * Enables thinking on the opponent's time, see {@link #startPondering(Board, List)}. Requires a search engine.
+     *
+     * @param enabled Whether the computer should ponder.
+     */
+    public void setPonderingEnabled(boolean enabled) {
+        if (this.ponderer != null) {
+            this.ponderer.shutdown();
+            this.ponderer = null;
+        }
+
+        if (enabled && this.searchEngine != null) {
+            this.ponderer = new Ponderer(this.searchEngine);
+        }
+    }
+
+    /**
+     * Lets the search engine think about the opponent's position in the background while the opponent is choosing
+     * their move. The engine then reuses the results, when it searches the position after the opponent's move.
+     *
+     * @param board        The board with the opponent to move.
+     * @param enabledRules A list of rules that are enabled.
+     */
+    public void startPondering(Board board, List<MoveRule> enabledRules) {
+        if (this.ponderer == null || !RuleSet.from(enabledRules).isSupported()) {
+            return;
+        }
+
+        this.ponderer.start(Position.from(board, Position.opponentOf(this.getColor())));
+    }
+
+    /**
+     * Stops thinking on the opponent's time.
+     */
+    public void stopPondering() {
+        if (this.ponderer != null) {
+            this.ponderer.stop();
+        }
+    }
+
+    /**
+     * Stops pondering and makes the search engine forget the previous game, eg. when the game is restarted.
+     */
+    public void resetSearch() {
+        this.stopPondering();
+
+        if (this.searchEngine != null) {
+            this.searchEngine.reset();
+        }
     }
 }
@@ -413,6 +413,13 @@ public class Board {
         return this.tiles[position.getRow()][position.getCol()];
     }
 
+    /**
+     * Returns a tile without checking the position, for loading and saving whole boards in one pass.
+     */
+    Tile tileAt(int row, int col) {
+        return this.tiles[row][col];
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -0,0 +1,306 @@
+package ch.ffhs.ftoop.bridge.dame.game.board;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A position written in the FEN notation of the Portable Draughts Notation, eg. {@code B:W21,22,K30:B1-4,K9}: the
+ * player to move, followed by the squares of the light ("W") and of the dark ("B") pieces, kings marked with a "K".
+ * Squares are numbered from 1, row by row from the top, over the dark tiles only; dark moves first and starts on the
+ * squares 1 to 12 of a board with 8 rows. Ranges of squares like {@code 1-4} may be used.
+ * <p>
+ * Reading and writing a notation as well as putting it onto a {@link Board} each take a single pass, without the
+ * checks and logging of {@link Board#setPiece}, so millions of positions can be loaded quickly.
+ */
+public final class BoardNotation {
+    private static final char DARK = 'B';
+    private static final char LIGHT = 'W';
+    private static final char KING = 'K';
+
+    private final int numberOfRowsAndColumns;
+    private final PieceColor sideToMove;
+    private final PieceColor[] colors;
+    private final boolean[] kings;
+
+    /**
+     * Creates the notation of a position.
+     *
+     * @param numberOfRowsAndColumns The size of the board.
+     * @param sideToMove             The color of the player who moves next.
+     * @param colors                 The color of the piece on every square, null for an empty square.
+     * @param kings                  Whether the piece on a square is a king.
+     */
+    public BoardNotation(int numberOfRowsAndColumns, PieceColor sideToMove, PieceColor[] colors, boolean[] kings) {
+        checkArgument(colors.length == numberOfRowsAndColumns * numberOfRowsAndColumns / 2, "One color per square is needed");
+        checkArgument(kings.length == colors.length, "One king flag per square is needed");
+
+        this.numberOfRowsAndColumns = numberOfRowsAndColumns;
+        this.sideToMove = checkNotNull(sideToMove);
+        this.colors = colors.clone();
+        this.kings = kings.clone();
+    }
+
+    private BoardNotation(int numberOfRowsAndColumns, PieceColor sideToMove) {
+        int numberOfSquares = numberOfRowsAndColumns * numberOfRowsAndColumns / 2;
+
+        this.numberOfRowsAndColumns = numberOfRowsAndColumns;
+        this.sideToMove = sideToMove;
+        this.colors = new PieceColor[numberOfSquares];
+        this.kings = new boolean[numberOfSquares];
+    }
+
+    /**
+     * Reads a notation.
+     *
+     * @param notation               The notation.
+     * @param numberOfRowsAndColumns The size of the board.
+     * @return The position.
+     * @throws InvalidBoardNotationException Thrown if the notation is invalid or does not fit onto the board.
+     */
+    public static BoardNotation parse(String notation, int numberOfRowsAndColumns) throws InvalidBoardNotationException {
+        checkNotNull(notation);
+        checkArgument(numberOfRowsAndColumns > 0 && numberOfRowsAndColumns % 2 == 0, "Invalid board size");
+
+        Parser parser = new Parser(notation.trim());
+        BoardNotation position = new BoardNotation(numberOfRowsAndColumns, parser.color());
+
+        while (parser.hasMore()) {
+            parser.expect(':');
+            PieceColor color = parser.color();
+
+            while (parser.hasMore() && !parser.next(':')) {
+                boolean king = parser.skip(KING);
+                int first = parser.square(position.colors.length);
+                int last = first;
+                if (parser.skip('-')) {
+                    parser.skip(KING);
+                    last = parser.square(position.colors.length);
+                    if (last < first) {
+                        throw parser.invalid("Empty range of squares");
+                    }
+                }
+
+                for (int square = first; square <= last; square++) {
+                    if (position.colors[square] != null) {
+                        throw parser.invalid("Square " + (square + 1) + " is occupied twice");
+                    }
+
+                    position.colors[square] = color;
+                    position.kings[square] = king;
+                }
+
+                if (!parser.skip(',')) {
+                    break;
+                }
+            }
+        }
+
+        return position;
+    }
+
+    /**
+     * Writes down the pieces on a board. Pieces on light tiles cannot be written and are left out.
+     *
+     * @param board      The board.
+     * @param sideToMove The color of the player who moves next.
+     * @return The position.
+     */
+    public static BoardNotation of(Board board, PieceColor sideToMove) {
+        checkNotNull(board);
+        checkNotNull(sideToMove);
+
+        int size = board.getNumberOfRowsAndColumns();
+        BoardNotation position = new BoardNotation(size, sideToMove);
+        int square = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = row % 2 == 0 ? 1 : 0; col < size; col += 2, square++) {
+                Piece piece = board.tileAt(row, col).getPiece();
+                if (piece != Piece.NONE) {
+                    position.colors[square] = piece.getColor();
+                    position.kings[square] = piece.isKing();
+                }
+            }
+        }
+
+        return position;
+    }
+
+    /**
+     * Puts the pieces onto a board, replacing all pieces on it.
+     *
+     * @param board The board, which must have the same size.
+     */
+    public void applyTo(Board board) {
+        checkArgument(board.getNumberOfRowsAndColumns() == this.numberOfRowsAndColumns, "The board must have %s rows",
+                this.numberOfRowsAndColumns);
+
+        int square = 0;
+        for (int row = 0; row < this.numberOfRowsAndColumns; row++) {
+            for (int col = 0; col < this.numberOfRowsAndColumns; col++) {
+                Tile tile = board.tileAt(row, col);
+                if (tile.getColor() != TileColor.DARK) {
+                    tile.setPiece(Piece.NONE);
+                    continue;
+                }
+
+                PieceColor color = this.colors[square];
+                Piece piece = Piece.NONE;
+                if (color != null) {
+                    piece = Piece.forColor(color);
+                    piece.setKing(this.kings[square]);
+                }
+
+                tile.setPiece(piece);
+                square++;
+            }
+        }
+    }
+
+    public int getNumberOfRowsAndColumns() {
+        return this.numberOfRowsAndColumns;
+    }
+
+    public int getNumberOfSquares() {
+        return this.colors.length;
+    }
+
+    public PieceColor getSideToMove() {
+        return this.sideToMove;
+    }
+
+    /**
+     * The color of the piece on a square.
+     *
+     * @param square The square, counted from 0.
+     * @return The color or null if the square is empty.
+     */
+    public PieceColor getColor(int square) {
+        return this.colors[square];
+    }
+
+    public boolean isKing(int square) {
+        return this.kings[square];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        BoardNotation that = (BoardNotation) o;
+        return numberOfRowsAndColumns == that.numberOfRowsAndColumns &&
+                sideToMove == that.sideToMove &&
+                Arrays.equals(colors, that.colors) &&
+                Arrays.equals(kings, that.kings);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Arrays.hashCode(colors) + Arrays.hashCode(kings)) + sideToMove.hashCode();
+    }
+
+    /**
+     * Writes the notation.
+     *
+     * @return The notation, eg. {@code B:W21,22,K30:B1,2,3,4,K9}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(4 * this.colors.length);
+        builder.append(this.sideToMove == PieceColor.DARK ? DARK : LIGHT);
+        this.appendSquares(builder, LIGHT, PieceColor.LIGHT);
+        this.appendSquares(builder, DARK, PieceColor.DARK);
+
+        return builder.toString();
+    }
+
+    private void appendSquares(StringBuilder builder, char prefix, PieceColor color) {
+        builder.append(':').append(prefix);
+
+        boolean first = true;
+        for (int square = 0; square < this.colors.length; square++) {
+            if (this.colors[square] == color) {
+                if (!first) {
+                    builder.append(',');
+                }
+
+                if (this.kings[square]) {
+                    builder.append(KING);
+                }
+
+                builder.append(square + 1);
+                first = false;
+            }
+        }
+    }
+
+    /**
+     * Reads a notation character by character.
+     */
+    private static final class Parser {
+        private final String notation;
+        private int index;
+
+        private Parser(String notation) {
+            this.notation = notation;
+        }
+
+        private boolean hasMore() {
+            // A notation may end with a period
+            return this.index < this.notation.length()
+                    && !(this.index == this.notation.length() - 1 && this.notation.charAt(this.index) == '.');
+        }
+
+        private boolean next(char c) {
+            return this.index < this.notation.length() && this.notation.charAt(this.index) == c;
+        }
+
+        private boolean skip(char c) {
+            if (this.next(c)) {
+                this.index++;
+                return true;
+            }
+
+            return false;
+        }
+
+        private void expect(char c) throws InvalidBoardNotationException {
+            if (!this.skip(c)) {
+                throw this.invalid("'" + c + "' expected");
+            }
+        }
+
+        private PieceColor color() throws InvalidBoardNotationException {
+            if (this.skip(DARK)) {
+                return PieceColor.DARK;
+            } else if (this.skip(LIGHT)) {
+                return PieceColor.LIGHT;
+            }
+
+            throw this.invalid("'" + DARK + "' or '" + LIGHT + "' expected");
+        }
+
+        private int square(int numberOfSquares) throws InvalidBoardNotationException {
+            int start = this.index;
+            int square = 0;
+            while (this.index < this.notation.length() && Character.isDigit(this.notation.charAt(this.index)) && this.index - start < 5) {
+                square = 10 * square + this.notation.charAt(this.index++) - '0';
+            }
+
+            if (this.index == start) {
+                throw this.invalid("Square expected");
+            }
+
+            if (square < 1 || square > numberOfSquares) {
+                throw this.invalid("Square " + square + " is not on the board");
+            }
+
+            return square - 1;
+        }
+
+        private InvalidBoardNotationException invalid(String message) {
+            return new InvalidBoardNotationException(String.format("%s at position %d of '%s'", message, this.index + 1, this.notation));
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package ch.ffhs.ftoop.bridge.dame.game.board;
+
+/**
+ * Indicates, that a position could not be read from its notation.
+ */
+public class InvalidBoardNotationException extends Exception {
+
+  public InvalidBoardNotationException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,38 @@
+package ch.ffhs.ftoop.bridge.dame.game.book;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A finished game the opening book is built from: the moves played from the initial position and the winner.
+ */
+public final class BookGame {
+    private final int[] moves;
+    private final PieceColor winner;
+
+    /**
+     * Creates a game.
+     *
+     * @param moves  The packed moves, starting with the first move of dark.
+     * @param winner The color of the winner, or null for a draw.
+     */
+    public BookGame(int[] moves, PieceColor winner) {
+        checkNotNull(moves);
+
+        this.moves = moves;
+        this.winner = winner;
+    }
+
+    public int[] getMoves() {
+        return this.moves;
+    }
+
+    public PieceColor getWinner() {
+        return this.winner;
+    }
+
+    public boolean isDraw() {
+        return this.winner == null;
+    }
+}
@@ -0,0 +1,54 @@
+package ch.ffhs.ftoop.bridge.dame.game.book;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+
+import java.util.Objects;
+
+/**
+ * A move of the opening book together with its weight: the higher the weight, the more successful the move has been
+ * in the games the book was built from.
+ */
+public final class BookMove {
+    private final int move;
+    private final int weight;
+
+    public BookMove(int move, int weight) {
+        this.move = move;
+        this.weight = weight;
+    }
+
+    /**
+     * The move, see {@link PackedMove}.
+     *
+     * @return The packed move.
+     */
+    public int getMove() {
+        return this.move;
+    }
+
+    public int getWeight() {
+        return this.weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        BookMove bookMove = (BookMove) o;
+        return move == bookMove.move &&
+                weight == bookMove.weight;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(move, weight);
+    }
+
+    @Override
+    public String toString() {
+        return "BookMove{" +
+                "move=" + PackedMove.toString(move) +
+                ", weight=" + weight +
+                '}';
+    }
+}
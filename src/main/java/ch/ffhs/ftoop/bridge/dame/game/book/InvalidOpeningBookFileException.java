@@ -0,0 +1,9 @@
+package ch.ffhs.ftoop.bridge.dame.game.book;
+
+import java.io.IOException;
+
+public class InvalidOpeningBookFileException extends IOException {
+    public InvalidOpeningBookFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,173 @@
+package ch.ffhs.ftoop.bridge.dame.game.book;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static ch.ffhs.ftoop.bridge.dame.game.book.OpeningBookFormat.ENTRY_SIZE;
+import static ch.ffhs.ftoop.bridge.dame.game.book.OpeningBookFormat.HASH_OFFSET;
+import static ch.ffhs.ftoop.bridge.dame.game.book.OpeningBookFormat.HEADER_SIZE;
+import static ch.ffhs.ftoop.bridge.dame.game.book.OpeningBookFormat.MOVE_OFFSET;
+import static ch.ffhs.ftoop.bridge.dame.game.book.OpeningBookFormat.WEIGHT_OFFSET;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The opening book, as built by the {@link OpeningBookBuilder}. The file is memory-mapped and searched in place, so
+ * opening even a large book is instant and costs no heap.
+ * <p>
+ * Probing is thread-safe.
+ */
+public class OpeningBook {
+    private static final Logger logger = LogManager.getLogger(OpeningBook.class);
+
+    private final BoardGeometry geometry;
+    private final RuleSet rules;
+    private final MappedByteBuffer buffer;
+    private final int numberOfEntries;
+
+    private OpeningBook(BoardGeometry geometry, RuleSet rules, MappedByteBuffer buffer, int numberOfEntries) {
+        this.geometry = geometry;
+        this.rules = rules;
+        this.buffer = buffer;
+        this.numberOfEntries = numberOfEntries;
+    }
+
+    /**
+     * Opens an opening book file.
+     *
+     * @param file The file.
+     * @return The opening book.
+     * @throws IOException Thrown if the file could not be read or is not a valid opening book.
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        checkNotNull(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new InvalidOpeningBookFileException(String.format("%s has an invalid size", file));
+            }
+
+            // The mapping stays valid after the channel has been closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != OpeningBookFormat.MAGIC || buffer.get(4) != OpeningBookFormat.VERSION) {
+                throw new InvalidOpeningBookFileException(String.format("%s is not an opening book of version %d", file, OpeningBookFormat.VERSION));
+            }
+
+            BoardGeometry geometry = BoardGeometry.of(buffer.getShort(5));
+            RuleSet rules = RuleSet.fromMask(buffer.get(7));
+            int numberOfEntries = buffer.getInt(8);
+            if (numberOfEntries < 0 || channel.size() != HEADER_SIZE + (long) numberOfEntries * ENTRY_SIZE) {
+                throw new InvalidOpeningBookFileException(String.format("%s is corrupt", file));
+            }
+
+            logger.info("Opened opening book with {} moves from {}", numberOfEntries, file);
+            return new OpeningBook(geometry, rules, buffer, numberOfEntries);
+        }
+    }
+
+    /**
+     * Checks, if the opening book can be used for games with the given board size and rules.
+     *
+     * @param numberOfRowsAndColumns The size of the board.
+     * @param rules                  The rules.
+     * @return Whether the book has been built for them.
+     */
+    public boolean supports(int numberOfRowsAndColumns, RuleSet rules) {
+        return this.geometry.getNumberOfRowsAndColumns() == numberOfRowsAndColumns && this.rules.equals(rules);
+    }
+
+    /**
+     * Looks up the moves of the book for the position. Moves that are not valid in the position are left out, so a
+     * (very unlikely) hash collision can never lead to an invalid move.
+     *
+     * @param position  The position.
+     * @param generator The generator for the valid moves, which must use the same rules as the book.
+     * @return The moves, ordered by descending weight; empty if the position is not in the book.
+     */
+    public List<BookMove> probe(Position position, MoveGenerator generator) {
+        long hash = position.getHash();
+        int entry = this.findFirstEntry(hash);
+        if (entry >= this.numberOfEntries || this.hashAt(entry) != hash) {
+            return new ArrayList<>();
+        }
+
+        int[] validMoves = generator.generateMoves(position);
+        List<BookMove> moves = new ArrayList<>();
+
+        for (; entry < this.numberOfEntries && this.hashAt(entry) == hash; entry++) {
+            int move = this.buffer.getInt(HEADER_SIZE + entry * ENTRY_SIZE + MOVE_OFFSET);
+            if (Arrays.stream(validMoves).anyMatch(valid -> valid == move)) {
+                moves.add(new BookMove(move, this.buffer.getInt(HEADER_SIZE + entry * ENTRY_SIZE + WEIGHT_OFFSET)));
+            }
+        }
+
+        return moves;
+    }
+
+    /**
+     * Selects one of the book moves of the position at random, with a probability proportional to its weight.
+     *
+     * @param position  The position.
+     * @param generator The generator for the valid moves, which must use the same rules as the book.
+     * @param random    The source of randomness.
+     * @return The move, or {@link PackedMove#NONE} if the position is not in the book.
+     */
+    public int selectMove(Position position, MoveGenerator generator, Random random) {
+        List<BookMove> moves = this.probe(position, generator);
+        long totalWeight = moves.stream().mapToLong(BookMove::getWeight).sum();
+        if (totalWeight <= 0) {
+            return PackedMove.NONE;
+        }
+
+        long selected = (long) (random.nextDouble() * totalWeight);
+        for (BookMove move : moves) {
+            selected -= move.getWeight();
+            if (selected < 0) {
+                return move.getMove();
+            }
+        }
+
+        return moves.get(moves.size() - 1).getMove();
+    }
+
+    /**
+     * Binary search for the first entry with the given hash (or where it would have to be inserted).
+     */
+    private int findFirstEntry(long hash) {
+        int low = 0;
+        int high = this.numberOfEntries;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.hashAt(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    private long hashAt(int entry) {
+        return this.buffer.getLong(HEADER_SIZE + entry * ENTRY_SIZE + HASH_OFFSET);
+    }
+
+    public int getNumberOfEntries() {
+        return this.numberOfEntries;
+    }
+}
@@ -0,0 +1,231 @@
+package ch.ffhs.ftoop.bridge.dame.game.book;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Builds an {@link OpeningBook} from finished games. For every position of the first plies of each game, the move
+ * played is credited with a weight of 2 if the player making it went on to win the game, 1 for a draw and nothing for
+ * a loss. Games can be added from many threads at once, the statistics are aggregated in concurrent maps.
+ */
+public class OpeningBookBuilder {
+    private static final Logger logger = LogManager.getLogger(OpeningBookBuilder.class);
+
+    private static final int WIN_WEIGHT = 2;
+    private static final int DRAW_WEIGHT = 1;
+    private static final int DEFAULT_NUMBER_OF_GAMES = 100000;
+    private static final int DEFAULT_MAX_PLIES = 12;
+    private static final int DEFAULT_MIN_WEIGHT = 10;
+    private static final int MAX_SELF_PLAY_PLIES = 300;
+
+    private final Position initialPosition;
+    private final RuleSet rules;
+    private final MoveGenerator generator;
+    private final int maxPlies;
+    private final Map<Long, Map<Integer, LongAdder>> statistics = new ConcurrentHashMap<>();
+    private final LongAdder numberOfGames = new LongAdder();
+
+    /**
+     * Creates a builder.
+     *
+     * @param initialPosition The position all games start from.
+     * @param rules           The rules the games have been played with.
+     * @param maxPlies        The number of plies of each game that are added to the book.
+     */
+    public OpeningBookBuilder(Position initialPosition, RuleSet rules, int maxPlies) {
+        checkNotNull(initialPosition);
+        checkArgument(maxPlies > 0, "The book must contain at least one ply");
+
+        this.initialPosition = initialPosition.copy();
+        this.rules = rules;
+        this.generator = new MoveGenerator(rules);
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Adds all games of the stream, which is processed in parallel.
+     *
+     * @param games The games.
+     */
+    public void addGames(Stream<BookGame> games) {
+        games.parallel().forEach(this::addGame);
+    }
+
+    /**
+     * Adds a single game.
+     *
+     * @param game The game.
+     */
+    public void addGame(BookGame game) {
+        Position position = this.initialPosition.copy();
+        int[] moves = game.getMoves();
+
+        for (int ply = 0; ply < Math.min(this.maxPlies, moves.length); ply++) {
+            int move = moves[ply];
+            checkArgument(this.isValid(position, move), "Move %s is not valid in position\n%s", PackedMove.toString(move), position);
+
+            int weight = game.isDraw() ? DRAW_WEIGHT : (game.getWinner() == position.getSideToMove() ? WIN_WEIGHT : 0);
+            if (weight > 0) {
+                this.statistics.computeIfAbsent(position.getHash(), hash -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(move, m -> new LongAdder())
+                        .add(weight);
+            }
+
+            position.doMove(move);
+        }
+
+        this.numberOfGames.increment();
+    }
+
+    private boolean isValid(Position position, int move) {
+        for (int valid : this.generator.generateMoves(position)) {
+            if (valid == move) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Writes the book, leaving out all moves with a smaller weight than the given one.
+     *
+     * @param file      The file to write to.
+     * @param minWeight The minimum weight of a move to be included.
+     * @throws IOException Thrown if the file could not be written.
+     */
+    public void write(Path file, int minWeight) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        this.statistics.forEach((hash, moves) -> moves.forEach((move, weight) -> {
+            if (weight.sum() >= minWeight) {
+                entries.add(new Entry(hash, move, (int) Math.min(Integer.MAX_VALUE, weight.sum())));
+            }
+        }));
+        entries.sort(Comparator.comparingLong((Entry entry) -> entry.hash).thenComparing(Comparator.comparingInt((Entry entry) -> entry.weight).reversed()));
+
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            out.writeInt(OpeningBookFormat.MAGIC);
+            out.writeByte(OpeningBookFormat.VERSION);
+            out.writeShort(this.initialPosition.getGeometry().getNumberOfRowsAndColumns());
+            out.writeByte(this.rules.getMask());
+            out.writeInt(entries.size());
+            out.write(new byte[OpeningBookFormat.HEADER_SIZE - out.size()]);
+
+            for (Entry entry : entries) {
+                out.writeLong(entry.hash);
+                out.writeInt(entry.move);
+                out.writeInt(entry.weight);
+            }
+        }
+
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+        logger.info("Wrote opening book with {} moves in {} positions from {} games to {}", entries.size(),
+                entries.stream().mapToLong(entry -> entry.hash).distinct().count(), this.numberOfGames.sum(), file);
+    }
+
+    /**
+     * Plays a game with random moves, until a player cannot move anymore (and loses) or the maximum number of plies
+     * has been reached (a draw).
+     *
+     * @param seed The seed for the random moves.
+     * @return The game.
+     */
+    BookGame playRandomGame(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Position position = this.initialPosition.copy();
+        int[] moves = new int[MoveGenerator.maxMoves(position.getGeometry())];
+        int[] played = new int[MAX_SELF_PLAY_PLIES];
+
+        for (int ply = 0; ply < MAX_SELF_PLAY_PLIES; ply++) {
+            int count = this.generator.generateMoves(position, moves);
+            if (count == 0) {
+                return new BookGame(Arrays.copyOf(played, ply), Position.opponentOf(position.getSideToMove()));
+            }
+
+            played[ply] = moves[random.nextInt(count)];
+            position.doMove(played[ply]);
+        }
+
+        return new BookGame(played, null);
+    }
+
+    /**
+     * Builds an opening book from the command line, out of games played by random self-play.
+     *
+     * @param args The file to write to, optionally followed by the number of games, the number of plies per game, and
+     *             the game configuration file.
+     * @throws ConfigurationException                  Thrown if the game configuration could not be loaded.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws IOException                             Thrown if the file could not be written.
+     */
+    public static void main(String[] args) throws ConfigurationException, InvalidBoardDimensionsException, InvalidNumberOfPiecesPerPlayerException, IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: OpeningBookBuilder <file> [number of games] [plies] [game configuration]");
+            System.exit(1);
+        }
+
+        Path file = Paths.get(args[0]);
+        int numberOfGames = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUMBER_OF_GAMES;
+        int maxPlies = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLIES;
+        GameConfig config = args.length > 3 ? new GameConfig(args[3]) : new GameConfig();
+
+        RuleSet rules = RuleSet.from(config.getEnabledRules());
+        if (!rules.isSupported()) {
+            logger.error("The enabled rules {} are not supported by the engine", config.getEnabledRules());
+            System.exit(1);
+        }
+
+        Board board = new Board(config.getNumberOfRowsAndColumnsOfBoard());
+        board.populateWithInitialPieces(config.getNumberOfPiecesPerPlayer());
+        OpeningBookBuilder builder = new OpeningBookBuilder(Position.from(board, PieceColor.DARK), rules, maxPlies);
+
+        logger.info("Playing {} games for the opening book", numberOfGames);
+        builder.addGames(IntStream.range(0, numberOfGames).parallel().mapToObj(builder::playRandomGame));
+        builder.write(file, DEFAULT_MIN_WEIGHT);
+    }
+
+    private static final class Entry {
+        private final long hash;
+        private final int move;
+        private final int weight;
+
+        private Entry(long hash, int move, int weight) {
+            this.hash = hash;
+            this.move = move;
+            this.weight = weight;
+        }
+    }
+}
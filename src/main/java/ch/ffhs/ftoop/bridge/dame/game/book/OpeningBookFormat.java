@@ -0,0 +1,21 @@
+package ch.ffhs.ftoop.bridge.dame.game.book;
+
+/**
+ * Layout of the opening book file. A fixed size header is followed by fixed size entries, each of them a position
+ * hash (see {@link ch.ffhs.ftoop.bridge.dame.game.engine.Position#getHash()}), a packed move and its weight. The
+ * entries are sorted by hash (as signed longs) and, for the same hash, by descending weight, so all moves of a position
+ * are stored next to each other and can be found with a binary search.
+ */
+final class OpeningBookFormat {
+    static final int MAGIC = 0x444F4231; // "DOB1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    static final int ENTRY_SIZE = 16;
+    static final int HASH_OFFSET = 0;
+    static final int MOVE_OFFSET = 8;
+    static final int WEIGHT_OFFSET = 12;
+
+    private OpeningBookFormat() {
+    }
+}
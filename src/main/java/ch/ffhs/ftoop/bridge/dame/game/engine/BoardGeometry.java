@@ -0,0 +1,232 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Describes the layout of the dark squares of a board of a given size. Only dark tiles can ever hold a piece, so the
+ * engine numbers just those: square 0 is the first dark tile of row 0, counting from left to right and top to bottom.
+ * The geometry also precomputes, for every square, the squares along each of the four diagonals, so the move generator
+ * never has to do any coordinate arithmetic. Finally it holds the random keys used to hash positions, which are
+ * derived from a fixed seed, so hashes are the same in every run and can be stored in files.
+ * <p>
+ * Geometries are immutable and shared, use {@link #of(int)} to obtain one.
+ */
+public final class BoardGeometry {
+    /**
+     * Diagonal directions as column/row deltas: down-right, down-left, up-right, up-left.
+     */
+    public static final int[] DIRECTION_COL_DELTAS = {1, -1, 1, -1};
+    public static final int[] DIRECTION_ROW_DELTAS = {1, 1, -1, -1};
+    public static final int NUMBER_OF_DIRECTIONS = 4;
+
+    private static final Map<Integer, BoardGeometry> GEOMETRIES = new ConcurrentHashMap<>();
+    private static final long ZOBRIST_SEED = 0x44616D65L; // "Dame"
+    private static final int ZOBRIST_KEYS_PER_SQUARE = 8; // Covers all piece codes of the position
+
+    private final int numberOfRowsAndColumns;
+    private final int numberOfSquares;
+    private final int squaresPerRow;
+    private final int[] cols;
+    private final int[] rows;
+    private final int[][][] rays; // [square][direction][step]
+    private final long[] zobristKeys; // [square * ZOBRIST_KEYS_PER_SQUARE + piece]
+    private final long sideToMoveKey;
+
+    private BoardGeometry(int numberOfRowsAndColumns) {
+        this.numberOfRowsAndColumns = numberOfRowsAndColumns;
+        this.squaresPerRow = numberOfRowsAndColumns / 2;
+        this.numberOfSquares = numberOfRowsAndColumns * this.squaresPerRow;
+        this.cols = new int[this.numberOfSquares];
+        this.rows = new int[this.numberOfSquares];
+        this.rays = new int[this.numberOfSquares][NUMBER_OF_DIRECTIONS][];
+
+        for (int square = 0; square < this.numberOfSquares; square++) {
+            int row = square / this.squaresPerRow;
+            // Dark tiles are on odd columns of even rows and on even columns of odd rows (see Board)
+            int col = 2 * (square % this.squaresPerRow) + (row % 2 == 0 ? 1 : 0);
+            this.cols[square] = col;
+            this.rows[square] = row;
+        }
+
+        for (int square = 0; square < this.numberOfSquares; square++) {
+            for (int direction = 0; direction < NUMBER_OF_DIRECTIONS; direction++) {
+                this.rays[square][direction] = this.calculateRay(square, direction);
+            }
+        }
+
+        SplittableRandom random = new SplittableRandom(ZOBRIST_SEED + numberOfRowsAndColumns);
+        this.zobristKeys = new long[this.numberOfSquares * ZOBRIST_KEYS_PER_SQUARE];
+        for (int square = 0; square < this.numberOfSquares; square++) {
+            // The empty square (piece code 0) keeps the key 0, so it does not change the hash
+            for (int piece = 1; piece < ZOBRIST_KEYS_PER_SQUARE; piece++) {
+                this.zobristKeys[square * ZOBRIST_KEYS_PER_SQUARE + piece] = random.nextLong();
+            }
+        }
+        this.sideToMoveKey = random.nextLong();
+    }
+
+    /**
+     * Returns the geometry for a board of the given size.
+     *
+     * @param numberOfRowsAndColumns The number of rows and columns of the board, must be a positive, even number.
+     * @return The (shared) geometry.
+     */
+    public static BoardGeometry of(int numberOfRowsAndColumns) {
+        if (numberOfRowsAndColumns <= 0 || numberOfRowsAndColumns % 2 != 0) {
+            throw new IllegalArgumentException(String.format("Invalid board size %d", numberOfRowsAndColumns));
+        }
+
+        return GEOMETRIES.computeIfAbsent(numberOfRowsAndColumns, BoardGeometry::new);
+    }
+
+    private int[] calculateRay(int square, int direction) {
+        int length = 0;
+        int col = this.cols[square] + DIRECTION_COL_DELTAS[direction];
+        int row = this.rows[square] + DIRECTION_ROW_DELTAS[direction];
+        int[] ray = new int[this.numberOfRowsAndColumns];
+
+        while (this.isOnBoard(col, row)) {
+            ray[length++] = this.squareAt(col, row);
+            col += DIRECTION_COL_DELTAS[direction];
+            row += DIRECTION_ROW_DELTAS[direction];
+        }
+
+        int[] trimmed = new int[length];
+        System.arraycopy(ray, 0, trimmed, 0, length);
+        return trimmed;
+    }
+
+    private boolean isOnBoard(int col, int row) {
+        return col >= 0 && col < this.numberOfRowsAndColumns && row >= 0 && row < this.numberOfRowsAndColumns;
+    }
+
+    /**
+     * Returns the square at the given column and row.
+     *
+     * @param col The column.
+     * @param row The row.
+     * @return The square or -1 if the position is outside the board or on a light tile.
+     */
+    public int squareAt(int col, int row) {
+        if (!this.isOnBoard(col, row) || (col + row) % 2 == 0) {
+            return -1;
+        }
+
+        return row * this.squaresPerRow + col / 2;
+    }
+
+    /**
+     * Returns the square for the given board position.
+     *
+     * @param position The position.
+     * @return The square or -1 if the position is outside the board or on a light tile.
+     */
+    public int squareAt(BoardPosition position) {
+        return this.squareAt(position.getCol(), position.getRow());
+    }
+
+    public BoardPosition positionOf(int square) {
+        return BoardPosition.from(this.cols[square], this.rows[square]);
+    }
+
+    public int colOf(int square) {
+        return this.cols[square];
+    }
+
+    public int rowOf(int square) {
+        return this.rows[square];
+    }
+
+    /**
+     * Returns all squares along a diagonal, starting with the direct neighbour of the given square.
+     *
+     * @param square    The square to start from (excluded).
+     * @param direction The direction, an index into {@link #DIRECTION_COL_DELTAS}.
+     * @return The squares, ordered by distance. The array is shared and must not be modified.
+     */
+    public int[] ray(int square, int direction) {
+        return this.rays[square][direction];
+    }
+
+    /**
+     * Determines in which diagonal direction {@code to} lies as seen from {@code from}.
+     *
+     * @param from The first square.
+     * @param to   The second square.
+     * @return The direction or -1 if the squares are not on a common diagonal.
+     */
+    public int directionBetween(int from, int to) {
+        int deltaCol = this.cols[to] - this.cols[from];
+        int deltaRow = this.rows[to] - this.rows[from];
+
+        if (deltaCol == 0 || Math.abs(deltaCol) != Math.abs(deltaRow)) {
+            return -1;
+        }
+
+        return (deltaRow > 0 ? 0 : 2) + (deltaCol > 0 ? 0 : 1);
+    }
+
+    /**
+     * Checks, if the direction is a forward direction for men of the given color. Dark starts at the top and moves
+     * downwards, light moves upwards.
+     *
+     * @param direction The direction.
+     * @param color     The color of the piece.
+     * @return Whether the direction is forward.
+     */
+    public static boolean isForward(int direction, PieceColor color) {
+        return (color == PieceColor.DARK) == (DIRECTION_ROW_DELTAS[direction] > 0);
+    }
+
+    /**
+     * Checks, if a square is on the kings row of the given color, see {@link ch.ffhs.ftoop.bridge.dame.game.board.Board#isKingsRow}.
+     *
+     * @param square The square.
+     * @param color  The color of the piece.
+     * @return Whether a man of this color becomes king when it lands on this square.
+     */
+    public boolean isKingsRow(int square, PieceColor color) {
+        if (color == PieceColor.DARK) {
+            return this.rows[square] == this.numberOfRowsAndColumns - 1;
+        }
+
+        return this.rows[square] == 0;
+    }
+
+    /**
+     * Returns the key of a piece on a square for hashing positions.
+     *
+     * @param square The square.
+     * @param piece  The piece code, see {@link Position}.
+     * @return The key, which is 0 for an empty square.
+     */
+    public long zobristKey(int square, byte piece) {
+        return this.zobristKeys[square * ZOBRIST_KEYS_PER_SQUARE + piece];
+    }
+
+    /**
+     * Returns the key that is part of the hash of positions with light to move.
+     *
+     * @return The key.
+     */
+    public long getSideToMoveKey() {
+        return this.sideToMoveKey;
+    }
+
+    public int getNumberOfRowsAndColumns() {
+        return this.numberOfRowsAndColumns;
+    }
+
+    public int getNumberOfSquares() {
+        return this.numberOfSquares;
+    }
+
+    public int getSquaresPerRow() {
+        return this.squaresPerRow;
+    }
+}
@@ -0,0 +1,59 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+/**
+ * The playing strength of the computer player. Each level limits the search by depth, nodes and time, and adds random
+ * noise to the evaluation, so weaker levels misjudge positions now and then.
+ * <p>
+ * The node budget is what makes the strength (and the CPU time used per move) predictable: unlike the time budget, it
+ * does not depend on the speed of the machine. Together with a fixed seed for the noise, a search with a node budget
+ * always finds the same move.
+ */
+public enum Difficulty {
+    BEGINNER(1, 500, 200, 150),
+    EASY(2, 5_000, 300, 80),
+    MEDIUM(4, 50_000, 500, 30),
+    HARD(8, 500_000, 1000, 10),
+    EXPERT((int) SearchLimits.UNLIMITED, 5_000_000, 3000, 0);
+
+    private final int maxDepth;
+    private final long maxNodes;
+    private final long maxTimeMillis;
+    private final int evaluationNoise;
+
+    Difficulty(int maxDepth, long maxNodes, long maxTimeMillis, int evaluationNoise) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.maxTimeMillis = maxTimeMillis;
+        this.evaluationNoise = evaluationNoise;
+    }
+
+    /**
+     * The limits of a search on this level.
+     *
+     * @return The limits.
+     */
+    public SearchLimits getLimits() {
+        return new SearchLimits(this.maxTimeMillis, this.maxNodes, this.maxDepth);
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    public long getMaxNodes() {
+        return this.maxNodes;
+    }
+
+    public long getMaxTimeMillis() {
+        return this.maxTimeMillis;
+    }
+
+    /**
+     * The maximum noise added to or subtracted from each evaluation, in hundredths of a man.
+     *
+     * @return The noise.
+     */
+    public int getEvaluationNoise() {
+        return this.evaluationNoise;
+    }
+}
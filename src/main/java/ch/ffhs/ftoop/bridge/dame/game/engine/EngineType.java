@@ -0,0 +1,22 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+/**
+ * The engines the computer player can use to find its moves.
+ */
+public enum EngineType {
+    /**
+     * Plays random valid moves, without any search.
+     */
+    RANDOM,
+
+    /**
+     * Alpha-beta search with an evaluation of positions, see
+     * {@link ch.ffhs.ftoop.bridge.dame.game.engine.alphabeta.AlphaBetaEngine}.
+     */
+    ALPHA_BETA,
+
+    /**
+     * Monte Carlo tree search, see {@link ch.ffhs.ftoop.bridge.dame.game.engine.mcts.MctsEngine}.
+     */
+    MCTS
+}
@@ -0,0 +1,222 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Estimates how good a position is for the player to move, in hundredths of a man. The evaluation is a weighted sum
+ * of a few features, each counted for dark minus the same count for light:
+ * <ol>
+ * <li>{@link #MEN}: the number of men</li>
+ * <li>{@link #KINGS}: the number of kings</li>
+ * <li>{@link #ADVANCEMENT}: the number of rows the men have advanced towards their kings row</li>
+ * <li>{@link #BACK_ROW}: the number of men still guarding their own back row against promotions</li>
+ * <li>{@link #CENTER}: the number of pieces in the center of the board</li>
+ * <li>{@link #EDGE}: the number of pieces on the left and right edge</li>
+ * </ol>
+ * As the evaluation is linear in its features, the weights can be tuned from played games, see {@link #features}, and
+ * loaded from a weights file, see {@link #load(Path)}.
+ * An evaluator is immutable (apart from an internal cache) and can be shared between threads.
+ */
+public final class Evaluator {
+    public static final int MEN = 0;
+    public static final int KINGS = 1;
+    public static final int ADVANCEMENT = 2;
+    public static final int BACK_ROW = 3;
+    public static final int CENTER = 4;
+    public static final int EDGE = 5;
+    public static final int NUMBER_OF_FEATURES = 6;
+
+    private static final String[] FEATURE_NAMES = {"men", "kings", "advancement", "back.row", "center", "edge"};
+    private static final int[] DEFAULT_WEIGHTS = {100, 160, 3, 10, 6, -4};
+    private static final int PIECE_CODES = 8;
+    private static final byte[] PIECES = {Position.DARK_MAN, Position.DARK_KING, Position.LIGHT_MAN, Position.LIGHT_KING};
+
+    private final int[] weights;
+    private final Map<BoardGeometry, int[]> valuesByPiece = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an evaluator with the given weights.
+     *
+     * @param weights One weight per feature.
+     */
+    public Evaluator(int[] weights) {
+        checkNotNull(weights);
+        checkArgument(weights.length == NUMBER_OF_FEATURES, "Expected %s weights, got %s", NUMBER_OF_FEATURES, weights.length);
+
+        this.weights = Arrays.copyOf(weights, weights.length);
+    }
+
+    /**
+     * Creates an evaluator with the built-in weights.
+     *
+     * @return The evaluator.
+     */
+    public static Evaluator withDefaultWeights() {
+        return new Evaluator(DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * Creates an evaluator with the weights of a weights file, as written by {@link #save(Path)}. The file is a
+     * properties file with one entry per feature, eg. {@code kings = 160}.
+     *
+     * @param file The weights file.
+     * @return The evaluator.
+     * @throws IOException Thrown if the file could not be read or a weight is missing or invalid.
+     */
+    public static Evaluator load(Path file) throws IOException {
+        checkNotNull(file);
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        int[] weights = new int[NUMBER_OF_FEATURES];
+        for (int i = 0; i < NUMBER_OF_FEATURES; i++) {
+            String weight = properties.getProperty(FEATURE_NAMES[i]);
+            if (weight == null) {
+                throw new InvalidWeightsFileException(String.format("%s has no weight for %s", file, FEATURE_NAMES[i]));
+            }
+
+            try {
+                weights[i] = Integer.parseInt(weight.trim());
+            } catch (NumberFormatException e) {
+                throw new InvalidWeightsFileException(String.format("%s has an invalid weight for %s: %s", file, FEATURE_NAMES[i], weight));
+            }
+        }
+
+        return new Evaluator(weights);
+    }
+
+    /**
+     * Writes the weights to a weights file, see {@link #load(Path)}.
+     *
+     * @param file The file to write, an existing one is replaced.
+     * @throws IOException Thrown if the file could not be written.
+     */
+    public void save(Path file) throws IOException {
+        checkNotNull(file);
+
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(String.format("# Weights of the evaluation in hundredths of a man%n"));
+            for (int i = 0; i < NUMBER_OF_FEATURES; i++) {
+                writer.write(String.format("%s = %d%n", FEATURE_NAMES[i], this.weights[i]));
+            }
+        }
+    }
+
+    /**
+     * Evaluates the position.
+     *
+     * @param position The position.
+     * @return The score from the perspective of the player to move, positive if they are better.
+     */
+    public int evaluate(Position position) {
+        // As the features are counted per piece, the weighted value of every piece on every square is looked up
+        int[] values = this.valuesByPiece.computeIfAbsent(position.getGeometry(), this::calculateValues);
+        int score = 0;
+
+        for (int square = 0; square < values.length / PIECE_CODES; square++) {
+            score += values[square * PIECE_CODES + position.get(square)];
+        }
+
+        return position.getSideToMove() == PieceColor.DARK ? score : -score;
+    }
+
+    private int[] calculateValues(BoardGeometry geometry) {
+        int[] values = new int[geometry.getNumberOfSquares() * PIECE_CODES];
+        int[] features = new int[NUMBER_OF_FEATURES];
+
+        for (int square = 0; square < geometry.getNumberOfSquares(); square++) {
+            for (byte piece : PIECES) {
+                Arrays.fill(features, 0);
+                addFeatures(geometry, square, piece, features);
+
+                for (int i = 0; i < NUMBER_OF_FEATURES; i++) {
+                    values[square * PIECE_CODES + piece] += this.weights[i] * features[i];
+                }
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * Counts the features of a position, from dark's perspective.
+     *
+     * @param position The position.
+     * @param features The array receiving one value per feature.
+     */
+    public static void features(Position position, int[] features) {
+        Arrays.fill(features, 0);
+
+        BoardGeometry geometry = position.getGeometry();
+        for (int square = 0; square < geometry.getNumberOfSquares(); square++) {
+            byte piece = position.get(square);
+            if (piece != Position.EMPTY) {
+                addFeatures(geometry, square, piece, features);
+            }
+        }
+    }
+
+    private static void addFeatures(BoardGeometry geometry, int square, byte piece, int[] features) {
+        int size = geometry.getNumberOfRowsAndColumns();
+        int centerStart = size / 4;
+        int centerEnd = size - size / 4;
+        int sign = (piece & Position.DARK) != 0 ? 1 : -1;
+        int row = geometry.rowOf(square);
+        int col = geometry.colOf(square);
+
+        if (Position.isKing(piece)) {
+            features[KINGS] += sign;
+        } else {
+            // Dark starts at the top and moves down, light the other way round
+            int advancedRows = sign > 0 ? row : size - 1 - row;
+            features[MEN] += sign;
+            features[ADVANCEMENT] += sign * advancedRows;
+            if (advancedRows == 0) {
+                features[BACK_ROW] += sign;
+            }
+        }
+
+        if (row >= centerStart && row < centerEnd && col >= centerStart && col < centerEnd) {
+            features[CENTER] += sign;
+        }
+
+        if (col == 0 || col == size - 1) {
+            features[EDGE] += sign;
+        }
+    }
+
+    public static String featureName(int feature) {
+        return FEATURE_NAMES[feature];
+    }
+
+    public int[] getWeights() {
+        return Arrays.copyOf(this.weights, this.weights.length);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Evaluator{");
+        for (int i = 0; i < NUMBER_OF_FEATURES; i++) {
+            builder.append(i == 0 ? "" : ", ").append(FEATURE_NAMES[i]).append('=').append(this.weights[i]);
+        }
+
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,9 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import java.io.IOException;
+
+public class InvalidWeightsFileException extends IOException {
+    public InvalidWeightsFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,222 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Generates all valid moves of a {@link Position}. It implements the very same rules as the
+ * {@link ch.ffhs.ftoop.bridge.dame.game.move.MoveRuleValidator}, but instead of validating every possible target tile
+ * on its own, it walks the four diagonals of each piece once. For a given position it finds exactly the moves the
+ * {@link ch.ffhs.ftoop.bridge.dame.game.move.MoveFinder} would find, only several orders of magnitude faster.
+ * <p>
+ * The generator is stateless and can be shared between threads.
+ */
+public final class MoveGenerator {
+    private final RuleSet rules;
+
+    /**
+     * Creates a generator for the given rules.
+     *
+     * @param rules The rules, which must be {@link RuleSet#isSupported() supported}.
+     */
+    public MoveGenerator(RuleSet rules) {
+        checkNotNull(rules);
+        checkArgument(rules.isSupported(), "The engine does not support the rules %s", rules);
+        this.rules = rules;
+    }
+
+    /**
+     * Returns the size a buffer passed to {@link #generateMoves(Position, int[])} must at least have for a board
+     * with the given geometry.
+     *
+     * @param geometry The geometry of the board.
+     * @return The size of the buffer.
+     */
+    public static int maxMoves(BoardGeometry geometry) {
+        // Each piece can at most reach every other square of its two diagonals
+        return geometry.getNumberOfSquares() * 2 * (geometry.getNumberOfRowsAndColumns() - 1);
+    }
+
+    /**
+     * Generates all valid moves for the side to move.
+     *
+     * @param position The position.
+     * @param moves    The buffer the moves are written to, see {@link #maxMoves(BoardGeometry)}.
+     * @return The number of moves written to the buffer.
+     */
+    public int generateMoves(Position position, int[] moves) {
+        return this.generateMoves(position, position.getSideToMove(), moves);
+    }
+
+    /**
+     * Generates all valid moves for the side to move.
+     *
+     * @param position The position.
+     * @return The moves.
+     */
+    public int[] generateMoves(Position position) {
+        int[] moves = new int[maxMoves(position.getGeometry())];
+        int count = this.generateMoves(position, moves);
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Generates all valid moves the player of the given color could play in the position, regardless of whose
+     * turn it is.
+     *
+     * @param position The position.
+     * @param color    The color of the player.
+     * @param moves    The buffer the moves are written to, see {@link #maxMoves(BoardGeometry)}.
+     * @return The number of moves written to the buffer.
+     */
+    public int generateMoves(Position position, PieceColor color, int[] moves) {
+        BoardGeometry geometry = position.getGeometry();
+        byte own = Position.colorCode(color);
+        int count = 0;
+
+        for (int square = 0; square < geometry.getNumberOfSquares(); square++) {
+            if ((position.get(square) & own) != 0) {
+                count = this.generateMovesFrom(position, square, moves, count);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks, if the player of the given color has any valid move.
+     *
+     * @param position The position.
+     * @param color    The color of the player.
+     * @return Whether a move is possible.
+     */
+    public boolean hasMoves(Position position, PieceColor color) {
+        BoardGeometry geometry = position.getGeometry();
+        byte own = Position.colorCode(color);
+        int[] moves = new int[2 * geometry.getNumberOfRowsAndColumns()];
+
+        for (int square = 0; square < geometry.getNumberOfSquares(); square++) {
+            if ((position.get(square) & own) != 0 && this.generateMovesFrom(position, square, moves, 0) > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Generates all valid moves of the piece on the given square.
+     *
+     * @param position The position.
+     * @param from     The square of the piece.
+     * @param moves    The buffer the moves are written to.
+     * @param offset   The index at which to start writing in the buffer.
+     * @return The new number of moves in the buffer (offset plus the moves written).
+     */
+    public int generateMovesFrom(Position position, int from, int[] moves, int offset) {
+        BoardGeometry geometry = position.getGeometry();
+        byte piece = position.get(from);
+        PieceColor color = Position.colorOf(piece);
+        byte own = Position.colorCode(color);
+        boolean king = Position.isKing(piece);
+        boolean mayMoveWithoutJumping = !this.rules.isCompulsoryJump() || this.isAllowedToMoveWithoutJumping(position, from, king);
+        int count = offset;
+
+        for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+            if (this.rules.isMustMoveForward() && !king && !BoardGeometry.isForward(direction, color)) {
+                continue;
+            }
+
+            int[] ray = geometry.ray(from, direction);
+            int occupiedBetween = 0;
+            int opponentsBetween = 0;
+            boolean ownBetween = false;
+            boolean alternating = true; // opponent, free, opponent, ... as required for (multi) jumps
+
+            for (int step = 0; step < ray.length; step++) {
+                int to = ray[step];
+                byte target = position.get(to);
+                int distance = step + 1;
+
+                if (target == Position.EMPTY) {
+                    if (occupiedBetween == 0) {
+                        if (mayMoveWithoutJumping && (!this.rules.isMustMoveCorrectDistance() || distance == 1)) {
+                            moves[count++] = PackedMove.of(from, to, 0, !king && geometry.isKingsRow(to, color));
+                        }
+                    } else if (this.isValidJump(distance, alternating, ownBetween)) {
+                        moves[count++] = PackedMove.of(from, to, opponentsBetween, !king && geometry.isKingsRow(to, color));
+                    }
+                }
+
+                // The target square lies between the piece and the squares further along the diagonal
+                boolean occupied = target != Position.EMPTY;
+                boolean opponent = occupied && (target & own) == 0;
+                alternating &= (step % 2 == 0) ? opponent : !occupied;
+
+                if (occupied) {
+                    occupiedBetween++;
+                    if (opponent) {
+                        opponentsBetween++;
+                    } else {
+                        ownBetween = true;
+                    }
+                }
+
+                // With distances enforced, nothing further along this diagonal can become valid
+                if (this.rules.isMustMoveCorrectDistance() && !alternating) {
+                    break;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private boolean isValidJump(int distance, boolean alternating, boolean ownBetween) {
+        if (this.rules.isMustMoveCorrectDistance() && (distance % 2 != 0 || !alternating)) {
+            return false;
+        }
+
+        return !this.rules.isMustOnlyJumpOverOpponents() || !ownBetween;
+    }
+
+    /**
+     * Implements the compulsory jump rule as the validator does: a piece can only move without jumping, if it has at
+     * least one direct neighbour and (unless it is a king) none of its neighbours could be jumped over, that is, none
+     * of them has a free diagonal neighbour of its own.
+     */
+    private boolean isAllowedToMoveWithoutJumping(Position position, int from, boolean king) {
+        BoardGeometry geometry = position.getGeometry();
+        boolean hasNeighbours = false;
+
+        for (int direction = 0; direction < BoardGeometry.NUMBER_OF_DIRECTIONS; direction++) {
+            int[] ray = geometry.ray(from, direction);
+            if (ray.length == 0 || position.isEmpty(ray[0])) {
+                continue;
+            }
+
+            hasNeighbours = true;
+            if (king) {
+                continue;
+            }
+
+            int neighbour = ray[0];
+            for (int neighbourDirection = 0; neighbourDirection < BoardGeometry.NUMBER_OF_DIRECTIONS; neighbourDirection++) {
+                int[] neighbourRay = geometry.ray(neighbour, neighbourDirection);
+                if (neighbourRay.length > 0 && position.isEmpty(neighbourRay[0])) {
+                    return false;
+                }
+            }
+        }
+
+        return hasNeighbours;
+    }
+
+    public RuleSet getRules() {
+        return this.rules;
+    }
+}
@@ -0,0 +1,121 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+
+/**
+ * The engine searches millions of moves, so it does not use {@link Move} objects but packs a move into a single int:
+ * <ul>
+ * <li>Bits 0-9: the square the piece is moved from</li>
+ * <li>Bits 10-19: the square the piece is moved to</li>
+ * <li>Bits 20-27: the number of opponent pieces captured</li>
+ * <li>Bit 28: set, if the piece becomes king with this move</li>
+ * </ul>
+ * Squares are numbered as described in {@link BoardGeometry}.
+ */
+public final class PackedMove {
+    /**
+     * Denotes "no move". As a piece must always move to a different square, no valid move packs to 0.
+     */
+    public static final int NONE = 0;
+
+    private static final int SQUARE_BITS = 10;
+    private static final int SQUARE_MASK = (1 << SQUARE_BITS) - 1;
+    private static final int CAPTURES_SHIFT = 2 * SQUARE_BITS;
+    private static final int CAPTURES_MASK = 0xFF;
+    private static final int PROMOTION_BIT = 1 << 28;
+
+    /**
+     * The highest number of squares a board may have to be played by the engine.
+     */
+    public static final int MAX_SQUARES = 1 << SQUARE_BITS;
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to, int captures, boolean promotion) {
+        return from
+                | (to << SQUARE_BITS)
+                | (Math.min(captures, CAPTURES_MASK) << CAPTURES_SHIFT)
+                | (promotion ? PROMOTION_BIT : 0);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> SQUARE_BITS) & SQUARE_MASK;
+    }
+
+    public static int captures(int move) {
+        return (move >>> CAPTURES_SHIFT) & CAPTURES_MASK;
+    }
+
+    public static boolean isCapture(int move) {
+        return captures(move) > 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION_BIT) != 0;
+    }
+
+    /**
+     * Checks, if two packed moves move the same piece between the same squares, ignoring the capture and promotion
+     * information (which is derived from the position).
+     *
+     * @param move  The first move.
+     * @param other The second move.
+     * @return Whether both describe the same move.
+     */
+    public static boolean isSameMove(int move, int other) {
+        return from(move) == from(other) && to(move) == to(other);
+    }
+
+    /**
+     * Converts a packed move into a move that can be played on the game's board.
+     *
+     * @param move     The packed move.
+     * @param geometry The geometry of the board.
+     * @param board    The board, from which the moved piece is taken.
+     * @param player   The player playing the move.
+     * @return The move.
+     * @throws InvalidBoardPositionException Thrown if the move does not fit the board.
+     */
+    public static Move toMove(int move, BoardGeometry geometry, Board board, Player player) throws InvalidBoardPositionException {
+        BoardPosition from = geometry.positionOf(from(move));
+        BoardPosition to = geometry.positionOf(to(move));
+
+        return Move.from(player, board.getTile(from).getPiece(), from, to);
+    }
+
+    /**
+     * Converts a move of the game into a packed move. Captures and promotion are not included.
+     *
+     * @param move     The move.
+     * @param geometry The geometry of the board.
+     * @return The packed move or {@link #NONE} if the move does not start or end on a dark tile.
+     */
+    public static int fromMove(Move move, BoardGeometry geometry) {
+        int from = geometry.squareAt(move.getFrom());
+        int to = geometry.squareAt(move.getTo());
+
+        if (from < 0 || to < 0) {
+            return NONE;
+        }
+
+        return of(from, to, 0, false);
+    }
+
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "-";
+        }
+
+        // Squares are printed 1-based as in the usual checkers notation
+        return (from(move) + 1) + (isCapture(move) ? "x" : "-") + (to(move) + 1);
+    }
+}
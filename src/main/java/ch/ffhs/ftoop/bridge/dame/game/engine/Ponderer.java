@@ -0,0 +1,82 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Lets a {@link SearchEngine} think on the opponent's time ("pondering"). While the opponent chooses their move, the
+ * engine searches their position in the background. Engines that keep their results between searches (like the tree
+ * of the Monte Carlo search) then already know a lot about the position after the opponent's move, when they have to
+ * search it for real.
+ */
+public class Ponderer {
+    private static final Logger logger = LogManager.getLogger(Ponderer.class);
+
+    // Pondering is always stopped by the opponent's move, the limit only ends forgotten searches eventually
+    private static final SearchLimits PONDER_LIMITS = SearchLimits.ofTime(TimeUnit.MINUTES.toMillis(10));
+
+    private final SearchEngine engine;
+    private final ExecutorService executor;
+    private Future<?> pondering;
+
+    public Ponderer(SearchEngine engine) {
+        checkNotNull(engine);
+
+        this.engine = engine;
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("ponder-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    /**
+     * Starts pondering on the given position, stopping any previous pondering.
+     *
+     * @param position The position with the opponent to move, which is copied.
+     */
+    public synchronized void start(Position position) {
+        checkNotNull(position);
+        this.stop();
+
+        Position copy = position.copy();
+        logger.debug("Start pondering");
+        this.pondering = this.executor.submit(() -> this.engine.search(copy, PONDER_LIMITS));
+    }
+
+    /**
+     * Stops pondering and waits until the pondering search has returned, so the engine can be used for a search right
+     * afterwards.
+     */
+    public synchronized void stop() {
+        if (this.pondering == null) {
+            return;
+        }
+
+        // Interrupting stops the search even if it has been submitted, but has not started to search yet
+        this.pondering.cancel(true);
+        this.engine.stop();
+        this.pondering = null;
+
+        // The executor has a single thread, so this task runs only once the pondering search has returned
+        Futures.getUnchecked(this.executor.submit(() -> {
+        }));
+        logger.debug("Stopped pondering");
+    }
+
+    /**
+     * Stops pondering and releases the thread.
+     */
+    public synchronized void shutdown() {
+        this.stop();
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,407 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A compact, mutable representation of the board together with the side to move, used by the engine. Where the
+ * {@link Board} models tiles and piece objects, the position stores one byte per dark square and supports playing and
+ * taking back {@link PackedMove}s without any allocation, which makes it suitable for searching. It also keeps a
+ * Zobrist hash of itself up to date, see {@link #getHash()}.
+ * <p>
+ * A position is not thread-safe; every thread searching needs its own copy, see {@link #copy()}.
+ */
+public final class Position {
+    public static final byte EMPTY = 0;
+    public static final byte DARK = 1;
+    public static final byte LIGHT = 2;
+    public static final byte KING = 4;
+    public static final byte DARK_MAN = DARK;
+    public static final byte DARK_KING = DARK | KING;
+    public static final byte LIGHT_MAN = LIGHT;
+    public static final byte LIGHT_KING = LIGHT | KING;
+
+    private static final int INITIAL_UNDO_CAPACITY = 64;
+
+    private final BoardGeometry geometry;
+    private final byte[] squares;
+    private PieceColor sideToMove;
+    private int darkPieces;
+    private int lightPieces;
+    private long hash;
+
+    // Undo information, one entry per played move
+    private int ply;
+    private int[] playedMoves = new int[INITIAL_UNDO_CAPACITY];
+    private byte[] movedPieces = new byte[INITIAL_UNDO_CAPACITY];
+    private int[] captureStarts = new int[INITIAL_UNDO_CAPACITY];
+    private long[] hashes = new long[INITIAL_UNDO_CAPACITY];
+    private int captureTop;
+    private int[] capturedSquares = new int[INITIAL_UNDO_CAPACITY];
+    private byte[] capturedPieces = new byte[INITIAL_UNDO_CAPACITY];
+
+    private Position(BoardGeometry geometry, byte[] squares, PieceColor sideToMove) {
+        this.geometry = geometry;
+        this.squares = squares;
+        this.sideToMove = sideToMove;
+        this.recount();
+        this.rehash();
+    }
+
+    /**
+     * Creates an empty position.
+     *
+     * @param geometry   The geometry of the board.
+     * @param sideToMove The color of the player who moves next.
+     * @return The position.
+     */
+    public static Position empty(BoardGeometry geometry, PieceColor sideToMove) {
+        checkNotNull(geometry);
+        checkNotNull(sideToMove);
+
+        return new Position(geometry, new byte[geometry.getNumberOfSquares()], sideToMove);
+    }
+
+    /**
+     * Creates a position from the game's board.
+     *
+     * @param board      The board.
+     * @param sideToMove The color of the player who moves next.
+     * @return The position.
+     */
+    public static Position from(Board board, PieceColor sideToMove) {
+        return from(BoardNotation.of(board, sideToMove));
+    }
+
+    /**
+     * Creates a position from its notation.
+     *
+     * @param notation The notation.
+     * @return The position.
+     */
+    public static Position from(BoardNotation notation) {
+        checkNotNull(notation);
+
+        BoardGeometry geometry = BoardGeometry.of(notation.getNumberOfRowsAndColumns());
+        Position position = empty(geometry, notation.getSideToMove());
+
+        for (int square = 0; square < geometry.getNumberOfSquares(); square++) {
+            PieceColor color = notation.getColor(square);
+            if (color != null) {
+                position.squares[square] = pieceCode(color, notation.isKing(square));
+            }
+        }
+
+        position.recount();
+        position.rehash();
+        return position;
+    }
+
+    /**
+     * Writes down this position, eg. to print or store it.
+     *
+     * @return The notation.
+     */
+    public BoardNotation toNotation() {
+        PieceColor[] colors = new PieceColor[this.squares.length];
+        boolean[] kings = new boolean[this.squares.length];
+        for (int square = 0; square < this.squares.length; square++) {
+            if (this.squares[square] != EMPTY) {
+                colors[square] = colorOf(this.squares[square]);
+                kings[square] = isKing(this.squares[square]);
+            }
+        }
+
+        return new BoardNotation(this.geometry.getNumberOfRowsAndColumns(), this.sideToMove, colors, kings);
+    }
+
+    /**
+     * Copies this position. The copy does not include the undo history.
+     *
+     * @return The copy.
+     */
+    public Position copy() {
+        return new Position(this.geometry, Arrays.copyOf(this.squares, this.squares.length), this.sideToMove);
+    }
+
+    private void recount() {
+        this.darkPieces = 0;
+        this.lightPieces = 0;
+
+        for (byte piece : this.squares) {
+            if ((piece & DARK) != 0) {
+                this.darkPieces++;
+            } else if ((piece & LIGHT) != 0) {
+                this.lightPieces++;
+            }
+        }
+    }
+
+    private void rehash() {
+        this.hash = this.sideToMove == PieceColor.LIGHT ? this.geometry.getSideToMoveKey() : 0;
+
+        for (int square = 0; square < this.squares.length; square++) {
+            this.hash ^= this.geometry.zobristKey(square, this.squares[square]);
+        }
+    }
+
+    public static byte pieceCode(PieceColor color, boolean king) {
+        byte code = (color == PieceColor.DARK) ? DARK : LIGHT;
+        return (byte) (king ? code | KING : code);
+    }
+
+    public static byte colorCode(PieceColor color) {
+        return (color == PieceColor.DARK) ? DARK : LIGHT;
+    }
+
+    public static PieceColor colorOf(byte piece) {
+        return (piece & DARK) != 0 ? PieceColor.DARK : PieceColor.LIGHT;
+    }
+
+    public static boolean isKing(byte piece) {
+        return (piece & KING) != 0;
+    }
+
+    public static PieceColor opponentOf(PieceColor color) {
+        return color == PieceColor.DARK ? PieceColor.LIGHT : PieceColor.DARK;
+    }
+
+    public byte get(int square) {
+        return this.squares[square];
+    }
+
+    /**
+     * Places a piece on a square (or empties it when passing {@link #EMPTY}).
+     *
+     * @param square The square.
+     * @param piece  The piece code.
+     */
+    public void set(int square, byte piece) {
+        byte previous = this.squares[square];
+        this.adjustCount(previous, -1);
+        this.put(square, piece);
+        this.adjustCount(piece, 1);
+    }
+
+    private void put(int square, byte piece) {
+        this.hash ^= this.geometry.zobristKey(square, this.squares[square]) ^ this.geometry.zobristKey(square, piece);
+        this.squares[square] = piece;
+    }
+
+    private void adjustCount(byte piece, int delta) {
+        if ((piece & DARK) != 0) {
+            this.darkPieces += delta;
+        } else if ((piece & LIGHT) != 0) {
+            this.lightPieces += delta;
+        }
+    }
+
+    /**
+     * Removes all pieces.
+     */
+    public void clear() {
+        Arrays.fill(this.squares, EMPTY);
+        this.darkPieces = 0;
+        this.lightPieces = 0;
+        this.ply = 0;
+        this.captureTop = 0;
+        this.rehash();
+    }
+
+    public boolean isEmpty(int square) {
+        return this.squares[square] == EMPTY;
+    }
+
+    public int count(PieceColor color) {
+        return color == PieceColor.DARK ? this.darkPieces : this.lightPieces;
+    }
+
+    /**
+     * Plays a move, which must be valid in this position (as returned by the {@link MoveGenerator}). Every opponent
+     * piece between the from- and to-square is captured, and a man that ends on its kings row becomes king, just as
+     * {@link ch.ffhs.ftoop.bridge.dame.game.Game#doMove} does.
+     *
+     * @param move The packed move.
+     */
+    public void doMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        byte piece = this.squares[from];
+        PieceColor color = colorOf(piece);
+        int opponent = colorCode(opponentOf(color));
+
+        this.ensureUndoCapacity();
+        this.playedMoves[this.ply] = move;
+        this.movedPieces[this.ply] = piece;
+        this.captureStarts[this.ply] = this.captureTop;
+        this.hashes[this.ply] = this.hash;
+        this.ply++;
+
+        this.put(from, EMPTY);
+
+        int direction = this.geometry.directionBetween(from, to);
+        if (direction >= 0) {
+            for (int square : this.geometry.ray(from, direction)) {
+                if (square == to) {
+                    break;
+                }
+
+                byte jumped = this.squares[square];
+                if ((jumped & opponent) != 0) {
+                    this.pushCapture(square, jumped);
+                    this.put(square, EMPTY);
+                    this.adjustCount(jumped, -1);
+                }
+            }
+        }
+
+        this.put(to, this.geometry.isKingsRow(to, color) ? (byte) (piece | KING) : piece);
+        this.sideToMove = opponentOf(this.sideToMove);
+        this.hash ^= this.geometry.getSideToMoveKey();
+    }
+
+    /**
+     * Takes back the last move played with {@link #doMove(int)}.
+     */
+    public void undoMove() {
+        if (this.ply == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+
+        this.ply--;
+        int move = this.playedMoves[this.ply];
+        this.squares[PackedMove.to(move)] = EMPTY;
+        this.squares[PackedMove.from(move)] = this.movedPieces[this.ply];
+
+        while (this.captureTop > this.captureStarts[this.ply]) {
+            this.captureTop--;
+            byte captured = this.capturedPieces[this.captureTop];
+            this.squares[this.capturedSquares[this.captureTop]] = captured;
+            this.adjustCount(captured, 1);
+        }
+
+        this.sideToMove = opponentOf(this.sideToMove);
+        this.hash = this.hashes[this.ply];
+    }
+
+    private void ensureUndoCapacity() {
+        if (this.ply == this.playedMoves.length) {
+            int capacity = this.playedMoves.length * 2;
+            this.playedMoves = Arrays.copyOf(this.playedMoves, capacity);
+            this.movedPieces = Arrays.copyOf(this.movedPieces, capacity);
+            this.captureStarts = Arrays.copyOf(this.captureStarts, capacity);
+            this.hashes = Arrays.copyOf(this.hashes, capacity);
+        }
+    }
+
+    private void pushCapture(int square, byte piece) {
+        if (this.captureTop == this.capturedSquares.length) {
+            int capacity = this.capturedSquares.length * 2;
+            this.capturedSquares = Arrays.copyOf(this.capturedSquares, capacity);
+            this.capturedPieces = Arrays.copyOf(this.capturedPieces, capacity);
+        }
+
+        this.capturedSquares[this.captureTop] = square;
+        this.capturedPieces[this.captureTop] = piece;
+        this.captureTop++;
+    }
+
+    /**
+     * Puts the pieces of this position onto the game's board, replacing all pieces on it.
+     *
+     * @param board The board, which must have the same size.
+     * @throws InvalidBoardPositionException Thrown if the board does not have the size of this position.
+     */
+    public void applyTo(Board board) throws InvalidBoardPositionException {
+        if (board.getNumberOfRowsAndColumns() != this.geometry.getNumberOfRowsAndColumns()) {
+            throw new InvalidBoardPositionException(String.format("The board must have %d rows", this.geometry.getNumberOfRowsAndColumns()));
+        }
+
+        this.toNotation().applyTo(board);
+    }
+
+    public BoardGeometry getGeometry() {
+        return this.geometry;
+    }
+
+    public PieceColor getSideToMove() {
+        return this.sideToMove;
+    }
+
+    public void setSideToMove(PieceColor sideToMove) {
+        checkNotNull(sideToMove);
+
+        if (sideToMove != this.sideToMove) {
+            this.sideToMove = sideToMove;
+            this.hash ^= this.geometry.getSideToMoveKey();
+        }
+    }
+
+    /**
+     * Returns the Zobrist hash of the position, which covers all pieces and the side to move. It is updated
+     * incrementally with every change, so it is cheap to call during a search.
+     *
+     * @return The hash.
+     */
+    public long getHash() {
+        return this.hash;
+    }
+
+    public BoardPosition positionOf(int square) {
+        return this.geometry.positionOf(square);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        Position position = (Position) o;
+        return this.geometry == position.geometry
+                && this.sideToMove == position.sideToMove
+                && Arrays.equals(this.squares, position.squares);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(this.squares) + this.sideToMove.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(this.sideToMove).append(" to move\n");
+
+        int size = this.geometry.getNumberOfRowsAndColumns();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int square = this.geometry.squareAt(col, row);
+                builder.append(square < 0 ? "□" : symbolOf(this.squares[square])).append(' ');
+            }
+            builder.append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    private static String symbolOf(byte piece) {
+        switch (piece) {
+            case DARK_MAN:
+                return "●";
+            case DARK_KING:
+                return "★";
+            case LIGHT_MAN:
+                return "○";
+            case LIGHT_KING:
+                return "☆";
+            default:
+                return "■";
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import ch.ffhs.ftoop.bridge.dame.game.move.MoveRule;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PIECE_MUST_BE_PLACED_ON_DARK_TILE;
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PIECE_MUST_BE_PLACED_ON_FREE_TILE;
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PIECE_MUST_COMPULSORY_JUMP_IF_OPPONENT_PIECE_NEARBY;
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PIECE_MUST_MOVE;
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PIECE_MUST_MOVE_CORRECT_DISTANCE;
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PIECE_MUST_MOVE_DIAGONALLY;
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PIECE_MUST_MOVE_FORWARD;
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PIECE_MUST_ONLY_JUMP_OVER_OPPONENT_PIECES;
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PIECE_MUST_STILL_BE_ON_BOARD;
+import static ch.ffhs.ftoop.bridge.dame.game.move.MoveRule.PLAYER_MUST_PLAY_OWN_PIECES;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The enabled game rules in the form the engine works with. The engine only models the positions that can come up
+ * when pieces move diagonally from dark tile to free dark tile, so these "core" rules must always be enabled for it to
+ * be used. The remaining rules are optional and are honoured exactly as the {@link ch.ffhs.ftoop.bridge.dame.game.move.MoveRuleValidator} does.
+ * {@link MoveRule#PLAYER_MUST_PLAY_PIECE} is irrelevant to the engine, as it never plays a move without a piece.
+ */
+public final class RuleSet {
+    private static final List<MoveRule> CORE_RULES = Arrays.asList(
+            PLAYER_MUST_PLAY_OWN_PIECES,
+            PIECE_MUST_MOVE,
+            PIECE_MUST_STILL_BE_ON_BOARD,
+            PIECE_MUST_BE_PLACED_ON_DARK_TILE,
+            PIECE_MUST_BE_PLACED_ON_FREE_TILE,
+            PIECE_MUST_MOVE_DIAGONALLY
+    );
+
+    private static final int FORWARD_BIT = 1;
+    private static final int CORRECT_DISTANCE_BIT = 1 << 1;
+    private static final int ONLY_OPPONENTS_BIT = 1 << 2;
+    private static final int COMPULSORY_JUMP_BIT = 1 << 3;
+
+    private final boolean supported;
+    private final boolean mustMoveForward;
+    private final boolean mustMoveCorrectDistance;
+    private final boolean mustOnlyJumpOverOpponents;
+    private final boolean compulsoryJump;
+
+    private RuleSet(boolean supported, int mask) {
+        this.supported = supported;
+        this.mustMoveForward = (mask & FORWARD_BIT) != 0;
+        this.mustMoveCorrectDistance = (mask & CORRECT_DISTANCE_BIT) != 0;
+        this.mustOnlyJumpOverOpponents = (mask & ONLY_OPPONENTS_BIT) != 0;
+        this.compulsoryJump = (mask & COMPULSORY_JUMP_BIT) != 0;
+    }
+
+    /**
+     * Creates the rule set for the given enabled rules.
+     *
+     * @param enabledRules The enabled rules, see {@link ch.ffhs.ftoop.bridge.dame.game.GameConfig#getEnabledRules()}.
+     * @return The rule set.
+     */
+    public static RuleSet from(List<MoveRule> enabledRules) {
+        checkNotNull(enabledRules);
+
+        int mask = 0;
+        mask |= enabledRules.contains(PIECE_MUST_MOVE_FORWARD) ? FORWARD_BIT : 0;
+        mask |= enabledRules.contains(PIECE_MUST_MOVE_CORRECT_DISTANCE) ? CORRECT_DISTANCE_BIT : 0;
+        mask |= enabledRules.contains(PIECE_MUST_ONLY_JUMP_OVER_OPPONENT_PIECES) ? ONLY_OPPONENTS_BIT : 0;
+        mask |= enabledRules.contains(PIECE_MUST_COMPULSORY_JUMP_IF_OPPONENT_PIECE_NEARBY) ? COMPULSORY_JUMP_BIT : 0;
+
+        return new RuleSet(enabledRules.containsAll(CORE_RULES), mask);
+    }
+
+    /**
+     * Restores a rule set from its mask, see {@link #getMask()}. The core rules are assumed to be enabled.
+     *
+     * @param mask The mask.
+     * @return The rule set.
+     */
+    public static RuleSet fromMask(int mask) {
+        return new RuleSet(true, mask);
+    }
+
+    /**
+     * Checks, if the engine can play with these rules. If not, callers have to fall back to the
+     * {@link ch.ffhs.ftoop.bridge.dame.game.move.MoveFinder}.
+     *
+     * @return Whether the engine supports the rules.
+     */
+    public boolean isSupported() {
+        return this.supported;
+    }
+
+    /**
+     * Encodes the optional rules as a bit mask, which is stored in the headers of files that depend on the rules.
+     *
+     * @return The mask.
+     */
+    public int getMask() {
+        return (this.mustMoveForward ? FORWARD_BIT : 0)
+                | (this.mustMoveCorrectDistance ? CORRECT_DISTANCE_BIT : 0)
+                | (this.mustOnlyJumpOverOpponents ? ONLY_OPPONENTS_BIT : 0)
+                | (this.compulsoryJump ? COMPULSORY_JUMP_BIT : 0);
+    }
+
+    public boolean isMustMoveForward() {
+        return this.mustMoveForward;
+    }
+
+    public boolean isMustMoveCorrectDistance() {
+        return this.mustMoveCorrectDistance;
+    }
+
+    public boolean isMustOnlyJumpOverOpponents() {
+        return this.mustOnlyJumpOverOpponents;
+    }
+
+    public boolean isCompulsoryJump() {
+        return this.compulsoryJump;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        RuleSet ruleSet = (RuleSet) o;
+        return this.supported == ruleSet.supported && this.getMask() == ruleSet.getMask();
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Boolean.hashCode(this.supported) + this.getMask();
+    }
+
+    @Override
+    public String toString() {
+        return "RuleSet{" +
+                "supported=" + supported +
+                ", mustMoveForward=" + mustMoveForward +
+                ", mustMoveCorrectDistance=" + mustMoveCorrectDistance +
+                ", mustOnlyJumpOverOpponents=" + mustOnlyJumpOverOpponents +
+                ", compulsoryJump=" + compulsoryJump +
+                '}';
+    }
+}
@@ -0,0 +1,52 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import ch.ffhs.ftoop.bridge.dame.game.observer.IterationFinishedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.SearchFinishedObserver;
+
+/**
+ * A search engine finds the best move of a {@link Position} within the given {@link SearchLimits}.
+ * <p>
+ * Only one search can run at a time, but {@link #stop()} may be called from any thread.
+ */
+public interface SearchEngine {
+    /**
+     * Searches the best move for the player to move. If the calling thread is interrupted, the search stops as if
+     * {@link #stop()} had been called and the interrupt flag is kept.
+     *
+     * @param position The position, which is left unchanged.
+     * @param limits   The limits of the search.
+     * @return The best move found, or {@link PackedMove#NONE} if there is no valid move.
+     */
+    int search(Position position, SearchLimits limits);
+
+    /**
+     * Stops the running search as soon as possible, which then returns the best move found so far.
+     */
+    void stop();
+
+    /**
+     * Forgets everything learned in previous searches, eg. when a new game starts.
+     */
+    void reset();
+
+    /**
+     * Registers an observer for when a search has finished, which receives the {@link SearchStats} of the search.
+     *
+     * @param observer The observer.
+     */
+    void registerSearchFinishedObserver(SearchFinishedObserver observer);
+
+    /**
+     * Registers an observer for when an iteration of a search has finished. A search can be paused between its
+     * iterations by blocking the observer, see {@link SearchScheduler}. Engines whose searches have no iterations never
+     * call the observer.
+     *
+     * @param observer The observer.
+     */
+    void registerIterationFinishedObserver(IterationFinishedObserver observer);
+
+    /**
+     * Releases all threads of the engine. It cannot be used anymore afterwards.
+     */
+    void shutdown();
+}
@@ -0,0 +1,117 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.engine.alphabeta.AlphaBetaEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.mcts.MctsEngine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Creates the {@link SearchEngine} configured in the {@link GameConfig}.
+ */
+public final class SearchEngines {
+    private static final Logger logger = LogManager.getLogger(SearchEngines.class);
+
+    private SearchEngines() {
+    }
+
+    /**
+     * Creates the configured engine.
+     *
+     * @param config The game configuration.
+     * @return The engine, or empty if the computer should play random moves or the enabled rules cannot be searched.
+     */
+    public static Optional<SearchEngine> create(GameConfig config) {
+        return create(config, config.getEngineThreads());
+    }
+
+    /**
+     * Creates the configured engine with the given number of search threads, eg. when several engines share the cores.
+     *
+     * @param config        The game configuration.
+     * @param engineThreads The number of threads of engines searching in parallel.
+     * @return The engine, or empty if the computer should play random moves or the enabled rules cannot be searched.
+     */
+    public static Optional<SearchEngine> create(GameConfig config, int engineThreads) {
+        return create(config, engineThreads, config.getComputerSeed(),
+                () -> new TranspositionTable(config.getEngineHashMegabytes()));
+    }
+
+    /**
+     * Creates the configured engine as one of several engines searching side by side, eg. on the workers of a server.
+     *
+     * @param config        The game configuration.
+     * @param engineThreads The number of threads of engines searching in parallel.
+     * @param seed          The seed of the evaluation noise or the playouts, which should differ between the engines.
+     * @param tables        Supplies the transposition table of an alpha-beta engine, which may be shared by all of them.
+     * @return The engine, or empty if the computer should play random moves or the enabled rules cannot be searched.
+     */
+    public static Optional<SearchEngine> create(GameConfig config, int engineThreads, long seed,
+                                                Supplier<TranspositionTable> tables) {
+        checkArgument(engineThreads > 0, "Number of engine threads must be positive");
+        checkNotNull(tables);
+
+        RuleSet rules = RuleSet.from(config.getEnabledRules());
+        if (config.getEngineType() == EngineType.RANDOM) {
+            return Optional.empty();
+        }
+
+        if (!rules.isSupported()) {
+            logger.warn("The enabled rules are not supported by the {} engine, playing random moves", config.getEngineType());
+            return Optional.empty();
+        }
+
+        Difficulty difficulty = config.getComputerDifficulty();
+        logger.info("Using {} engine on level {}", config.getEngineType(), difficulty);
+        switch (config.getEngineType()) {
+            case ALPHA_BETA:
+                return Optional.of(new AlphaBetaEngine(rules, evaluatorOf(config), tables.get(),
+                        difficulty.getEvaluationNoise(), seed));
+            case MCTS:
+                return Optional.of(new MctsEngine(rules, engineThreads, config.getMctsParallelism(), config.getMctsExploration(),
+                        seed));
+            default:
+                throw new IllegalArgumentException("Unknown engine type " + config.getEngineType());
+        }
+    }
+
+    /**
+     * The evaluation of positions of the configuration.
+     *
+     * @param config The game configuration.
+     * @return The evaluation with the configured weights, or the built-in weights if none are configured or they
+     * cannot be loaded.
+     */
+    public static Evaluator evaluatorOf(GameConfig config) {
+        if (config.getEvaluatorWeightsFile() == null) {
+            return Evaluator.withDefaultWeights();
+        }
+
+        try {
+            Evaluator evaluator = Evaluator.load(Paths.get(config.getEvaluatorWeightsFile()));
+            logger.info("Loaded evaluation weights {}", evaluator);
+            return evaluator;
+        } catch (IOException e) {
+            logger.warn("Could not load the evaluation weights, using the built-in weights", e);
+            return Evaluator.withDefaultWeights();
+        }
+    }
+
+    /**
+     * The limits of a search on the configured difficulty level.
+     *
+     * @param config The game configuration.
+     * @return The limits.
+     */
+    public static SearchLimits limitsOf(GameConfig config) {
+        return config.getComputerDifficulty().getLimits();
+    }
+}
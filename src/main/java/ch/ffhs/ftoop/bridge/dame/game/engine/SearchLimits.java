@@ -0,0 +1,94 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The limits of a search. A search stops as soon as any of its limits has been reached.
+ */
+public final class SearchLimits {
+    public static final long UNLIMITED = 0;
+
+    private final long maxTimeMillis;
+    private final long maxNodes;
+    private final int maxDepth;
+
+    /**
+     * Creates limits without a limit of the depth.
+     *
+     * @param maxTimeMillis The time the search may take, or {@link #UNLIMITED}.
+     * @param maxNodes      The number of nodes the search may visit (for Monte Carlo searches: the number of playouts),
+     *                      or {@link #UNLIMITED}.
+     */
+    public SearchLimits(long maxTimeMillis, long maxNodes) {
+        this(maxTimeMillis, maxNodes, (int) UNLIMITED);
+    }
+
+    /**
+     * Creates limits.
+     *
+     * @param maxTimeMillis The time the search may take, or {@link #UNLIMITED}.
+     * @param maxNodes      The number of nodes the search may visit (for Monte Carlo searches: the number of playouts),
+     *                      or {@link #UNLIMITED}.
+     * @param maxDepth      The number of plies searched at most, or {@link #UNLIMITED}. Ignored by Monte Carlo searches.
+     */
+    public SearchLimits(long maxTimeMillis, long maxNodes, int maxDepth) {
+        checkArgument(maxTimeMillis >= 0 && maxNodes >= 0 && maxDepth >= 0, "Limits must not be negative");
+        checkArgument(maxTimeMillis != UNLIMITED || maxNodes != UNLIMITED || maxDepth != UNLIMITED, "A search must be limited");
+
+        this.maxTimeMillis = maxTimeMillis;
+        this.maxNodes = maxNodes;
+        this.maxDepth = maxDepth;
+    }
+
+    public static SearchLimits ofTime(long maxTimeMillis) {
+        return new SearchLimits(maxTimeMillis, UNLIMITED);
+    }
+
+    public static SearchLimits ofNodes(long maxNodes) {
+        return new SearchLimits(UNLIMITED, maxNodes);
+    }
+
+    public static SearchLimits ofDepth(int maxDepth) {
+        return new SearchLimits(UNLIMITED, UNLIMITED, maxDepth);
+    }
+
+    /**
+     * Calculates when a search started now has to stop.
+     *
+     * @return The deadline as {@link System#nanoTime()}, or {@link Long#MAX_VALUE} if the time is not limited.
+     */
+    public long deadlineFromNow() {
+        return this.maxTimeMillis == UNLIMITED ? Long.MAX_VALUE : System.nanoTime() + this.maxTimeMillis * 1_000_000L;
+    }
+
+    /**
+     * Checks, if the given number of nodes is still within the limit.
+     *
+     * @param nodes The number of nodes.
+     * @return Whether the search may visit them.
+     */
+    public boolean allowsNodes(long nodes) {
+        return this.maxNodes == UNLIMITED || nodes <= this.maxNodes;
+    }
+
+    public long getMaxTimeMillis() {
+        return this.maxTimeMillis;
+    }
+
+    public long getMaxNodes() {
+        return this.maxNodes;
+    }
+
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchLimits{" +
+                "maxTimeMillis=" + maxTimeMillis +
+                ", maxNodes=" + maxNodes +
+                ", maxDepth=" + maxDepth +
+                '}';
+    }
+}
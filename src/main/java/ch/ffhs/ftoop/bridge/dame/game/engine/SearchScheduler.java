@@ -0,0 +1,206 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Shares the processors between the searches of many games, so a single deep search cannot starve all others.
+ * <p>
+ * At most the given number of searches run at the same time, which caps the processors used by the engines; all other
+ * searches wait. Waiting searches run in the order of their deadline, so the search of a player who is waiting for the
+ * move or short of time comes first, and searches with the same deadline in the order of the processor time they have
+ * used so far, so they share the processors fairly.
+ * <p>
+ * A running search keeps its slot for a quantum. Afterwards it gives way to a waiting search that comes before it, as
+ * soon as it finishes an iteration: the engine calls {@link #checkpoint()} between its iterations (see
+ * {@link SearchEngine#registerIterationFinishedObserver}), which pauses the search until it may run again. As the
+ * search keeps its thread and its engine while paused, the thread pool of the searches should be larger than the number
+ * of searches running at the same time.
+ * <p>
+ * The order only looks at the deadlines, not at how far away they are: a search with an earlier deadline always comes
+ * first, even if it has seconds to go and the later one only milliseconds. A search that is short of time therefore
+ * cannot preempt a long search of a game that has started to think earlier. Searches of engines that never call the
+ * observer cannot be paused at all and keep their slot until they have finished.
+ */
+public class SearchScheduler {
+    private static final Logger logger = LogManager.getLogger(SearchScheduler.class);
+    private static final Comparator<Ticket> ORDER = Comparator.<Ticket>comparingLong(ticket -> ticket.deadlineNanos)
+            .thenComparingLong(ticket -> ticket.usedNanos)
+            .thenComparingLong(ticket -> ticket.sequence);
+
+    private final int maxRunningSearches;
+    private final long quantumNanos;
+    private final PriorityQueue<Ticket> waiting = new PriorityQueue<>(ORDER);
+    private final ThreadLocal<Ticket> current = new ThreadLocal<>();
+    private int runningSearches;
+    private long sequence;
+    private long preemptions;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param maxRunningSearches The number of searches running at the same time.
+     * @param quantumMillis      The time a search runs at least, before it gives way to another one.
+     */
+    public SearchScheduler(int maxRunningSearches, long quantumMillis) {
+        checkArgument(maxRunningSearches > 0, "At least one search must be able to run");
+        checkArgument(quantumMillis > 0, "The quantum must be positive");
+
+        this.maxRunningSearches = maxRunningSearches;
+        this.quantumNanos = TimeUnit.MILLISECONDS.toNanos(quantumMillis);
+    }
+
+    /**
+     * Waits until a search of the calling thread may run.
+     *
+     * @param deadlineNanos When the result of the search is needed, as {@link System#nanoTime()}, or
+     *                      {@link Long#MAX_VALUE} for searches in the background.
+     * @return The ticket of the search, which must be closed by the same thread when the search has finished.
+     * @throws InterruptedException Thrown if the thread has been interrupted while waiting.
+     */
+    public Ticket start(long deadlineNanos) throws InterruptedException {
+        checkState(this.current.get() == null, "The thread is already searching");
+
+        Ticket ticket = new Ticket(deadlineNanos);
+        synchronized (this) {
+            ticket.sequence = this.sequence++;
+            this.await(ticket);
+        }
+
+        this.current.set(ticket);
+        return ticket;
+    }
+
+    /**
+     * Called by the searching thread between two iterations of its search. If the search has used up its quantum and
+     * another search waiting comes before it, it is paused until it may run again. Does nothing if the thread has not
+     * started a search with this scheduler.
+     */
+    public void checkpoint() {
+        Ticket ticket = this.current.get();
+        if (ticket == null) {
+            return;
+        }
+
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (!ticket.running || now - ticket.sliceStartNanos < this.quantumNanos) {
+                return;
+            }
+
+            ticket.usedNanos += now - ticket.sliceStartNanos;
+            ticket.sliceStartNanos = now;
+            Ticket next = this.waiting.peek();
+            if (next == null || ORDER.compare(next, ticket) > 0) {
+                return;
+            }
+
+            this.preemptions++;
+            ticket.running = false;
+            this.runningSearches--;
+            try {
+                this.await(ticket);
+            } catch (InterruptedException e) {
+                // The search stops when it sees the interrupt, without a slot
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Queues the ticket and waits until it runs. Called while holding the lock.
+     */
+    private void await(Ticket ticket) throws InterruptedException {
+        this.waiting.add(ticket);
+        this.grantSlots();
+
+        try {
+            while (!ticket.running) {
+                this.wait();
+            }
+        } catch (InterruptedException e) {
+            if (ticket.running) {
+                ticket.running = false;
+                this.runningSearches--;
+                this.grantSlots();
+            } else {
+                this.waiting.remove(ticket);
+            }
+            throw e;
+        }
+
+        ticket.sliceStartNanos = System.nanoTime();
+    }
+
+    private void grantSlots() {
+        boolean granted = false;
+        while (this.runningSearches < this.maxRunningSearches && !this.waiting.isEmpty()) {
+            this.waiting.poll().running = true;
+            this.runningSearches++;
+            granted = true;
+        }
+
+        if (granted) {
+            this.notifyAll();
+        }
+    }
+
+    private synchronized void finish(Ticket ticket) {
+        if (ticket.running) {
+            ticket.running = false;
+            ticket.usedNanos += System.nanoTime() - ticket.sliceStartNanos;
+            this.runningSearches--;
+            this.grantSlots();
+        }
+
+        logger.trace("Search finished after {} ms of processor time", ticket.usedNanos / 1000000);
+    }
+
+    public synchronized int getNumberOfRunningSearches() {
+        return this.runningSearches;
+    }
+
+    public synchronized int getNumberOfWaitingSearches() {
+        return this.waiting.size();
+    }
+
+    /**
+     * The number of times a search has been paused in favour of another one.
+     *
+     * @return The number of preemptions.
+     */
+    public synchronized long getNumberOfPreemptions() {
+        return this.preemptions;
+    }
+
+    /**
+     * A search started with the scheduler.
+     */
+    public final class Ticket implements AutoCloseable {
+        private final long deadlineNanos;
+        private long sequence;
+        private long usedNanos;
+        private long sliceStartNanos;
+        private boolean running;
+
+        private Ticket(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Frees the slot of the search for the searches waiting.
+         */
+        @Override
+        public void close() {
+            SearchScheduler.this.finish(this);
+            SearchScheduler.this.current.remove();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+/**
+ * Statistics of a single search, published by the engines when the search has finished. Values that do not apply to
+ * an engine (eg. transposition table probes of the Monte Carlo search) are 0.
+ */
+public final class SearchStats {
+    private final String engine;
+    private final long nodes;
+    private final long quiescenceNodes;
+    private final long timeNanos;
+    private final int depth;
+    private final long tableProbes;
+    private final long tableHits;
+    private final long cutoffs;
+    private final long firstMoveCutoffs;
+    private final double effectiveBranchingFactor;
+
+    /**
+     * Creates the statistics.
+     *
+     * @param engine                   The name of the engine.
+     * @param nodes                    The number of nodes visited, including the quiescence nodes (for Monte Carlo
+     *                                 searches: the number of playouts).
+     * @param quiescenceNodes          The number of nodes visited by the quiescence search.
+     * @param timeNanos                The time used.
+     * @param depth                    The depth of the last completed iteration (for Monte Carlo searches: the depth
+     *                                 of the tree).
+     * @param tableProbes              The number of lookups in the transposition table.
+     * @param tableHits                The number of lookups that found an entry.
+     * @param cutoffs                  The number of beta cutoffs.
+     * @param firstMoveCutoffs         The number of beta cutoffs caused by the first move searched.
+     * @param effectiveBranchingFactor The growth of the nodes from one iteration to the next, 0 if unknown.
+     */
+    public SearchStats(String engine, long nodes, long quiescenceNodes, long timeNanos, int depth, long tableProbes,
+                       long tableHits, long cutoffs, long firstMoveCutoffs, double effectiveBranchingFactor) {
+        this.engine = engine;
+        this.nodes = nodes;
+        this.quiescenceNodes = quiescenceNodes;
+        this.timeNanos = timeNanos;
+        this.depth = depth;
+        this.tableProbes = tableProbes;
+        this.tableHits = tableHits;
+        this.cutoffs = cutoffs;
+        this.firstMoveCutoffs = firstMoveCutoffs;
+        this.effectiveBranchingFactor = effectiveBranchingFactor;
+    }
+
+    public String getEngine() {
+        return this.engine;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getQuiescenceNodes() {
+        return this.quiescenceNodes;
+    }
+
+    public long getTimeNanos() {
+        return this.timeNanos;
+    }
+
+    public long getTimeMillis() {
+        return this.timeNanos / 1_000_000;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getTableProbes() {
+        return this.tableProbes;
+    }
+
+    public long getTableHits() {
+        return this.tableHits;
+    }
+
+    public long getCutoffs() {
+        return this.cutoffs;
+    }
+
+    public long getFirstMoveCutoffs() {
+        return this.firstMoveCutoffs;
+    }
+
+    public double getEffectiveBranchingFactor() {
+        return this.effectiveBranchingFactor;
+    }
+
+    public long getNodesPerSecond() {
+        return this.timeNanos == 0 ? 0 : Math.round(this.nodes * 1e9 / this.timeNanos);
+    }
+
+    /**
+     * The share of lookups in the transposition table that found an entry.
+     *
+     * @return The rate between 0 and 1.
+     */
+    public double getTableHitRate() {
+        return this.tableProbes == 0 ? 0 : (double) this.tableHits / this.tableProbes;
+    }
+
+    /**
+     * The share of cutoffs caused by the first move searched, which shows how good the move ordering is.
+     *
+     * @return The rate between 0 and 1.
+     */
+    public double getFirstMoveCutoffRate() {
+        return this.cutoffs == 0 ? 0 : (double) this.firstMoveCutoffs / this.cutoffs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SearchStats{engine=%s, nodes=%d, qnodes=%d, time=%d ms, nps=%d, depth=%d, tt=%d/%d (%.1f%%), "
+                        + "first move cutoffs=%.1f%%, ebf=%.2f}", this.engine, this.nodes, this.quiescenceNodes, this.getTimeMillis(),
+                this.getNodesPerSecond(), this.depth, this.tableHits, this.tableProbes, 100 * this.getTableHitRate(),
+                100 * this.getFirstMoveCutoffRate(), this.effectiveBranchingFactor);
+    }
+}
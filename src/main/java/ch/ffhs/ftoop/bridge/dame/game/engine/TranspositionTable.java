@@ -0,0 +1,118 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A hash table of search results, indexed by the {@link Position#getHash() hash} of the position. Each entry stores
+ * the best move, the score, the depth it has been searched to and whether the score is exact or a bound.
+ * <p>
+ * The table consists of two plain {@code long} arrays. An entry is stored as its data and the key xor-ed with the
+ * data, so an entry torn by two threads writing at the same time fails the key check when read instead of returning
+ * the data of a different position. This allows to share the table between threads without locking.
+ */
+public final class TranspositionTable {
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    /**
+     * Returned by {@link #probe(long)} if there is no entry. Stored entries are never 0, as their flag is not 0.
+     */
+    public static final long NO_ENTRY = 0;
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int MOVE_BITS = 29;
+    private static final long MOVE_MASK = (1L << MOVE_BITS) - 1;
+    private static final int SCORE_SHIFT = MOVE_BITS;
+    private static final int SCORE_OFFSET = 1 << 15;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + 16;
+    private static final int FLAG_SHIFT = DEPTH_SHIFT + 8;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int mask;
+
+    /**
+     * Creates a table.
+     *
+     * @param sizeInMegabytes The memory used by the table, which is rounded down to the next power of two of entries.
+     */
+    public TranspositionTable(int sizeInMegabytes) {
+        checkArgument(sizeInMegabytes > 0 && sizeInMegabytes <= 4096, "Invalid size of %s MB", sizeInMegabytes);
+
+        long bytes = sizeInMegabytes * 1024L * 1024L;
+        int entries = Integer.highestOneBit((int) Math.min(bytes / ENTRY_BYTES, 1 << 30));
+        this.keys = new long[entries];
+        this.data = new long[entries];
+        this.mask = entries - 1;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param hash The hash of the position.
+     * @return The entry, which can be unpacked with {@link #moveOf}, {@link #scoreOf}, {@link #depthOf} and
+     * {@link #flagOf}, or {@link #NO_ENTRY}.
+     */
+    public long probe(long hash) {
+        int index = (int) hash & this.mask;
+        long entry = this.data[index];
+
+        return (this.keys[index] ^ entry) == hash ? entry : NO_ENTRY;
+    }
+
+    /**
+     * Stores the result of a search. An entry of another position is always replaced, an entry of the same position
+     * only by a result that has been searched at least as deep.
+     *
+     * @param hash  The hash of the position.
+     * @param move  The best move, or {@link PackedMove#NONE}.
+     * @param score The score, which has to fit into 16 bits.
+     * @param depth The depth searched, at most 255.
+     * @param flag  {@link #EXACT}, {@link #LOWER_BOUND} or {@link #UPPER_BOUND}.
+     */
+    public void store(long hash, int move, int score, int depth, int flag) {
+        int index = (int) hash & this.mask;
+        long existing = this.data[index];
+        if ((this.keys[index] ^ existing) == hash && depthOf(existing) > depth) {
+            return;
+        }
+
+        long entry = (move & MOVE_MASK)
+                | ((long) (score + SCORE_OFFSET) << SCORE_SHIFT)
+                | ((long) depth << DEPTH_SHIFT)
+                | ((long) flag << FLAG_SHIFT);
+        this.data[index] = entry;
+        this.keys[index] = hash ^ entry;
+    }
+
+    public static int moveOf(long entry) {
+        return (int) (entry & MOVE_MASK);
+    }
+
+    public static int scoreOf(long entry) {
+        return (int) ((entry >>> SCORE_SHIFT) & 0xFFFF) - SCORE_OFFSET;
+    }
+
+    public static int depthOf(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & 0xFF);
+    }
+
+    public static int flagOf(long entry) {
+        return (int) ((entry >>> FLAG_SHIFT) & 0x3);
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void clear() {
+        Arrays.fill(this.keys, 0);
+        Arrays.fill(this.data, 0);
+    }
+
+    public int getNumberOfEntries() {
+        return this.keys.length;
+    }
+}
@@ -0,0 +1,499 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.alphabeta;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.Evaluator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchLimits;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchStats;
+import ch.ffhs.ftoop.bridge.dame.game.engine.TranspositionTable;
+import ch.ffhs.ftoop.bridge.dame.game.observer.IterationFinishedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.SearchFinishedObserver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Finds moves with an alpha-beta search. The search deepens iteratively, one ply at a time, and resolves captures at
+ * the end of each line with a quiescence search. Results are kept in a {@link TranspositionTable}, which also
+ * provides the move searched first in the next iteration.
+ * <p>
+ * The node budget of the {@link SearchLimits} is enforced exactly: the search never visits more nodes than allowed.
+ * When a budget runs out during an iteration, the best move of the moves completely searched so far is played.
+ * <p>
+ * Weaker play can be configured by adding noise to the evaluation. The noise is derived from the hash of the position
+ * and a seed, so it is the same every time a position is evaluated and searches with equal seeds and a node budget are
+ * reproducible.
+ */
+public class AlphaBetaEngine implements SearchEngine {
+    private static final Logger logger = LogManager.getLogger(AlphaBetaEngine.class);
+
+    /**
+     * The score of a won position, less the number of plies to win it.
+     */
+    public static final int MATE = 30000;
+    private static final int MATE_BOUND = MATE - 1000;
+    private static final int INFINITY = MATE + 1;
+    private static final int MAX_PLY = 128;
+    private static final int MAX_DEPTH = 64;
+    private static final int CHECK_TIME_INTERVAL = 1024;
+
+    private final MoveGenerator generator;
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private final int evaluationNoise;
+    private final long seed;
+    private final boolean compulsoryJump;
+    private final List<SearchFinishedObserver> searchFinishedObservers = new CopyOnWriteArrayList<>();
+    private final List<IterationFinishedObserver> iterationFinishedObservers = new CopyOnWriteArrayList<>();
+    private volatile boolean stopped;
+
+    // State of the running search
+    private final int[][] moves = new int[MAX_PLY][];
+    private final int[][] moveScores = new int[MAX_PLY][];
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean aborted;
+    private int score;
+    private int completedDepth;
+
+    // Statistics of the running search
+    private long quiescenceNodes;
+    private long tableProbes;
+    private long tableHits;
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    /**
+     * Creates an engine.
+     *
+     * @param rules           The rules, which must be {@link RuleSet#isSupported() supported}.
+     * @param evaluator       The evaluation of positions.
+     * @param table           The transposition table.
+     * @param evaluationNoise The maximum noise added to each evaluation, 0 for none.
+     * @param seed            The seed of the noise.
+     */
+    public AlphaBetaEngine(RuleSet rules, Evaluator evaluator, TranspositionTable table, int evaluationNoise, long seed) {
+        checkNotNull(evaluator);
+        checkNotNull(table);
+        checkArgument(evaluationNoise >= 0, "The noise must not be negative");
+
+        this.generator = new MoveGenerator(rules);
+        this.evaluator = evaluator;
+        this.table = table;
+        this.evaluationNoise = evaluationNoise;
+        this.seed = seed;
+        this.compulsoryJump = rules.isCompulsoryJump();
+    }
+
+    @Override
+    public synchronized int search(Position position, SearchLimits limits) {
+        checkNotNull(position);
+        checkNotNull(limits);
+
+        Position searched = position.copy();
+        int[] rootMoves = this.generator.generateMoves(searched);
+        if (rootMoves.length == 0) {
+            return PackedMove.NONE;
+        }
+
+        long start = System.nanoTime();
+        this.stopped = false;
+        this.aborted = false;
+        this.score = 0;
+        this.completedDepth = 0;
+        this.nodes = 0;
+        this.quiescenceNodes = 0;
+        this.tableProbes = 0;
+        this.tableHits = 0;
+        this.cutoffs = 0;
+        this.firstMoveCutoffs = 0;
+        this.maxNodes = limits.getMaxNodes();
+        this.deadline = limits.deadlineFromNow();
+        this.allocateBuffers(searched);
+
+        int maxDepth = limits.getMaxDepth() == SearchLimits.UNLIMITED ? MAX_DEPTH : Math.min(limits.getMaxDepth(), MAX_DEPTH);
+        int bestMove = rootMoves[0];
+        long previousIterationNodes = 0;
+        double effectiveBranchingFactor = 0;
+
+        for (int depth = 1; depth <= maxDepth && !this.aborted; depth++) {
+            long nodesBefore = this.nodes;
+            int move = this.searchRoot(searched, depth);
+            if (move != PackedMove.NONE) {
+                bestMove = move;
+            }
+
+            if (!this.aborted) {
+                long iterationNodes = this.nodes - nodesBefore;
+                if (previousIterationNodes > 0) {
+                    effectiveBranchingFactor = (double) iterationNodes / previousIterationNodes;
+                }
+
+                previousIterationNodes = iterationNodes;
+                this.completedDepth = depth;
+
+                // The time spent by the observers, eg. while the search is paused, counts for the time limit
+                this.iterationFinishedObservers.forEach(observer -> observer.onIterationFinished(this.completedDepth));
+            }
+        }
+
+        SearchStats stats = new SearchStats("alpha-beta", this.nodes, this.quiescenceNodes, System.nanoTime() - start, this.completedDepth,
+                this.tableProbes, this.tableHits, this.cutoffs, this.firstMoveCutoffs, effectiveBranchingFactor);
+        logger.debug("Best move {}, {}", PackedMove.toString(bestMove), stats);
+        this.searchFinishedObservers.forEach(observer -> observer.onSearchFinished(stats));
+        return bestMove;
+    }
+
+    private void allocateBuffers(Position position) {
+        int maxMoves = MoveGenerator.maxMoves(position.getGeometry());
+        if (this.moves[0] == null || this.moves[0].length < maxMoves) {
+            for (int ply = 0; ply < MAX_PLY; ply++) {
+                this.moves[ply] = new int[maxMoves];
+                this.moveScores[ply] = new int[maxMoves];
+            }
+        }
+    }
+
+    /**
+     * Searches all moves of the root to the given depth.
+     *
+     * @return The best move, or {@link PackedMove#NONE} if the search has been aborted before the first move has been
+     * searched completely.
+     */
+    private int searchRoot(Position position, int depth) {
+        int[] rootMoves = this.moves[0];
+        int count = this.generator.generateMoves(position, rootMoves);
+        this.orderMoves(position, 0, count);
+
+        int alpha = -INFINITY;
+        int bestMove = PackedMove.NONE;
+
+        for (int i = 0; i < count; i++) {
+            position.doMove(rootMoves[i]);
+            int score = -this.negamax(position, depth - 1, -INFINITY, -alpha, 1);
+            position.undoMove();
+
+            if (this.aborted) {
+                break;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                bestMove = rootMoves[i];
+            }
+        }
+
+        if (bestMove != PackedMove.NONE) {
+            this.score = alpha;
+            this.table.store(position.getHash(), bestMove, toTableScore(alpha, 0), depth, TranspositionTable.EXACT);
+            logger.trace("Depth {}: score {}, best move {}, {} nodes", depth, alpha, PackedMove.toString(bestMove), this.nodes);
+        }
+
+        return bestMove;
+    }
+
+    private int negamax(Position position, int depth, int alpha, int beta, int ply) {
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return this.quiescence(position, alpha, beta, ply);
+        }
+
+        if (!this.enterNode()) {
+            return 0;
+        }
+
+        int originalAlpha = alpha;
+        int tableMove = PackedMove.NONE;
+        long entry = this.table.probe(position.getHash());
+        this.tableProbes++;
+        if (entry != TranspositionTable.NO_ENTRY) {
+            this.tableHits++;
+            tableMove = TranspositionTable.moveOf(entry);
+
+            if (TranspositionTable.depthOf(entry) >= depth) {
+                int score = fromTableScore(TranspositionTable.scoreOf(entry), ply);
+                int flag = TranspositionTable.flagOf(entry);
+
+                if (flag == TranspositionTable.EXACT
+                        || (flag == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (flag == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int[] plyMoves = this.moves[ply];
+        int count = this.generator.generateMoves(position, plyMoves);
+        if (count == 0) {
+            return -MATE + ply; // A player who cannot move has lost
+        }
+
+        this.orderMoves(position, ply, count, tableMove);
+
+        int bestScore = -INFINITY;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < count; i++) {
+            position.doMove(plyMoves[i]);
+            int score = -this.negamax(position, depth - 1, -beta, -alpha, ply + 1);
+            position.undoMove();
+
+            if (this.aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = plyMoves[i];
+
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        this.countCutoff(i);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int flag = bestScore <= originalAlpha ? TranspositionTable.UPPER_BOUND
+                : (bestScore >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT);
+        this.table.store(position.getHash(), bestMove, toTableScore(bestScore, ply), depth, flag);
+        return bestScore;
+    }
+
+    /**
+     * Searches captures only, until the position is quiet. The player to move may also decline to capture ("stand
+     * pat") and keep the static evaluation, unless capturing is compulsory.
+     */
+    private int quiescence(Position position, int alpha, int beta, int ply) {
+        if (!this.enterNode()) {
+            return 0;
+        }
+
+        this.quiescenceNodes++;
+
+        int[] plyMoves = this.moves[ply];
+        int count = this.generator.generateMoves(position, plyMoves);
+        if (count == 0) {
+            return -MATE + ply;
+        }
+
+        int captures = 0;
+        for (int i = 0; i < count; i++) {
+            if (PackedMove.isCapture(plyMoves[i])) {
+                plyMoves[captures++] = plyMoves[i];
+            }
+        }
+
+        int bestScore = -INFINITY;
+        if (captures == 0 || !this.compulsoryJump || ply >= MAX_PLY - 1) {
+            bestScore = this.evaluate(position);
+            if (bestScore >= beta || captures == 0 || ply >= MAX_PLY - 1) {
+                return bestScore;
+            }
+
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        this.orderMoves(position, ply, captures);
+        for (int i = 0; i < captures; i++) {
+            position.doMove(plyMoves[i]);
+            int score = -this.quiescence(position, -beta, -alpha, ply + 1);
+            position.undoMove();
+
+            if (this.aborted) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        this.countCutoff(i);
+                        break;
+                    }
+                }
+            }
+        }
+
+        return bestScore;
+    }
+
+    private void countCutoff(int moveIndex) {
+        this.cutoffs++;
+        if (moveIndex == 0) {
+            this.firstMoveCutoffs++;
+        }
+    }
+
+    /**
+     * Counts a node, if the limits allow it.
+     *
+     * @return False if the search has to be aborted.
+     */
+    private boolean enterNode() {
+        if (this.aborted) {
+            return false;
+        }
+
+        if (this.maxNodes != SearchLimits.UNLIMITED && this.nodes >= this.maxNodes) {
+            this.aborted = true;
+            return false;
+        }
+
+        this.nodes++;
+        if (this.nodes % CHECK_TIME_INTERVAL == 0
+                && (this.stopped || System.nanoTime() >= this.deadline || Thread.currentThread().isInterrupted())) {
+            this.aborted = true;
+            return false;
+        }
+
+        return true;
+    }
+
+    private int evaluate(Position position) {
+        int score = this.evaluator.evaluate(position);
+        if (this.evaluationNoise == 0) {
+            return score;
+        }
+
+        long mixed = mix(position.getHash() ^ this.seed);
+        return score + (int) Math.floorMod(mixed, 2L * this.evaluationNoise + 1) - this.evaluationNoise;
+    }
+
+    private static long mix(long value) {
+        // The finalizer of SplitMix64
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    private void orderMoves(Position position, int ply, int count) {
+        long entry = this.table.probe(position.getHash());
+        this.orderMoves(position, ply, count, entry == TranspositionTable.NO_ENTRY ? PackedMove.NONE : TranspositionTable.moveOf(entry));
+    }
+
+    /**
+     * Sorts the moves so the most promising ones are searched first: the best move found before, then captures of
+     * many pieces, then promotions.
+     */
+    private void orderMoves(Position position, int ply, int count, int tableMove) {
+        int[] plyMoves = this.moves[ply];
+        int[] scores = this.moveScores[ply];
+
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            scores[i] = move == tableMove ? Integer.MAX_VALUE
+                    : 100 * PackedMove.captures(move) + (PackedMove.isPromotion(move) ? 50 : 0);
+        }
+
+        // Insertion sort, as the lists are short
+        for (int i = 1; i < count; i++) {
+            int move = plyMoves[i];
+            int score = scores[i];
+            int j = i - 1;
+
+            while (j >= 0 && scores[j] < score) {
+                plyMoves[j + 1] = plyMoves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+
+            plyMoves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Converts a score to be stored in the table: mate scores are stored relative to the position instead of the root.
+     */
+    private static int toTableScore(int score, int ply) {
+        if (score > MATE_BOUND) {
+            return score + ply;
+        }
+
+        return score < -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int fromTableScore(int score, int ply) {
+        if (score > MATE_BOUND) {
+            return score - ply;
+        }
+
+        return score < -MATE_BOUND ? score + ply : score;
+    }
+
+    @Override
+    public void stop() {
+        this.stopped = true;
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.table.clear();
+    }
+
+    @Override
+    public void registerSearchFinishedObserver(SearchFinishedObserver observer) {
+        checkNotNull(observer);
+        this.searchFinishedObservers.add(observer);
+    }
+
+    @Override
+    public void registerIterationFinishedObserver(IterationFinishedObserver observer) {
+        checkNotNull(observer);
+        this.iterationFinishedObservers.add(observer);
+    }
+
+    @Override
+    public void shutdown() {
+        this.stop();
+    }
+
+    /**
+     * The score of the move found by the last search, from the view of the player to move. Won positions score
+     * {@link #MATE} less the plies to win, lost positions the negative of it.
+     *
+     * @return The score, 0 if there was no move.
+     */
+    public synchronized int getScore() {
+        return this.score;
+    }
+
+    /**
+     * The depth the last search has searched completely.
+     *
+     * @return The depth.
+     */
+    public synchronized int getCompletedDepth() {
+        return this.completedDepth;
+    }
+
+    /**
+     * Checks if a score means that the position is won or lost.
+     *
+     * @param score The score.
+     * @return Whether the score is a win or loss in a number of plies.
+     */
+    public static boolean isMateScore(int score) {
+        return Math.abs(score) > MATE_BOUND;
+    }
+
+    /**
+     * The number of nodes visited by the last search.
+     *
+     * @return The nodes.
+     */
+    long getNodes() {
+        return this.nodes;
+    }
+}
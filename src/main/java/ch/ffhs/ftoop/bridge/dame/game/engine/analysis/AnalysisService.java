@@ -0,0 +1,179 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.analysis;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.Evaluator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchLimits;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchScheduler;
+import ch.ffhs.ftoop.bridge.dame.game.engine.TranspositionTable;
+import ch.ffhs.ftoop.bridge.dame.game.engine.alphabeta.AlphaBetaEngine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Analyses batches of positions, eg. all positions of a finished game, and finds the evaluation and the best move of
+ * each.
+ * <p>
+ * The positions of a batch are searched in parallel by the threads of an executor, each with its own alpha-beta engine.
+ * All engines share one {@link TranspositionTable}, which can be shared without locking: the positions of a game have
+ * many lines in common, so a position profits from the results of the positions searched before or at the same time.
+ * Identical positions of a batch are searched only once.
+ * <p>
+ * With a {@link SearchScheduler}, the searches run in the background: they only get the processors that are not needed
+ * by more urgent searches, eg. of games whose players are waiting. The scheduler cannot reorder tasks still queued in
+ * the executor, though, so the service hands only a limited number of searches to the executor at a time and keeps the
+ * others queued itself: even a large batch leaves threads of a shared executor free for more urgent work.
+ */
+public class AnalysisService {
+    private static final Logger logger = LogManager.getLogger(AnalysisService.class);
+
+    private final Executor executor;
+    private final int maxSubmittedSearches;
+    private final SearchScheduler scheduler;
+    private final ThreadLocal<AlphaBetaEngine> engines;
+    private final Queue<Search> pending = new ArrayDeque<>();
+    private int submittedSearches;
+
+    /**
+     * Creates the service.
+     *
+     * @param rules                The rules of the positions, which must be {@link RuleSet#isSupported() supported}.
+     * @param evaluator            The evaluation of positions.
+     * @param table                The transposition table shared by all searches.
+     * @param executor             The threads searching the positions.
+     * @param maxSubmittedSearches The number of searches handed to the executor at the same time.
+     * @param scheduler            The scheduler of the searches, or null to search right away.
+     */
+    public AnalysisService(RuleSet rules, Evaluator evaluator, TranspositionTable table, Executor executor,
+                           int maxSubmittedSearches, SearchScheduler scheduler) {
+        checkNotNull(rules);
+        checkNotNull(evaluator);
+        checkNotNull(table);
+        checkArgument(rules.isSupported(), "The rules %s cannot be searched", rules);
+        checkArgument(maxSubmittedSearches > 0, "At least one search must be submitted");
+
+        this.executor = checkNotNull(executor);
+        this.maxSubmittedSearches = maxSubmittedSearches;
+        this.scheduler = scheduler;
+        this.engines = ThreadLocal.withInitial(() -> {
+            AlphaBetaEngine engine = new AlphaBetaEngine(rules, evaluator, table, 0, 0);
+            if (scheduler != null) {
+                engine.registerIterationFinishedObserver(depth -> scheduler.checkpoint());
+            }
+            return engine;
+        });
+    }
+
+    /**
+     * Analyses a batch of positions.
+     *
+     * @param positions The positions with the player to move, which are left unchanged.
+     * @param limits    The limits of the search of each position.
+     * @return Completed with the analysis of each position, in the order of the positions.
+     */
+    public CompletableFuture<List<PositionAnalysis>> analyze(List<Position> positions, SearchLimits limits) {
+        checkNotNull(positions);
+        checkNotNull(limits);
+
+        Map<Position, CompletableFuture<PositionAnalysis>> searches = new HashMap<>();
+        List<CompletableFuture<PositionAnalysis>> results = new ArrayList<>(positions.size());
+        for (Position position : positions) {
+            checkNotNull(position);
+            results.add(searches.computeIfAbsent(position.copy(), searched -> {
+                Search search = new Search(searched, limits);
+                this.submit(search);
+                return search.result;
+            }));
+        }
+
+        logger.debug("Analysing {} positions, {} of them different", positions.size(), searches.size());
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    private synchronized void submit(Search search) {
+        this.pending.add(search);
+        this.submitPending();
+    }
+
+    /**
+     * Called when a search has finished, to hand the next one to the executor.
+     */
+    private synchronized void searchFinished() {
+        this.submittedSearches--;
+        this.submitPending();
+    }
+
+    private void submitPending() {
+        while (this.submittedSearches < this.maxSubmittedSearches && !this.pending.isEmpty()) {
+            Search search = this.pending.poll();
+            this.submittedSearches++;
+            try {
+                this.executor.execute(() -> this.run(search));
+            } catch (RejectedExecutionException e) {
+                this.submittedSearches--;
+                search.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void run(Search search) {
+        try {
+            search.result.complete(this.analyze(search.position, search.limits));
+        } catch (RuntimeException e) {
+            search.result.completeExceptionally(e);
+        } finally {
+            this.searchFinished();
+        }
+    }
+
+    // The ticket is not used in the block, it only holds the slot of the search until the end of it
+    @SuppressWarnings("try")
+    private PositionAnalysis analyze(Position position, SearchLimits limits) {
+        if (this.scheduler == null) {
+            return this.search(position, limits);
+        }
+
+        try (SearchScheduler.Ticket ignored = this.scheduler.start(Long.MAX_VALUE)) {
+            return this.search(position, limits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    private PositionAnalysis search(Position position, SearchLimits limits) {
+        AlphaBetaEngine engine = this.engines.get();
+        int move = engine.search(position, limits);
+        return new PositionAnalysis(position, move, engine.getScore(), engine.getCompletedDepth());
+    }
+
+    /**
+     * A position to search and the future of its analysis.
+     */
+    private static final class Search {
+        private final Position position;
+        private final SearchLimits limits;
+        private final CompletableFuture<PositionAnalysis> result = new CompletableFuture<>();
+
+        private Search(Position position, SearchLimits limits) {
+            this.position = position;
+            this.limits = limits;
+        }
+    }
+}
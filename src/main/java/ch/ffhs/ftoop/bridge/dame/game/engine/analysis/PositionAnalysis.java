@@ -0,0 +1,64 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.analysis;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.alphabeta.AlphaBetaEngine;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The result of analysing a position with the {@link AnalysisService}.
+ */
+public final class PositionAnalysis {
+    private final Position position;
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+
+    PositionAnalysis(Position position, int bestMove, int score, int depth) {
+        this.position = checkNotNull(position);
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+    }
+
+    public Position getPosition() {
+        return this.position;
+    }
+
+    /**
+     * The best move of the player to move.
+     *
+     * @return The move, see {@link PackedMove}, or {@link PackedMove#NONE} if the player cannot move.
+     */
+    public int getBestMove() {
+        return this.bestMove;
+    }
+
+    /**
+     * The evaluation of the position, from the view of the player to move.
+     *
+     * @return The score, see {@link AlphaBetaEngine#getScore()}.
+     */
+    public int getScore() {
+        return this.score;
+    }
+
+    /**
+     * The depth the position has been searched completely.
+     *
+     * @return The depth in plies.
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    @Override
+    public String toString() {
+        return "PositionAnalysis{" +
+                "bestMove=" + PackedMove.toString(bestMove) +
+                ", score=" + score +
+                ", depth=" + depth +
+                '}';
+    }
+}
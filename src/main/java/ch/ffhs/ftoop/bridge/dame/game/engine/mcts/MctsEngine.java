@@ -0,0 +1,407 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.mcts;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchLimits;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchStats;
+import ch.ffhs.ftoop.bridge.dame.game.observer.IterationFinishedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.SearchFinishedObserver;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Finds moves with Monte Carlo tree search. Each iteration walks down the tree choosing children by UCT, adds one new
+ * node, finishes the game from there with random moves and credits the result to all nodes on the way. The move that
+ * has been visited most at the root is played.
+ * <p>
+ * The iterations run on a pool of worker threads, either all on one shared tree or each on its own tree (see
+ * {@link MctsParallelism}). The playouts work directly on a {@link Position}, playing and taking back moves without
+ * any allocation. As it does not need an evaluation of positions, the search copes well with the large branching
+ * factors of big boards.
+ * <p>
+ * As the iterations are far too short to be reported one by one, the searching thread calls the
+ * {@link IterationFinishedObserver}s at short intervals instead. The workers pause while the observers run, so a
+ * blocking observer pauses the whole search.
+ */
+public class MctsEngine implements SearchEngine {
+    private static final Logger logger = LogManager.getLogger(MctsEngine.class);
+
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+    private static final int DEFAULT_MAX_TREE_SIZE = 2_000_000;
+    private static final int MAX_PLAYOUT_PLIES = 200;
+    private static final int INITIAL_PATH_LENGTH = 64;
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 20;
+
+    private final MoveGenerator generator;
+    private final int numberOfThreads;
+    private final MctsParallelism parallelism;
+    private final double exploration;
+    private final int maxTreeSize;
+    private final MctsTree[] trees;
+    private final ExecutorService workers;
+    private final AtomicLong seeds;
+    private final List<SearchFinishedObserver> searchFinishedObservers = new CopyOnWriteArrayList<>();
+    private final List<IterationFinishedObserver> iterationFinishedObservers = new CopyOnWriteArrayList<>();
+    private final Object pauseLock = new Object();
+    private volatile boolean stopped;
+    private volatile boolean paused;
+
+    /**
+     * Creates an engine.
+     *
+     * @param rules           The rules, which must be {@link RuleSet#isSupported() supported}.
+     * @param numberOfThreads The number of worker threads.
+     * @param parallelism     How the workers share the work.
+     * @param exploration     The exploration constant of UCT, see {@link #DEFAULT_EXPLORATION}.
+     */
+    public MctsEngine(RuleSet rules, int numberOfThreads, MctsParallelism parallelism, double exploration) {
+        this(rules, numberOfThreads, parallelism, exploration, System.nanoTime());
+    }
+
+    /**
+     * Creates an engine with seeded playouts. Note that searches with more than one thread are not reproducible even
+     * so, as the threads interleave differently every time.
+     *
+     * @param rules           The rules, which must be {@link RuleSet#isSupported() supported}.
+     * @param numberOfThreads The number of worker threads.
+     * @param parallelism     How the workers share the work.
+     * @param exploration     The exploration constant of UCT, see {@link #DEFAULT_EXPLORATION}.
+     * @param seed            The seed of the random playouts.
+     */
+    public MctsEngine(RuleSet rules, int numberOfThreads, MctsParallelism parallelism, double exploration, long seed) {
+        this(rules, numberOfThreads, parallelism, exploration, seed, DEFAULT_MAX_TREE_SIZE);
+    }
+
+    MctsEngine(RuleSet rules, int numberOfThreads, MctsParallelism parallelism, double exploration, long seed, int maxTreeSize) {
+        checkNotNull(parallelism);
+        checkArgument(numberOfThreads > 0, "At least one thread is required");
+        checkArgument(exploration >= 0, "The exploration constant must not be negative");
+
+        this.generator = new MoveGenerator(rules);
+        this.numberOfThreads = numberOfThreads;
+        this.parallelism = parallelism;
+        this.exploration = exploration;
+        this.maxTreeSize = maxTreeSize;
+        this.seeds = new AtomicLong(seed);
+        this.trees = new MctsTree[parallelism == MctsParallelism.ROOT ? numberOfThreads : 1];
+        for (int i = 0; i < this.trees.length; i++) {
+            this.trees[i] = new MctsTree();
+        }
+        this.workers = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactoryBuilder()
+                .setNameFormat("mcts-worker-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    @Override
+    public synchronized int search(Position position, SearchLimits limits) {
+        checkNotNull(position);
+        checkNotNull(limits);
+        checkArgument(limits.getMaxTimeMillis() != SearchLimits.UNLIMITED || limits.getMaxNodes() != SearchLimits.UNLIMITED,
+                "A Monte Carlo search must be limited by time or playouts");
+
+        this.stopped = false;
+        if (!this.generator.hasMoves(position, position.getSideToMove())) {
+            return PackedMove.NONE;
+        }
+
+        long start = System.nanoTime();
+        long deadline = limits.deadlineFromNow();
+        AtomicLong playouts = new AtomicLong();
+        AtomicLong completedPlayouts = new AtomicLong();
+        AtomicInteger maxDepth = new AtomicInteger();
+
+        for (MctsTree tree : this.trees) {
+            if (tree.moveRootTo(position)) {
+                logger.debug("Reusing tree with {} nodes and {} visits", tree.getSize(), tree.getRoot().getVisits());
+            }
+        }
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < this.numberOfThreads; i++) {
+            MctsTree tree = this.trees[i % this.trees.length];
+            long seed = this.seeds.getAndIncrement();
+            futures.add(this.workers.submit(() -> this.runWorker(tree, limits, deadline, playouts, completedPlayouts, maxDepth, seed)));
+        }
+        this.awaitWorkers(futures, maxDepth);
+
+        int bestMove = this.findMostVisitedMove();
+        SearchStats stats = new SearchStats("mcts", completedPlayouts.get(), 0, System.nanoTime() - start, maxDepth.get(), 0, 0, 0, 0, 0);
+        logger.debug("Best move {}, {}", PackedMove.toString(bestMove), stats);
+        this.searchFinishedObservers.forEach(observer -> observer.onSearchFinished(stats));
+        return bestMove;
+    }
+
+    private void awaitWorkers(List<Future<?>> futures, AtomicInteger maxDepth) {
+        boolean interrupted = false;
+
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get(CHECKPOINT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    this.checkpoint(maxDepth.get());
+                } catch (InterruptedException e) {
+                    // Stop the workers, but still wait for them, so the tree is not touched after the search
+                    interrupted = true;
+                    this.stop();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Search failed", e.getCause());
+                } catch (CancellationException e) {
+                    break;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Calls the iteration observers on the searching thread, while the workers pause.
+     */
+    private void checkpoint(int depth) {
+        if (this.iterationFinishedObservers.isEmpty()) {
+            return;
+        }
+
+        this.paused = true;
+        try {
+            this.iterationFinishedObservers.forEach(observer -> observer.onIterationFinished(depth));
+        } finally {
+            synchronized (this.pauseLock) {
+                this.paused = false;
+                this.pauseLock.notifyAll();
+            }
+        }
+    }
+
+    private void awaitResume() {
+        synchronized (this.pauseLock) {
+            while (this.paused && !this.stopped) {
+                try {
+                    this.pauseLock.wait();
+                } catch (InterruptedException e) {
+                    // The pool is shut down, so the worker stops
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void runWorker(MctsTree tree, SearchLimits limits, long deadline, AtomicLong playouts, AtomicLong completedPlayouts,
+                           AtomicInteger maxDepth, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Position position = tree.getRootPosition().copy();
+        int[] moves = new int[MoveGenerator.maxMoves(position.getGeometry())];
+        MctsNode[][] path = {new MctsNode[INITIAL_PATH_LENGTH]};
+        int depth = 0;
+        long completed = 0;
+
+        while (!this.stopped && System.nanoTime() < deadline) {
+            if (this.paused) {
+                this.awaitResume();
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                continue;
+            }
+
+            // Only count the playouts actually played, not the pauses
+            if (!limits.allowsNodes(playouts.incrementAndGet())) {
+                break;
+            }
+
+            int reached = this.iterate(tree, position, path, moves, random);
+            if (reached > depth) {
+                depth = reached;
+                maxDepth.accumulateAndGet(depth, Math::max);
+            }
+            completed++;
+        }
+
+        completedPlayouts.addAndGet(completed);
+    }
+
+    /**
+     * Runs one iteration: selection, expansion, playout and backpropagation.
+     *
+     * @param pathBuffer The buffer for the path through the tree, which is replaced by a larger one if necessary.
+     * @return The depth of the tree reached.
+     */
+    private int iterate(MctsTree tree, Position position, MctsNode[][] pathBuffer, int[] moves, SplittableRandom random) {
+        MctsNode[] path = pathBuffer[0];
+        MctsNode node = tree.getRoot();
+        node.addVisit();
+        path[0] = node;
+        int length = 1;
+
+        while (true) {
+            MctsNode next;
+            boolean expanded = false;
+
+            synchronized (node) {
+                if (!node.isExpanded()) {
+                    node.setUntriedMoves(this.generator.generateMoves(position));
+                }
+
+                if (node.hasUntriedMoves() && tree.tryGrow(this.maxTreeSize)) {
+                    next = node.expand(random, position.getSideToMove());
+                    expanded = true;
+                } else {
+                    next = node.selectChild(this.exploration);
+                }
+            }
+
+            if (next == null) {
+                break; // The game is over in this node (or the tree is full and the node has no children yet)
+            }
+
+            position.doMove(next.getMove());
+            next.addVisit();
+            if (length == path.length) {
+                path = Arrays.copyOf(path, 2 * path.length);
+                pathBuffer[0] = path;
+            }
+            path[length++] = next;
+            node = next;
+
+            if (expanded) {
+                break;
+            }
+        }
+
+        PieceColor winner = this.playout(position, moves, random);
+        for (int i = 0; i < length; i++) {
+            MctsNode visited = path[i];
+            visited.addScore(winner == null ? 1 : (visited.getMover() == winner ? 2 : 0));
+        }
+
+        for (int i = 1; i < length; i++) {
+            position.undoMove();
+        }
+
+        return length - 1;
+    }
+
+    /**
+     * Plays random moves until a player cannot move anymore, and takes them back afterwards.
+     *
+     * @return The winner, or null if the game has not ended within {@link #MAX_PLAYOUT_PLIES}.
+     */
+    private PieceColor playout(Position position, int[] moves, SplittableRandom random) {
+        PieceColor winner = null;
+        int plies = 0;
+
+        while (plies < MAX_PLAYOUT_PLIES) {
+            int count = this.generator.generateMoves(position, moves);
+            if (count == 0) {
+                winner = Position.opponentOf(position.getSideToMove());
+                break;
+            }
+
+            position.doMove(moves[random.nextInt(count)]);
+            plies++;
+        }
+
+        for (int i = 0; i < plies; i++) {
+            position.undoMove();
+        }
+
+        return winner;
+    }
+
+    private int findMostVisitedMove() {
+        Map<Integer, Long> visits = new HashMap<>();
+        for (MctsTree tree : this.trees) {
+            for (MctsNode child : tree.getRoot().getChildren()) {
+                visits.merge(child.getMove(), (long) child.getVisits(), Long::sum);
+            }
+        }
+
+        return visits.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey)
+                .orElse(PackedMove.NONE);
+    }
+
+    @Override
+    public void stop() {
+        this.stopped = true;
+        synchronized (this.pauseLock) {
+            this.pauseLock.notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (MctsTree tree : this.trees) {
+            tree.clear();
+        }
+    }
+
+    @Override
+    public void registerSearchFinishedObserver(SearchFinishedObserver observer) {
+        checkNotNull(observer);
+        this.searchFinishedObservers.add(observer);
+    }
+
+    /**
+     * Monte Carlo searches have no iterations of their own, so the observer is called at regular intervals with the
+     * depth of the tree reached so far. The search is paused while the observer blocks.
+     *
+     * @param observer The observer.
+     */
+    @Override
+    public void registerIterationFinishedObserver(IterationFinishedObserver observer) {
+        checkNotNull(observer);
+        this.iterationFinishedObservers.add(observer);
+    }
+
+    @Override
+    public void shutdown() {
+        this.stop();
+        this.workers.shutdownNow();
+    }
+
+    /**
+     * The number of visits of the root of the first tree, for tests of the tree reuse.
+     *
+     * @return The visits.
+     */
+    int getRootVisits() {
+        return this.trees[0].getRoot().getVisits();
+    }
+
+    public MctsParallelism getParallelism() {
+        return this.parallelism;
+    }
+}
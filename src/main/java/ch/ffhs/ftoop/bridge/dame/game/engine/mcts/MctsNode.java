@@ -0,0 +1,141 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.mcts;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A node of the search tree, reached by playing {@link #getMove()}. The statistics are updated lock-free, so many
+ * threads can walk through the same node; expanding the node and selecting one of its children has to be done while
+ * holding the node's monitor.
+ * <p>
+ * The score is kept in half points from the perspective of the player who played the move into the node: 2 for a won
+ * playout, 1 for a draw. Visits are counted when a thread walks down through a node, before its playout is finished.
+ * Until then the visit counts as a loss ("virtual loss"), which steers other threads to different parts of the tree.
+ */
+final class MctsNode {
+    private static final AtomicIntegerFieldUpdater<MctsNode> VISITS = AtomicIntegerFieldUpdater.newUpdater(MctsNode.class, "visits");
+    private static final AtomicLongFieldUpdater<MctsNode> SCORE = AtomicLongFieldUpdater.newUpdater(MctsNode.class, "score");
+    private static final MctsNode[] NO_CHILDREN = new MctsNode[0];
+
+    private final int move;
+    private final PieceColor mover;
+    private volatile int visits;
+    private volatile long score;
+
+    // Guarded by the node's monitor
+    private MctsNode[] children = NO_CHILDREN;
+    private int numberOfChildren;
+    private int[] untriedMoves;
+    private int numberOfUntriedMoves;
+
+    MctsNode(int move, PieceColor mover) {
+        this.move = move;
+        this.mover = mover;
+    }
+
+    int getMove() {
+        return this.move;
+    }
+
+    PieceColor getMover() {
+        return this.mover;
+    }
+
+    int getVisits() {
+        return this.visits;
+    }
+
+    long getScore() {
+        return this.score;
+    }
+
+    void addVisit() {
+        VISITS.incrementAndGet(this);
+    }
+
+    void addScore(int halfPoints) {
+        SCORE.addAndGet(this, halfPoints);
+    }
+
+    boolean isExpanded() {
+        return this.untriedMoves != null;
+    }
+
+    /**
+     * Sets the moves of the node's position, which are turned into children one by one.
+     *
+     * @param moves The valid moves.
+     */
+    void setUntriedMoves(int[] moves) {
+        this.untriedMoves = moves;
+        this.numberOfUntriedMoves = moves.length;
+    }
+
+    boolean hasUntriedMoves() {
+        return this.numberOfUntriedMoves > 0;
+    }
+
+    /**
+     * Adds a child for a randomly chosen untried move.
+     *
+     * @param random The source of randomness.
+     * @param mover  The player to move in this node's position.
+     * @return The new child.
+     */
+    MctsNode expand(SplittableRandom random, PieceColor mover) {
+        int index = random.nextInt(this.numberOfUntriedMoves);
+        int childMove = this.untriedMoves[index];
+        this.untriedMoves[index] = this.untriedMoves[--this.numberOfUntriedMoves];
+
+        MctsNode child = new MctsNode(childMove, mover);
+        if (this.numberOfChildren == this.children.length) {
+            this.children = Arrays.copyOf(this.children, Math.max(4, 2 * this.children.length));
+        }
+        this.children[this.numberOfChildren++] = child;
+        return child;
+    }
+
+    /**
+     * Selects the child with the highest upper confidence bound (UCT).
+     *
+     * @param exploration The exploration constant, the higher the more less visited children are preferred.
+     * @return The child or null, if the node has no children.
+     */
+    MctsNode selectChild(double exploration) {
+        double logVisits = Math.log(Math.max(1, this.visits));
+        MctsNode best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < this.numberOfChildren; i++) {
+            MctsNode child = this.children[i];
+            int childVisits = child.visits;
+            double value = childVisits == 0
+                    ? Double.POSITIVE_INFINITY
+                    : child.score / (2.0 * childVisits) + exploration * Math.sqrt(logVisits / childVisits);
+
+            if (value > bestValue) {
+                bestValue = value;
+                best = child;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Returns a snapshot of the children.
+     *
+     * @return The children.
+     */
+    synchronized MctsNode[] getChildren() {
+        return Arrays.copyOf(this.children, this.numberOfChildren);
+    }
+
+    int getNumberOfChildren() {
+        return this.numberOfChildren;
+    }
+}
@@ -0,0 +1,17 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.mcts;
+
+/**
+ * How the threads of the {@link MctsEngine} share the work.
+ */
+public enum MctsParallelism {
+    /**
+     * All threads grow the same tree, avoiding each other with virtual losses.
+     */
+    TREE,
+
+    /**
+     * Every thread grows its own tree; the visits of the root moves are added up in the end. There is no contention
+     * between the threads at all, but the trees do not benefit from each other.
+     */
+    ROOT
+}
@@ -0,0 +1,118 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.mcts;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A search tree together with the position of its root. Between two searches the tree is kept: if the next search
+ * starts from a position that is already in the tree (typically two plies further, after the engine's move and the
+ * opponent's reply), the subtree below it becomes the new tree and all statistics gathered for it are reused.
+ */
+final class MctsTree {
+    private static final int REUSE_DEPTH = 2;
+
+    private final AtomicInteger size = new AtomicInteger();
+    private MctsNode root;
+    private Position rootPosition;
+
+    /**
+     * Moves the root to the given position, reusing the part of the tree below it if possible.
+     *
+     * @param position The position of the new root.
+     * @return Whether part of the previous tree has been reused.
+     */
+    boolean moveRootTo(Position position) {
+        MctsNode reusable = null;
+        if (this.root != null && this.rootPosition.getGeometry() == position.getGeometry()) {
+            reusable = find(this.root, this.rootPosition.copy(), position, REUSE_DEPTH);
+        }
+
+        this.rootPosition = position.copy();
+        if (reusable == null) {
+            this.root = new MctsNode(0, null);
+            this.size.set(1);
+            return false;
+        }
+
+        this.root = reusable;
+        this.size.set(count(reusable));
+        return true;
+    }
+
+    private static MctsNode find(MctsNode node, Position current, Position target, int depth) {
+        if (current.getHash() == target.getHash() && current.equals(target)) {
+            return node;
+        }
+
+        if (depth == 0) {
+            return null;
+        }
+
+        for (MctsNode child : node.getChildren()) {
+            current.doMove(child.getMove());
+            MctsNode found = find(child, current, target, depth - 1);
+            current.undoMove();
+
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return null;
+    }
+
+    private static int count(MctsNode node) {
+        Deque<MctsNode> pending = new ArrayDeque<>();
+        pending.push(node);
+        int count = 0;
+
+        // Iteratively, as a single line of the tree can be very deep
+        while (!pending.isEmpty()) {
+            count++;
+            for (MctsNode child : pending.pop().getChildren()) {
+                pending.push(child);
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Forgets the whole tree.
+     */
+    void clear() {
+        this.root = null;
+        this.rootPosition = null;
+        this.size.set(0);
+    }
+
+    /**
+     * Reserves room for a new node.
+     *
+     * @param maxSize The maximum number of nodes of the tree.
+     * @return False if the tree is full.
+     */
+    boolean tryGrow(int maxSize) {
+        if (this.size.incrementAndGet() <= maxSize) {
+            return true;
+        }
+
+        this.size.decrementAndGet();
+        return false;
+    }
+
+    MctsNode getRoot() {
+        return this.root;
+    }
+
+    Position getRootPosition() {
+        return this.rootPosition;
+    }
+
+    int getSize() {
+        return this.size.get();
+    }
+}
@@ -0,0 +1,159 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.telemetry;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchStats;
+import ch.ffhs.ftoop.bridge.dame.game.observer.SearchFinishedObserver;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Collects the {@link SearchStats} of an engine's searches, totalled over all searches and of the last one. Register
+ * it as observer of the engine and, to read the numbers with tools like JConsole, with the platform's MBean server.
+ */
+public class SearchTelemetry implements SearchFinishedObserver, SearchTelemetryMXBean {
+    private static final Logger logger = LogManager.getLogger(SearchTelemetry.class);
+    private static final String OBJECT_NAME_PATTERN = "ch.ffhs.ftoop.bridge.dame:type=SearchTelemetry,name=%s";
+
+    private long searches;
+    private long totalNodes;
+    private long totalQuiescenceNodes;
+    private long totalTimeNanos;
+    private long totalTableProbes;
+    private long totalTableHits;
+    private long totalCutoffs;
+    private long totalFirstMoveCutoffs;
+    private SearchStats lastStats;
+    private ObjectName objectName;
+
+    @Override
+    public synchronized void onSearchFinished(SearchStats stats) {
+        checkNotNull(stats);
+
+        this.searches++;
+        this.totalNodes += stats.getNodes();
+        this.totalQuiescenceNodes += stats.getQuiescenceNodes();
+        this.totalTimeNanos += stats.getTimeNanos();
+        this.totalTableProbes += stats.getTableProbes();
+        this.totalTableHits += stats.getTableHits();
+        this.totalCutoffs += stats.getCutoffs();
+        this.totalFirstMoveCutoffs += stats.getFirstMoveCutoffs();
+        this.lastStats = stats;
+    }
+
+    /**
+     * Registers the telemetry with the platform's MBean server.
+     *
+     * @param name The name distinguishing this telemetry from others, eg. the name of the player.
+     * @throws JMException Thrown if the telemetry could not be registered.
+     */
+    public synchronized void register(String name) throws JMException {
+        checkNotNull(name);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = new ObjectName(String.format(OBJECT_NAME_PATTERN, ObjectName.quote(name)));
+        server.registerMBean(this, objectName);
+        this.objectName = objectName;
+
+        logger.info("Registered search telemetry as {}", objectName);
+    }
+
+    /**
+     * Removes the telemetry from the platform's MBean server, if it has been registered.
+     *
+     * @throws JMException Thrown if the telemetry could not be unregistered.
+     */
+    public synchronized void unregister() throws JMException {
+        if (this.objectName != null) {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+            this.objectName = null;
+        }
+    }
+
+    @Override
+    public synchronized long getSearches() {
+        return this.searches;
+    }
+
+    @Override
+    public synchronized long getTotalNodes() {
+        return this.totalNodes;
+    }
+
+    @Override
+    public synchronized long getTotalQuiescenceNodes() {
+        return this.totalQuiescenceNodes;
+    }
+
+    @Override
+    public synchronized long getTotalTimeMillis() {
+        return this.totalTimeNanos / 1_000_000;
+    }
+
+    @Override
+    public synchronized long getAverageNodesPerSecond() {
+        return this.totalTimeNanos == 0 ? 0 : Math.round(this.totalNodes * 1e9 / this.totalTimeNanos);
+    }
+
+    @Override
+    public synchronized double getTableHitRate() {
+        return this.totalTableProbes == 0 ? 0 : (double) this.totalTableHits / this.totalTableProbes;
+    }
+
+    @Override
+    public synchronized double getFirstMoveCutoffRate() {
+        return this.totalCutoffs == 0 ? 0 : (double) this.totalFirstMoveCutoffs / this.totalCutoffs;
+    }
+
+    @Override
+    public synchronized long getLastNodes() {
+        return this.lastStats == null ? 0 : this.lastStats.getNodes();
+    }
+
+    @Override
+    public synchronized long getLastNodesPerSecond() {
+        return this.lastStats == null ? 0 : this.lastStats.getNodesPerSecond();
+    }
+
+    @Override
+    public synchronized long getLastTimeMillis() {
+        return this.lastStats == null ? 0 : this.lastStats.getTimeMillis();
+    }
+
+    @Override
+    public synchronized int getLastDepth() {
+        return this.lastStats == null ? 0 : this.lastStats.getDepth();
+    }
+
+    @Override
+    public synchronized double getLastEffectiveBranchingFactor() {
+        return this.lastStats == null ? 0 : this.lastStats.getEffectiveBranchingFactor();
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.searches = 0;
+        this.totalNodes = 0;
+        this.totalQuiescenceNodes = 0;
+        this.totalTimeNanos = 0;
+        this.totalTableProbes = 0;
+        this.totalTableHits = 0;
+        this.totalCutoffs = 0;
+        this.totalFirstMoveCutoffs = 0;
+        this.lastStats = null;
+    }
+
+    /**
+     * Returns the statistics of the last search.
+     *
+     * @return The statistics, or null if there has not been any search yet.
+     */
+    public synchronized SearchStats getLastStats() {
+        return this.lastStats;
+    }
+}
@@ -0,0 +1,35 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.telemetry;
+
+/**
+ * The statistics of the searches of an engine, as exported via JMX.
+ */
+public interface SearchTelemetryMXBean {
+    long getSearches();
+
+    long getTotalNodes();
+
+    long getTotalQuiescenceNodes();
+
+    long getTotalTimeMillis();
+
+    long getAverageNodesPerSecond();
+
+    double getTableHitRate();
+
+    double getFirstMoveCutoffRate();
+
+    long getLastNodes();
+
+    long getLastNodesPerSecond();
+
+    long getLastTimeMillis();
+
+    int getLastDepth();
+
+    double getLastEffectiveBranchingFactor();
+
+    /**
+     * Sets all statistics back to 0.
+     */
+    void reset();
+}
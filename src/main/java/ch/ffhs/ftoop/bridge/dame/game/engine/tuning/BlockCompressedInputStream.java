@@ -0,0 +1,125 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Decompresses a stream written by the {@link BlockCompressedOutputStream}, block by block.
+ * <p>
+ * The stream is not thread-safe.
+ */
+public class BlockCompressedInputStream extends InputStream {
+    private final DataInputStream input;
+    private final Inflater inflater = new Inflater();
+    private byte[] block = new byte[0];
+    private byte[] compressed = new byte[0];
+    private int length;
+    private int position;
+
+    /**
+     * Creates a stream and reads the magic number.
+     *
+     * @param input The stream to read the compressed blocks from, it is closed together with this stream.
+     * @throws IOException Thrown if the magic number could not be read or is wrong.
+     */
+    public BlockCompressedInputStream(InputStream input) throws IOException {
+        checkNotNull(input);
+
+        this.input = new DataInputStream(input);
+        try {
+            if (this.input.readInt() != BlockCompressedOutputStream.MAGIC) {
+                throw new InvalidTrainingDataFileException("Not a block compressed stream");
+            }
+        } catch (EOFException e) {
+            throw new InvalidTrainingDataFileException("Not a block compressed stream");
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!this.fill()) {
+            return -1;
+        }
+
+        return this.block[this.position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!this.fill()) {
+            return -1;
+        }
+
+        int copied = Math.min(len, this.length - this.position);
+        System.arraycopy(this.block, this.position, b, off, copied);
+        this.position += copied;
+        return copied;
+    }
+
+    /**
+     * Reads the next block, if the current one has been read completely.
+     *
+     * @return False at the end of the stream.
+     */
+    private boolean fill() throws IOException {
+        if (this.position < this.length) {
+            return true;
+        }
+
+        int uncompressedLength;
+        try {
+            uncompressedLength = this.input.readInt();
+        } catch (EOFException e) {
+            return false;
+        }
+
+        try {
+            int compressedLength = this.input.readInt();
+            if (uncompressedLength <= 0 || compressedLength <= 0) {
+                throw new InvalidTrainingDataFileException("Invalid block lengths");
+            }
+
+            if (this.compressed.length < compressedLength) {
+                this.compressed = new byte[compressedLength];
+            }
+
+            if (this.block.length < uncompressedLength) {
+                this.block = new byte[uncompressedLength];
+            }
+
+            this.input.readFully(this.compressed, 0, compressedLength);
+            this.inflater.reset();
+            this.inflater.setInput(this.compressed, 0, compressedLength);
+            if (this.inflater.inflate(this.block, 0, uncompressedLength) != uncompressedLength || !this.inflater.finished()) {
+                throw new InvalidTrainingDataFileException("Block does not match its length");
+            }
+        } catch (EOFException e) {
+            throw new InvalidTrainingDataFileException("The stream ends in the middle of a block");
+        } catch (DataFormatException e) {
+            throw new InvalidTrainingDataFileException("Corrupt block: " + e.getMessage());
+        }
+
+        this.length = uncompressedLength;
+        this.position = 0;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.input.close();
+        } finally {
+            this.inflater.end();
+        }
+    }
+}
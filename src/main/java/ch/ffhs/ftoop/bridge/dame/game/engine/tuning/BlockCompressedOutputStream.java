@@ -0,0 +1,117 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Compresses a stream in independent blocks of a fixed size, each of them deflated on its own and written with its
+ * uncompressed and compressed length. Compared to compressing the whole stream, the memory used stays the same
+ * regardless of the length of the stream, a damaged block does not affect the others, and readers could skip blocks.
+ * The stream starts with {@link #MAGIC}, see {@link BlockCompressedInputStream}.
+ * <p>
+ * The stream is not thread-safe.
+ */
+public class BlockCompressedOutputStream extends OutputStream {
+    static final int MAGIC = 0x44434231; // "DCB1"
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+
+    private final DataOutputStream output;
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final byte[] block;
+    private byte[] compressed;
+    private int length;
+
+    public BlockCompressedOutputStream(OutputStream output) throws IOException {
+        this(output, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a stream and writes the magic number.
+     *
+     * @param output    The stream to write the compressed blocks to, it is closed together with this stream.
+     * @param blockSize The number of uncompressed bytes per block.
+     * @throws IOException Thrown if the magic number could not be written.
+     */
+    public BlockCompressedOutputStream(OutputStream output, int blockSize) throws IOException {
+        checkNotNull(output);
+        checkArgument(blockSize > 0, "Block size must be positive");
+
+        this.output = new DataOutputStream(output);
+        this.block = new byte[blockSize];
+        this.compressed = new byte[blockSize];
+        this.output.writeInt(MAGIC);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (this.length == this.block.length) {
+            this.writeBlock();
+        }
+
+        this.block[this.length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (this.length == this.block.length) {
+                this.writeBlock();
+            }
+
+            int copied = Math.min(len, this.block.length - this.length);
+            System.arraycopy(b, off, this.block, this.length, copied);
+            this.length += copied;
+            off += copied;
+            len -= copied;
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (this.length == 0) {
+            return;
+        }
+
+        this.deflater.reset();
+        this.deflater.setInput(this.block, 0, this.length);
+        this.deflater.finish();
+
+        int compressedLength = 0;
+        while (!this.deflater.finished()) {
+            if (compressedLength == this.compressed.length) {
+                this.compressed = Arrays.copyOf(this.compressed, this.compressed.length * 2);
+            }
+
+            compressedLength += this.deflater.deflate(this.compressed, compressedLength, this.compressed.length - compressedLength);
+        }
+
+        this.output.writeInt(this.length);
+        this.output.writeInt(compressedLength);
+        this.output.write(this.compressed, 0, compressedLength);
+        this.length = 0;
+    }
+
+    /**
+     * Writes the current block, even if it is not full yet, and flushes the underlying stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        this.writeBlock();
+        this.output.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.flush();
+        } finally {
+            this.deflater.end();
+            this.output.close();
+        }
+    }
+}
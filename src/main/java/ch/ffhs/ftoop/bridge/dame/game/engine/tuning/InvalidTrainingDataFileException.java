@@ -0,0 +1,9 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+import java.io.IOException;
+
+public class InvalidTrainingDataFileException extends IOException {
+    public InvalidTrainingDataFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,242 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.Evaluator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Tunes the weights of the {@link Evaluator} to a {@link TrainingSet}, as proposed by Peter Österlund for Texel: the
+ * evaluation of a position is mapped to the expected result of the game with the logistic function
+ * {@code 1 / (1 + exp(-evaluation / scale))}, and the weights are fitted by minimising the logistic loss (cross
+ * entropy) between the expected and the actual results over all positions.
+ * <p>
+ * The scale is fitted first to the initial weights, then the weights are optimised with Adam. The weight of the men
+ * is kept fixed, so the evaluation stays in hundredths of a man. As the evaluation is linear in its features, the
+ * loss and its gradient are computed in a single pass over the primitive arrays of the training set, split into
+ * chunks that are processed in parallel on all cores.
+ */
+public final class TexelTuner {
+    private static final Logger logger = LogManager.getLogger(TexelTuner.class);
+
+    public static final double DEFAULT_LEARNING_RATE = 1;
+
+    private static final int FIXED_FEATURE = Evaluator.MEN;
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final double MIN_PROBABILITY = 1e-9;
+    private static final double MIN_INVERSE_SCALE = 1e-5;
+    private static final double MAX_INVERSE_SCALE = 1e-1;
+    private static final int SCALE_SEARCH_STEPS = 60;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+    private static final int LOG_INTERVAL = 100;
+
+    private final TrainingSet set;
+    private final int numberOfChunks;
+
+    /**
+     * Creates a tuner.
+     *
+     * @param set The labelled positions.
+     */
+    public TexelTuner(TrainingSet set) {
+        checkNotNull(set);
+        checkArgument(set.size() > 0, "The training set is empty");
+
+        this.set = set;
+        this.numberOfChunks = (set.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * Calculates the mean logistic loss of the weights over the training set.
+     *
+     * @param weights One weight per feature.
+     * @param scale   The evaluation at which the expected result is about 73%.
+     * @return The loss.
+     */
+    public double loss(double[] weights, double scale) {
+        return this.lossAndGradient(weights, scale)[Evaluator.NUMBER_OF_FEATURES];
+    }
+
+    /**
+     * Finds the scale with the least loss for the weights, with a golden section search (the loss is convex in the
+     * inverse of the scale).
+     *
+     * @param weights One weight per feature.
+     * @return The scale.
+     */
+    public double fitScale(double[] weights) {
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        double low = MIN_INVERSE_SCALE;
+        double high = MAX_INVERSE_SCALE;
+
+        for (int step = 0; step < SCALE_SEARCH_STEPS; step++) {
+            double left = high - ratio * (high - low);
+            double right = low + ratio * (high - low);
+            if (this.loss(weights, 1 / left) < this.loss(weights, 1 / right)) {
+                high = right;
+            } else {
+                low = left;
+            }
+        }
+
+        return 2 / (low + high);
+    }
+
+    /**
+     * Tunes the weights.
+     *
+     * @param initialWeights The weights to start from, the weight of the men is kept.
+     * @param iterations     The number of optimisation steps, each of them a pass over the whole training set.
+     * @param learningRate   The maximal change of a weight per step.
+     * @return The tuned weights, rounded.
+     */
+    public int[] tune(int[] initialWeights, int iterations, double learningRate) {
+        checkNotNull(initialWeights);
+        checkArgument(initialWeights.length == Evaluator.NUMBER_OF_FEATURES, "Expected %s weights, got %s",
+                Evaluator.NUMBER_OF_FEATURES, initialWeights.length);
+        checkArgument(iterations >= 0, "Number of iterations must not be negative");
+
+        double[] weights = Arrays.stream(initialWeights).asDoubleStream().toArray();
+        double scale = this.fitScale(weights);
+        logger.info("Tuning {} positions with scale {}, initial loss {}", this.set.size(), scale, this.loss(weights, scale));
+
+        double[] firstMoments = new double[Evaluator.NUMBER_OF_FEATURES];
+        double[] secondMoments = new double[Evaluator.NUMBER_OF_FEATURES];
+        for (int iteration = 1; iteration <= iterations; iteration++) {
+            double[] gradient = this.lossAndGradient(weights, scale);
+
+            for (int i = 0; i < Evaluator.NUMBER_OF_FEATURES; i++) {
+                if (i == FIXED_FEATURE) {
+                    continue;
+                }
+
+                firstMoments[i] = BETA1 * firstMoments[i] + (1 - BETA1) * gradient[i];
+                secondMoments[i] = BETA2 * secondMoments[i] + (1 - BETA2) * gradient[i] * gradient[i];
+                double firstMoment = firstMoments[i] / (1 - Math.pow(BETA1, iteration));
+                double secondMoment = secondMoments[i] / (1 - Math.pow(BETA2, iteration));
+                weights[i] -= learningRate * firstMoment / (Math.sqrt(secondMoment) + EPSILON);
+            }
+
+            if (iteration % LOG_INTERVAL == 0) {
+                logger.info("Iteration {}: loss {}, weights {}", iteration, gradient[Evaluator.NUMBER_OF_FEATURES], Arrays.toString(weights));
+            }
+        }
+
+        logger.info("Final loss {}", this.loss(weights, scale));
+        return Arrays.stream(weights).mapToInt(weight -> (int) Math.round(weight)).toArray();
+    }
+
+    /**
+     * Calculates the gradient of the loss with respect to the weights, followed by the loss itself.
+     */
+    private double[] lossAndGradient(double[] weights, double scale) {
+        double[] sums = IntStream.range(0, this.numberOfChunks).parallel()
+                .mapToObj(chunk -> this.lossAndGradientOfChunk(chunk, weights, scale))
+                .reduce(new double[Evaluator.NUMBER_OF_FEATURES + 1], TexelTuner::add);
+
+        for (int i = 0; i < Evaluator.NUMBER_OF_FEATURES; i++) {
+            sums[i] /= this.set.size() * scale;
+        }
+
+        sums[Evaluator.NUMBER_OF_FEATURES] /= this.set.size();
+        return sums;
+    }
+
+    private double[] lossAndGradientOfChunk(int chunk, double[] weights, double scale) {
+        short[] features = this.set.getFeatures();
+        float[] results = this.set.getResults();
+        double[] sums = new double[Evaluator.NUMBER_OF_FEATURES + 1];
+        int end = Math.min(this.set.size(), (chunk + 1) * CHUNK_SIZE);
+
+        for (int index = chunk * CHUNK_SIZE; index < end; index++) {
+            int offset = index * Evaluator.NUMBER_OF_FEATURES;
+            double evaluation = 0;
+            for (int i = 0; i < Evaluator.NUMBER_OF_FEATURES; i++) {
+                evaluation += weights[i] * features[offset + i];
+            }
+
+            double expected = 1 / (1 + Math.exp(-evaluation / scale));
+            double actual = results[index];
+            double error = expected - actual;
+            for (int i = 0; i < Evaluator.NUMBER_OF_FEATURES; i++) {
+                sums[i] += error * features[offset + i];
+            }
+
+            expected = Math.min(Math.max(expected, MIN_PROBABILITY), 1 - MIN_PROBABILITY);
+            sums[Evaluator.NUMBER_OF_FEATURES] -= actual * Math.log(expected) + (1 - actual) * Math.log(1 - expected);
+        }
+
+        return sums;
+    }
+
+    private static double[] add(double[] a, double[] b) {
+        double[] sum = new double[a.length];
+        for (int i = 0; i < a.length; i++) {
+            sum[i] = a[i] + b[i];
+        }
+
+        return sum;
+    }
+
+    /**
+     * Lists the training data files, the file itself or all files of a directory (eg. the shards written by the
+     * {@link ch.ffhs.ftoop.bridge.dame.headless.SelfPlayDataGenerator}).
+     */
+    private static List<Path> trainingDataFiles(Path path) throws IOException {
+        if (!Files.isDirectory(path)) {
+            return Collections.singletonList(path);
+        }
+
+        try (Stream<Path> files = Files.list(path)) {
+            return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Tunes the weights from the command line and writes them to a weights file, see {@link Evaluator#load(Path)}.
+     *
+     * @param args The weights file to write, the number of iterations and the training data files or directories.
+     * @throws IOException Thrown if a training data file could not be read or the weights file could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: TexelTuner <weights file> <iterations> <training data file or directory>...");
+            System.exit(1);
+        }
+
+        Path weightsFile = Paths.get(args[0]);
+        int iterations = Integer.parseInt(args[1]);
+        List<Path> files = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            files.addAll(trainingDataFiles(Paths.get(args[i])));
+        }
+
+        TrainingSet set = TrainingSet.load(files);
+        if (set.size() == 0) {
+            logger.error("The training data files {} contain no positions", files);
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        int[] weights = new TexelTuner(set).tune(Evaluator.withDefaultWeights().getWeights(), iterations, DEFAULT_LEARNING_RATE);
+        Evaluator evaluator = new Evaluator(weights);
+        evaluator.save(weightsFile);
+        logger.info("Tuned {} in {} s, written to {}", evaluator, (System.nanoTime() - start) / 1_000_000_000, weightsFile);
+    }
+}
@@ -0,0 +1,26 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+/**
+ * Layout of a training data file. A fixed size header is followed by one fixed size record per labelled position.
+ * A record starts with a flags byte, holding the side to move in its lowest bit and the result of the game in the two
+ * bits above, followed by the piece codes (see {@link ch.ffhs.ftoop.bridge.dame.game.engine.Position}) of all squares,
+ * two squares per byte.
+ */
+final class TrainingDataFormat {
+    static final int MAGIC = 0x44544431; // "DTD1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    static final int SIDE_TO_MOVE_LIGHT = 1;
+    static final int RESULT_SHIFT = 1;
+    static final int RESULT_LIGHT_WINS = 0;
+    static final int RESULT_DRAW = 1;
+    static final int RESULT_DARK_WINS = 2;
+
+    private TrainingDataFormat() {
+    }
+
+    static int recordSize(int numberOfSquares) {
+        return 1 + (numberOfSquares + 1) / 2;
+    }
+}
@@ -0,0 +1,158 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.RESULT_DARK_WINS;
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.RESULT_DRAW;
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.RESULT_LIGHT_WINS;
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.RESULT_SHIFT;
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.SIDE_TO_MOVE_LIGHT;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads the labelled positions of a training data file written by the {@link TrainingDataWriter}, one after another.
+ * To avoid allocations, all positions are read into the same {@link Position} instance.
+ * <p>
+ * A reader is not thread-safe.
+ */
+public class TrainingDataReader implements Closeable {
+    private final BoardGeometry geometry;
+    private final DataInputStream input;
+    private final byte[] record;
+    private final Position position;
+    private double result;
+
+    /**
+     * Creates a reader and reads the header.
+     *
+     * @param input The stream to read from, it is closed together with the reader.
+     * @throws IOException Thrown if the header could not be read or is invalid.
+     */
+    public TrainingDataReader(InputStream input) throws IOException {
+        checkNotNull(input);
+
+        this.input = new DataInputStream(new BufferedInputStream(input));
+        try {
+            if (this.input.readInt() != TrainingDataFormat.MAGIC || this.input.readByte() != TrainingDataFormat.VERSION) {
+                throw new InvalidTrainingDataFileException(String.format("Not a training data file of version %d", TrainingDataFormat.VERSION));
+            }
+
+            this.geometry = BoardGeometry.of(this.input.readShort());
+            this.input.readByte();
+        } catch (EOFException | IllegalArgumentException e) {
+            throw new InvalidTrainingDataFileException("Invalid header of the training data file");
+        }
+
+        this.record = new byte[TrainingDataFormat.recordSize(this.geometry.getNumberOfSquares())];
+        this.position = Position.empty(this.geometry, PieceColor.DARK);
+    }
+
+    /**
+     * Opens a training data file, which may be compressed with the {@link BlockCompressedOutputStream}.
+     *
+     * @param file The file.
+     * @return The reader.
+     * @throws IOException Thrown if the file could not be opened or is not a training data file.
+     */
+    public static TrainingDataReader open(Path file) throws IOException {
+        checkNotNull(file);
+
+        BufferedInputStream input = new BufferedInputStream(Files.newInputStream(file));
+        try {
+            input.mark(Integer.BYTES);
+            boolean compressed = new DataInputStream(input).readInt() == BlockCompressedOutputStream.MAGIC;
+            input.reset();
+
+            return new TrainingDataReader(compressed ? new BlockCompressedInputStream(input) : input);
+        } catch (EOFException e) {
+            input.close();
+            throw new InvalidTrainingDataFileException(String.format("%s is too short for a training data file", file));
+        } catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the next labelled position, see {@link #getPosition()} and {@link #getResult()}.
+     *
+     * @return True if a position has been read, false at the end of the file.
+     * @throws IOException Thrown if the position could not be read.
+     */
+    public boolean next() throws IOException {
+        int flags = this.input.read();
+        if (flags < 0) {
+            return false;
+        }
+
+        this.record[0] = (byte) flags;
+        try {
+            this.input.readFully(this.record, 1, this.record.length - 1);
+        } catch (EOFException e) {
+            throw new InvalidTrainingDataFileException("The training data file ends in the middle of a position");
+        }
+
+        switch (flags >> RESULT_SHIFT) {
+            case RESULT_LIGHT_WINS:
+                this.result = 0;
+                break;
+            case RESULT_DRAW:
+                this.result = 0.5;
+                break;
+            case RESULT_DARK_WINS:
+                this.result = 1;
+                break;
+            default:
+                throw new InvalidTrainingDataFileException("Invalid result " + (flags >> RESULT_SHIFT));
+        }
+
+        this.position.clear();
+        this.position.setSideToMove((flags & SIDE_TO_MOVE_LIGHT) != 0 ? PieceColor.LIGHT : PieceColor.DARK);
+        for (int square = 0; square < this.geometry.getNumberOfSquares(); square++) {
+            byte piece = (byte) ((this.record[1 + square / 2] >> (square % 2 == 0 ? 0 : 4)) & 0xF);
+            if (piece != Position.EMPTY) {
+                this.position.set(square, piece);
+            }
+        }
+
+        return true;
+    }
+
+    public BoardGeometry getGeometry() {
+        return this.geometry;
+    }
+
+    /**
+     * The position read last. It is overwritten by the next call of {@link #next()}.
+     *
+     * @return The position.
+     */
+    public Position getPosition() {
+        return this.position;
+    }
+
+    /**
+     * The result of the game the position read last was played in.
+     *
+     * @return 1 if dark has won, 0 if light has won, and 0.5 for a draw.
+     */
+    public double getResult() {
+        return this.result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+}
@@ -0,0 +1,104 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.RESULT_DARK_WINS;
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.RESULT_DRAW;
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.RESULT_LIGHT_WINS;
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.RESULT_SHIFT;
+import static ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataFormat.SIDE_TO_MOVE_LIGHT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Writes labelled positions, ie. positions together with the result of the game they were played in, to a training
+ * data file for the {@link TexelTuner}. The positions are streamed, so files of any size can be written.
+ * <p>
+ * A writer is not thread-safe.
+ */
+public class TrainingDataWriter implements Closeable {
+    private final BoardGeometry geometry;
+    private final DataOutputStream output;
+    private final byte[] record;
+    private long numberOfPositions;
+
+    /**
+     * Creates a writer and writes the header.
+     *
+     * @param output   The stream to write to, it is closed together with the writer.
+     * @param geometry The geometry of the board of all positions.
+     * @throws IOException Thrown if the header could not be written.
+     */
+    public TrainingDataWriter(OutputStream output, BoardGeometry geometry) throws IOException {
+        checkNotNull(output);
+        checkNotNull(geometry);
+
+        this.geometry = geometry;
+        this.output = new DataOutputStream(new BufferedOutputStream(output));
+        this.record = new byte[TrainingDataFormat.recordSize(geometry.getNumberOfSquares())];
+
+        this.output.writeInt(TrainingDataFormat.MAGIC);
+        this.output.writeByte(TrainingDataFormat.VERSION);
+        this.output.writeShort(geometry.getNumberOfRowsAndColumns());
+        this.output.writeByte(0);
+    }
+
+    /**
+     * Creates a training data file, replacing an existing one.
+     *
+     * @param file     The file.
+     * @param geometry The geometry of the board of all positions.
+     * @return The writer.
+     * @throws IOException Thrown if the file could not be created.
+     */
+    public static TrainingDataWriter create(Path file, BoardGeometry geometry) throws IOException {
+        checkNotNull(file);
+
+        return new TrainingDataWriter(Files.newOutputStream(file), geometry);
+    }
+
+    /**
+     * Writes a labelled position.
+     *
+     * @param position The position.
+     * @param winner   The winner of the game the position was played in, or null for a draw.
+     * @throws IOException Thrown if the position could not be written.
+     */
+    public void write(Position position, PieceColor winner) throws IOException {
+        checkNotNull(position);
+        checkArgument(position.getGeometry() == this.geometry, "The position has a different board size");
+
+        int result = winner == null ? RESULT_DRAW : winner == PieceColor.DARK ? RESULT_DARK_WINS : RESULT_LIGHT_WINS;
+        this.record[0] = (byte) ((position.getSideToMove() == PieceColor.LIGHT ? SIDE_TO_MOVE_LIGHT : 0) | result << RESULT_SHIFT);
+
+        for (int i = 1; i < this.record.length; i++) {
+            this.record[i] = 0;
+        }
+
+        for (int square = 0; square < this.geometry.getNumberOfSquares(); square++) {
+            this.record[1 + square / 2] |= position.get(square) << (square % 2 == 0 ? 0 : 4);
+        }
+
+        this.output.write(this.record);
+        this.numberOfPositions++;
+    }
+
+    public long getNumberOfPositions() {
+        return this.numberOfPositions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.output.close();
+    }
+}
@@ -0,0 +1,145 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.Evaluator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import com.google.common.primitives.Shorts;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * The labelled positions the {@link TexelTuner} fits the weights to. As the evaluation is linear in its features, only
+ * the features of each position (see {@link Evaluator#features}) and the result are kept, in flat primitive arrays,
+ * so millions of positions fit into memory and can be scanned quickly.
+ */
+public final class TrainingSet {
+    private static final Logger logger = LogManager.getLogger(TrainingSet.class);
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    // Some virtual machines reserve a few header words in an array
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    private static final int MAX_POSITIONS = MAX_ARRAY_LENGTH / Evaluator.NUMBER_OF_FEATURES;
+
+    private final int maxPositions;
+    private short[] features;
+    private float[] results;
+    private int size;
+    private final int[] buffer = new int[Evaluator.NUMBER_OF_FEATURES];
+
+    /**
+     * Creates an empty training set.
+     */
+    public TrainingSet() {
+        this(MAX_POSITIONS);
+    }
+
+    /**
+     * Creates an empty training set holding at most the given number of positions, eg. for tests.
+     */
+    TrainingSet(int maxPositions) {
+        checkArgument(maxPositions > 0 && maxPositions <= MAX_POSITIONS, "At most %s positions fit into a training set",
+                MAX_POSITIONS);
+
+        this.maxPositions = maxPositions;
+        int capacity = Math.min(INITIAL_CAPACITY, maxPositions);
+        this.features = new short[capacity * Evaluator.NUMBER_OF_FEATURES];
+        this.results = new float[capacity];
+    }
+
+    /**
+     * Loads the positions of training data files.
+     *
+     * @param files The files written by the {@link TrainingDataWriter}.
+     * @return The training set.
+     * @throws IOException Thrown if a file could not be read.
+     */
+    public static TrainingSet load(List<Path> files) throws IOException {
+        checkNotNull(files);
+
+        TrainingSet set = new TrainingSet();
+        for (Path file : files) {
+            try (TrainingDataReader reader = TrainingDataReader.open(file)) {
+                while (reader.next()) {
+                    set.add(reader.getPosition(), reader.getResult());
+                }
+            }
+
+            logger.info("Loaded {} positions after reading {}", set.size, file);
+        }
+
+        return set;
+    }
+
+    /**
+     * Adds a labelled position.
+     *
+     * @param position The position.
+     * @param result   The result of the game: 1 if dark has won, 0 if light has won, and 0.5 for a draw.
+     * @throws IllegalStateException Thrown if the set is full, as its features would not fit into an array anymore.
+     */
+    public void add(Position position, double result) {
+        checkNotNull(position);
+
+        if (this.size == this.results.length) {
+            checkState(this.size < this.maxPositions, "The training set is full with %s positions", this.size);
+            // Computed in long, as doubling a large set overflows an int
+            int capacity = (int) Math.min(2L * this.size, this.maxPositions);
+            this.results = Arrays.copyOf(this.results, capacity);
+            this.features = Arrays.copyOf(this.features, capacity * Evaluator.NUMBER_OF_FEATURES);
+        }
+
+        Evaluator.features(position, this.buffer);
+        int offset = this.size * Evaluator.NUMBER_OF_FEATURES;
+        for (int i = 0; i < Evaluator.NUMBER_OF_FEATURES; i++) {
+            this.features[offset + i] = Shorts.checkedCast(this.buffer[i]);
+        }
+
+        this.results[this.size++] = (float) result;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * The value of a feature of a position, from dark's perspective.
+     *
+     * @param index   The index of the position.
+     * @param feature The feature.
+     * @return The value.
+     */
+    public int feature(int index, int feature) {
+        checkElementIndex(index, this.size);
+
+        return this.features[index * Evaluator.NUMBER_OF_FEATURES + feature];
+    }
+
+    /**
+     * The result of the game a position was played in.
+     *
+     * @param index The index of the position.
+     * @return 1 if dark has won, 0 if light has won, and 0.5 for a draw.
+     */
+    public double result(int index) {
+        checkElementIndex(index, this.size);
+
+        return this.results[index];
+    }
+
+    // Raw access for the tuner, which scans the arrays without any bounds checks in between
+    short[] getFeatures() {
+        return this.features;
+    }
+
+    float[] getResults() {
+        return this.results;
+    }
+}
@@ -0,0 +1,20 @@
+package ch.ffhs.ftoop.bridge.dame.game.observer;
+
+/**
+ * How the events of an {@link ObserverBus} are delivered to an observer.
+ */
+public enum Delivery {
+    /**
+     * The observer is called immediately on the thread publishing the event, eg. the thread playing the move. A slow
+     * observer delays the publisher.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * The event is queued and the observer is called later on a thread of the bus, with the events in the order they
+     * have been published. The publisher never waits for the observer; if the observer falls behind and its queue is
+     * full, the oldest events are dropped, except on a lossless bus. The events of different buses, eg. a move and the
+     * end of the game, may be delivered in any order.
+     */
+    ASYNCHRONOUS
+}
@@ -0,0 +1,17 @@
+package ch.ffhs.ftoop.bridge.dame.game.observer;
+
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+
+/**
+ * Observer, for when moves have been taken back or played again.
+ */
+@FunctionalInterface
+public interface HistoryChangedObserver {
+
+    /**
+     * Called when a move has been taken back or played again.
+     *
+     * @param currentPlayer The player, that has their turn now.
+     */
+    void onHistoryChanged(Player currentPlayer);
+}
@@ -0,0 +1,17 @@
+package ch.ffhs.ftoop.bridge.dame.game.observer;
+
+/**
+ * Observer, for when a search engine has finished an iteration of its search, eg. a depth of an iteratively deepening
+ * search.
+ */
+@FunctionalInterface
+public interface IterationFinishedObserver {
+
+    /**
+     * Called on the searching thread between two iterations. The search waits for the observer, so an observer may
+     * block to pause the search.
+     *
+     * @param depth The depth searched completely.
+     */
+    void onIterationFinished(int depth);
+}
@@ -0,0 +1,20 @@
+package ch.ffhs.ftoop.bridge.dame.game.observer;
+
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+
+/**
+ * Observer, for when a move has been played, before the turn is finished or the game has ended.
+ */
+@FunctionalInterface
+public interface MovePlayedObserver {
+
+    /**
+     * Called when the move has been played on the board.
+     *
+     * @param player         The player, that has played the move.
+     * @param move           The move.
+     * @param capturedPieces The number of opponent pieces captured by the move.
+     */
+    void onMovePlayed(Player player, Move move, int capturedPieces);
+}
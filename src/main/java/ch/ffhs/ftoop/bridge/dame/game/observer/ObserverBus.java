@@ -0,0 +1,188 @@
+package ch.ffhs.ftoop.bridge.dame.game.observer;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Delivers the events of one kind to the registered observers, either synchronously or asynchronously (see
+ * {@link Delivery}). Observers can be registered and removed from any thread, also while events are published.
+ * <p>
+ * Every asynchronous observer has its own bounded queue. Its events are delivered by the threads shared by all buses
+ * in batches: a thread takes all events queued at that moment (up to the batch size) and delivers them one after
+ * another, so that a burst of events costs a single hand-over to the delivering thread. If an observer falls behind,
+ * the oldest of its events are dropped, unless the bus is lossless: a bus of rare events that must never be lost, eg.
+ * the end of a game, queues all of them.
+ *
+ * @param <O> The type of the observers.
+ */
+public final class ObserverBus<O> {
+    private static final Logger logger = LogManager.getLogger(ObserverBus.class);
+    private static final int BATCH_SIZE = 64;
+    private static final ExecutorService DELIVERY_THREADS = Executors.newFixedThreadPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors() / 2),
+            new ThreadFactoryBuilder().setNameFormat("observer-bus-%d").setDaemon(true).build());
+
+    private final List<Subscription<O>> subscriptions = new CopyOnWriteArrayList<>();
+    private final int queueCapacity;
+    private final boolean lossless;
+
+    /**
+     * Creates a bus, which drops the oldest events of asynchronous observers that have fallen behind.
+     *
+     * @param queueCapacity The number of events queued per asynchronous observer.
+     */
+    public ObserverBus(int queueCapacity) {
+        this(queueCapacity, false);
+    }
+
+    /**
+     * Creates the bus.
+     *
+     * @param queueCapacity The number of events queued per asynchronous observer.
+     * @param lossless      Whether all events are queued for asynchronous observers, however far they have fallen
+     *                      behind. Only for events that are published rarely.
+     */
+    public ObserverBus(int queueCapacity, boolean lossless) {
+        checkArgument(queueCapacity > 0, "Queue capacity must be positive");
+        this.queueCapacity = queueCapacity;
+        this.lossless = lossless;
+    }
+
+    /**
+     * Registers an observer, which is called synchronously.
+     *
+     * @param observer The observer.
+     */
+    public void register(O observer) {
+        this.register(observer, Delivery.SYNCHRONOUS);
+    }
+
+    /**
+     * Registers an observer.
+     *
+     * @param observer The observer.
+     * @param delivery How the events are delivered to the observer.
+     */
+    public void register(O observer, Delivery delivery) {
+        checkNotNull(observer);
+        checkNotNull(delivery);
+
+        this.subscriptions.add(delivery == Delivery.SYNCHRONOUS ? new Subscription<>(observer)
+                : new AsynchronousSubscription<>(observer, this.lossless ? Integer.MAX_VALUE : this.queueCapacity));
+    }
+
+    /**
+     * Removes an observer. Events already queued for it may still be delivered.
+     *
+     * @param observer The observer.
+     * @return Whether the observer was registered.
+     */
+    public boolean unregister(O observer) {
+        checkNotNull(observer);
+
+        return this.subscriptions.removeIf(subscription -> subscription.observer == observer);
+    }
+
+    /**
+     * Publishes an event to all observers, in the order of their registration. The event must not refer to state that
+     * changes afterwards, as asynchronous observers receive it later.
+     *
+     * @param event Calls the observer with the event.
+     */
+    public void publish(Consumer<O> event) {
+        for (Subscription<O> subscription : this.subscriptions) {
+            subscription.deliver(event);
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.subscriptions.isEmpty();
+    }
+
+    /**
+     * The number of events that have been dropped, because asynchronous observers have fallen behind.
+     *
+     * @return The number of events.
+     */
+    public long getNumberOfDroppedEvents() {
+        return this.subscriptions.stream()
+                .filter(subscription -> subscription instanceof AsynchronousSubscription)
+                .mapToLong(subscription -> ((AsynchronousSubscription<O>) subscription).dropped.get())
+                .sum();
+    }
+
+    private static class Subscription<O> {
+        final O observer;
+
+        Subscription(O observer) {
+            this.observer = observer;
+        }
+
+        void deliver(Consumer<O> event) {
+            this.call(event);
+        }
+
+        void call(Consumer<O> event) {
+            try {
+                event.accept(this.observer);
+            } catch (RuntimeException e) {
+                // One failing observer must not keep the others from being notified
+                logger.error("Observer {} failed", this.observer, e);
+            }
+        }
+    }
+
+    private static final class AsynchronousSubscription<O> extends Subscription<O> implements Runnable {
+        private final BlockingQueue<Consumer<O>> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+
+        AsynchronousSubscription(O observer, int queueCapacity) {
+            super(observer);
+            this.queue = queueCapacity == Integer.MAX_VALUE ? new LinkedBlockingQueue<>() : new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        @Override
+        void deliver(Consumer<O> event) {
+            while (!this.queue.offer(event)) {
+                if (this.queue.poll() != null && this.dropped.incrementAndGet() % 1000 == 1) {
+                    logger.warn("Observer {} is falling behind, {} events dropped", this.observer, this.dropped.get());
+                }
+            }
+
+            if (this.scheduled.compareAndSet(false, true)) {
+                DELIVERY_THREADS.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Consumer<O>> batch = new ArrayList<>(BATCH_SIZE);
+            do {
+                while (this.queue.drainTo(batch, BATCH_SIZE) > 0) {
+                    batch.forEach(this::call);
+                    batch.clear();
+                }
+
+                this.scheduled.set(false);
+                // An event may have been queued after draining, but before it was scheduled again
+            } while (!this.queue.isEmpty() && this.scheduled.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ch.ffhs.ftoop.bridge.dame.game.observer;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+
+/**
+ * Observer, for when a position has been reached in a game and the player to move is about to choose their move.
+ */
+@FunctionalInterface
+public interface PositionReachedObserver {
+
+    /**
+     * Called when the position has been reached.
+     *
+     * @param position A snapshot of the position, with the player to move. It is not changed afterwards.
+     */
+    void onPositionReached(Position position);
+}
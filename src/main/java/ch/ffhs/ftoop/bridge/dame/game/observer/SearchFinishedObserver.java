@@ -0,0 +1,17 @@
+package ch.ffhs.ftoop.bridge.dame.game.observer;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchStats;
+
+/**
+ * Observer, for when a search engine has finished a search.
+ */
+@FunctionalInterface
+public interface SearchFinishedObserver {
+
+    /**
+     * Called on the searching thread when the search has been finished.
+     *
+     * @param stats The statistics of the search.
+     */
+    void onSearchFinished(SearchStats stats);
+}
@@ -0,0 +1,9 @@
+package ch.ffhs.ftoop.bridge.dame.game.pdn;
+
+import java.io.IOException;
+
+public class InvalidPdnException extends IOException {
+    public InvalidPdnException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,222 @@
+package ch.ffhs.ftoop.bridge.dame.game.pdn;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads a large PDN file in parallel. The file is split into chunks at game boundaries, ie. at a line starting with
+ * '[' that does not follow another tag, and every chunk is read by its own {@link PdnReader}. Invalid games are
+ * skipped and counted.
+ */
+public class PdnArchive {
+    private static final Logger logger = LogManager.getLogger(PdnArchive.class);
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private final Path file;
+    private final AtomicLong invalidGames = new AtomicLong();
+
+    public PdnArchive(Path file) {
+        this.file = checkNotNull(file);
+    }
+
+    /**
+     * Reads all games of the file.
+     *
+     * @param threads  The number of threads reading the file.
+     * @param consumer Called with every valid game, concurrently from all threads and in no particular order.
+     * @return The number of valid games.
+     * @throws IOException          Thrown if the file could not be read.
+     * @throws InterruptedException Thrown if the thread has been interrupted.
+     */
+    public long read(int threads, Consumer<PdnGame> consumer) throws IOException, InterruptedException {
+        checkArgument(threads > 0, "At least one thread is needed");
+        checkNotNull(consumer);
+
+        this.invalidGames.set(0);
+        long[] boundaries = this.split(threads * CHUNKS_PER_THREAD);
+        logger.info("Reading {} in {} chunks", this.file, boundaries.length - 1);
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                .setNameFormat("pdn-%d")
+                .setDaemon(true)
+                .build());
+        try {
+            List<Future<Long>> chunks = new ArrayList<>();
+            for (int i = 0; i + 1 < boundaries.length; i++) {
+                long start = boundaries[i];
+                long end = boundaries[i + 1];
+                chunks.add(workers.submit(() -> this.readChunk(start, end, consumer)));
+            }
+
+            long games = 0;
+            for (Future<Long> chunk : chunks) {
+                games += chunk.get();
+            }
+
+            return games;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IllegalStateException("Could not read " + this.file, e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private long readChunk(long start, long end, Consumer<PdnGame> consumer) throws IOException {
+        long games = 0;
+        try (FileChannel channel = FileChannel.open(this.file)) {
+            channel.position(start);
+            PdnReader reader = new PdnReader(new InputStreamReader(ByteStreams.limit(Channels.newInputStream(channel), end - start),
+                    StandardCharsets.UTF_8));
+
+            while (true) {
+                PdnGame game;
+                try {
+                    game = reader.next();
+                } catch (InvalidPdnException e) {
+                    logger.warn("Skipping invalid game in the chunk starting at byte {}: {}", start, e.getMessage());
+                    this.invalidGames.incrementAndGet();
+                    continue;
+                }
+
+                if (game == null) {
+                    return games;
+                }
+
+                consumer.accept(game);
+                games++;
+            }
+        }
+    }
+
+    /**
+     * Splits the file into chunks, each starting with a game.
+     *
+     * @param chunks The number of chunks wanted.
+     * @return The offsets the chunks start at, followed by the size of the file. There may be fewer chunks than
+     * wanted, if the file has few games.
+     * @throws IOException Thrown if the file could not be read.
+     */
+    long[] split(int chunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(this.file)) {
+            long size = channel.size();
+            List<Long> boundaries = new ArrayList<>();
+            boundaries.add(0L);
+
+            for (int i = 1; i < chunks; i++) {
+                long offset = Math.max(size * i / chunks, boundaries.get(boundaries.size() - 1) + 1);
+                long start = offset < size ? findGameStart(channel, offset) : size;
+                if (start >= size) {
+                    break;
+                }
+
+                boundaries.add(start);
+            }
+
+            boundaries.add(size);
+            return boundaries.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    /**
+     * Finds the first line starting with '[' after an offset, whose previous non-blank line does not end with ']'.
+     *
+     * @return The offset of the '[' or the size of the file if there is none.
+     */
+    private static long findGameStart(FileChannel channel, long offset) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = offset;
+        boolean lineStart = false;
+        byte last = ']'; // Unknown before the offset, so a tag must not start there
+
+        while (channel.read(buffer, position) > 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                if (b == '\n') {
+                    lineStart = true;
+                } else if (b == '[' && lineStart && last != ']') {
+                    return position + buffer.position() - 1;
+                } else if (b != ' ' && b != '\t' && b != '\r') {
+                    last = b;
+                    lineStart = false;
+                }
+            }
+
+            position += buffer.limit();
+            buffer.clear();
+        }
+
+        return channel.size();
+    }
+
+    /**
+     * The number of invalid games skipped by the last {@link #read(int, Consumer)}.
+     *
+     * @return The number of invalid games.
+     */
+    public long getNumberOfInvalidGames() {
+        return this.invalidGames.get();
+    }
+
+    /**
+     * Reads a PDN file on all processors and replays every game with the rules of the game configuration.
+     *
+     * @param args The PDN file, optionally followed by the game configuration file.
+     * @throws ConfigurationException Thrown if the game configuration could not be loaded.
+     * @throws IOException            Thrown if the file could not be read.
+     * @throws InterruptedException   Thrown if the thread has been interrupted.
+     */
+    public static void main(String[] args) throws ConfigurationException, IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: PdnArchive <pdn file> [game configuration]");
+            System.exit(1);
+        }
+
+        GameConfig config = args.length > 1 ? new GameConfig(args[1]) : new GameConfig();
+        PdnArchive archive = new PdnArchive(Paths.get(args[0]));
+        AtomicLong replayed = new AtomicLong();
+
+        long start = System.nanoTime();
+        long games = archive.read(Runtime.getRuntime().availableProcessors(), game -> {
+            try {
+                game.replay(config);
+                replayed.incrementAndGet();
+            } catch (InvalidPdnException e) {
+                logger.info("{} cannot be replayed: {}", game, e.getMessage());
+            }
+        });
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        logger.info("Read {} games ({} invalid) in {} ms, {} of them could be replayed", games, archive.getNumberOfInvalidGames(),
+                millis, replayed.get());
+    }
+}
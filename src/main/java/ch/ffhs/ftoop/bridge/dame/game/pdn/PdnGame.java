@@ -0,0 +1,182 @@
+package ch.ffhs.ftoop.bridge.dame.game.pdn;
+
+import ch.ffhs.ftoop.bridge.dame.game.Game;
+import ch.ffhs.ftoop.bridge.dame.game.GameAlreadyStartedException;
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.PlayersUsingSamePieceColorException;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.board.Tile;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.move.InvalidMoveException;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import ch.ffhs.ftoop.bridge.dame.game.record.GameRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A game in Portable Draughts Notation: the tag pairs of its header, its moves and its result. Comments, variations
+ * and annotations are not kept.
+ */
+public final class PdnGame {
+    public static final String TAG_DARK = "Black";
+    public static final String TAG_LIGHT = "White";
+    public static final String TAG_RESULT = "Result";
+
+    private final Map<String, String> tags;
+    private final List<PdnMove> moves;
+    private final PdnResult result;
+
+    /**
+     * Creates the game.
+     *
+     * @param tags   The tag pairs, in the order they are written.
+     * @param moves  The moves, starting with the first move of dark.
+     * @param result The result.
+     */
+    public PdnGame(Map<String, String> tags, List<PdnMove> moves, PdnResult result) {
+        this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+        this.moves = Collections.unmodifiableList(new ArrayList<>(moves));
+        this.result = checkNotNull(result);
+    }
+
+    /**
+     * Creates the game from a recorded game, to export it.
+     *
+     * @param record The recorded game.
+     * @param tags   The tag pairs.
+     * @param result The result.
+     * @return The game.
+     */
+    public static PdnGame from(GameRecord record, Map<String, String> tags, PdnResult result) {
+        List<PdnMove> moves = new ArrayList<>(record.getNumberOfMoves());
+        for (int ply = 0; ply < record.getNumberOfMoves(); ply++) {
+            int move = record.getMove(ply);
+            moves.add(PdnMove.of(PackedMove.from(move), PackedMove.to(move), PackedMove.isCapture(move)));
+        }
+
+        return new PdnGame(tags, moves, result);
+    }
+
+    /**
+     * Replays the game from the initial position, checking every move against the configured rules with the
+     * {@link ch.ffhs.ftoop.bridge.dame.game.move.MoveRuleValidator}. A multi-jump can only be replayed if it does
+     * not change direction, as a move of a {@link Game} captures along one diagonal.
+     *
+     * @param config The configuration of the board and the rules.
+     * @return The game after the last move.
+     * @throws InvalidPdnException Thrown if a move is not valid.
+     */
+    public Game replay(GameConfig config) throws InvalidPdnException {
+        checkNotNull(config);
+
+        Game game;
+        try {
+            game = new Game(config);
+            game.start(new Player(this.tags.getOrDefault(TAG_DARK, "Dark"), PieceColor.DARK),
+                    new Player(this.tags.getOrDefault(TAG_LIGHT, "Light"), PieceColor.LIGHT));
+        } catch (InvalidNumberOfPiecesPerPlayerException | InvalidBoardDimensionsException e) {
+            throw new InvalidPdnException("Invalid game configuration: " + e.getMessage());
+        } catch (PlayersUsingSamePieceColorException | GameAlreadyStartedException e) {
+            throw new IllegalStateException("Could not start a new game", e);
+        }
+
+        boolean[] ended = new boolean[1];
+        int[] capturedPieces = new int[1];
+        game.registerGameEndedObserver((winner, loser) -> ended[0] = true);
+        game.registerMovePlayedObserver((player, move, captured) -> capturedPieces[0] = captured);
+
+        BoardGeometry geometry = BoardGeometry.of(config.getNumberOfRowsAndColumnsOfBoard());
+        for (int ply = 0; ply < this.moves.size(); ply++) {
+            PdnMove move = this.moves.get(ply);
+            if (ended[0]) {
+                throw new InvalidPdnException(String.format("Move %s is played after the end of the game", describe(move, ply)));
+            }
+
+            try {
+                Move played = this.toMove(game, geometry, move, ply);
+                capturedPieces[0] = 0;
+                game.doMove(played);
+            } catch (InvalidMoveException | InvalidBoardPositionException e) {
+                throw new InvalidPdnException(String.format("Move %s is invalid: %s", describe(move, ply), e.getMessage()));
+            }
+
+            if (move.isCapture() != capturedPieces[0] > 0) {
+                throw new InvalidPdnException(String.format("Move %s %s", describe(move, ply),
+                        move.isCapture() ? "does not capture" : "captures, but is written as a simple move"));
+            }
+        }
+
+        return game;
+    }
+
+    private Move toMove(Game game, BoardGeometry geometry, PdnMove move, int ply) throws InvalidPdnException, InvalidBoardPositionException {
+        for (int i = 0; i < move.getNumberOfSquares(); i++) {
+            if (move.getSquare(i) >= geometry.getNumberOfSquares()) {
+                throw new InvalidPdnException(String.format("Move %s leaves the board", describe(move, ply)));
+            }
+        }
+
+        int direction = geometry.directionBetween(move.getFrom(), move.getSquare(1));
+        for (int i = 2; i < move.getNumberOfSquares(); i++) {
+            if (geometry.directionBetween(move.getSquare(i - 1), move.getSquare(i)) != direction) {
+                throw new InvalidPdnException(String.format("Move %s changes direction, which the rules of this game do not allow",
+                        describe(move, ply)));
+            }
+        }
+
+        BoardPosition from = geometry.positionOf(move.getFrom());
+        Tile tile = game.getBoard().getTile(from);
+        if (!tile.isOccupied()) {
+            throw new InvalidPdnException(String.format("Move %s starts on an empty square", describe(move, ply)));
+        }
+
+        return Move.from(game.getCurrentPlayer(), tile.getPiece(), from, geometry.positionOf(move.getTo()));
+    }
+
+    private static String describe(PdnMove move, int ply) {
+        return (ply / 2 + 1) + (ply % 2 == 0 ? ". " : "... ") + move;
+    }
+
+    /**
+     * The value of a tag pair.
+     *
+     * @param name The name of the tag.
+     * @return The value or null if the game has no such tag.
+     */
+    public String getTag(String name) {
+        return this.tags.get(name);
+    }
+
+    public Map<String, String> getTags() {
+        return this.tags;
+    }
+
+    public List<PdnMove> getMoves() {
+        return this.moves;
+    }
+
+    public PdnResult getResult() {
+        return this.result;
+    }
+
+    @Override
+    public String toString() {
+        return "PdnGame{" +
+                "tags=" + tags +
+                ", moves=" + moves.size() +
+                ", result=" + result.getMarker() +
+                '}';
+    }
+}
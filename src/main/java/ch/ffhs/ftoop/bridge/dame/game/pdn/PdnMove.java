@@ -0,0 +1,74 @@
+package ch.ffhs.ftoop.bridge.dame.game.pdn;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A move of a PDN game: the squares the piece passes, numbered as in
+ * {@link ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry} (the PDN square numbers minus 1), and whether it
+ * captures. A multi-jump lists every square the piece lands on.
+ */
+public final class PdnMove {
+    private final int[] squares;
+    private final boolean capture;
+
+    public PdnMove(int[] squares, boolean capture) {
+        checkArgument(squares.length >= 2, "A move needs at least two squares");
+
+        this.squares = squares.clone();
+        this.capture = capture;
+    }
+
+    public static PdnMove of(int from, int to, boolean capture) {
+        return new PdnMove(new int[]{from, to}, capture);
+    }
+
+    public int getFrom() {
+        return this.squares[0];
+    }
+
+    public int getTo() {
+        return this.squares[this.squares.length - 1];
+    }
+
+    public int getNumberOfSquares() {
+        return this.squares.length;
+    }
+
+    public int getSquare(int index) {
+        return this.squares[index];
+    }
+
+    public boolean isCapture() {
+        return this.capture;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        PdnMove pdnMove = (PdnMove) o;
+        return capture == pdnMove.capture &&
+                Arrays.equals(squares, pdnMove.squares);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(squares) + (capture ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < this.squares.length; i++) {
+            if (i > 0) {
+                builder.append(this.capture ? 'x' : '-');
+            }
+
+            builder.append(this.squares[i] + 1);
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,136 @@
+package ch.ffhs.ftoop.bridge.dame.game.pdn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads the games of a PDN text one after another, so texts of any size can be read with constant memory. A game
+ * ends with its game termination marker, or where the tags of the next game start if the marker is missing.
+ * <p>
+ * A reader is not thread-safe, see {@link PdnArchive} for reading large files in parallel.
+ */
+public class PdnReader implements Closeable {
+    private final Reader reader;
+    private final PdnTokenizer tokenizer;
+    private String pendingTagName;
+    private String pendingTagValue;
+
+    public PdnReader(Reader reader) {
+        this.reader = checkNotNull(reader);
+        this.tokenizer = new PdnTokenizer(reader);
+    }
+
+    /**
+     * Opens a PDN file encoded in UTF-8 (or plain ASCII).
+     *
+     * @param file The file.
+     * @return The reader.
+     * @throws IOException Thrown if the file could not be opened.
+     */
+    public static PdnReader open(Path file) throws IOException {
+        return new PdnReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the next game. If the game is not valid PDN, the rest of it is skipped, so reading can continue with the
+     * game after it.
+     *
+     * @return The game or null if there are no more games.
+     * @throws IOException Thrown if the text could not be read or the game is not valid PDN.
+     */
+    public PdnGame next() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<PdnMove> moves = new ArrayList<>();
+        if (this.pendingTagName != null) {
+            tags.put(this.pendingTagName, this.pendingTagValue);
+            this.pendingTagName = null;
+        }
+
+        try {
+            while (true) {
+                switch (this.tokenizer.next()) {
+                    case PdnTokenizer.END:
+                        return tags.isEmpty() && moves.isEmpty() ? null : new PdnGame(tags, moves, resultOf(tags));
+                    case PdnTokenizer.TAG:
+                        if (!moves.isEmpty()) {
+                            this.keepTag();
+                            return new PdnGame(tags, moves, resultOf(tags));
+                        }
+                        tags.put(this.tokenizer.getTagName(), this.tokenizer.getTagValue());
+                        break;
+                    case PdnTokenizer.MOVE:
+                        moves.add(this.tokenizer.getMove());
+                        break;
+                    case PdnTokenizer.RESULT:
+                        return new PdnGame(tags, moves, this.tokenizer.getResult());
+                    default:
+                        // Move numbers are implied by the order of the moves
+                        break;
+                }
+            }
+        } catch (InvalidPdnException e) {
+            this.skipGame(!moves.isEmpty());
+            throw e;
+        }
+    }
+
+    /**
+     * Skips the rest of an invalid game, up to its game termination marker or the tags of the next game.
+     */
+    private void skipGame(boolean inMoves) throws IOException {
+        while (true) {
+            try {
+                switch (this.tokenizer.next()) {
+                    case PdnTokenizer.END:
+                    case PdnTokenizer.RESULT:
+                        return;
+                    case PdnTokenizer.TAG:
+                        if (inMoves) {
+                            this.keepTag();
+                            return;
+                        }
+                        break;
+                    default:
+                        inMoves = true;
+                }
+            } catch (InvalidPdnException e) {
+                inMoves = true;
+            }
+        }
+    }
+
+    private void keepTag() {
+        this.pendingTagName = this.tokenizer.getTagName();
+        this.pendingTagValue = this.tokenizer.getTagValue();
+    }
+
+    private static PdnResult resultOf(Map<String, String> tags) {
+        PdnResult result = tags.containsKey(PdnGame.TAG_RESULT) ? PdnResult.of(tags.get(PdnGame.TAG_RESULT)) : null;
+        return result != null ? result : PdnResult.UNKNOWN;
+    }
+
+    /**
+     * The line the reader has read up to.
+     *
+     * @return The line number, starting with 1.
+     */
+    public int getLineNumber() {
+        return this.tokenizer.getLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.reader.close();
+    }
+}
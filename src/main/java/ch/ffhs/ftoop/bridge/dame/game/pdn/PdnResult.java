@@ -0,0 +1,62 @@
+package ch.ffhs.ftoop.bridge.dame.game.pdn;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+/**
+ * The game termination marker of a PDN game. As in the usual checkers notation, the score of dark, which moves
+ * first, is written first.
+ */
+public enum PdnResult {
+    DARK_WINS("1-0"),
+    LIGHT_WINS("0-1"),
+    DRAW("1/2-1/2"),
+    UNKNOWN("*");
+
+    private final String marker;
+
+    PdnResult(String marker) {
+        this.marker = marker;
+    }
+
+    /**
+     * Parses a game termination marker, accepting the scores of 2 points per game used in draughts as well.
+     *
+     * @param marker The marker, eg. "1-0".
+     * @return The result or null if the marker is not a game termination marker.
+     */
+    public static PdnResult of(String marker) {
+        switch (marker) {
+            case "1-0":
+            case "2-0":
+                return DARK_WINS;
+            case "0-1":
+            case "0-2":
+                return LIGHT_WINS;
+            case "1/2-1/2":
+            case "1-1":
+                return DRAW;
+            case "*":
+                return UNKNOWN;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The result of a game with a known winner.
+     *
+     * @param winner The color of the winner, null for a draw.
+     * @return The result.
+     */
+    public static PdnResult wonBy(PieceColor winner) {
+        if (winner == null) {
+            return DRAW;
+        }
+
+        return winner == PieceColor.DARK ? DARK_WINS : LIGHT_WINS;
+    }
+
+    public String getMarker() {
+        return this.marker;
+    }
+}
@@ -0,0 +1,361 @@
+package ch.ffhs.ftoop.bridge.dame.game.pdn;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Splits PDN text into tokens, reading it character by character from a buffer of its own. Comments, variations,
+ * numeric annotation glyphs and escaped lines are skipped; move strength annotations like "!?" are dropped. Moves
+ * are parsed directly into their squares, so apart from tags no strings are created while reading the move text.
+ * <p>
+ * Squares must be given as numbers, algebraic squares (eg. "c3") are not supported.
+ */
+final class PdnTokenizer {
+    static final int END = 0;
+    static final int TAG = 1;
+    static final int MOVE_NUMBER = 2;
+    static final int MOVE = 3;
+    static final int RESULT = 4;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_WORD_LENGTH = 256;
+    private static final int MAX_SQUARE = 9999;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private int line = 1;
+    private int previous = '\n';
+
+    private final char[] word = new char[MAX_WORD_LENGTH];
+    private int wordStart;
+    private int wordLength;
+
+    private final StringBuilder text = new StringBuilder();
+    private String tagName;
+    private String tagValue;
+    private final int[] squares = new int[MAX_WORD_LENGTH / 2];
+    private int numberOfSquares;
+    private boolean capture;
+    private PdnResult result;
+
+    PdnTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next token.
+     *
+     * @return The type of the token, {@link #END} at the end of the text.
+     * @throws IOException Thrown if the text could not be read or is not valid PDN.
+     */
+    int next() throws IOException {
+        if (this.wordLength > 0) {
+            return this.classifyWord();
+        }
+
+        while (true) {
+            boolean lineStart = this.previous == '\n';
+            int c = this.read();
+            switch (c) {
+                case -1:
+                    return END;
+                case '[':
+                    this.readTag();
+                    return TAG;
+                case '{':
+                    this.skipComment();
+                    break;
+                case '(':
+                    this.skipVariation();
+                    break;
+                case ';':
+                    this.skipLine();
+                    break;
+                case '$':
+                    while (isDigit(this.peek())) {
+                        this.read();
+                    }
+                    break;
+                case '%':
+                    if (!lineStart) {
+                        throw this.invalid("'%' is only allowed at the start of a line");
+                    }
+                    this.skipLine();
+                    break;
+                default:
+                    if (!isWhitespace(c)) {
+                        this.readWord((char) c);
+                        return this.classifyWord();
+                    }
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (this.position == this.limit && !this.fill()) {
+            this.previous = -1;
+            return -1;
+        }
+
+        char c = this.buffer[this.position++];
+        if (c == '\n') {
+            this.line++;
+        }
+
+        this.previous = c;
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (this.position == this.limit && !this.fill()) {
+            return -1;
+        }
+
+        return this.buffer[this.position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = this.reader.read(this.buffer, 0, this.buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+
+        this.position = 0;
+        this.limit = read;
+        return true;
+    }
+
+    private void readTag() throws IOException {
+        int c = this.skipWhitespace();
+
+        this.text.setLength(0);
+        while (c != -1 && !isWhitespace(c) && c != '"' && c != ']') {
+            this.text.append((char) c);
+            c = this.read();
+        }
+
+        if (this.text.length() == 0) {
+            throw this.invalid("Tag without a name");
+        }
+
+        this.tagName = this.text.toString();
+        if (isWhitespace(c)) {
+            c = this.skipWhitespace();
+        }
+
+        if (c != '"') {
+            throw this.invalid("Tag " + this.tagName + " without a value");
+        }
+
+        this.text.setLength(0);
+        for (c = this.read(); c != '"'; c = this.read()) {
+            if (c == '\\') {
+                c = this.read();
+            }
+
+            if (c == -1) {
+                throw this.invalid("Unterminated value of tag " + this.tagName);
+            }
+
+            this.text.append((char) c);
+        }
+
+        this.tagValue = this.text.toString();
+        if (this.skipWhitespace() != ']') {
+            throw this.invalid("Unterminated tag " + this.tagName);
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = this.read();
+        while (isWhitespace(c)) {
+            c = this.read();
+        }
+
+        return c;
+    }
+
+    private void skipComment() throws IOException {
+        int c = this.read();
+        while (c != '}') {
+            if (c == -1) {
+                throw this.invalid("Unterminated comment");
+            }
+
+            c = this.read();
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = this.read();
+            if (c == -1) {
+                throw this.invalid("Unterminated variation");
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '{') {
+                this.skipComment();
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c = this.read();
+        while (c != '\n' && c != -1) {
+            c = this.read();
+        }
+    }
+
+    private void readWord(char first) throws IOException {
+        this.wordStart = 0;
+        this.wordLength = 0;
+        this.word[this.wordLength++] = first;
+
+        int c = this.peek();
+        while (c != -1 && !isDelimiter(c)) {
+            if (this.wordLength == MAX_WORD_LENGTH) {
+                this.wordLength = 0;
+                throw this.invalid("Token is too long");
+            }
+
+            this.word[this.wordLength++] = (char) this.read();
+            c = this.peek();
+        }
+    }
+
+    /**
+     * Classifies the current word. A move number directly followed by a move (eg. "1.11-15") is returned as move
+     * number, keeping the rest of the word for the next call.
+     */
+    private int classifyWord() throws IOException {
+        int start = this.wordStart;
+        int end = start + this.wordLength;
+        int i = start;
+        while (i < end && isDigit(this.word[i])) {
+            i++;
+        }
+
+        if (i > start && i < end && this.word[i] == '.') {
+            while (i < end && this.word[i] == '.') {
+                i++;
+            }
+
+            this.wordStart = i;
+            this.wordLength = end - i;
+            return MOVE_NUMBER;
+        }
+
+        this.wordLength = 0;
+        if (this.isResult(start, end)) {
+            this.result = PdnResult.of(new String(this.word, start, end - start));
+            if (this.result == null) {
+                throw this.invalid("Invalid result " + new String(this.word, start, end - start));
+            }
+
+            return RESULT;
+        }
+
+        this.readMove(start, end);
+        return MOVE;
+    }
+
+    private boolean isResult(int start, int end) {
+        if (this.word[start] == '*') {
+            return true;
+        }
+
+        for (int i = start; i < end; i++) {
+            if (this.word[i] == '/') {
+                return true;
+            }
+        }
+
+        // Square 0 does not exist, so "1-0" or "0-2" cannot be moves, nor can "1-1" move a piece
+        return end - start == 3 && this.word[start + 1] == '-' && isDigit(this.word[start]) && isDigit(this.word[start + 2])
+                && (this.word[start] == '0' || this.word[start + 2] == '0' || this.word[start] == this.word[start + 2]);
+    }
+
+    private void readMove(int start, int end) throws InvalidPdnException {
+        this.numberOfSquares = 0;
+        this.capture = false;
+
+        int i = start;
+        while (true) {
+            int square = 0;
+            int digits = 0;
+            while (i < end && isDigit(this.word[i])) {
+                square = 10 * square + this.word[i++] - '0';
+                if (++digits > 4) {
+                    break;
+                }
+            }
+
+            if (digits == 0 || square < 1 || square > MAX_SQUARE) {
+                throw this.invalid("Invalid move " + new String(this.word, start, end - start));
+            }
+
+            this.squares[this.numberOfSquares++] = square - 1;
+            if (i == end || this.word[i] == '!' || this.word[i] == '?') {
+                break;
+            }
+
+            char separator = this.word[i++];
+            if (separator == 'x' || separator == 'X' || separator == ':') {
+                this.capture = true;
+            } else if (separator != '-') {
+                throw this.invalid("Invalid move " + new String(this.word, start, end - start));
+            }
+        }
+
+        while (i < end && (this.word[i] == '!' || this.word[i] == '?')) {
+            i++;
+        }
+
+        if (i != end || this.numberOfSquares < 2) {
+            throw this.invalid("Invalid move " + new String(this.word, start, end - start));
+        }
+    }
+
+    private InvalidPdnException invalid(String message) {
+        return new InvalidPdnException(String.format("Line %d: %s", this.line, message));
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\f';
+    }
+
+    private static boolean isDelimiter(int c) {
+        return isWhitespace(c) || c == '[' || c == ']' || c == '{' || c == '}' || c == '(' || c == ')' || c == ';'
+                || c == '$' || c == '"';
+    }
+
+    String getTagName() {
+        return this.tagName;
+    }
+
+    String getTagValue() {
+        return this.tagValue;
+    }
+
+    PdnMove getMove() {
+        return new PdnMove(Arrays.copyOf(this.squares, this.numberOfSquares), this.capture);
+    }
+
+    PdnResult getResult() {
+        return this.result;
+    }
+
+    int getLine() {
+        return this.line;
+    }
+}
@@ -0,0 +1,166 @@
+package ch.ffhs.ftoop.bridge.dame.game.pdn;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.record.GameRecord;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Writes games in Portable Draughts Notation: the tag pairs, followed by the numbered moves wrapped at 80 characters
+ * and the game termination marker. Games are separated by a blank line.
+ */
+public class PdnWriter implements Closeable {
+    private static final Logger logger = LogManager.getLogger(PdnWriter.class);
+    private static final int MAX_LINE_LENGTH = 80;
+
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(MAX_LINE_LENGTH);
+    private int numberOfGames;
+
+    public PdnWriter(Writer writer) {
+        this.writer = checkNotNull(writer);
+    }
+
+    /**
+     * Creates a PDN file encoded in UTF-8, replacing an existing file.
+     *
+     * @param file The file.
+     * @return The writer.
+     * @throws IOException Thrown if the file could not be created.
+     */
+    public static PdnWriter create(Path file) throws IOException {
+        return new PdnWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a game.
+     *
+     * @param game The game.
+     * @throws IOException Thrown if the game could not be written.
+     */
+    public void write(PdnGame game) throws IOException {
+        checkNotNull(game);
+
+        if (this.numberOfGames > 0) {
+            this.writer.write('\n');
+        }
+
+        for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+            this.writer.write('[');
+            this.writer.write(tag.getKey());
+            this.writer.write(" \"");
+            this.writer.write(escape(tag.getValue()));
+            this.writer.write("\"]\n");
+        }
+
+        if (!game.getTags().isEmpty()) {
+            this.writer.write('\n');
+        }
+
+        this.line.setLength(0);
+        List<PdnMove> moves = game.getMoves();
+        for (int ply = 0; ply < moves.size(); ply++) {
+            if (ply % 2 == 0) {
+                this.append((ply / 2 + 1) + ".");
+            }
+
+            this.append(moves.get(ply).toString());
+        }
+
+        this.append(game.getResult().getMarker());
+        this.writer.write(this.line.toString());
+        this.writer.write('\n');
+        this.numberOfGames++;
+    }
+
+    private void append(String token) throws IOException {
+        if (this.line.length() > 0 && this.line.length() + 1 + token.length() > MAX_LINE_LENGTH) {
+            this.writer.write(this.line.toString());
+            this.writer.write('\n');
+            this.line.setLength(0);
+        }
+
+        if (this.line.length() > 0) {
+            this.line.append(' ');
+        }
+
+        this.line.append(token);
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    public int getNumberOfGames() {
+        return this.numberOfGames;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.close();
+    }
+
+    /**
+     * Exports recorded games from the command line.
+     *
+     * @param args The PDN file to write, followed by the game record files or directories of game record files.
+     * @throws IOException Thrown if a game record could not be read or the PDN file could not be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: PdnWriter <pdn file> <game record file or directory>...");
+            System.exit(1);
+        }
+
+        List<Path> records = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            Path path = Paths.get(args[i]);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.list(path)) {
+                    records.addAll(files.filter(Files::isRegularFile).sorted().collect(Collectors.toList()));
+                }
+            } else {
+                records.add(path);
+            }
+        }
+
+        try (PdnWriter writer = PdnWriter.create(Paths.get(args[0]))) {
+            for (Path file : records) {
+                GameRecord record = GameRecord.read(file);
+                Map<String, String> tags = new LinkedHashMap<>();
+                tags.put("Event", file.getFileName().toString());
+                writer.write(PdnGame.from(record, tags, resultOf(record)));
+            }
+
+            logger.info("Exported {} games to {}", writer.getNumberOfGames(), args[0]);
+        }
+    }
+
+    private static PdnResult resultOf(GameRecord record) {
+        Position position = record.positionAt(record.getNumberOfMoves());
+        if (position.count(PieceColor.DARK) == 0) {
+            return PdnResult.LIGHT_WINS;
+        } else if (position.count(PieceColor.LIGHT) == 0) {
+            return PdnResult.DARK_WINS;
+        }
+
+        return PdnResult.UNKNOWN;
+    }
+}
@@ -0,0 +1,134 @@
+package ch.ffhs.ftoop.bridge.dame.game.record;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static ch.ffhs.ftoop.bridge.dame.game.record.GameRecordFormat.COMPACT_CAPTURE_BIT;
+import static ch.ffhs.ftoop.bridge.dame.game.record.GameRecordFormat.FLAG_WIDE_SQUARES;
+import static ch.ffhs.ftoop.bridge.dame.game.record.GameRecordFormat.WIDE_CAPTURE_BIT;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Records a game move by move into an append-only game record file, see {@link GameRecordFormat}. Every move is
+ * written to the file as soon as it is appended, so the record survives a crash of the application up to the last
+ * move. An existing file is never overwritten. The record can be read with {@link GameRecord#read(Path)}.
+ * <p>
+ * A journal is not thread-safe.
+ */
+public class GameJournal implements Closeable {
+    private final FileChannel channel;
+    private final BoardGeometry geometry;
+    private final boolean wideSquares;
+    private final ByteBuffer buffer = ByteBuffer.allocate(GameRecordFormat.MAX_MOVE_SIZE);
+    private int numberOfMoves;
+
+    private GameJournal(FileChannel channel, BoardGeometry geometry) {
+        this.channel = channel;
+        this.geometry = geometry;
+        this.wideSquares = geometry.getNumberOfSquares() > GameRecordFormat.MAX_COMPACT_SQUARES;
+    }
+
+    /**
+     * Creates a new game record file and writes the header.
+     *
+     * @param file   The file, which must not exist yet.
+     * @param config The configuration of the recorded game.
+     * @return The journal.
+     * @throws IOException Thrown if the file already exists or could not be written.
+     */
+    public static GameJournal create(Path file, GameConfig config) throws IOException {
+        checkNotNull(file);
+        checkNotNull(config);
+
+        BoardGeometry geometry = BoardGeometry.of(config.getNumberOfRowsAndColumnsOfBoard());
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.APPEND);
+        GameJournal journal = new GameJournal(channel, geometry);
+
+        ByteBuffer header = ByteBuffer.allocate(GameRecordFormat.HEADER_SIZE);
+        header.putInt(GameRecordFormat.MAGIC);
+        header.put((byte) GameRecordFormat.VERSION);
+        header.put((byte) (journal.wideSquares ? FLAG_WIDE_SQUARES : 0));
+        header.putShort((short) geometry.getNumberOfRowsAndColumns());
+        header.putShort((short) config.getNumberOfPiecesPerPlayer());
+        header.putInt(GameRecordFormat.maskOf(config.getEnabledRules()));
+        header.position(GameRecordFormat.HEADER_SIZE); // Reserved
+        header.flip();
+
+        try {
+            journal.writeFully(header);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        return journal;
+    }
+
+    /**
+     * Appends a move.
+     *
+     * @param from           The square the piece is moved from.
+     * @param to             The square the piece is moved to.
+     * @param capturedPieces The number of opponent pieces captured.
+     * @throws IOException Thrown if the move could not be written.
+     */
+    public void append(int from, int to, int capturedPieces) throws IOException {
+        checkArgument(from >= 0 && from < this.geometry.getNumberOfSquares() && to >= 0 && to < this.geometry.getNumberOfSquares(),
+                "Squares must be on the board");
+        checkArgument(capturedPieces >= 0 && capturedPieces <= 0xFF, "Invalid number of captured pieces");
+
+        this.buffer.clear();
+        if (this.wideSquares) {
+            this.buffer.putShort((short) (from | (capturedPieces > 0 ? WIDE_CAPTURE_BIT : 0)));
+            this.buffer.putShort((short) to);
+        } else {
+            this.buffer.put((byte) (from | (capturedPieces > 0 ? COMPACT_CAPTURE_BIT : 0)));
+            this.buffer.put((byte) to);
+        }
+
+        if (capturedPieces > 0) {
+            this.buffer.put((byte) capturedPieces);
+        }
+
+        this.buffer.flip();
+        this.writeFully(this.buffer);
+        this.numberOfMoves++;
+    }
+
+    /**
+     * Appends a move of the game.
+     *
+     * @param move           The move.
+     * @param capturedPieces The number of opponent pieces captured.
+     * @throws IOException Thrown if the move could not be written.
+     */
+    public void append(Move move, int capturedPieces) throws IOException {
+        checkNotNull(move);
+
+        this.append(this.geometry.squareAt(move.getFrom()), this.geometry.squareAt(move.getTo()), capturedPieces);
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+    }
+
+    public int getNumberOfMoves() {
+        return this.numberOfMoves;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,177 @@
+package ch.ffhs.ftoop.bridge.dame.game.record;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.move.MoveRule;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static ch.ffhs.ftoop.bridge.dame.game.record.GameRecordFormat.COMPACT_CAPTURE_BIT;
+import static ch.ffhs.ftoop.bridge.dame.game.record.GameRecordFormat.FLAG_WIDE_SQUARES;
+import static ch.ffhs.ftoop.bridge.dame.game.record.GameRecordFormat.WIDE_CAPTURE_BIT;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndex;
+
+/**
+ * A game read from a game record file written by the {@link GameJournal}: the board, the enabled rules and the
+ * moves played. Any position of the game can be reconstructed by replaying the moves on a {@link Position}, which
+ * takes well below a microsecond per move.
+ * <p>
+ * A record is immutable.
+ */
+public final class GameRecord {
+    private static final Logger logger = LogManager.getLogger(GameRecord.class);
+
+    private final BoardGeometry geometry;
+    private final int numberOfPiecesPerPlayer;
+    private final List<MoveRule> enabledRules;
+    private final Position initialPosition;
+    private final int[] moves;
+
+    private GameRecord(BoardGeometry geometry, int numberOfPiecesPerPlayer, List<MoveRule> enabledRules, Position initialPosition, int[] moves) {
+        this.geometry = geometry;
+        this.numberOfPiecesPerPlayer = numberOfPiecesPerPlayer;
+        this.enabledRules = Collections.unmodifiableList(enabledRules);
+        this.initialPosition = initialPosition;
+        this.moves = moves;
+    }
+
+    /**
+     * Reads a game record file and checks, that its moves can be replayed. A move cut off at the end of the file
+     * (eg. because the application crashed while appending it) is ignored.
+     *
+     * @param file The file.
+     * @return The record.
+     * @throws IOException Thrown if the file could not be read or is not a valid game record.
+     */
+    public static GameRecord read(Path file) throws IOException {
+        checkNotNull(file);
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < GameRecordFormat.HEADER_SIZE || buffer.getInt() != GameRecordFormat.MAGIC
+                || buffer.get() != GameRecordFormat.VERSION) {
+            throw new InvalidGameRecordFileException(String.format("%s is not a game record of version %d", file, GameRecordFormat.VERSION));
+        }
+
+        boolean wideSquares = (buffer.get() & FLAG_WIDE_SQUARES) != 0;
+        int numberOfRowsAndColumns = buffer.getShort();
+        int numberOfPiecesPerPlayer = buffer.getShort();
+        List<MoveRule> enabledRules = GameRecordFormat.rulesOf(buffer.getInt());
+        buffer.position(GameRecordFormat.HEADER_SIZE);
+
+        Position position = initialPosition(file, numberOfRowsAndColumns, numberOfPiecesPerPlayer);
+        Position initialPosition = position.copy();
+        int[] moves = new int[buffer.remaining() / 2];
+        int numberOfMoves = 0;
+
+        try {
+            while (buffer.hasRemaining()) {
+                int from = wideSquares ? buffer.getShort() & 0xFFFF : buffer.get() & 0xFF;
+                int to = wideSquares ? buffer.getShort() & 0xFFFF : buffer.get() & 0xFF;
+                int captureBit = wideSquares ? WIDE_CAPTURE_BIT : COMPACT_CAPTURE_BIT;
+                int capturedPieces = (from & captureBit) != 0 ? buffer.get() & 0xFF : 0;
+                from &= ~captureBit;
+
+                int move = PackedMove.of(from, to, capturedPieces, false);
+                play(file, position, move, numberOfMoves);
+                moves[numberOfMoves++] = move;
+            }
+        } catch (BufferUnderflowException e) {
+            logger.warn("{} ends with an incomplete move, which is ignored", file);
+        }
+
+        return new GameRecord(position.getGeometry(), numberOfPiecesPerPlayer, enabledRules, initialPosition, Arrays.copyOf(moves, numberOfMoves));
+    }
+
+    private static Position initialPosition(Path file, int numberOfRowsAndColumns, int numberOfPiecesPerPlayer) throws InvalidGameRecordFileException {
+        try {
+            Board board = new Board(numberOfRowsAndColumns);
+            board.populateWithInitialPieces(numberOfPiecesPerPlayer);
+            return Position.from(board, PieceColor.DARK);
+        } catch (InvalidBoardDimensionsException | InvalidNumberOfPiecesPerPlayerException e) {
+            throw new InvalidGameRecordFileException(String.format("%s has an invalid board: %s", file, e.getMessage()));
+        }
+    }
+
+    /**
+     * Plays a move of the record and checks, that it moves a piece to an empty square and captures as many pieces as
+     * recorded.
+     */
+    private static void play(Path file, Position position, int move, int ply) throws InvalidGameRecordFileException {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int squares = position.getGeometry().getNumberOfSquares();
+        if (from >= squares || to >= squares || position.isEmpty(from) || !position.isEmpty(to)) {
+            throw new InvalidGameRecordFileException(String.format("%s has an invalid move %s in ply %d", file, PackedMove.toString(move), ply + 1));
+        }
+
+        PieceColor opponent = Position.opponentOf(Position.colorOf(position.get(from)));
+        int opponentPieces = position.count(opponent);
+        position.doMove(move);
+
+        if (opponentPieces - position.count(opponent) != PackedMove.captures(move)) {
+            throw new InvalidGameRecordFileException(String.format("%s has a move %s in ply %d capturing a different number of pieces",
+                    file, PackedMove.toString(move), ply + 1));
+        }
+    }
+
+    /**
+     * Reconstructs the position after a number of moves.
+     *
+     * @param ply The number of moves played, 0 for the initial position.
+     * @return The position, with the player to move.
+     */
+    public Position positionAt(int ply) {
+        checkPositionIndex(ply, this.moves.length);
+
+        Position position = this.initialPosition.copy();
+        for (int i = 0; i < ply; i++) {
+            position.doMove(this.moves[i]);
+        }
+
+        return position;
+    }
+
+    /**
+     * The move played in a ply, with the squares and the number of captured pieces.
+     *
+     * @param ply The index of the move, starting with 0 for the first move of dark.
+     * @return The packed move.
+     */
+    public int getMove(int ply) {
+        checkElementIndex(ply, this.moves.length);
+
+        return this.moves[ply];
+    }
+
+    public int getNumberOfMoves() {
+        return this.moves.length;
+    }
+
+    public BoardGeometry getGeometry() {
+        return this.geometry;
+    }
+
+    public int getNumberOfPiecesPerPlayer() {
+        return this.numberOfPiecesPerPlayer;
+    }
+
+    public List<MoveRule> getEnabledRules() {
+        return this.enabledRules;
+    }
+}
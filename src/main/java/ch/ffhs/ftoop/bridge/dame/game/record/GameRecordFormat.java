@@ -0,0 +1,48 @@
+package ch.ffhs.ftoop.bridge.dame.game.record;
+
+import ch.ffhs.ftoop.bridge.dame.game.move.MoveRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Layout of a game record file. A fixed size header with the board size, the number of pieces per player and the
+ * enabled rules is followed by the moves, in the order they have been played. On boards with up to 128 squares, a
+ * move takes 2 bytes: the square it starts from and the square it ends on (numbered as in
+ * {@link ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry}), the highest bit of the first byte telling whether a
+ * third byte with the number of captured pieces follows. On larger boards, squares take 2 bytes each.
+ */
+final class GameRecordFormat {
+    static final int MAGIC = 0x44475231; // "DGR1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    static final int FLAG_WIDE_SQUARES = 1;
+    static final int MAX_COMPACT_SQUARES = 128;
+    static final int COMPACT_CAPTURE_BIT = 0x80;
+    static final int WIDE_CAPTURE_BIT = 0x8000;
+    static final int MAX_MOVE_SIZE = 5;
+
+    private GameRecordFormat() {
+    }
+
+    static int maskOf(List<MoveRule> rules) {
+        int mask = 0;
+        for (MoveRule rule : rules) {
+            mask |= 1 << rule.ordinal();
+        }
+
+        return mask;
+    }
+
+    static List<MoveRule> rulesOf(int mask) {
+        List<MoveRule> rules = new ArrayList<>();
+        for (MoveRule rule : MoveRule.values()) {
+            if ((mask & 1 << rule.ordinal()) != 0) {
+                rules.add(rule);
+            }
+        }
+
+        return rules;
+    }
+}
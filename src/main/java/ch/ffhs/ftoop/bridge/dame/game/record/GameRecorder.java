@@ -0,0 +1,185 @@
+package ch.ffhs.ftoop.bridge.dame.game.record;
+
+import ch.ffhs.ftoop.bridge.dame.game.Game;
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.PlayedMove;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import ch.ffhs.ftoop.bridge.dame.game.observer.GameEndedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.GameStartedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.HistoryChangedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.MovePlayedObserver;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Records every game played into its own game record file in a directory, named after the time the game started.
+ * As records are append-only, a move played after moves have been taken back starts a new record with the moves
+ * played so far. Recording never interrupts a game: if a record cannot be written, a warning is logged and the rest
+ * of the game is not recorded.
+ * <p>
+ * The records are written by a thread of the recorder, so the game never waits for the disk. The observers only hand
+ * the events over to it, in the order they have been published, together with the moves a new record starts with.
+ */
+public class GameRecorder implements GameStartedObserver, MovePlayedObserver, GameEndedObserver, HistoryChangedObserver {
+    private static final Logger logger = LogManager.getLogger(GameRecorder.class);
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("'game-'yyyyMMdd-HHmmss-SSS'.dgr'");
+
+    private final Path directory;
+    private final GameConfig config;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("game-recorder-%d")
+            .setDaemon(true)
+            .build());
+    private Game game;
+    private boolean historyChanged;
+    // Only used by the writer thread
+    private GameJournal journal;
+
+    /**
+     * Creates the recorder.
+     *
+     * @param directory The directory the records are written to, created if it does not exist.
+     * @param config    The configuration of the recorded games.
+     */
+    public GameRecorder(Path directory, GameConfig config) {
+        this.directory = checkNotNull(directory);
+        this.config = checkNotNull(config);
+    }
+
+    /**
+     * Records the games played in a game from now on.
+     *
+     * @param game The game.
+     */
+    public void attachTo(Game game) {
+        checkNotNull(game);
+
+        this.game = game;
+        game.registerGameStartedObserver(this);
+        game.registerMovePlayedObserver(this);
+        game.registerGameEndedObserver(this);
+        game.registerHistoryChangedObserver(this);
+    }
+
+    @Override
+    public void onGameStarted() {
+        this.historyChanged = false;
+        this.write(this::startJournal);
+    }
+
+    private void write(Runnable task) {
+        try {
+            this.writer.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("The recorder has been closed, the game is not recorded");
+        }
+    }
+
+    private void startJournal() {
+        this.closeJournal();
+
+        Path file = this.directory.resolve(LocalDateTime.now().format(FILE_NAME_FORMAT));
+        try {
+            Files.createDirectories(this.directory);
+            this.journal = GameJournal.create(file, this.config);
+            logger.info("Recording game to {}", file);
+        } catch (IOException e) {
+            logger.warn("Could not create the game record {}, the game is not recorded", file, e);
+        }
+    }
+
+    @Override
+    public void onMovePlayed(Player player, Move move, int capturedPieces) {
+        if (this.historyChanged) {
+            this.historyChanged = false;
+            // Taken now, as the game goes on while the writer is busy
+            List<PlayedMove> played = this.game.getPlayedMoves();
+            this.write(() -> this.restartJournal(played));
+        }
+
+        this.write(() -> this.append(move, capturedPieces));
+    }
+
+    private void append(Move move, int capturedPieces) {
+        if (this.journal == null) {
+            return;
+        }
+
+        try {
+            this.journal.append(move, capturedPieces);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not record the move {}, the rest of the game is not recorded", move, e);
+            this.closeJournal();
+        }
+    }
+
+    /**
+     * Starts a new record with the moves leading to the current position, as the move about to be appended does not
+     * follow the moves in the current record.
+     */
+    private void restartJournal(List<PlayedMove> moves) {
+        this.startJournal();
+
+        try {
+            for (PlayedMove played : moves) {
+                if (this.journal != null) {
+                    this.journal.append(played.getMove(), played.getCapturedPieces().size());
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not record the moves played so far, the rest of the game is not recorded", e);
+            this.closeJournal();
+        }
+    }
+
+    @Override
+    public void onHistoryChanged(Player currentPlayer) {
+        this.historyChanged = true;
+    }
+
+    @Override
+    public void onGameEnded(Player winner, Player loser) {
+        this.write(this::closeJournal);
+    }
+
+    /**
+     * Writes the events handed over so far and stops recording.
+     *
+     * @throws InterruptedException Thrown if the thread has been interrupted while waiting for the writer.
+     */
+    public void close() throws InterruptedException {
+        this.write(this::closeJournal);
+        this.writer.shutdown();
+        this.writer.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    private void closeJournal() {
+        if (this.journal == null) {
+            return;
+        }
+
+        try {
+            this.journal.close();
+            logger.info("Recorded game with {} moves", this.journal.getNumberOfMoves());
+        } catch (IOException e) {
+            logger.warn("Could not close the game record", e);
+        } finally {
+            this.journal = null;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package ch.ffhs.ftoop.bridge.dame.game.record;
+
+import java.io.IOException;
+
+public class InvalidGameRecordFileException extends IOException {
+    public InvalidGameRecordFileException(String message) {
+        super(message);
+    }
+}
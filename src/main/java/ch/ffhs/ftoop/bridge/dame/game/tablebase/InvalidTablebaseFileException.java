@@ -0,0 +1,9 @@
+package ch.ffhs.ftoop.bridge.dame.game.tablebase;
+
+import java.io.IOException;
+
+public class InvalidTablebaseFileException extends IOException {
+    public InvalidTablebaseFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,111 @@
+package ch.ffhs.ftoop.bridge.dame.game.tablebase;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+
+import java.util.Objects;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The material of a position: how many men and kings each player has. The tablebase is split into one table per
+ * material slice, as moves only ever lead into the same slice or into slices with less material (captures) or fewer
+ * men (promotions), which can therefore be solved first.
+ */
+public final class MaterialSlice {
+    private final int darkMen;
+    private final int darkKings;
+    private final int lightMen;
+    private final int lightKings;
+
+    private MaterialSlice(int darkMen, int darkKings, int lightMen, int lightKings) {
+        this.darkMen = darkMen;
+        this.darkKings = darkKings;
+        this.lightMen = lightMen;
+        this.lightKings = lightKings;
+    }
+
+    public static MaterialSlice of(int darkMen, int darkKings, int lightMen, int lightKings) {
+        checkArgument(darkMen >= 0 && darkKings >= 0 && lightMen >= 0 && lightKings >= 0, "Number of pieces must not be negative");
+        return new MaterialSlice(darkMen, darkKings, lightMen, lightKings);
+    }
+
+    /**
+     * Determines the material slice of a position.
+     *
+     * @param position The position.
+     * @return The slice.
+     */
+    public static MaterialSlice of(Position position) {
+        int[] counts = new int[Position.LIGHT_KING + 1];
+        BoardGeometry geometry = position.getGeometry();
+
+        for (int square = 0; square < geometry.getNumberOfSquares(); square++) {
+            counts[position.get(square)]++;
+        }
+
+        return new MaterialSlice(counts[Position.DARK_MAN], counts[Position.DARK_KING], counts[Position.LIGHT_MAN], counts[Position.LIGHT_KING]);
+    }
+
+    public int getDarkMen() {
+        return this.darkMen;
+    }
+
+    public int getDarkKings() {
+        return this.darkKings;
+    }
+
+    public int getLightMen() {
+        return this.lightMen;
+    }
+
+    public int getLightKings() {
+        return this.lightKings;
+    }
+
+    public int getNumberOfPieces() {
+        return this.darkMen + this.darkKings + this.lightMen + this.lightKings;
+    }
+
+    public int getNumberOfMen() {
+        return this.darkMen + this.lightMen;
+    }
+
+    /**
+     * The name of the file the table of this slice is stored in, eg. {@code 8x8-1011.tb} for a dark man against a light
+     * man and a light king on an 8x8 board.
+     *
+     * @param numberOfRowsAndColumns The size of the board.
+     * @return The file name.
+     */
+    public String fileName(int numberOfRowsAndColumns) {
+        return String.format("%dx%d-%d%d%d%d%s", numberOfRowsAndColumns, numberOfRowsAndColumns,
+                this.darkMen, this.darkKings, this.lightMen, this.lightKings, TablebaseFormat.FILE_EXTENSION);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        MaterialSlice that = (MaterialSlice) o;
+        return darkMen == that.darkMen &&
+                darkKings == that.darkKings &&
+                lightMen == that.lightMen &&
+                lightKings == that.lightKings;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(darkMen, darkKings, lightMen, lightKings);
+    }
+
+    @Override
+    public String toString() {
+        return "MaterialSlice{" +
+                "darkMen=" + darkMen +
+                ", darkKings=" + darkKings +
+                ", lightMen=" + lightMen +
+                ", lightKings=" + lightKings +
+                '}';
+    }
+}
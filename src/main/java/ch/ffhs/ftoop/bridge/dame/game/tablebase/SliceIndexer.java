@@ -0,0 +1,222 @@
+package ch.ffhs.ftoop.bridge.dame.game.tablebase;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+
+/**
+ * Maps every placement of the pieces of a {@link MaterialSlice} to a unique index and back. The index is built with
+ * the combinatorial number system, one combination per piece type:
+ * <ol>
+ * <li>the dark men on all squares except the dark kings row (a man there would have become king)</li>
+ * <li>the light men on all squares except the light kings row</li>
+ * <li>the dark kings on the squares not taken by men</li>
+ * <li>the light kings on the squares not taken by men or dark kings</li>
+ * </ol>
+ * The kings are therefore indexed without gaps. The men of both colors are indexed independently, so the few indices
+ * where a dark and a light man would share a square are invalid and have to be skipped, see {@link #decode(long, Position)}.
+ * <p>
+ * Indexers are immutable and can be shared between threads.
+ */
+final class SliceIndexer {
+    static final int MAX_PIECES_PER_TYPE = 16;
+
+    // Pascal's triangle, saturated at Long.MAX_VALUE; slices that large are rejected anyway
+    private static final long[][] BINOMIALS = new long[PackedMove.MAX_SQUARES + 1][MAX_PIECES_PER_TYPE + 1];
+
+    static {
+        for (int n = 0; n <= PackedMove.MAX_SQUARES; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, MAX_PIECES_PER_TYPE); k++) {
+                long sum = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+                BINOMIALS[n][k] = sum < 0 ? Long.MAX_VALUE : sum;
+            }
+        }
+    }
+
+    private final BoardGeometry geometry;
+    private final MaterialSlice slice;
+    private final int manSquares;
+    private final int lightManOffset;
+    private final int freeForDarkKings;
+    private final int freeForLightKings;
+    private final long darkMenCombinations;
+    private final long lightMenCombinations;
+    private final long darkKingCombinations;
+    private final long lightKingCombinations;
+    private final long size;
+
+    SliceIndexer(BoardGeometry geometry, MaterialSlice slice) {
+        this.geometry = geometry;
+        this.slice = slice;
+
+        int squares = geometry.getNumberOfSquares();
+        this.lightManOffset = geometry.getSquaresPerRow();
+        this.manSquares = squares - geometry.getSquaresPerRow();
+
+        this.freeForDarkKings = squares - slice.getNumberOfMen();
+        this.freeForLightKings = this.freeForDarkKings - slice.getDarkKings();
+        if (this.freeForLightKings < slice.getLightKings()
+                || Math.max(Math.max(slice.getDarkMen(), slice.getLightMen()), Math.max(slice.getDarkKings(), slice.getLightKings())) > MAX_PIECES_PER_TYPE) {
+            throw new IllegalArgumentException(String.format("%s does not fit on a board with %d squares", slice, squares));
+        }
+
+        this.darkMenCombinations = binomial(this.manSquares, slice.getDarkMen());
+        this.lightMenCombinations = binomial(this.manSquares, slice.getLightMen());
+        this.darkKingCombinations = binomial(this.freeForDarkKings, slice.getDarkKings());
+        this.lightKingCombinations = binomial(this.freeForLightKings, slice.getLightKings());
+
+        try {
+            this.size = Math.multiplyExact(Math.multiplyExact(this.darkMenCombinations, this.lightMenCombinations),
+                    Math.multiplyExact(this.darkKingCombinations, this.lightKingCombinations));
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("%s has too many positions to be indexed", slice), e);
+        }
+    }
+
+    static long binomial(int n, int k) {
+        if (k < 0 || n < 0 || k > n) {
+            return 0;
+        }
+
+        return BINOMIALS[n][k];
+    }
+
+    /**
+     * The number of indices of the slice, including the invalid ones.
+     *
+     * @return The size.
+     */
+    long size() {
+        return this.size;
+    }
+
+    /**
+     * Calculates the index of a position, which must contain exactly the material of the slice. The side to move is
+     * not part of the index.
+     *
+     * @param position The position.
+     * @return The index or -1 if a man is on its kings row.
+     */
+    long index(Position position) {
+        int squares = this.geometry.getNumberOfSquares();
+        long darkMenRank = 0;
+        long lightMenRank = 0;
+        int darkMen = 0;
+        int lightMen = 0;
+
+        for (int square = 0; square < squares; square++) {
+            byte piece = position.get(square);
+            if (piece == Position.DARK_MAN) {
+                if (square >= this.manSquares) {
+                    return -1;
+                }
+                darkMenRank += binomial(square, ++darkMen);
+            } else if (piece == Position.LIGHT_MAN) {
+                if (square < this.lightManOffset) {
+                    return -1;
+                }
+                lightMenRank += binomial(square - this.lightManOffset, ++lightMen);
+            }
+        }
+
+        long darkKingRank = 0;
+        long lightKingRank = 0;
+        int darkKings = 0;
+        int lightKings = 0;
+        int menBefore = 0;
+        int menAndDarkKingsBefore = 0;
+
+        for (int square = 0; square < squares; square++) {
+            byte piece = position.get(square);
+            if (piece == Position.DARK_KING) {
+                darkKingRank += binomial(square - menBefore, ++darkKings);
+                menAndDarkKingsBefore++;
+            } else if (piece == Position.LIGHT_KING) {
+                lightKingRank += binomial(square - menAndDarkKingsBefore, ++lightKings);
+            } else if (piece != Position.EMPTY) {
+                menBefore++;
+                menAndDarkKingsBefore++;
+            }
+        }
+
+        return ((darkMenRank * this.lightMenCombinations + lightMenRank) * this.darkKingCombinations + darkKingRank) * this.lightKingCombinations + lightKingRank;
+    }
+
+    /**
+     * Places the pieces of the given index into the position, which is cleared first.
+     *
+     * @param index    The index.
+     * @param position The position to fill.
+     * @return False if the index is invalid (a dark and a light man would be on the same square).
+     */
+    boolean decode(long index, Position position) {
+        position.clear();
+
+        long lightKingRank = index % this.lightKingCombinations;
+        index /= this.lightKingCombinations;
+        long darkKingRank = index % this.darkKingCombinations;
+        index /= this.darkKingCombinations;
+        long lightMenRank = index % this.lightMenCombinations;
+        long darkMenRank = index / this.lightMenCombinations;
+
+        int[] combination = new int[this.slice.getNumberOfPieces()];
+
+        unrank(darkMenRank, this.manSquares, this.slice.getDarkMen(), combination);
+        for (int i = 0; i < this.slice.getDarkMen(); i++) {
+            position.set(combination[i], Position.DARK_MAN);
+        }
+
+        unrank(lightMenRank, this.manSquares, this.slice.getLightMen(), combination);
+        for (int i = 0; i < this.slice.getLightMen(); i++) {
+            int square = combination[i] + this.lightManOffset;
+            if (!position.isEmpty(square)) {
+                return false;
+            }
+            position.set(square, Position.LIGHT_MAN);
+        }
+
+        unrank(darkKingRank, this.freeForDarkKings, this.slice.getDarkKings(), combination);
+        this.placeOnFreeSquares(position, combination, this.slice.getDarkKings(), Position.DARK_KING);
+
+        unrank(lightKingRank, this.freeForLightKings, this.slice.getLightKings(), combination);
+        this.placeOnFreeSquares(position, combination, this.slice.getLightKings(), Position.LIGHT_KING);
+
+        return true;
+    }
+
+    private void placeOnFreeSquares(Position position, int[] freeSquareIndices, int count, byte piece) {
+        int placed = 0;
+        int free = 0;
+        int[] squares = new int[count];
+
+        // Translate the n-th free square into the actual square before placing, as placing changes what is free
+        for (int square = 0; square < this.geometry.getNumberOfSquares() && placed < count; square++) {
+            if (position.isEmpty(square)) {
+                if (free == freeSquareIndices[placed]) {
+                    squares[placed++] = square;
+                }
+                free++;
+            }
+        }
+
+        for (int square : squares) {
+            position.set(square, piece);
+        }
+    }
+
+    private static void unrank(long rank, int n, int k, int[] combination) {
+        int candidate = n - 1;
+        for (int i = k; i >= 1; i--) {
+            while (binomial(candidate, i) > rank) {
+                candidate--;
+            }
+            combination[i - 1] = candidate;
+            rank -= binomial(candidate, i);
+        }
+    }
+
+    MaterialSlice getSlice() {
+        return this.slice;
+    }
+}
@@ -0,0 +1,270 @@
+package ch.ffhs.ftoop.bridge.dame.game.tablebase;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static ch.ffhs.ftoop.bridge.dame.game.tablebase.TablebaseFormat.CODE_DRAW;
+import static ch.ffhs.ftoop.bridge.dame.game.tablebase.TablebaseFormat.CODE_LOSS;
+import static ch.ffhs.ftoop.bridge.dame.game.tablebase.TablebaseFormat.CODE_WIN;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The endgame tablebase, as generated by the {@link TablebaseGenerator}. The files are memory-mapped, so only the
+ * pages that are actually probed are ever read from disk, and the operating system shares them between processes.
+ * <p>
+ * Probing is thread-safe.
+ */
+public class Tablebase {
+    private static final Logger logger = LogManager.getLogger(Tablebase.class);
+
+    private final BoardGeometry geometry;
+    private final RuleSet rules;
+    private final Map<MaterialSlice, MappedSlice> slices;
+    private final int maxPieces;
+
+    private Tablebase(BoardGeometry geometry, RuleSet rules, Map<MaterialSlice, MappedSlice> slices) {
+        this.geometry = geometry;
+        this.rules = rules;
+        this.slices = slices;
+        this.maxPieces = slices.keySet().stream().mapToInt(MaterialSlice::getNumberOfPieces).max().orElse(0);
+    }
+
+    /**
+     * Opens all tablebase files in the given directory. All files must have been generated for the same board size
+     * and rules.
+     *
+     * @param directory The directory.
+     * @return The tablebase.
+     * @throws IOException Thrown if the directory or a file could not be read, or a file is not a valid tablebase file.
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        checkNotNull(directory);
+
+        Map<MaterialSlice, MappedSlice> slices = new HashMap<>();
+        BoardGeometry geometry = null;
+        RuleSet rules = null;
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TablebaseFormat.FILE_EXTENSION)) {
+            for (Path file : files) {
+                MappedSlice slice = MappedSlice.map(file);
+
+                if (geometry == null) {
+                    geometry = slice.geometry;
+                    rules = slice.rules;
+                } else if (geometry != slice.geometry || !rules.equals(slice.rules)) {
+                    throw new InvalidTablebaseFileException(String.format("%s was generated for a different board or rules than the other files", file));
+                }
+
+                slices.put(slice.indexer.getSlice(), slice);
+            }
+        }
+
+        if (geometry == null) {
+            throw new InvalidTablebaseFileException(String.format("%s does not contain any tablebase files", directory));
+        }
+
+        Tablebase tablebase = new Tablebase(geometry, rules, slices);
+        logger.info("Opened tablebase with {} slices of up to {} pieces from {}", slices.size(), tablebase.getMaxPieces(), directory);
+        return tablebase;
+    }
+
+    /**
+     * Checks, if the tablebase can be used for games with the given board size and rules.
+     *
+     * @param numberOfRowsAndColumns The size of the board.
+     * @param rules                  The rules.
+     * @return Whether the tablebase has been generated for them.
+     */
+    public boolean supports(int numberOfRowsAndColumns, RuleSet rules) {
+        return this.geometry.getNumberOfRowsAndColumns() == numberOfRowsAndColumns && this.rules.equals(rules);
+    }
+
+    /**
+     * Looks up the outcome of the position for the player to move.
+     *
+     * @param position The position.
+     * @return The result, or nothing if the position is not covered by the tablebase.
+     */
+    public Optional<TablebaseResult> probe(Position position) {
+        short entry = this.probeEntry(position);
+        if (TablebaseFormat.code(entry) == TablebaseFormat.CODE_INVALID) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new TablebaseResult(toOutcome(entry), TablebaseFormat.distance(entry)));
+    }
+
+    /**
+     * Checks, if the player of the given color could make any move in the position.
+     *
+     * @param position The position.
+     * @param color    The color of the player.
+     * @return Whether a move is possible, or nothing if the position is not covered by the tablebase.
+     */
+    public Optional<Boolean> hasMoves(Position position, PieceColor color) {
+        Position copy = position.copy();
+        copy.setSideToMove(color);
+
+        // Only positions without any moves are lost immediately
+        return this.probe(copy).map(result -> result.getOutcome() != TablebaseOutcome.LOSS || result.getDistance() > 0);
+    }
+
+    /**
+     * Finds the best move for the player to move: the quickest win, otherwise a draw, otherwise the slowest loss.
+     *
+     * @param position  The position, which is left unchanged.
+     * @param generator The generator for the moves, which must use the same rules as the tablebase.
+     * @return The move, or {@link PackedMove#NONE} if the position is not covered or there is no move.
+     */
+    public int findBestMove(Position position, MoveGenerator generator) {
+        if (MaterialSlice.of(position).getNumberOfPieces() > this.maxPieces) {
+            return PackedMove.NONE;
+        }
+
+        int bestMove = PackedMove.NONE;
+        int bestScore = Integer.MIN_VALUE;
+
+        for (int move : generator.generateMoves(position)) {
+            position.doMove(move);
+            short entry = this.probeEntry(position);
+            position.undoMove();
+
+            int code = TablebaseFormat.code(entry);
+            if (code == TablebaseFormat.CODE_INVALID) {
+                return PackedMove.NONE;
+            }
+
+            // Scored from the perspective of the player making the move, whose opponent is to move after it
+            int distance = TablebaseFormat.distance(entry);
+            int score = code == CODE_LOSS ? TablebaseFormat.MAX_DISTANCE - distance : code == CODE_WIN ? distance - TablebaseFormat.MAX_DISTANCE : 0;
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+        }
+
+        return bestMove;
+    }
+
+    private short probeEntry(Position position) {
+        PieceColor toMove = position.getSideToMove();
+        if (position.getGeometry() != this.geometry) {
+            return TablebaseFormat.INVALID;
+        }
+
+        if (position.count(toMove) == 0) {
+            return TablebaseFormat.entry(CODE_LOSS, 0);
+        }
+
+        if (position.count(Position.opponentOf(toMove)) == 0) {
+            return TablebaseFormat.entry(CODE_WIN, 0);
+        }
+
+        MappedSlice slice = this.slices.get(MaterialSlice.of(position));
+        if (slice == null) {
+            return TablebaseFormat.INVALID;
+        }
+
+        long index = slice.indexer.index(position);
+        if (index < 0) {
+            return TablebaseFormat.INVALID;
+        }
+
+        return slice.read(TablebaseGenerator.entryIndex(index, toMove));
+    }
+
+    private static TablebaseOutcome toOutcome(short entry) {
+        switch (TablebaseFormat.code(entry)) {
+            case CODE_WIN:
+                return TablebaseOutcome.WIN;
+            case CODE_LOSS:
+                return TablebaseOutcome.LOSS;
+            case CODE_DRAW:
+            default:
+                return TablebaseOutcome.DRAW;
+        }
+    }
+
+    public int getMaxPieces() {
+        return this.maxPieces;
+    }
+
+    /**
+     * The table of a single slice, mapped into memory.
+     */
+    private static final class MappedSlice {
+        private final BoardGeometry geometry;
+        private final RuleSet rules;
+        private final SliceIndexer indexer;
+        private final MappedByteBuffer buffer;
+        private final int bitsPerEntry;
+        private final int entryMask;
+
+        private MappedSlice(BoardGeometry geometry, RuleSet rules, SliceIndexer indexer, MappedByteBuffer buffer, int bitsPerEntry) {
+            this.geometry = geometry;
+            this.rules = rules;
+            this.indexer = indexer;
+            this.buffer = buffer;
+            this.bitsPerEntry = bitsPerEntry;
+            this.entryMask = (1 << bitsPerEntry) - 1;
+        }
+
+        static MappedSlice map(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (channel.size() < TablebaseFormat.HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                    throw new InvalidTablebaseFileException(String.format("%s has an invalid size", file));
+                }
+
+                // The mapping stays valid after the channel has been closed
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt(0) != TablebaseFormat.MAGIC || buffer.get(4) != TablebaseFormat.VERSION) {
+                    throw new InvalidTablebaseFileException(String.format("%s is not a tablebase file of version %d", file, TablebaseFormat.VERSION));
+                }
+
+                BoardGeometry geometry = BoardGeometry.of(buffer.getShort(5));
+                RuleSet rules = RuleSet.fromMask(buffer.get(7));
+                MaterialSlice slice = MaterialSlice.of(buffer.get(8), buffer.get(9), buffer.get(10), buffer.get(11));
+                int bitsPerEntry = buffer.get(12);
+                long entryCount = buffer.getLong(15);
+
+                SliceIndexer indexer = new SliceIndexer(geometry, slice);
+                if (entryCount != 2 * indexer.size()
+                        || bitsPerEntry < TablebaseFormat.CODE_BITS || bitsPerEntry > TablebaseFormat.CODE_BITS + TablebaseFormat.DISTANCE_BITS
+                        || channel.size() != TablebaseFormat.HEADER_SIZE + TablebaseFormat.packedSize(entryCount, bitsPerEntry)) {
+                    throw new InvalidTablebaseFileException(String.format("%s is corrupt", file));
+                }
+
+                return new MappedSlice(geometry, rules, indexer, buffer, bitsPerEntry);
+            }
+        }
+
+        short read(long entryIndex) {
+            long bit = entryIndex * this.bitsPerEntry;
+            int offset = TablebaseFormat.HEADER_SIZE + (int) (bit >>> 3);
+
+            // An entry spans at most three bytes, which the padding guarantees to be present
+            int word = (this.buffer.get(offset) & 0xFF)
+                    | (this.buffer.get(offset + 1) & 0xFF) << 8
+                    | (this.buffer.get(offset + 2) & 0xFF) << 16;
+
+            return TablebaseFormat.unpack((word >>> (bit & 7)) & this.entryMask);
+        }
+    }
+}
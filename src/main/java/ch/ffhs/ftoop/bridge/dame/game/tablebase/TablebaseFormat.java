@@ -0,0 +1,75 @@
+package ch.ffhs.ftoop.bridge.dame.game.tablebase;
+
+/**
+ * Layout of the tablebase files and of the entries in them. A file starts with a fixed size header, followed by one
+ * bit-packed entry per position: index {@code 2 * i} for the position with {@link SliceIndexer index} {@code i} and
+ * dark to move, {@code 2 * i + 1} with light to move. Each entry consists of the {@link #CODE_BITS code} in the lowest
+ * bits and the distance in the bits above. The entries are packed little-endian (the first entry starts at the least
+ * significant bit of the first byte) and the file is padded, so that three bytes can always be read at once.
+ * <p>
+ * During generation the entries are kept unpacked, as {@code short} values with the code in the two upper bits.
+ */
+final class TablebaseFormat {
+    static final String FILE_EXTENSION = ".tb";
+
+    static final int MAGIC = 0x44544231; // "DTB1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int PADDING = 3;
+
+    static final int CODE_BITS = 2;
+    static final int CODE_DRAW = 0;
+    static final int CODE_WIN = 1;
+    static final int CODE_LOSS = 2;
+    static final int CODE_INVALID = 3;
+
+    static final int DISTANCE_BITS = 14;
+    static final int MAX_DISTANCE = (1 << DISTANCE_BITS) - 1;
+
+    static final short UNKNOWN = 0;
+    static final short INVALID = entry(CODE_INVALID, 0);
+
+    private TablebaseFormat() {
+    }
+
+    static short entry(int code, int distance) {
+        return (short) (code << DISTANCE_BITS | distance);
+    }
+
+    static int code(short entry) {
+        return (entry & 0xFFFF) >>> DISTANCE_BITS;
+    }
+
+    static int distance(short entry) {
+        return entry & MAX_DISTANCE;
+    }
+
+    /**
+     * The number of bits needed to store an entry, if no distance is larger than the given one.
+     *
+     * @param maxDistance The largest distance.
+     * @return The number of bits per entry.
+     */
+    static int bitsPerEntry(int maxDistance) {
+        return CODE_BITS + (32 - Integer.numberOfLeadingZeros(maxDistance));
+    }
+
+    static int pack(short entry) {
+        return code(entry) | distance(entry) << CODE_BITS;
+    }
+
+    static short unpack(int packed) {
+        return entry(packed & ((1 << CODE_BITS) - 1), packed >>> CODE_BITS);
+    }
+
+    /**
+     * The number of bytes the packed entries take, including the padding.
+     *
+     * @param entryCount   The number of entries.
+     * @param bitsPerEntry The number of bits per entry.
+     * @return The number of bytes.
+     */
+    static long packedSize(long entryCount, int bitsPerEntry) {
+        return (entryCount * bitsPerEntry + 7) / 8 + PADDING;
+    }
+}
@@ -0,0 +1,409 @@
+package ch.ffhs.ftoop.bridge.dame.game.tablebase;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static ch.ffhs.ftoop.bridge.dame.game.tablebase.TablebaseFormat.CODE_INVALID;
+import static ch.ffhs.ftoop.bridge.dame.game.tablebase.TablebaseFormat.CODE_LOSS;
+import static ch.ffhs.ftoop.bridge.dame.game.tablebase.TablebaseFormat.CODE_WIN;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Generates the endgame tablebase by retrograde analysis. The slices are solved from the least to the most material:
+ * first by number of pieces, then by number of men, as a capture always leads into a slice with fewer pieces and a
+ * promotion into a slice with fewer men. All slices with the same number of pieces and men are independent of each
+ * other and are solved in parallel.
+ * <p>
+ * A slice is solved by repeated passes over all of its positions, until no more positions can be decided:
+ * <ul>
+ * <li>A position in which the player to move cannot move (or has no pieces left) is lost in 0 plies</li>
+ * <li>In pass {@code n}, a position is won in {@code n} plies, if a move leads to a position lost in {@code n - 1}</li>
+ * <li>In pass {@code n}, a position is lost in {@code n} plies, if all moves lead to won positions and the longest of
+ * them is won in {@code n - 1}</li>
+ * </ul>
+ * Positions that are never decided are draws. Each solved slice is written to its own file, see {@link TablebaseFormat}.
+ */
+public class TablebaseGenerator {
+    private static final Logger logger = LogManager.getLogger(TablebaseGenerator.class);
+    private static final int DEFAULT_MAX_PIECES = 4;
+
+    private final BoardGeometry geometry;
+    private final RuleSet rules;
+    private final MoveGenerator moveGenerator;
+    private final int numberOfThreads;
+    private final Map<MaterialSlice, SolvedSlice> solvedSlices = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a generator.
+     *
+     * @param numberOfRowsAndColumns The size of the board.
+     * @param rules                  The rules, which must be {@link RuleSet#isSupported() supported} by the engine.
+     * @param numberOfThreads        The number of slices to solve in parallel.
+     */
+    public TablebaseGenerator(int numberOfRowsAndColumns, RuleSet rules, int numberOfThreads) {
+        checkNotNull(rules);
+        checkArgument(numberOfThreads > 0, "At least one thread is required");
+
+        this.geometry = BoardGeometry.of(numberOfRowsAndColumns);
+        this.rules = rules;
+        this.moveGenerator = new MoveGenerator(rules);
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Generates all slices with up to the given number of pieces and writes them into the directory.
+     *
+     * @param maxPieces The maximum number of pieces on the board.
+     * @param directory The directory to write the files to, which is created if necessary.
+     * @throws IOException          Thrown if a file could not be written.
+     * @throws InterruptedException Thrown if the generation has been interrupted.
+     */
+    public void generate(int maxPieces, Path directory) throws IOException, InterruptedException {
+        checkArgument(maxPieces >= 2, "At least two pieces are required");
+        Files.createDirectories(directory);
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads);
+        try {
+            for (List<MaterialSlice> level : this.findLevels(maxPieces)) {
+                int maxDistanceOfDependencies = this.solvedSlices.values().stream()
+                        .mapToInt(SolvedSlice::getMaxDistance)
+                        .max()
+                        .orElse(0);
+
+                List<Callable<Void>> tasks = new ArrayList<>();
+                for (MaterialSlice slice : level) {
+                    tasks.add(() -> {
+                        SolvedSlice solved = this.solve(slice, maxDistanceOfDependencies);
+                        this.write(solved, directory);
+                        this.solvedSlices.put(slice, solved);
+                        return null;
+                    });
+                }
+
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    this.awaitSlice(future);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void awaitSlice(Future<Void> future) throws IOException, InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IllegalStateException("Could not generate slice", e.getCause());
+        }
+    }
+
+    /**
+     * Finds all slices with up to the given number of pieces (and at least one piece per player), grouped into levels
+     * that only depend on the levels before them.
+     */
+    private List<List<MaterialSlice>> findLevels(int maxPieces) {
+        List<MaterialSlice> slices = new ArrayList<>();
+        for (int darkMen = 0; darkMen <= maxPieces; darkMen++) {
+            for (int darkKings = 0; darkMen + darkKings <= maxPieces; darkKings++) {
+                for (int lightMen = 0; darkMen + darkKings + lightMen <= maxPieces; lightMen++) {
+                    for (int lightKings = 0; darkMen + darkKings + lightMen + lightKings <= maxPieces; lightKings++) {
+                        MaterialSlice slice = MaterialSlice.of(darkMen, darkKings, lightMen, lightKings);
+                        if (darkMen + darkKings > 0 && lightMen + lightKings > 0 && this.fitsOnBoard(slice)) {
+                            slices.add(slice);
+                        }
+                    }
+                }
+            }
+        }
+
+        slices.sort(Comparator.comparingInt(MaterialSlice::getNumberOfPieces).thenComparingInt(MaterialSlice::getNumberOfMen));
+
+        List<List<MaterialSlice>> levels = new ArrayList<>();
+        MaterialSlice previous = null;
+        for (MaterialSlice slice : slices) {
+            if (previous == null || previous.getNumberOfPieces() != slice.getNumberOfPieces() || previous.getNumberOfMen() != slice.getNumberOfMen()) {
+                levels.add(new ArrayList<>());
+            }
+            levels.get(levels.size() - 1).add(slice);
+            previous = slice;
+        }
+
+        return levels;
+    }
+
+    private boolean fitsOnBoard(MaterialSlice slice) {
+        try {
+            new SliceIndexer(this.geometry, slice);
+            return true;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Skipping {}: {}", slice, e.getMessage());
+            return false;
+        }
+    }
+
+    private SolvedSlice solve(MaterialSlice slice, int maxDistanceOfDependencies) {
+        long start = System.currentTimeMillis();
+        SliceIndexer indexer = new SliceIndexer(this.geometry, slice);
+        checkArgument(indexer.size() <= (Integer.MAX_VALUE - 8) / 2, "%s is too large to be generated", slice);
+
+        int size = (int) indexer.size();
+        short[] entries = new short[2 * size];
+        Position position = Position.empty(this.geometry, PieceColor.DARK);
+
+        // Decide all positions without moves and mark the invalid ones
+        for (int index = 0; index < size; index++) {
+            if (!indexer.decode(index, position)) {
+                entries[2 * index] = TablebaseFormat.INVALID;
+                entries[2 * index + 1] = TablebaseFormat.INVALID;
+                continue;
+            }
+
+            for (PieceColor color : PieceColor.values()) {
+                if (!this.moveGenerator.hasMoves(position, color)) {
+                    entries[(int) entryIndex(index, color)] = TablebaseFormat.entry(CODE_LOSS, 0);
+                }
+            }
+        }
+
+        int[] moves = new int[MoveGenerator.maxMoves(this.geometry)];
+        int maxDistance = 0;
+        boolean changed = true;
+
+        // Positions may depend on positions of solved slices with any distance, so keep going until those are covered
+        for (int pass = 1; changed || pass <= maxDistanceOfDependencies + 1; pass++) {
+            checkArgument(pass <= TablebaseFormat.MAX_DISTANCE, "%s needs more than %s passes", slice, TablebaseFormat.MAX_DISTANCE);
+            changed = false;
+
+            for (int index = 0; index < size; index++) {
+                if (entries[2 * index] == TablebaseFormat.INVALID
+                        || (entries[2 * index] != TablebaseFormat.UNKNOWN && entries[2 * index + 1] != TablebaseFormat.UNKNOWN)) {
+                    continue;
+                }
+
+                indexer.decode(index, position);
+                for (PieceColor color : PieceColor.values()) {
+                    int entryIndex = (int) entryIndex(index, color);
+                    if (entries[entryIndex] != TablebaseFormat.UNKNOWN) {
+                        continue;
+                    }
+
+                    position.setSideToMove(color);
+                    short entry = this.evaluate(position, pass, moves, slice, indexer, entries);
+                    if (entry != TablebaseFormat.UNKNOWN) {
+                        entries[entryIndex] = entry;
+                        maxDistance = pass;
+                        changed = true;
+                    }
+                }
+            }
+        }
+
+        logger.info("Solved {} with {} positions in {} ms, longest win in {} plies", slice, size, System.currentTimeMillis() - start, maxDistance);
+        return new SolvedSlice(slice, indexer, entries, maxDistance);
+    }
+
+    /**
+     * Decides a position in the given pass, by looking at the entries of all positions after a move.
+     *
+     * @return The new entry or {@link TablebaseFormat#UNKNOWN}, if the position cannot be decided (yet).
+     */
+    private short evaluate(Position position, int pass, int[] moves, MaterialSlice slice, SliceIndexer indexer, short[] entries) {
+        int count = this.moveGenerator.generateMoves(position, moves);
+        boolean allMovesLose = true;
+        int longestWin = -1;
+
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            position.doMove(move);
+            short successor = this.lookup(position, move, slice, indexer, entries);
+            position.undoMove();
+
+            int code = TablebaseFormat.code(successor);
+            int distance = TablebaseFormat.distance(successor);
+            if (code == CODE_LOSS && distance == pass - 1) {
+                return TablebaseFormat.entry(CODE_WIN, pass);
+            }
+
+            if (code == CODE_WIN && distance <= pass - 1) {
+                longestWin = Math.max(longestWin, distance);
+            } else {
+                allMovesLose = false;
+            }
+        }
+
+        if (allMovesLose && longestWin == pass - 1) {
+            return TablebaseFormat.entry(CODE_LOSS, pass);
+        }
+
+        return TablebaseFormat.UNKNOWN;
+    }
+
+    private short lookup(Position position, int move, MaterialSlice slice, SliceIndexer indexer, short[] entries) {
+        PieceColor toMove = position.getSideToMove();
+        if (position.count(toMove) == 0) {
+            return TablebaseFormat.entry(CODE_LOSS, 0);
+        }
+
+        if (!PackedMove.isCapture(move) && !PackedMove.isPromotion(move)) {
+            return entries[(int) entryIndex(indexer.index(position), toMove)];
+        }
+
+        MaterialSlice successorSlice = MaterialSlice.of(position);
+        SolvedSlice solved = this.solvedSlices.get(successorSlice);
+        if (solved == null) {
+            throw new IllegalStateException(String.format("%s depends on %s, which has not been solved", slice, successorSlice));
+        }
+
+        short entry = solved.getEntries()[(int) entryIndex(solved.getIndexer().index(position), toMove)];
+        if (TablebaseFormat.code(entry) == CODE_INVALID) {
+            throw new IllegalStateException(String.format("Move %s leads to an invalid position", PackedMove.toString(move)));
+        }
+
+        return entry;
+    }
+
+    /**
+     * The index of the entry of a position, see {@link TablebaseFormat}.
+     *
+     * @param index      The index of the position, see {@link SliceIndexer#index(Position)}.
+     * @param sideToMove The player to move.
+     * @return The index of the entry.
+     */
+    static long entryIndex(long index, PieceColor sideToMove) {
+        return 2 * index + (sideToMove == PieceColor.DARK ? 0 : 1);
+    }
+
+    private void write(SolvedSlice solved, Path directory) throws IOException {
+        MaterialSlice slice = solved.getSlice();
+        short[] entries = solved.getEntries();
+        int bitsPerEntry = TablebaseFormat.bitsPerEntry(solved.getMaxDistance());
+
+        Path file = directory.resolve(slice.fileName(this.geometry.getNumberOfRowsAndColumns()));
+        Path temporaryFile = directory.resolve(file.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)))) {
+            out.writeInt(TablebaseFormat.MAGIC);
+            out.writeByte(TablebaseFormat.VERSION);
+            out.writeShort(this.geometry.getNumberOfRowsAndColumns());
+            out.writeByte(this.rules.getMask());
+            out.writeByte(slice.getDarkMen());
+            out.writeByte(slice.getDarkKings());
+            out.writeByte(slice.getLightMen());
+            out.writeByte(slice.getLightKings());
+            out.writeByte(bitsPerEntry);
+            out.writeShort(solved.getMaxDistance());
+            out.writeLong(entries.length);
+            out.write(new byte[TablebaseFormat.HEADER_SIZE - out.size()]);
+
+            long buffer = 0;
+            int bufferedBits = 0;
+            for (short entry : entries) {
+                buffer |= (long) TablebaseFormat.pack(entry) << bufferedBits;
+                bufferedBits += bitsPerEntry;
+                while (bufferedBits >= 8) {
+                    out.writeByte((int) buffer);
+                    buffer >>>= 8;
+                    bufferedBits -= 8;
+                }
+            }
+
+            if (bufferedBits > 0) {
+                out.writeByte((int) buffer);
+            }
+            out.write(new byte[TablebaseFormat.PADDING]);
+        }
+
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+        logger.debug("Wrote {} with {} bits per position", file, bitsPerEntry);
+    }
+
+    /**
+     * Generates the tablebase from the command line.
+     *
+     * @param args The directory to write to, optionally followed by the maximum number of pieces and the game configuration file.
+     * @throws ConfigurationException Thrown if the game configuration could not be loaded.
+     * @throws IOException            Thrown if a file could not be written.
+     * @throws InterruptedException   Thrown if the generation has been interrupted.
+     */
+    public static void main(String[] args) throws ConfigurationException, IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: TablebaseGenerator <directory> [max pieces] [game configuration]");
+            System.exit(1);
+        }
+
+        Path directory = Paths.get(args[0]);
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_PIECES;
+        GameConfig config = args.length > 2 ? new GameConfig(args[2]) : new GameConfig();
+
+        RuleSet rules = RuleSet.from(config.getEnabledRules());
+        if (!rules.isSupported()) {
+            logger.error("The enabled rules {} are not supported by the engine", config.getEnabledRules());
+            System.exit(1);
+        }
+
+        logger.info("Generating tablebase with up to {} pieces into {}", maxPieces, directory);
+        new TablebaseGenerator(config.getNumberOfRowsAndColumnsOfBoard(), rules, Runtime.getRuntime().availableProcessors())
+                .generate(maxPieces, directory);
+    }
+
+    private static final class SolvedSlice {
+        private final MaterialSlice slice;
+        private final SliceIndexer indexer;
+        private final short[] entries;
+        private final int maxDistance;
+
+        private SolvedSlice(MaterialSlice slice, SliceIndexer indexer, short[] entries, int maxDistance) {
+            this.slice = slice;
+            this.indexer = indexer;
+            this.entries = entries;
+            this.maxDistance = maxDistance;
+        }
+
+        MaterialSlice getSlice() {
+            return this.slice;
+        }
+
+        SliceIndexer getIndexer() {
+            return this.indexer;
+        }
+
+        short[] getEntries() {
+            return this.entries;
+        }
+
+        int getMaxDistance() {
+            return this.maxDistance;
+        }
+    }
+}
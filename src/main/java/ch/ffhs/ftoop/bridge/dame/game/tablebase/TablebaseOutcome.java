@@ -0,0 +1,10 @@
+package ch.ffhs.ftoop.bridge.dame.game.tablebase;
+
+/**
+ * The outcome of a position with perfect play, from the perspective of the player to move.
+ */
+public enum TablebaseOutcome {
+    WIN,
+    DRAW,
+    LOSS
+}
@@ -0,0 +1,47 @@
+package ch.ffhs.ftoop.bridge.dame.game.tablebase;
+
+import java.util.Objects;
+
+/**
+ * The result of a tablebase probe: the outcome for the player to move and, for won and lost positions, the number of
+ * plies until the game ends with perfect play (the winner takes the shortest, the loser the longest way).
+ */
+public final class TablebaseResult {
+    private final TablebaseOutcome outcome;
+    private final int distance;
+
+    public TablebaseResult(TablebaseOutcome outcome, int distance) {
+        this.outcome = outcome;
+        this.distance = distance;
+    }
+
+    public TablebaseOutcome getOutcome() {
+        return this.outcome;
+    }
+
+    public int getDistance() {
+        return this.distance;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        TablebaseResult that = (TablebaseResult) o;
+        return distance == that.distance &&
+                outcome == that.outcome;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(outcome, distance);
+    }
+
+    @Override
+    public String toString() {
+        return "TablebaseResult{" +
+                "outcome=" + outcome +
+                ", distance=" + distance +
+                '}';
+    }
+}
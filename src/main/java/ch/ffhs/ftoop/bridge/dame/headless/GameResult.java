@@ -0,0 +1,92 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The result of a game played by a {@link HeadlessGame}.
+ */
+public final class GameResult {
+    private final PieceColor winner;
+    private final Reason reason;
+    private final int plies;
+    private final long timeMillis;
+
+    /**
+     * Creates a result.
+     *
+     * @param winner     The color of the winner, or null for a draw.
+     * @param reason     Why the game has ended.
+     * @param plies      The number of moves played by both players together.
+     * @param timeMillis The time the game took.
+     */
+    public GameResult(PieceColor winner, Reason reason, int plies, long timeMillis) {
+        checkNotNull(reason);
+
+        this.winner = winner;
+        this.reason = reason;
+        this.plies = plies;
+        this.timeMillis = timeMillis;
+    }
+
+    public PieceColor getWinner() {
+        return this.winner;
+    }
+
+    public boolean isDraw() {
+        return this.winner == null;
+    }
+
+    public Reason getReason() {
+        return this.reason;
+    }
+
+    public int getPlies() {
+        return this.plies;
+    }
+
+    public long getTimeMillis() {
+        return this.timeMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "GameResult{" +
+                "winner=" + winner +
+                ", reason=" + reason +
+                ", plies=" + plies +
+                ", timeMillis=" + timeMillis +
+                '}';
+    }
+
+    /**
+     * Why a game has ended.
+     */
+    public enum Reason {
+        /**
+         * The game has been decided by the rules of the {@link ch.ffhs.ftoop.bridge.dame.game.Game}.
+         */
+        GAME_OVER,
+
+        /**
+         * The player to move could not move any piece and has lost.
+         */
+        NO_MOVES,
+
+        /**
+         * The player to move has played a move breaking the rules and has lost.
+         */
+        INVALID_MOVE,
+
+        /**
+         * The maximal number of plies has been reached, the game is a draw.
+         */
+        MOVE_LIMIT,
+
+        /**
+         * The game has been interrupted before it has ended.
+         */
+        ABORTED
+    }
+}
@@ -0,0 +1,180 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import ch.ffhs.ftoop.bridge.dame.game.Game;
+import ch.ffhs.ftoop.bridge.dame.game.GameAlreadyStartedException;
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.PlayersUsingSamePieceColorException;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Computer;
+import ch.ffhs.ftoop.bridge.dame.game.actor.NoValidComputerMoveFoundException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.move.InvalidMoveException;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import ch.ffhs.ftoop.bridge.dame.game.observer.PositionReachedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.tablebase.Tablebase;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Plays a {@link Game} between two computer players without any user interface, taking the place of the
+ * {@code GameUI}: it asks the player to move for its move and plays it, until the game has ended.
+ * <p>
+ * As the rules of the game never end it, when a player cannot move any piece (unless compulsory jumps are enabled),
+ * this is checked before every move and counted as a loss of that player. Games running longer than the maximal
+ * number of plies are counted as draws. When the playing thread is interrupted, the game is aborted.
+ */
+public class HeadlessGame {
+    private static final Logger logger = LogManager.getLogger(HeadlessGame.class);
+
+    private final GameConfig config;
+    private final Computer dark;
+    private final Computer light;
+    private final int maxPlies;
+    private final MoveGenerator generator;
+    private final List<PositionReachedObserver> positionReachedObservers = new ArrayList<>();
+    private Tablebase tablebase;
+
+    /**
+     * Creates a game.
+     *
+     * @param config   The game configuration.
+     * @param dark     The player of the dark pieces, who starts.
+     * @param light    The player of the light pieces.
+     * @param maxPlies The number of plies after which the game is a draw.
+     */
+    public HeadlessGame(GameConfig config, Computer dark, Computer light, int maxPlies) {
+        checkNotNull(config);
+        checkNotNull(dark);
+        checkNotNull(light);
+        checkArgument(dark.getColor() == PieceColor.DARK && light.getColor() == PieceColor.LIGHT, "The players must play dark and light");
+        checkArgument(maxPlies > 0, "Maximal number of plies must be positive");
+
+        RuleSet rules = RuleSet.from(config.getEnabledRules());
+        this.config = config;
+        this.dark = dark;
+        this.light = light;
+        this.maxPlies = maxPlies;
+        this.generator = rules.isSupported() ? new MoveGenerator(rules) : null;
+    }
+
+    /**
+     * Plays the game from the initial position.
+     *
+     * @return The result.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     */
+    public GameResult play() throws InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
+        return this.play(new int[0]);
+    }
+
+    /**
+     * Plays the game, starting with the given opening moves instead of asking the players for them.
+     *
+     * @param openingMoves The packed moves to play first, starting with the first move of dark.
+     * @return The result.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     */
+    public GameResult play(int[] openingMoves) throws InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
+        checkNotNull(openingMoves);
+
+        long start = System.nanoTime();
+        Game game = new Game(this.config);
+        if (this.tablebase != null) {
+            game.setTablebase(this.tablebase);
+        }
+
+        PieceColor[] winner = new PieceColor[1];
+        game.registerGameEndedObserver((w, l) -> winner[0] = w.getColor());
+        this.dark.resetSearch();
+        this.light.resetSearch();
+
+        try {
+            game.start(this.dark, this.light);
+        } catch (PlayersUsingSamePieceColorException | GameAlreadyStartedException e) {
+            throw new IllegalStateException("Could not start the game", e);
+        }
+
+        int plies = 0;
+        while (winner[0] == null && plies < this.maxPlies) {
+            if (Thread.currentThread().isInterrupted()) {
+                return this.result(null, GameResult.Reason.ABORTED, plies, start);
+            }
+
+            Computer current = game.getCurrentPlayer() == this.dark ? this.dark : this.light;
+            PieceColor opponent = Position.opponentOf(current.getColor());
+            if (!this.canMove(game, current.getColor())) {
+                return this.result(opponent, GameResult.Reason.NO_MOVES, plies, start);
+            }
+
+            if (!this.positionReachedObservers.isEmpty()) {
+                Position position = Position.from(game.getBoard(), current.getColor());
+                this.positionReachedObservers.forEach(observer -> observer.onPositionReached(position));
+            }
+
+            try {
+                Move move = plies < openingMoves.length
+                        ? PackedMove.toMove(openingMoves[plies], BoardGeometry.of(game.getBoard().getNumberOfRowsAndColumns()), game.getBoard(), current)
+                        : current.findNextMove(game.getBoard(), this.config.getEnabledRules());
+                game.doMove(move);
+                plies++;
+            } catch (NoValidComputerMoveFoundException e) {
+                logger.debug("{} could not find a move", current, e);
+                return this.result(opponent, GameResult.Reason.NO_MOVES, plies, start);
+            } catch (InvalidBoardPositionException | InvalidMoveException e) {
+                logger.error("{} has played an invalid move", current, e);
+                return this.result(opponent, GameResult.Reason.INVALID_MOVE, plies, start);
+            }
+        }
+
+        if (winner[0] != null) {
+            return this.result(winner[0], GameResult.Reason.GAME_OVER, plies, start);
+        }
+
+        return this.result(null, GameResult.Reason.MOVE_LIMIT, plies, start);
+    }
+
+    private boolean canMove(Game game, PieceColor color) {
+        // Without a move generator for the rules, the computer player fails to find a move instead
+        return this.generator == null || this.generator.hasMoves(Position.from(game.getBoard(), color), color);
+    }
+
+    private GameResult result(PieceColor winner, GameResult.Reason reason, int plies, long start) {
+        GameResult result = new GameResult(winner, reason, plies, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Game finished: {}", result);
+        return result;
+    }
+
+    /**
+     * Registers an observer for every position in which a player is about to move, eg. to record the game.
+     *
+     * @param observer The observer.
+     */
+    public void registerPositionReachedObserver(PositionReachedObserver observer) {
+        checkNotNull(observer);
+        this.positionReachedObservers.add(observer);
+    }
+
+    /**
+     * Sets the endgame tablebase, which is used by the game to determine faster whether it is over.
+     *
+     * @param tablebase The tablebase.
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+}
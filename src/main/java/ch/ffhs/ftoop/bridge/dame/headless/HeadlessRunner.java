@@ -0,0 +1,202 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Computer;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.book.OpeningBook;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngines;
+import ch.ffhs.ftoop.bridge.dame.game.tablebase.Tablebase;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Entry point for playing games without a display, eg. on batch servers: the computer plays against itself with the
+ * engine, opening book and tablebase of the game configuration, and the results are written to a CSV file. In
+ * contrast to {@link ch.ffhs.ftoop.bridge.dame.Main}, no JavaFX classes are loaded.
+ */
+public class HeadlessRunner {
+    private static final Logger logger = LogManager.getLogger(HeadlessRunner.class);
+    private static final String RESULTS_HEADER = "game;winner;reason;plies;millis";
+
+    private final GameConfig config;
+    private final List<SearchEngine> engines = new CopyOnWriteArrayList<>();
+    private OpeningBook openingBook;
+    private Tablebase tablebase;
+
+    /**
+     * Creates a runner and loads the opening book and the tablebase, if they are configured.
+     *
+     * @param config The game configuration.
+     */
+    public HeadlessRunner(GameConfig config) {
+        checkNotNull(config);
+
+        this.config = config;
+        this.loadOpeningBook();
+        this.loadTablebase();
+    }
+
+    private void loadOpeningBook() {
+        if (this.config.getOpeningBookFile() == null) {
+            return;
+        }
+
+        try {
+            this.openingBook = OpeningBook.open(Paths.get(this.config.getOpeningBookFile()));
+        } catch (IOException e) {
+            logger.warn("Could not load the opening book, playing without it", e);
+        }
+    }
+
+    private void loadTablebase() {
+        if (this.config.getTablebaseDirectory() == null) {
+            return;
+        }
+
+        try {
+            this.tablebase = Tablebase.open(Paths.get(this.config.getTablebaseDirectory()));
+        } catch (IOException e) {
+            logger.warn("Could not load the endgame tablebase, playing without it", e);
+        }
+    }
+
+    /**
+     * Creates a computer player with the configured engine. Pondering is disabled, as both players share the cores.
+     * Players can be created from several threads at the same time.
+     *
+     * @param color The color of the player.
+     * @param seed  The seed of the player's random choices.
+     * @return The player.
+     */
+    public Computer createComputer(PieceColor color, long seed) {
+        return this.createComputer(color, seed, this.createEngine(this.config.getEngineThreads()));
+    }
+
+    /**
+     * Creates a computer player searching with the given engine, which may be shared by players who never search at
+     * the same time.
+     *
+     * @param color  The color of the player.
+     * @param seed   The seed of the player's random choices.
+     * @param engine The engine, see {@link #createEngine(int)}, or empty to play random moves.
+     * @return The player.
+     */
+    public Computer createComputer(PieceColor color, long seed, Optional<SearchEngine> engine) {
+        checkNotNull(color);
+        checkNotNull(engine);
+
+        Computer computer = new Computer(String.format("%s (%s)", this.config.getComputerPlayerName(), color), color,
+                this.config.getComputerMaxNumberOfAttemptsWhenFindingValidMove(), new Random(seed));
+        if (this.openingBook != null) {
+            computer.setOpeningBook(this.openingBook);
+        }
+
+        if (this.tablebase != null) {
+            computer.setTablebase(this.tablebase);
+        }
+
+        engine.ifPresent(searchEngine -> computer.setSearchEngine(searchEngine, SearchEngines.limitsOf(this.config)));
+        return computer;
+    }
+
+    /**
+     * Creates the configured engine, which is stopped by {@link #shutdown()}.
+     *
+     * @param engineThreads The number of threads of engines searching in parallel.
+     * @return The engine, or empty if the computer should play random moves.
+     */
+    public Optional<SearchEngine> createEngine(int engineThreads) {
+        Optional<SearchEngine> engine = SearchEngines.create(this.config, engineThreads);
+        engine.ifPresent(this.engines::add);
+        return engine;
+    }
+
+    /**
+     * Plays games of the computer against itself, one after another, and writes the result of each game to the
+     * results file as soon as it has finished.
+     *
+     * @param numberOfGames The number of games.
+     * @param resultsFile   The CSV file to write, an existing one is replaced.
+     * @return The results.
+     * @throws IOException                             Thrown if the results file could not be written.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     */
+    public List<GameResult> run(int numberOfGames, Path resultsFile) throws IOException, InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
+        checkArgument(numberOfGames >= 0, "Number of games must not be negative");
+        checkNotNull(resultsFile);
+
+        long seed = this.config.getComputerSeed();
+        HeadlessGame game = new HeadlessGame(this.config, this.createComputer(PieceColor.DARK, seed),
+                this.createComputer(PieceColor.LIGHT, seed + 1), this.config.getHeadlessMaxPlies());
+        game.setTablebase(this.tablebase);
+
+        List<GameResult> results = new ArrayList<>();
+        try (BufferedWriter writer = Files.newBufferedWriter(resultsFile, StandardCharsets.UTF_8)) {
+            writer.write(RESULTS_HEADER);
+            writer.newLine();
+
+            for (int i = 0; i < numberOfGames; i++) {
+                GameResult result = game.play();
+                results.add(result);
+
+                writer.write(String.format("%d;%s;%s;%d;%d", i + 1, result.isDraw() ? "DRAW" : result.getWinner(),
+                        result.getReason(), result.getPlies(), result.getTimeMillis()));
+                writer.newLine();
+                writer.flush();
+            }
+        }
+
+        long darkWins = results.stream().filter(result -> result.getWinner() == PieceColor.DARK).count();
+        long lightWins = results.stream().filter(result -> result.getWinner() == PieceColor.LIGHT).count();
+        logger.info("Played {} games: dark won {}, light won {}, {} draws", numberOfGames, darkWins, lightWins,
+                numberOfGames - darkWins - lightWins);
+        return results;
+    }
+
+    /**
+     * Stops the threads of the search engines.
+     */
+    public void shutdown() {
+        this.engines.forEach(SearchEngine::shutdown);
+    }
+
+    /**
+     * Plays the games from the command line.
+     *
+     * @param args Optionally the game configuration file, by default game.properties.
+     * @throws ConfigurationException                  Thrown if the game configuration could not be loaded.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws IOException                             Thrown if the results file could not be written.
+     */
+    public static void main(String[] args) throws ConfigurationException, InvalidBoardDimensionsException, InvalidNumberOfPiecesPerPlayerException, IOException {
+        GameConfig config = args.length > 0 ? new GameConfig(args[0]) : new GameConfig();
+
+        HeadlessRunner runner = new HeadlessRunner(config);
+        try {
+            runner.run(config.getHeadlessGames(), Paths.get(config.getHeadlessResultsFile()));
+        } finally {
+            runner.shutdown();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The wins, draws and losses of a player against an opponent, together with the Elo difference they imply.
+ * A score is immutable.
+ */
+public final class MatchScore {
+    public static final MatchScore EMPTY = new MatchScore(0, 0, 0);
+
+    private static final double CONFIDENCE_95 = 1.959964;
+
+    private final int wins;
+    private final int draws;
+    private final int losses;
+
+    /**
+     * Creates a score.
+     *
+     * @param wins   The number of games won.
+     * @param draws  The number of games drawn.
+     * @param losses The number of games lost.
+     */
+    public MatchScore(int wins, int draws, int losses) {
+        checkArgument(wins >= 0 && draws >= 0 && losses >= 0, "Number of games must not be negative");
+
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    /**
+     * Adds the result of a game.
+     *
+     * @param result The result.
+     * @param player The color the player has played.
+     * @return The new score.
+     */
+    public MatchScore plus(GameResult result, PieceColor player) {
+        if (result.isDraw()) {
+            return new MatchScore(this.wins, this.draws + 1, this.losses);
+        }
+
+        return result.getWinner() == player
+                ? new MatchScore(this.wins + 1, this.draws, this.losses)
+                : new MatchScore(this.wins, this.draws, this.losses + 1);
+    }
+
+    public int getWins() {
+        return this.wins;
+    }
+
+    public int getDraws() {
+        return this.draws;
+    }
+
+    public int getLosses() {
+        return this.losses;
+    }
+
+    public int getGames() {
+        return this.wins + this.draws + this.losses;
+    }
+
+    /**
+     * The mean points per game, counting a win as 1 and a draw as 0.5.
+     *
+     * @return The score between 0 and 1, or 0.5 if no game has been played.
+     */
+    public double getScore() {
+        return this.getGames() == 0 ? 0.5 : (this.wins + 0.5 * this.draws) / this.getGames();
+    }
+
+    /**
+     * The variance of the points of a single game.
+     *
+     * @return The variance.
+     */
+    public double getVariance() {
+        if (this.getGames() == 0) {
+            return 0;
+        }
+
+        double score = this.getScore();
+        return (this.wins * Math.pow(1 - score, 2) + this.draws * Math.pow(0.5 - score, 2) + this.losses * Math.pow(score, 2))
+                / this.getGames();
+    }
+
+    /**
+     * The Elo difference to the opponent that the score implies.
+     *
+     * @return The difference, infinite if all games have been won or lost.
+     */
+    public double getEloDifference() {
+        return eloOf(this.getScore());
+    }
+
+    /**
+     * Half the width of the 95% confidence interval of the Elo difference.
+     *
+     * @return The margin, infinite if it is not known yet.
+     */
+    public double getEloErrorMargin() {
+        if (this.getGames() < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double margin = CONFIDENCE_95 * Math.sqrt(this.getVariance() / this.getGames());
+        return (eloOf(this.getScore() + margin) - eloOf(this.getScore() - margin)) / 2;
+    }
+
+    /**
+     * Converts an Elo difference into the expected score, with the logistic model of the Elo system.
+     *
+     * @param elo The Elo difference.
+     * @return The expected score between 0 and 1.
+     */
+    public static double scoreOf(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /**
+     * Converts an expected score into the Elo difference, see {@link #scoreOf(double)}.
+     *
+     * @param score The score.
+     * @return The Elo difference, infinite if the score is 0 or 1 (or outside).
+     */
+    public static double eloOf(double score) {
+        if (score <= 0) {
+            return Double.NEGATIVE_INFINITY;
+        }
+
+        if (score >= 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        return 400 * Math.log10(score / (1 - score));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("+%d =%d -%d (%.1f%%, Elo %+.1f +/- %.1f)", this.wins, this.draws, this.losses,
+                100 * this.getScore(), this.getEloDifference(), this.getEloErrorMargin());
+    }
+}
@@ -0,0 +1,233 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.tuning.BlockCompressedOutputStream;
+import ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingDataWriter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Generates training data for the {@link ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TexelTuner} by letting the
+ * computer play against itself on all cores, and labelling every position of a game with its result.
+ * <p>
+ * Each worker plays games one after another and hands every finished game to its own writer thread through a
+ * bounded queue. The writer appends the positions to the worker's shard, compressed in blocks by the
+ * {@link BlockCompressedOutputStream}. When a writer falls behind, the queue fills up and its worker waits, so at most
+ * a few games per worker are held in memory, regardless of how many games are played.
+ */
+public class SelfPlayDataGenerator {
+    private static final Logger logger = LogManager.getLogger(SelfPlayDataGenerator.class);
+    private static final GameRecord END_OF_GAMES = new GameRecord(new ArrayList<>(), null);
+    private static final String SHARD_FILENAME = "shard-%03d.bin";
+    private static final long HAND_OVER_TIMEOUT_MILLIS = 100;
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    private final GameConfig config;
+    private final HeadlessRunner runner;
+    private final int numberOfWorkers;
+    private final int queueCapacity;
+
+    /**
+     * Creates a generator.
+     *
+     * @param config          The game configuration of the players.
+     * @param numberOfWorkers The number of games played at the same time, and the number of shards.
+     * @param queueCapacity   The number of finished games per worker waiting to be written.
+     */
+    public SelfPlayDataGenerator(GameConfig config, int numberOfWorkers, int queueCapacity) {
+        checkNotNull(config);
+        checkArgument(numberOfWorkers > 0, "Number of workers must be positive");
+        checkArgument(queueCapacity > 0, "Queue capacity must be positive");
+
+        this.config = config;
+        this.runner = new HeadlessRunner(config);
+        this.numberOfWorkers = numberOfWorkers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Plays the games and writes their positions into one shard per worker.
+     *
+     * @param directory     The directory of the shards, existing shards are replaced.
+     * @param numberOfGames The number of games to play.
+     * @return The number of positions written.
+     * @throws IOException          Thrown if a shard could not be written.
+     * @throws InterruptedException Thrown if the thread has been interrupted while waiting for the workers.
+     */
+    public long generate(Path directory, long numberOfGames) throws IOException, InterruptedException {
+        checkNotNull(directory);
+        checkArgument(numberOfGames >= 0, "Number of games must not be negative");
+
+        Files.createDirectories(directory);
+        AtomicLong remainingGames = new AtomicLong(numberOfGames);
+        ExecutorService threads = Executors.newFixedThreadPool(2 * this.numberOfWorkers, new ThreadFactoryBuilder()
+                .setNameFormat("self-play-%d")
+                .setDaemon(true)
+                .build());
+        List<Future<Long>> writers = new ArrayList<>();
+        List<Future<?>> workers = new ArrayList<>();
+
+        logger.info("Playing {} games on {} workers into {}", numberOfGames, this.numberOfWorkers, directory);
+        try {
+            for (int i = 0; i < this.numberOfWorkers; i++) {
+                BlockingQueue<GameRecord> queue = new ArrayBlockingQueue<>(this.queueCapacity);
+                Path shard = directory.resolve(String.format(SHARD_FILENAME, i));
+                long seed = this.config.getComputerSeed() + 2L * i;
+
+                Future<Long> writer = threads.submit(() -> this.write(queue, shard));
+                writers.add(writer);
+                workers.add(threads.submit(() -> {
+                    this.play(queue, writer, remainingGames, seed);
+                    return null;
+                }));
+            }
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+
+            long numberOfPositions = 0;
+            for (Future<Long> writer : writers) {
+                numberOfPositions += writer.get();
+            }
+
+            logger.info("Written {} positions of {} games", numberOfPositions, numberOfGames);
+            return numberOfPositions;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+
+            throw new IllegalStateException("Could not generate the training data", e.getCause());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays games until all games have been claimed by the workers, then signals the end to the writer. Stops early,
+     * if the writer has failed.
+     */
+    private void play(BlockingQueue<GameRecord> queue, Future<Long> writer, AtomicLong remainingGames, long seed)
+            throws InterruptedException, InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
+        // Both colors search one after another, so they share an engine. It searches with a single thread, as the
+        // workers already use all cores
+        Optional<SearchEngine> engine = this.runner.createEngine(1);
+        HeadlessGame game = new HeadlessGame(this.config, this.runner.createComputer(PieceColor.DARK, seed, engine),
+                this.runner.createComputer(PieceColor.LIGHT, seed + 1, engine), this.config.getHeadlessMaxPlies());
+        List<Position> positions = new ArrayList<>();
+        game.registerPositionReachedObserver(positions::add);
+
+        while (remainingGames.getAndDecrement() > 0) {
+            positions.clear();
+            GameResult result = game.play();
+            if (result.getReason() != GameResult.Reason.ABORTED && !this.hand(queue, writer, new GameRecord(new ArrayList<>(positions), result.getWinner()))) {
+                return;
+            }
+        }
+
+        this.hand(queue, writer, END_OF_GAMES);
+    }
+
+    /**
+     * Hands a game to the writer, waiting while its queue is full.
+     *
+     * @return False if the writer has failed.
+     */
+    private boolean hand(BlockingQueue<GameRecord> queue, Future<Long> writer, GameRecord record) throws InterruptedException {
+        while (!queue.offer(record, HAND_OVER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Writes the games of a worker until it has finished.
+     */
+    private long write(BlockingQueue<GameRecord> queue, Path shard) throws IOException, InterruptedException {
+        BoardGeometry geometry = BoardGeometry.of(this.config.getNumberOfRowsAndColumnsOfBoard());
+
+        try (TrainingDataWriter writer = new TrainingDataWriter(new BlockCompressedOutputStream(Files.newOutputStream(shard)), geometry)) {
+            for (GameRecord record = queue.take(); record != END_OF_GAMES; record = queue.take()) {
+                for (Position position : record.positions) {
+                    writer.write(position, record.winner);
+                }
+            }
+
+            logger.info("Written {} positions to {}", writer.getNumberOfPositions(), shard);
+            return writer.getNumberOfPositions();
+        }
+    }
+
+    /**
+     * Stops the threads of the search engines.
+     */
+    public void shutdown() {
+        this.runner.shutdown();
+    }
+
+    /**
+     * Generates training data from the command line.
+     *
+     * @param args The directory of the shards and the number of games, optionally followed by the game configuration
+     *             file.
+     * @throws ConfigurationException Thrown if the game configuration could not be loaded.
+     * @throws IOException            Thrown if a shard could not be written.
+     * @throws InterruptedException   Thrown if the thread has been interrupted.
+     */
+    public static void main(String[] args) throws ConfigurationException, IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: SelfPlayDataGenerator <directory> <number of games> [game configuration]");
+            System.exit(1);
+        }
+
+        GameConfig config = args.length > 2 ? new GameConfig(args[2]) : new GameConfig();
+        SelfPlayDataGenerator generator = new SelfPlayDataGenerator(config, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+        try {
+            generator.generate(Paths.get(args[0]), Long.parseLong(args[1]));
+        } finally {
+            generator.shutdown();
+        }
+    }
+
+    private static final class GameRecord {
+        private final List<Position> positions;
+        private final PieceColor winner;
+
+        private GameRecord(List<Position> positions, PieceColor winner) {
+            this.positions = positions;
+            this.winner = winner;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The sequential probability ratio test, which decides after every game whether a player is stronger than its
+ * opponent by at least {@code elo1} (hypothesis H1), or at most by {@code elo0} (hypothesis H0), or whether more
+ * games are needed. Compared to a fixed number of games, clear differences are detected much earlier.
+ * <p>
+ * The log-likelihood ratio of the two hypotheses is approximated from the mean and variance of the score per game
+ * (a normal approximation of the trinomial distribution of wins, draws and losses). To keep the variance meaningful
+ * for the first few games, half a win and half a loss are added to the score.
+ */
+public final class Sprt {
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    /**
+     * Creates a test.
+     *
+     * @param elo0  The Elo difference of H0.
+     * @param elo1  The Elo difference of H1, greater than elo0.
+     * @param alpha The probability of accepting H1, although H0 is true.
+     * @param beta  The probability of accepting H0, although H1 is true.
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        checkArgument(elo1 > elo0, "elo1 must be greater than elo0");
+        checkArgument(alpha > 0 && alpha < 1 && beta > 0 && beta < 1, "alpha and beta must be between 0 and 1");
+
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Calculates the log-likelihood ratio of H1 against H0.
+     *
+     * @param score The score so far.
+     * @return The ratio.
+     */
+    public double logLikelihoodRatio(MatchScore score) {
+        checkNotNull(score);
+
+        double wins = score.getWins() + 0.5;
+        double draws = score.getDraws();
+        double losses = score.getLosses() + 0.5;
+        double games = wins + draws + losses;
+        double mean = (wins + 0.5 * draws) / games;
+        double variance = (wins * Math.pow(1 - mean, 2) + draws * Math.pow(0.5 - mean, 2) + losses * Math.pow(mean, 2)) / games;
+
+        double score0 = MatchScore.scoreOf(this.elo0);
+        double score1 = MatchScore.scoreOf(this.elo1);
+        return score.getGames() * (score1 - score0) * (2 * mean - score0 - score1) / (2 * variance);
+    }
+
+    /**
+     * Decides the test.
+     *
+     * @param score The score so far.
+     * @return The decision.
+     */
+    public Decision decide(MatchScore score) {
+        double ratio = this.logLikelihoodRatio(score);
+        if (ratio >= this.upperBound) {
+            return Decision.ACCEPT_H1;
+        }
+
+        if (ratio <= this.lowerBound) {
+            return Decision.ACCEPT_H0;
+        }
+
+        return Decision.CONTINUE;
+    }
+
+    public double getElo0() {
+        return this.elo0;
+    }
+
+    public double getElo1() {
+        return this.elo1;
+    }
+
+    public double getLowerBound() {
+        return this.lowerBound;
+    }
+
+    public double getUpperBound() {
+        return this.upperBound;
+    }
+
+    /**
+     * The decision of the test.
+     */
+    public enum Decision {
+        /**
+         * The player is stronger by at most elo0.
+         */
+        ACCEPT_H0,
+
+        /**
+         * The player is stronger by at least elo1.
+         */
+        ACCEPT_H1,
+
+        /**
+         * More games are needed.
+         */
+        CONTINUE
+    }
+}
@@ -0,0 +1,256 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Computer;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Plays games between two computer players A and B, configured by two game configurations (eg. with different
+ * engines, levels or evaluation weights), to find out whether A is stronger than B.
+ * <p>
+ * The games are played in pairs on a fixed pool of worker threads: both games of a pair start with the same random
+ * opening, A playing dark in the first and light in the second game, so neither the opening nor the color favours a
+ * player. Each worker has its own players with one single-threaded engine per player, so the engines never have to
+ * wait for each other and each worker searches on one core at a time. No more pairs are
+ * scheduled than there are workers, and the tournament stops as soon as the {@link Sprt} has decided.
+ */
+public class Tournament {
+    private static final Logger logger = LogManager.getLogger(Tournament.class);
+
+    public static final int DEFAULT_NUMBER_OF_GAMES = 1000;
+    public static final int DEFAULT_OPENING_PLIES = 4;
+    public static final double DEFAULT_ELO0 = 0;
+    public static final double DEFAULT_ELO1 = 10;
+    public static final double DEFAULT_ALPHA = 0.05;
+    public static final double DEFAULT_BETA = 0.05;
+
+    private final GameConfig configA;
+    private final HeadlessRunner runnerA;
+    private final HeadlessRunner runnerB;
+    private final int numberOfThreads;
+    private final int openingPlies;
+    private final Sprt sprt;
+    private final Position initialPosition;
+    private final MoveGenerator generator;
+    private final AtomicInteger workerCount = new AtomicInteger();
+    private final ThreadLocal<Players> players = ThreadLocal.withInitial(this::createPlayers);
+
+    /**
+     * Creates a tournament.
+     *
+     * @param configA         The configuration of player A, whose rules and board are used for all games.
+     * @param configB         The configuration of player B, with the same rules and board.
+     * @param numberOfThreads The number of games played at the same time.
+     * @param openingPlies    The number of random moves each game starts with.
+     * @param sprt            The test deciding when to stop.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     */
+    public Tournament(GameConfig configA, GameConfig configB, int numberOfThreads, int openingPlies, Sprt sprt)
+            throws InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
+        checkNotNull(configA);
+        checkNotNull(configB);
+        checkNotNull(sprt);
+        checkArgument(numberOfThreads > 0, "Number of threads must be positive");
+        checkArgument(openingPlies >= 0, "Number of opening plies must not be negative");
+        checkArgument(configA.getNumberOfRowsAndColumnsOfBoard() == configB.getNumberOfRowsAndColumnsOfBoard()
+                        && configA.getNumberOfPiecesPerPlayer() == configB.getNumberOfPiecesPerPlayer()
+                        && RuleSet.from(configA.getEnabledRules()).equals(RuleSet.from(configB.getEnabledRules())),
+                "Both players must play on the same board with the same rules");
+
+        RuleSet rules = RuleSet.from(configA.getEnabledRules());
+        checkArgument(rules.isSupported() || openingPlies == 0, "Random openings require rules supported by the engine");
+
+        Board board = new Board(configA.getNumberOfRowsAndColumnsOfBoard());
+        board.populateWithInitialPieces(configA.getNumberOfPiecesPerPlayer());
+
+        this.configA = configA;
+        this.runnerA = new HeadlessRunner(configA);
+        this.runnerB = new HeadlessRunner(configB);
+        this.numberOfThreads = numberOfThreads;
+        this.openingPlies = openingPlies;
+        this.sprt = sprt;
+        this.initialPosition = Position.from(board, PieceColor.DARK);
+        this.generator = rules.isSupported() ? new MoveGenerator(rules) : null;
+    }
+
+    private Players createPlayers() {
+        // Every worker gets different seeds, so the players do not repeat each other's games
+        long offset = 2L * this.workerCount.getAndIncrement();
+        long seedA = this.configA.getComputerSeed() + offset;
+        long seedB = seedA + 0x9E3779B97F4A7C15L;
+
+        // A worker plays its games one after another, so both colors of a player share an engine. It searches with a
+        // single thread, as the workers already use all cores, and more threads would make time-limited games unfair
+        Optional<SearchEngine> engineA = this.runnerA.createEngine(1);
+        Optional<SearchEngine> engineB = this.runnerB.createEngine(1);
+        Computer darkA = this.runnerA.createComputer(PieceColor.DARK, seedA, engineA);
+        Computer lightA = this.runnerA.createComputer(PieceColor.LIGHT, seedA + 1, engineA);
+        Computer darkB = this.runnerB.createComputer(PieceColor.DARK, seedB, engineB);
+        Computer lightB = this.runnerB.createComputer(PieceColor.LIGHT, seedB + 1, engineB);
+
+        int maxPlies = this.configA.getHeadlessMaxPlies();
+        return new Players(new HeadlessGame(this.configA, darkA, lightB, maxPlies), new HeadlessGame(this.configA, darkB, lightA, maxPlies));
+    }
+
+    /**
+     * Plays the tournament.
+     *
+     * @param maxNumberOfGames The number of games after which the tournament ends, if the test has not decided yet.
+     * @return The result.
+     * @throws InterruptedException Thrown if the thread has been interrupted while waiting for the games.
+     * @throws ExecutionException   Thrown if a game could not be played.
+     */
+    public TournamentResult run(int maxNumberOfGames) throws InterruptedException, ExecutionException {
+        checkArgument(maxNumberOfGames > 0, "Number of games must be positive");
+
+        ExecutorService workers = Executors.newFixedThreadPool(this.numberOfThreads, new ThreadFactoryBuilder()
+                .setNameFormat("tournament-%d")
+                .setDaemon(true)
+                .build());
+        CompletionService<GameResult[]> completion = new ExecutorCompletionService<>(workers);
+        Random random = new Random(this.configA.getComputerSeed());
+        int numberOfPairs = (maxNumberOfGames + 1) / 2;
+        int scheduledPairs = 0;
+        int runningPairs = 0;
+        MatchScore score = MatchScore.EMPTY;
+        Sprt.Decision decision = Sprt.Decision.CONTINUE;
+
+        logger.info("Playing up to {} games on {} threads, testing Elo {} against {}", 2 * numberOfPairs, this.numberOfThreads,
+                this.sprt.getElo1(), this.sprt.getElo0());
+        try {
+            for (; scheduledPairs < Math.min(numberOfPairs, this.numberOfThreads); scheduledPairs++, runningPairs++) {
+                int[] opening = this.randomOpening(random);
+                completion.submit(() -> this.playPair(opening));
+            }
+
+            while (runningPairs > 0) {
+                GameResult[] results = completion.take().get();
+                runningPairs--;
+
+                score = score.plus(results[0], PieceColor.DARK).plus(results[1], PieceColor.LIGHT);
+                decision = this.sprt.decide(score);
+                logger.info("After {} games: {}, LLR {} [{}, {}]", score.getGames(), score, this.sprt.logLikelihoodRatio(score),
+                        this.sprt.getLowerBound(), this.sprt.getUpperBound());
+                if (decision != Sprt.Decision.CONTINUE) {
+                    break;
+                }
+
+                if (scheduledPairs < numberOfPairs) {
+                    int[] opening = this.randomOpening(random);
+                    completion.submit(() -> this.playPair(opening));
+                    scheduledPairs++;
+                    runningPairs++;
+                }
+            }
+        } finally {
+            // Aborts the games still running after the test has decided
+            workers.shutdownNow();
+        }
+
+        TournamentResult result = new TournamentResult(score, decision);
+        logger.info("Tournament finished: {}", result);
+        return result;
+    }
+
+    private GameResult[] playPair(int[] opening) throws InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
+        Players players = this.players.get();
+        return new GameResult[]{players.darkA.play(opening), players.darkB.play(opening)};
+    }
+
+    /**
+     * Plays random moves from the initial position.
+     */
+    private int[] randomOpening(Random random) {
+        Position position = this.initialPosition.copy();
+        int[] opening = new int[this.openingPlies];
+
+        for (int ply = 0; ply < this.openingPlies; ply++) {
+            int[] moves = this.generator.generateMoves(position);
+            if (moves.length == 0) {
+                return Arrays.copyOf(opening, ply);
+            }
+
+            opening[ply] = moves[random.nextInt(moves.length)];
+            position.doMove(opening[ply]);
+        }
+
+        return opening;
+    }
+
+    /**
+     * Stops the threads of the search engines of all players.
+     */
+    public void shutdown() {
+        this.runnerA.shutdown();
+        this.runnerB.shutdown();
+    }
+
+    /**
+     * Plays a tournament from the command line.
+     *
+     * @param args The game configuration files of player A and B, optionally followed by the maximal number of games,
+     *             the number of random opening plies, and the Elo differences of the hypotheses H0 and H1.
+     * @throws ConfigurationException                  Thrown if a game configuration could not be loaded.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws InterruptedException                    Thrown if the thread has been interrupted.
+     * @throws ExecutionException                      Thrown if a game could not be played.
+     */
+    public static void main(String[] args) throws ConfigurationException, InvalidBoardDimensionsException,
+            InvalidNumberOfPiecesPerPlayerException, InterruptedException, ExecutionException {
+        if (args.length < 2) {
+            System.err.println("Usage: Tournament <game configuration A> <game configuration B> [number of games] [opening plies] [elo0] [elo1]");
+            System.exit(1);
+        }
+
+        GameConfig configA = new GameConfig(args[0]);
+        GameConfig configB = new GameConfig(args[1]);
+        int numberOfGames = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_NUMBER_OF_GAMES;
+        int openingPlies = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_OPENING_PLIES;
+        double elo0 = args.length > 4 ? Double.parseDouble(args[4]) : DEFAULT_ELO0;
+        double elo1 = args.length > 5 ? Double.parseDouble(args[5]) : DEFAULT_ELO1;
+
+        Tournament tournament = new Tournament(configA, configB, Runtime.getRuntime().availableProcessors(), openingPlies,
+                new Sprt(elo0, elo1, DEFAULT_ALPHA, DEFAULT_BETA));
+        try {
+            tournament.run(numberOfGames);
+        } finally {
+            tournament.shutdown();
+        }
+    }
+
+    private static final class Players {
+        private final HeadlessGame darkA;
+        private final HeadlessGame darkB;
+
+        private Players(HeadlessGame darkA, HeadlessGame darkB) {
+            this.darkA = darkA;
+            this.darkB = darkB;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The result of a {@link Tournament}: the score of the first player and the decision of the test.
+ */
+public final class TournamentResult {
+    private final MatchScore score;
+    private final Sprt.Decision decision;
+
+    public TournamentResult(MatchScore score, Sprt.Decision decision) {
+        checkNotNull(score);
+        checkNotNull(decision);
+
+        this.score = score;
+        this.decision = decision;
+    }
+
+    public MatchScore getScore() {
+        return this.score;
+    }
+
+    /**
+     * The decision of the sequential probability ratio test, {@link Sprt.Decision#CONTINUE} if the tournament has
+     * ended after all its games without a decision.
+     *
+     * @return The decision.
+     */
+    public Sprt.Decision getDecision() {
+        return this.decision;
+    }
+
+    @Override
+    public String toString() {
+        return "TournamentResult{" +
+                "score=" + score +
+                ", decision=" + decision +
+                '}';
+    }
+}
@@ -0,0 +1,481 @@
+package ch.ffhs.ftoop.bridge.dame.server;
+
+import ch.ffhs.ftoop.bridge.dame.game.ConcurrentGame;
+import ch.ffhs.ftoop.bridge.dame.game.Game;
+import ch.ffhs.ftoop.bridge.dame.game.GameAlreadyStartedException;
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.PlayersUsingSamePieceColorException;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Computer;
+import ch.ffhs.ftoop.bridge.dame.game.actor.NoValidComputerMoveFoundException;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.board.Tile;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchLimits;
+import ch.ffhs.ftoop.bridge.dame.game.move.InvalidMoveException;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import ch.ffhs.ftoop.bridge.dame.game.move.MoveFinder;
+import ch.ffhs.ftoop.bridge.dame.game.observer.GameEndedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.MovePlayedObserver;
+import ch.ffhs.ftoop.bridge.dame.game.observer.TurnFinishedObserver;
+import com.google.common.base.Throwables;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * A game of a human player against the computer, hosted by the {@link GameSessionManager}. Every session has its own
+ * {@link Game}, players and board, so that sessions are isolated from each other.
+ * <p>
+ * A single session can be used by several threads without locking it: all moves and queries are executed one after
+ * another by the command queue of a {@link ConcurrentGame}, and the state of the session is published as an immutable
+ * {@link State} after every change, which is read without waiting for the queue. The computer player searches its move
+ * on a copy of the position outside of the queue, so the queue is never held up by a search.
+ * <p>
+ * The computer player has no search engine of its own: the engine of the worker thread searching the computer's move
+ * is lent to it for that move only. The memory of a session is bounded by the maximal number of plies, after which the
+ * game ends in a draw.
+ */
+public class GameSession {
+    private static final Logger logger = LogManager.getLogger(GameSession.class);
+
+    private final String id;
+    private final GameConfig config;
+    private final Game game;
+    private final ConcurrentGame commands;
+    private final Player human;
+    private final Computer computer;
+    private final int maxPlies;
+    private final List<GameEndedObserver> gameEndedObservers = new CopyOnWriteArrayList<>();
+    private volatile long lastAccessMillis;
+    private volatile State state;
+
+    /**
+     * Creates and starts the game of the session.
+     *
+     * @param id        The id of the session.
+     * @param config    The game configuration.
+     * @param human     The human player.
+     * @param computer  The computer player, playing the other color.
+     * @param maxPlies  The number of plies after which the game is a draw.
+     * @param nowMillis The current time.
+     * @param commands  The threads executing the commands of the session.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     */
+    GameSession(String id, GameConfig config, Player human, Computer computer, int maxPlies, long nowMillis,
+                Executor commands) throws InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
+        this(id, config, human, computer, maxPlies, nowMillis, commands, null, 0);
+    }
+
+    /**
+     * Creates the session of a game that has been played before, eg. when it is restored after a restart.
+     *
+     * @param id        The id of the session.
+     * @param config    The game configuration.
+     * @param human     The human player.
+     * @param computer  The computer player, playing the other color.
+     * @param maxPlies  The number of plies after which the game is a draw.
+     * @param nowMillis The current time.
+     * @param commands  The threads executing the commands of the session.
+     * @param position  The position to continue from, or null to start a new game.
+     * @param plies     The number of plies played to reach the position.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     */
+    GameSession(String id, GameConfig config, Player human, Computer computer, int maxPlies, long nowMillis,
+                Executor commands, BoardNotation position, int plies)
+            throws InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
+        this.id = checkNotNull(id);
+        this.config = checkNotNull(config);
+        this.human = checkNotNull(human);
+        this.computer = checkNotNull(computer);
+        this.maxPlies = maxPlies;
+        this.lastAccessMillis = nowMillis;
+        this.game = new Game(config);
+        // Wrapped first, so that the snapshot of the game is taken before the observers of the session are called
+        this.commands = new ConcurrentGame(this.game, checkNotNull(commands));
+        this.game.registerGameEndedObserver((w, l) -> this.finish(w));
+        // Registered before all other observers, so they already see the new state
+        this.game.registerMovePlayedObserver((player, move, capturedPieces) ->
+                this.state = new State(this.commands.getSnapshot().getPosition(), this.state.plies + 1, false, null));
+
+        try {
+            Player dark = human.getColor() == PieceColor.DARK ? human : computer;
+            Player light = human.getColor() == PieceColor.DARK ? computer : human;
+            if (position == null) {
+                this.game.start(dark, light);
+            } else {
+                this.game.start(dark, light, position);
+            }
+        } catch (PlayersUsingSamePieceColorException | GameAlreadyStartedException e) {
+            throw new IllegalStateException("Could not start the game", e);
+        }
+        this.state = new State(this.commands.getSnapshot().getPosition(), plies, false, null);
+    }
+
+    /**
+     * Plays a move of the human player. Waits for the moves requested before, which do not include searches.
+     *
+     * @param from The position of the piece to move.
+     * @param to   The target position.
+     * @throws InvalidBoardPositionException Thrown when an invalid position on the board has been used.
+     * @throws InvalidMoveException          Thrown when the move violates any of the enabled game's rules.
+     * @throws IllegalStateException         Thrown if the game is over or it is not the human player's turn.
+     */
+    public void playMove(BoardPosition from, BoardPosition to) throws InvalidBoardPositionException, InvalidMoveException {
+        checkNotNull(from);
+        checkNotNull(to);
+        // Checked before queuing the move, so a move sent too early fails fast, and again in order with the other moves
+        this.checkHumanToMove();
+
+        awaitMove(this.commands.submit(game -> {
+            this.checkHumanToMove();
+            game.doMove(Move.from(this.human, game.getBoard().getTile(from).getPiece(), from, to));
+            this.checkPlies();
+            return null;
+        }));
+    }
+
+    private void checkHumanToMove() {
+        checkState(!this.state.finished, "The game is over");
+        checkState(this.isHumanToMove(), "It is not the turn of %s", this.human.getName());
+    }
+
+    /**
+     * Searches the move of the computer player, if it is its turn. Called on a worker thread of the manager, while
+     * the game can be used by other threads, as the move is searched on a copy of the position.
+     *
+     * @param searchEngine The engine of the worker thread, or null to play random moves.
+     * @param searchLimits The limits of the search.
+     * @return The move found, to be played with {@link #playComputerMove(ComputerMove)}, or null if it is not the
+     * computer's turn.
+     */
+    ComputerMove searchComputerMove(SearchEngine searchEngine, SearchLimits searchLimits) {
+        State state = this.state;
+        if (state.finished || state.position.getSideToMove() != this.computer.getColor()) {
+            return null;
+        }
+
+        Board board;
+        try {
+            board = new Board(state.position.getNumberOfRowsAndColumns());
+        } catch (InvalidBoardDimensionsException e) {
+            throw new IllegalStateException("Could not copy the board", e);
+        }
+        state.position.applyTo(board);
+
+        // The computer player is only lent one engine at a time
+        synchronized (this.computer) {
+            this.computer.setSearchEngine(searchEngine, searchLimits);
+            try {
+                return new ComputerMove(state.plies, this.computer.findNextMove(board, this.config.getEnabledRules()));
+            } catch (NoValidComputerMoveFoundException e) {
+                logger.debug("Session {}: the computer could not find a move", this.id, e);
+                return new ComputerMove(state.plies, null);
+            } finally {
+                // Do not hold on to the engine of the worker, it is used by other sessions
+                this.computer.setSearchEngine(null, null);
+            }
+        }
+    }
+
+    /**
+     * Plays the move found by the computer player, unless the game has gone on since it has been searched.
+     *
+     * @param move The move, or null if it has not been searched.
+     * @return Completed when the move has been played.
+     */
+    CompletableFuture<Void> playComputerMove(ComputerMove move) {
+        if (move == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return this.commands.submit(game -> {
+            if (this.state.finished || this.state.plies != move.plies) {
+                return null;
+            }
+
+            if (move.move == null) {
+                this.finish(this.human);
+                return null;
+            }
+
+            try {
+                BoardPosition from = move.move.getFrom();
+                // The move has been found on a copy of the board, so it is played with the piece of the game
+                game.doMove(Move.from(this.computer, game.getBoard().getTile(from).getPiece(), from, move.move.getTo()));
+                this.checkPlies();
+            } catch (InvalidBoardPositionException | InvalidMoveException e) {
+                logger.error("Session {}: the computer has played an invalid move", this.id, e);
+                this.finish(this.human);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Plays a move of the player to move again, when the session is restored.
+     *
+     * @param from The from-square.
+     * @param to   The to-square.
+     * @throws InvalidBoardPositionException Thrown when an invalid position on the board has been used.
+     * @throws InvalidMoveException          Thrown when the move violates any of the enabled game's rules.
+     */
+    void replayMove(BoardPosition from, BoardPosition to) throws InvalidBoardPositionException, InvalidMoveException {
+        awaitMove(this.commands.submit(game -> {
+            checkState(!this.state.finished, "The game is over");
+            game.doMove(Move.from(game.getCurrentPlayer(), game.getBoard().getTile(from).getPiece(), from, to));
+            this.checkPlies();
+            return null;
+        }));
+    }
+
+    /**
+     * Gives up the game, which the computer player wins.
+     *
+     * @throws IllegalStateException Thrown if the game is over already.
+     */
+    public void resign() {
+        await(this.commands.submit(game -> {
+            checkState(!this.state.finished, "The game is over");
+
+            logger.info("Session {}: {} resigned", this.id, this.human.getName());
+            this.finish(this.computer);
+            return null;
+        }));
+    }
+
+    /**
+     * Runs an action in order with the moves of the session: after all moves requested before and before all moves
+     * requested afterwards. Waits for the action, so it must not be called by an observer of the session.
+     *
+     * @param action The action, which can eg. read the state and register observers without missing a move.
+     */
+    public void runBetweenMoves(Runnable action) {
+        checkNotNull(action);
+        await(this.commands.submit(game -> {
+            action.run();
+            return null;
+        }));
+    }
+
+    private void checkPlies() {
+        if (!this.state.finished && this.state.plies >= this.maxPlies) {
+            logger.info("Session {} reached the maximal number of plies", this.id);
+            this.finish(null);
+        }
+    }
+
+    private void finish(Player winner) {
+        this.state = new State(this.state.position, this.state.plies, true, winner == null ? null : winner.getColor());
+
+        Player loser = winner == null ? null : winner == this.human ? this.computer : this.human;
+        this.gameEndedObservers.forEach(observer -> observer.onGameEnded(winner, loser));
+    }
+
+    private static void awaitMove(CompletableFuture<Void> result) throws InvalidBoardPositionException, InvalidMoveException {
+        try {
+            result.join();
+        } catch (CompletionException e) {
+            Throwables.propagateIfPossible(e.getCause(), InvalidBoardPositionException.class, InvalidMoveException.class);
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Registers an observer for every move played in the session. Observers are called one after another on the
+     * thread playing the move, and the state of the session already includes the move. As the next command of the
+     * session waits for them, observers must not block, but only hand their output over, eg. to a network thread.
+     *
+     * @param observer The observer.
+     */
+    public void registerMovePlayedObserver(MovePlayedObserver observer) {
+        checkNotNull(observer);
+        this.game.registerMovePlayedObserver(observer);
+    }
+
+    /**
+     * Registers an observer for when a turn has been finished and the other player is to move. Observers are called
+     * on the thread playing the move and must not block.
+     *
+     * @param observer The observer.
+     */
+    public void registerTurnFinishedObserver(TurnFinishedObserver observer) {
+        checkNotNull(observer);
+        this.game.registerTurnFinishedObserver(observer);
+    }
+
+    /**
+     * Registers an observer for when the game is over, because a player has won, resigned or could not move, or
+     * because it is a draw. In case of a draw, the winner and the loser are null.
+     *
+     * @param observer The observer.
+     */
+    public void registerGameEndedObserver(GameEndedObserver observer) {
+        checkNotNull(observer);
+        this.gameEndedObservers.add(observer);
+    }
+
+    void touch(long nowMillis) {
+        this.lastAccessMillis = nowMillis;
+    }
+
+    long getLastAccessMillis() {
+        return this.lastAccessMillis;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public Player getHuman() {
+        return this.human;
+    }
+
+    public Computer getComputer() {
+        return this.computer;
+    }
+
+    public boolean isHumanToMove() {
+        State state = this.state;
+        return !state.finished && state.position.getSideToMove() == this.human.getColor();
+    }
+
+    public boolean isFinished() {
+        return this.state.finished;
+    }
+
+    /**
+     * The winner of the game.
+     *
+     * @return The color of the winner, or null if the game is not over yet or a draw.
+     */
+    public PieceColor getWinner() {
+        return this.state.winner;
+    }
+
+    public int getPlies() {
+        return this.state.plies;
+    }
+
+    /**
+     * The current position of the game, which can be sent to the client. It is taken after every move, so it can be
+     * read without waiting for the moves being played.
+     *
+     * @return The position with the player to move.
+     */
+    public BoardNotation getPosition() {
+        return this.state.position;
+    }
+
+    /**
+     * The state of the session, whose position, plies and end are consistent with each other.
+     *
+     * @return The state after the last move.
+     */
+    State getState() {
+        return this.state;
+    }
+
+    /**
+     * Finds all valid moves of the human player.
+     *
+     * @return The moves, empty if it is not the human player's turn.
+     */
+    public List<Move> findValidMoves() {
+        return await(this.commands.submit(game -> {
+            if (!this.isHumanToMove()) {
+                return Collections.emptyList();
+            }
+
+            List<Move> moves = new ArrayList<>();
+            for (Tile tile : game.getBoard().getTiles()) {
+                if (tile.isOccupied() && tile.getPiece().getColor() == this.human.getColor()) {
+                    moves.addAll(MoveFinder.findValidMoves(game.getBoard(), this.human, tile.getPiece(), tile.getPosition(),
+                            this.config.getEnabledRules()));
+                }
+            }
+
+            return moves;
+        }));
+    }
+
+    @Override
+    public String toString() {
+        State state = this.state;
+        return "GameSession{" +
+                "id='" + id + '\'' +
+                ", human=" + human.getName() +
+                ", plies=" + state.plies +
+                ", finished=" + state.finished +
+                '}';
+    }
+
+    /**
+     * The state of a session after a move, which does not change anymore.
+     */
+    static final class State {
+        private final BoardNotation position;
+        private final int plies;
+        private final boolean finished;
+        private final PieceColor winner;
+
+        private State(BoardNotation position, int plies, boolean finished, PieceColor winner) {
+            this.position = position;
+            this.plies = plies;
+            this.finished = finished;
+            this.winner = winner;
+        }
+
+        BoardNotation getPosition() {
+            return this.position;
+        }
+
+        int getPlies() {
+            return this.plies;
+        }
+
+        boolean isFinished() {
+            return this.finished;
+        }
+    }
+
+    /**
+     * A move of the computer player, searched in the position after the given number of plies.
+     */
+    static final class ComputerMove {
+        private final int plies;
+        private final Move move;
+
+        private ComputerMove(int plies, Move move) {
+            this.plies = plies;
+            this.move = move;
+        }
+    }
+}
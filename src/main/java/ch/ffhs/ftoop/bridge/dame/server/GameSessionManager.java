@@ -0,0 +1,426 @@
+package ch.ffhs.ftoop.bridge.dame.server;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Computer;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngine;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchEngines;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchLimits;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchScheduler;
+import ch.ffhs.ftoop.bridge.dame.game.engine.TranspositionTable;
+import ch.ffhs.ftoop.bridge.dame.game.engine.analysis.AnalysisService;
+import ch.ffhs.ftoop.bridge.dame.game.engine.analysis.PositionAnalysis;
+import ch.ffhs.ftoop.bridge.dame.game.move.InvalidMoveException;
+import ch.ffhs.ftoop.bridge.dame.server.store.SavedSession;
+import ch.ffhs.ftoop.bridge.dame.server.store.SessionStore;
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Hosts many independent {@link GameSession}s of human players against the computer in one JVM.
+ * <p>
+ * The moves of the computer players are searched by a fixed pool of worker threads shared by all sessions, instead
+ * of one thread per game. Each worker has its own search engine with a single thread, as the workers already search
+ * side by side, and the engines share one transposition table, so the memory used by the engines depends neither on
+ * the number of workers nor on the number of sessions. The moves themselves are
+ * played by a second pool, which executes the short commands of the sessions, so a move is never held up by the
+ * searches of other sessions. The searches are time-sliced by a {@link SearchScheduler}, which lets only a limited
+ * number of them run at the same time, prefers the sessions whose human has been waiting longest and pauses a long
+ * search in favour of others after each iteration. The same workers analyse batches of positions in the background,
+ * see {@link #analyze(List)}. Sessions that have not been used for the configured time are evicted, and the number of
+ * sessions is limited.
+ * <p>
+ * With a {@link SessionStore}, every session and move is logged, snapshots of all sessions are taken periodically, and
+ * the sessions stored are restored when the manager is created, so games survive a restart of the server. Moves are
+ * only durable eventually: they are confirmed to the players and broadcast right away, while the log commits them in
+ * groups shortly afterwards, so a crash may lose the moves of the last commit. Failed commits are logged as errors.
+ */
+public class GameSessionManager {
+    private static final Logger logger = LogManager.getLogger(GameSessionManager.class);
+
+    private final GameConfig config;
+    private final int maxSessions;
+    private final long idleTimeoutMillis;
+    private final ConcurrentMap<String, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger numberOfSessions = new AtomicInteger();
+    private final AtomicInteger numberOfCreatedSessions = new AtomicInteger();
+    private final List<SearchEngine> engines = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Optional<SearchEngine>> workerEngine;
+    private final SearchLimits searchLimits;
+    private final SearchScheduler scheduler;
+    private final ExecutorService workers;
+    private final ExecutorService commands;
+    private final ScheduledExecutorService evictor;
+    private final BoardGeometry geometry;
+    private final SessionStore store;
+    private AnalysisService analysis;
+
+    /**
+     * Creates the manager and starts its worker threads. The sessions are not stored.
+     *
+     * @param config The game configuration, used for all sessions.
+     */
+    public GameSessionManager(GameConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * Creates the manager, restores the sessions of the store and starts the worker threads.
+     *
+     * @param config The game configuration, used for all sessions.
+     * @param store  The store of the sessions, or null to keep them in memory only.
+     */
+    public GameSessionManager(GameConfig config, SessionStore store) {
+        this.config = checkNotNull(config);
+        this.store = store;
+        this.geometry = BoardGeometry.of(config.getNumberOfRowsAndColumnsOfBoard());
+        this.maxSessions = config.getServerMaxSessions();
+        this.idleTimeoutMillis = config.getServerSessionIdleTimeoutMillis();
+        this.searchLimits = SearchEngines.limitsOf(config);
+        this.scheduler = new SearchScheduler(config.getServerEngineMaxRunning(), config.getServerEngineQuantumMillis());
+        // The workers search side by side, so each engine gets a single thread, a seed of its own and the shared table
+        Supplier<TranspositionTable> table = Suppliers.memoize(() -> new TranspositionTable(config.getEngineHashMegabytes()));
+        AtomicInteger workerNumber = new AtomicInteger();
+        this.workerEngine = ThreadLocal.withInitial(() -> {
+            Optional<SearchEngine> engine = SearchEngines.create(this.config, 1,
+                    this.config.getComputerSeed() + workerNumber.getAndIncrement(), table);
+            engine.ifPresent(e -> {
+                this.engines.add(e);
+                e.registerIterationFinishedObserver(depth -> this.scheduler.checkpoint());
+            });
+            return engine;
+        });
+
+        this.workers = Executors.newFixedThreadPool(config.getServerEngineThreads(),
+                new ThreadFactoryBuilder().setNameFormat("session-engine-%d").setDaemon(true).build());
+        this.commands = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                new ThreadFactoryBuilder().setNameFormat("session-command-%d").setDaemon(true).build());
+        this.evictor = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("session-evictor-%d").setDaemon(true).build());
+
+        long evictionPeriod = Math.max(1, this.idleTimeoutMillis / 2);
+        this.evictor.scheduleWithFixedDelay(() -> this.evictIdleSessions(System.currentTimeMillis()),
+                evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+
+        if (store != null) {
+            store.getRecoveredSessions().forEach(this::restore);
+            // The first snapshot right away, so the log replayed to restore the sessions is not replayed again
+            this.evictor.scheduleWithFixedDelay(this::takeSnapshot, 0,
+                    Math.max(1, config.getServerStoreSnapshotIntervalMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Creates a manager for the game configuration, which stores its sessions in the configured directory.
+     *
+     * @param config The game configuration.
+     * @return The manager.
+     * @throws IOException Thrown if the stored sessions could not be read.
+     */
+    public static GameSessionManager open(GameConfig config) throws IOException {
+        String directory = config.getServerStoreDirectory();
+        return new GameSessionManager(config, directory == null ? null : SessionStore.open(Paths.get(directory)));
+    }
+
+    /**
+     * Creates a new session. If the human player plays the light pieces, the computer's first move must be requested
+     * with {@link #playComputerMove(GameSession)}, after registering the observers of the session.
+     *
+     * @param humanName  The name of the human player.
+     * @param humanColor The color of the human player.
+     * @return The session.
+     * @throws SessionLimitReachedException            Thrown if the maximal number of sessions is hosted.
+     * @throws InvalidNumberOfPiecesPerPlayerException Thrown if the configured number of pieces is invalid.
+     * @throws InvalidBoardDimensionsException         Thrown if the configured board size is invalid.
+     */
+    public GameSession create(String humanName, PieceColor humanColor)
+            throws SessionLimitReachedException, InvalidNumberOfPiecesPerPlayerException, InvalidBoardDimensionsException {
+        checkNotNull(humanName);
+        checkNotNull(humanColor);
+
+        if (this.numberOfSessions.incrementAndGet() > this.maxSessions) {
+            this.numberOfSessions.decrementAndGet();
+            throw new SessionLimitReachedException(String.format("Cannot host more than %d sessions", this.maxSessions));
+        }
+
+        GameSession session;
+        try {
+            session = new GameSession(UUID.randomUUID().toString(), this.config, new Player(humanName, humanColor),
+                    this.createComputer(humanColor), this.config.getServerSessionMaxPlies(), System.currentTimeMillis(),
+                    this.commands);
+        } catch (InvalidNumberOfPiecesPerPlayerException | InvalidBoardDimensionsException | RuntimeException e) {
+            this.numberOfSessions.decrementAndGet();
+            throw e;
+        }
+
+        // Logged only after adding the session, so a snapshot taken in between contains the session
+        this.sessions.put(session.getId(), session);
+        if (this.store != null) {
+            this.store.logCreated(session.getId(), humanName, humanColor).whenComplete(reportFailure(session, "creation"));
+            this.logChanges(session);
+        }
+        logger.info("Created session {} for {}", session.getId(), humanName);
+        return session;
+    }
+
+    private Computer createComputer(PieceColor humanColor) {
+        return new Computer(this.config.getComputerPlayerName(), Position.opponentOf(humanColor),
+                this.config.getComputerMaxNumberOfAttemptsWhenFindingValidMove(),
+                new Random(this.config.getComputerSeed() + this.numberOfCreatedSessions.getAndIncrement()));
+    }
+
+    private void logChanges(GameSession session) {
+        // Called after the session has counted the move, so the ply before the move is one less
+        session.registerMovePlayedObserver((player, move, capturedPieces) -> this.store.logMoved(session.getId(),
+                session.getPlies() - 1, this.geometry.squareAt(move.getFrom()), this.geometry.squareAt(move.getTo()))
+                .whenComplete(reportFailure(session, "move")));
+        session.registerGameEndedObserver((winner, loser) -> this.store.logClosed(session.getId())
+                .whenComplete(reportFailure(session, "end")));
+    }
+
+    private static BiConsumer<Void, Throwable> reportFailure(GameSession session, String record) {
+        return (committed, e) -> {
+            if (e != null) {
+                logger.error("Could not log the {} of session {}, it is lost after a crash", record, session.getId(), e);
+            }
+        };
+    }
+
+    /**
+     * Restores a session of the store, by continuing from the position of the snapshot and playing the moves logged
+     * afterwards again.
+     */
+    private void restore(SavedSession saved) {
+        GameSession session;
+        try {
+            session = new GameSession(saved.getId(), this.config, new Player(saved.getName(), saved.getColor()),
+                    this.createComputer(saved.getColor()), this.config.getServerSessionMaxPlies(), System.currentTimeMillis(),
+                    this.commands, saved.getPosition(), saved.getPlies());
+            for (int[] move : saved.getMoves()) {
+                session.replayMove(this.geometry.positionOf(move[0]), this.geometry.positionOf(move[1]));
+            }
+        } catch (InvalidNumberOfPiecesPerPlayerException | InvalidBoardDimensionsException | InvalidBoardPositionException
+                | InvalidMoveException | RuntimeException e) {
+            logger.error("Could not restore session {}", saved.getId(), e);
+            this.store.logClosed(saved.getId());
+            return;
+        }
+
+        if (session.isFinished()) {
+            this.store.logClosed(saved.getId());
+            return;
+        }
+
+        this.logChanges(session);
+        this.sessions.put(session.getId(), session);
+        this.numberOfSessions.incrementAndGet();
+        logger.info("Restored session {} at ply {}", session.getId(), session.getPlies());
+        if (!session.isHumanToMove()) {
+            this.playComputerMove(session);
+        }
+    }
+
+    private void takeSnapshot() {
+        try {
+            this.store.snapshot(() -> {
+                List<SavedSession> states = new ArrayList<>();
+                for (GameSession session : this.sessions.values()) {
+                    // The state is published before the move is logged, so it contains every move of the older segments
+                    GameSession.State state = session.getState();
+                    if (!state.isFinished()) {
+                        states.add(new SavedSession(session.getId(), session.getHuman().getName(),
+                                session.getHuman().getColor(), state.getPosition(), state.getPlies()));
+                    }
+                }
+                return states;
+            });
+        } catch (IOException | RuntimeException e) {
+            logger.error("Could not take a snapshot of the sessions", e);
+        }
+    }
+
+    /**
+     * Looks up a session, which counts as using it.
+     *
+     * @param id The id of the session.
+     * @return The session.
+     * @throws SessionNotFoundException Thrown if there is no such session, eg. because it has been evicted.
+     */
+    public GameSession get(String id) throws SessionNotFoundException {
+        checkNotNull(id);
+
+        GameSession session = this.sessions.get(id);
+        if (session == null) {
+            throw new SessionNotFoundException(String.format("There is no session %s", id));
+        }
+
+        session.touch(System.currentTimeMillis());
+        return session;
+    }
+
+    /**
+     * Lets the computer search its move in the session on one of the worker threads, if it is its turn, and plays it.
+     *
+     * @param session The session.
+     * @return Completed, when the computer has played its move.
+     */
+    public CompletableFuture<Void> playComputerMove(GameSession session) {
+        checkNotNull(session);
+
+        // The human is waiting from now on, so the move is due when the time of the search would be up
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.searchLimits.getMaxTimeMillis());
+        return CompletableFuture.supplyAsync(() -> this.searchComputerMove(session, deadline), this.workers)
+                .thenCompose(session::playComputerMove)
+                .thenRun(() -> session.touch(System.currentTimeMillis()));
+    }
+
+    // The ticket is not used in the block, it only holds the slot of the search until the end of it
+    @SuppressWarnings("try")
+    private GameSession.ComputerMove searchComputerMove(GameSession session, long deadline) {
+        try (SearchScheduler.Ticket ignored = this.scheduler.start(deadline)) {
+            return session.searchComputerMove(this.workerEngine.get().orElse(null), this.searchLimits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Analyses a batch of positions on the worker threads, with the limits of the configured analysis difficulty. The
+     * searches share a transposition table and only run when no human is waiting for the computer. A batch never
+     * occupies all worker threads, so the moves of the computer do not queue up behind it.
+     *
+     * @param positions The positions, which must have the size of the board of the configuration.
+     * @return Completed with the analysis of each position, in the order of the positions.
+     * @throws IllegalStateException Thrown if the enabled rules cannot be searched.
+     */
+    public CompletableFuture<List<PositionAnalysis>> analyze(List<Position> positions) {
+        checkNotNull(positions);
+        for (Position position : positions) {
+            checkArgument(position.getGeometry().getNumberOfRowsAndColumns() == this.geometry.getNumberOfRowsAndColumns(),
+                    "The position %s does not fit the board", position);
+        }
+
+        return this.getAnalysisService().analyze(positions, this.config.getServerAnalysisDifficulty().getLimits());
+    }
+
+    private synchronized AnalysisService getAnalysisService() {
+        // Created on first use only, as its table takes a lot of memory
+        if (this.analysis == null) {
+            RuleSet rules = RuleSet.from(this.config.getEnabledRules());
+            checkState(rules.isSupported(), "The enabled rules cannot be analysed");
+            this.analysis = new AnalysisService(rules, SearchEngines.evaluatorOf(this.config),
+                    new TranspositionTable(this.config.getServerAnalysisHashMegabytes()), this.workers,
+                    Math.max(1, this.config.getServerEngineThreads() - 1), this.scheduler);
+        }
+
+        return this.analysis;
+    }
+
+    /**
+     * Closes a session, eg. when the player has left.
+     *
+     * @param id The id of the session.
+     * @return Whether the session existed.
+     */
+    public boolean close(String id) {
+        checkNotNull(id);
+
+        if (this.sessions.remove(id) == null) {
+            return false;
+        }
+
+        if (this.store != null) {
+            this.store.logClosed(id);
+        }
+        this.numberOfSessions.decrementAndGet();
+        logger.info("Closed session {}", id);
+        return true;
+    }
+
+    /**
+     * Removes all sessions that have not been used for longer than the idle timeout. Called periodically.
+     *
+     * @param nowMillis The current time.
+     * @return The number of sessions removed.
+     */
+    int evictIdleSessions(long nowMillis) {
+        int evicted = 0;
+        for (GameSession session : this.sessions.values()) {
+            if (nowMillis - session.getLastAccessMillis() > this.idleTimeoutMillis
+                    && this.sessions.remove(session.getId(), session)) {
+                if (this.store != null) {
+                    this.store.logClosed(session.getId());
+                }
+                this.numberOfSessions.decrementAndGet();
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            logger.info("Evicted {} idle sessions, {} sessions left", evicted, this.numberOfSessions.get());
+        }
+        return evicted;
+    }
+
+    public GameConfig getConfig() {
+        return this.config;
+    }
+
+    public int getNumberOfSessions() {
+        return this.numberOfSessions.get();
+    }
+
+    /**
+     * Stops the worker threads and the engines. The sessions cannot be played anymore afterwards. With a store, a last
+     * snapshot of the sessions is taken, so they are restored quickly.
+     */
+    public void shutdown() {
+        this.evictor.shutdownNow();
+        this.workers.shutdownNow();
+        this.commands.shutdownNow();
+        this.engines.forEach(SearchEngine::shutdown);
+        if (this.store != null) {
+            this.takeSnapshot();
+            try {
+                this.store.close();
+            } catch (IOException e) {
+                logger.error("Could not close the session store", e);
+            }
+        }
+        this.sessions.clear();
+        this.numberOfSessions.set(0);
+    }
+}
@@ -0,0 +1,10 @@
+package ch.ffhs.ftoop.bridge.dame.server;
+
+/**
+ * Indicates that no more game sessions can be created, because the maximal number of sessions is hosted.
+ */
+public class SessionLimitReachedException extends Exception {
+    public SessionLimitReachedException(String message) {
+        super(message);
+    }
+}
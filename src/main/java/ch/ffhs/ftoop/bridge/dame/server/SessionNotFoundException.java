@@ -0,0 +1,10 @@
+package ch.ffhs.ftoop.bridge.dame.server;
+
+/**
+ * Indicates that there is no game session with the given id, eg. because it has been evicted after being idle.
+ */
+public class SessionNotFoundException extends Exception {
+    public SessionNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,401 @@
+package ch.ffhs.ftoop.bridge.dame.server.http;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardNotationException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.analysis.PositionAnalysis;
+import ch.ffhs.ftoop.bridge.dame.game.move.InvalidMoveException;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import ch.ffhs.ftoop.bridge.dame.server.GameSession;
+import ch.ffhs.ftoop.bridge.dame.server.GameSessionManager;
+import ch.ffhs.ftoop.bridge.dame.server.SessionLimitReachedException;
+import ch.ffhs.ftoop.bridge.dame.server.SessionNotFoundException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The REST API of the games, served by the {@link HttpApiServer}:
+ * <table summary="Resources">
+ * <tr><th>Request</th><th>Response</th></tr>
+ * <tr><td>POST /games {"name": "...", "color": "DARK", "profile": "..."}</td><td>201 with the new game</td></tr>
+ * <tr><td>GET /games/{id}</td><td>The game with its position</td></tr>
+ * <tr><td>GET /games/{id}/moves</td><td>The valid moves of the player, [] if it is not their turn</td></tr>
+ * <tr><td>POST /games/{id}/moves {"from": 9, "to": 13}</td><td>The game after the move</td></tr>
+ * <tr><td>POST /games/{id}/resign</td><td>The game after resigning</td></tr>
+ * <tr><td>DELETE /games/{id}</td><td>Closes the game</td></tr>
+ * <tr><td>GET /games/{id}/events</td><td>WebSocket with the events of the game, see {@link GameEventChannel}</td></tr>
+ * <tr><td>POST /analysis {"positions": ["B:W21,22:B9", ...], "profile": "..."}</td><td>The score, depth and best
+ * move of each position, see {@link #analyze}</td></tr>
+ * </table>
+ * Squares are numbered from 1 like in {@link BoardNotation}, which is also used for the positions. Each profile is a
+ * game configuration with its own {@link GameSessionManager}. The valid moves of a position are cached, as they are
+ * requested often and are expensive to find.
+ */
+public class GameApi {
+    private static final Logger logger = LogManager.getLogger(GameApi.class);
+    private static final String GAMES = "games";
+    private static final String ANALYSIS = "analysis";
+    private static final int MAX_ANALYSED_POSITIONS = 500;
+    private static final int MAX_CACHED_POSITIONS = 10000;
+
+    private final Map<String, GameSessionManager> profiles;
+    private final String defaultProfile;
+    private final Cache<String, HttpResponse> validMoves = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_POSITIONS).build();
+    // Weak keys, so the channel of a session is dropped together with the session after it has been closed
+    private final Cache<GameSession, GameEventChannel> eventChannels = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * Creates the API.
+     *
+     * @param profiles The managers of the games per profile name, the first profile is used by default.
+     */
+    public GameApi(Map<String, GameSessionManager> profiles) {
+        checkNotNull(profiles);
+        checkArgument(!profiles.isEmpty(), "At least one profile is needed");
+
+        this.profiles = new LinkedHashMap<>(profiles);
+        this.defaultProfile = this.profiles.keySet().iterator().next();
+    }
+
+    /**
+     * Answers a request. Most requests are answered right away; analyses are answered when their searches have
+     * finished, so the calling thread is not held up by them.
+     *
+     * @param request The request.
+     * @return Completed with the response, with an {"error": "..."} document if the request failed.
+     */
+    public CompletableFuture<HttpResponse> handle(HttpRequest request) {
+        try {
+            String[] parts = request.getPath().replaceAll("^/+|/+$", "").split("/+");
+            if (parts.length == 1 && ANALYSIS.equals(parts[0])) {
+                this.requireMethod(request.getMethod(), "POST");
+                return this.analyze(request);
+            }
+            return CompletableFuture.completedFuture(this.route(request, parts));
+        } catch (HttpException e) {
+            return CompletableFuture.completedFuture(this.error(e.getStatus(), e.getMessage()));
+        } catch (RuntimeException e) {
+            logger.error("Could not answer {}", request, e);
+            return CompletableFuture.completedFuture(this.error(500, "Internal error"));
+        }
+    }
+
+    private HttpResponse route(HttpRequest request, String[] parts) throws HttpException {
+        String method = request.getMethod();
+        if (parts.length == 0 || !GAMES.equals(parts[0]) || parts.length > 3) {
+            throw new HttpException(404, "Not found");
+        }
+
+        if (parts.length == 1) {
+            this.requireMethod(method, "POST");
+            return this.create(request);
+        }
+
+        Session session = this.findSession(parts[1]);
+        if (parts.length == 2) {
+            if ("DELETE".equals(method)) {
+                session.manager.close(session.session.getId());
+                return HttpResponse.json(200, this.describe(session));
+            }
+            this.requireMethod(method, "GET");
+            return HttpResponse.json(200, this.describe(session));
+        }
+
+        switch (parts[2]) {
+            case "moves":
+                if ("POST".equals(method)) {
+                    return this.move(session, request);
+                }
+                this.requireMethod(method, "GET");
+                return this.findValidMoves(session);
+            case "resign":
+                this.requireMethod(method, "POST");
+                try {
+                    session.session.resign();
+                } catch (IllegalStateException e) {
+                    throw new HttpException(409, e.getMessage());
+                }
+                return HttpResponse.json(200, this.describe(session));
+            default:
+                throw new HttpException(404, "Not found");
+        }
+    }
+
+    private void requireMethod(String method, String expected) throws HttpException {
+        if (!expected.equals(method)) {
+            throw new HttpException(405, String.format("Method %s is not allowed", method));
+        }
+    }
+
+    private HttpResponse create(HttpRequest request) throws HttpException {
+        Map<String, Object> body = Json.readObject(request.getBody());
+        String profile = body.containsKey("profile") ? String.valueOf(body.get("profile")) : this.defaultProfile;
+        GameSessionManager manager = this.findProfile(profile);
+
+        String name = body.containsKey("name") ? String.valueOf(body.get("name")) : manager.getConfig().getHumanPlayerName();
+        PieceColor color;
+        try {
+            color = body.containsKey("color") ? PieceColor.valueOf(String.valueOf(body.get("color"))) : PieceColor.DARK;
+        } catch (IllegalArgumentException e) {
+            throw new HttpException(400, String.format("Unknown color %s", body.get("color")));
+        }
+
+        GameSession session;
+        try {
+            session = manager.create(name, color);
+        } catch (SessionLimitReachedException e) {
+            throw new HttpException(503, e.getMessage());
+        } catch (InvalidNumberOfPiecesPerPlayerException | InvalidBoardDimensionsException e) {
+            logger.error("Could not create a session", e);
+            throw new HttpException(500, "Could not create a game");
+        }
+
+        if (!session.isHumanToMove()) {
+            manager.playComputerMove(session);
+        }
+        return HttpResponse.json(201, this.describe(new Session(profile, manager, session)));
+    }
+
+    private GameSessionManager findProfile(String profile) throws HttpException {
+        GameSessionManager manager = this.profiles.get(profile);
+        if (manager == null) {
+            throw new HttpException(400, String.format("Unknown profile %s", profile));
+        }
+
+        return manager;
+    }
+
+    /**
+     * Analyses a batch of positions, eg. of a finished game. Each position is answered with {"position": ...,
+     * "score": ..., "depth": ..., "bestMove": {"from": ..., "to": ...}}, in the order of the request. The score is
+     * from the view of the player to move, the best move is null if they cannot move.
+     */
+    private CompletableFuture<HttpResponse> analyze(HttpRequest request) throws HttpException {
+        Map<String, Object> body = Json.readObject(request.getBody());
+        String profile = body.containsKey("profile") ? String.valueOf(body.get("profile")) : this.defaultProfile;
+        GameSessionManager manager = this.findProfile(profile);
+        if (!(body.get("positions") instanceof List)) {
+            throw new HttpException(400, "The positions are missing");
+        }
+
+        List<?> notations = (List<?>) body.get("positions");
+        if (notations.size() > MAX_ANALYSED_POSITIONS) {
+            throw new HttpException(413, String.format("At most %d positions can be analysed", MAX_ANALYSED_POSITIONS));
+        }
+
+        int size = manager.getConfig().getNumberOfRowsAndColumnsOfBoard();
+        List<Position> positions = new ArrayList<>(notations.size());
+        for (Object notation : notations) {
+            try {
+                positions.add(Position.from(BoardNotation.parse(String.valueOf(notation), size)));
+            } catch (InvalidBoardNotationException e) {
+                throw new HttpException(400, e.getMessage());
+            }
+        }
+
+        CompletableFuture<List<PositionAnalysis>> analyses;
+        try {
+            analyses = manager.analyze(positions);
+        } catch (IllegalStateException e) {
+            throw new HttpException(501, e.getMessage());
+        }
+
+        return analyses.thenApply(results -> this.describeAnalyses(notations, results))
+                .exceptionally(e -> {
+                    logger.error("Could not analyse the positions", e);
+                    return this.error(500, "Could not analyse the positions");
+                });
+    }
+
+    private HttpResponse describeAnalyses(List<?> notations, List<PositionAnalysis> analyses) {
+        List<Map<String, Object>> json = new ArrayList<>(analyses.size());
+        for (int i = 0; i < analyses.size(); i++) {
+            PositionAnalysis analysis = analyses.get(i);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("position", notations.get(i));
+            result.put("score", analysis.getScore());
+            result.put("depth", analysis.getDepth());
+            result.put("bestMove", this.describeMove(analysis.getBestMove()));
+            json.add(result);
+        }
+        return HttpResponse.json(200, json);
+    }
+
+    private Map<String, Object> describeMove(int move) {
+        if (move == PackedMove.NONE) {
+            return null;
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("from", PackedMove.from(move) + 1);
+        json.put("to", PackedMove.to(move) + 1);
+        return json;
+    }
+
+    private HttpResponse move(Session session, HttpRequest request) throws HttpException {
+        Map<String, Object> body = Json.readObject(request.getBody());
+        BoardGeometry geometry = session.geometry();
+        int from = this.squareOf(body, "from", geometry);
+        int to = this.squareOf(body, "to", geometry);
+
+        try {
+            session.session.playMove(geometry.positionOf(from), geometry.positionOf(to));
+        } catch (InvalidBoardPositionException | InvalidMoveException e) {
+            throw new HttpException(400, e.getMessage());
+        } catch (IllegalStateException e) {
+            throw new HttpException(409, e.getMessage());
+        }
+
+        if (!session.session.isFinished()) {
+            session.manager.playComputerMove(session.session);
+        }
+        return HttpResponse.json(200, this.describe(session));
+    }
+
+    private int squareOf(Map<String, Object> body, String name, BoardGeometry geometry) throws HttpException {
+        Object value = body.get(name);
+        if (!(value instanceof Long) || (Long) value < 1 || (Long) value > geometry.getNumberOfSquares()) {
+            throw new HttpException(400, String.format("Invalid square %s", value));
+        }
+
+        return ((Long) value).intValue() - 1;
+    }
+
+    private HttpResponse findValidMoves(Session session) {
+        BoardNotation position = session.session.getPosition();
+        if (position.getSideToMove() != session.session.getHuman().getColor() || session.session.isFinished()) {
+            return HttpResponse.json(200, new ArrayList<>());
+        }
+
+        String key = session.profile + '|' + position;
+        HttpResponse cached = this.validMoves.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        BoardGeometry geometry = session.geometry();
+        List<Map<String, Object>> moves = new ArrayList<>();
+        for (Move move : session.session.findValidMoves()) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("from", geometry.squareAt(move.getFrom()) + 1);
+            json.put("to", geometry.squareAt(move.getTo()) + 1);
+            moves.add(json);
+        }
+
+        HttpResponse response = HttpResponse.json(200, moves);
+        // Only cache the moves, if they have been found in the position of the key
+        if (position.equals(session.session.getPosition())) {
+            this.validMoves.put(key, response);
+        }
+        return response;
+    }
+
+    private Map<String, Object> describe(Session session) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", session.session.getId());
+        json.put("profile", session.profile);
+        json.put("color", session.session.getHuman().getColor());
+        this.describePosition(json, session.session);
+        json.put("plies", session.session.getPlies());
+        json.put("finished", session.session.isFinished());
+        json.put("winner", session.session.getWinner());
+        return json;
+    }
+
+    private void describePosition(Map<String, Object> json, GameSession session) {
+        BoardNotation position = session.getPosition();
+        json.put("sideToMove", position.getSideToMove());
+        json.put("position", position.toString());
+    }
+
+    private HttpResponse error(int status, String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("error", message);
+        return HttpResponse.json(status, json);
+    }
+
+    /**
+     * Looks up a game.
+     *
+     * @param id The id of the game.
+     * @return The session of the game.
+     * @throws HttpException Thrown with status 404 if there is no such game.
+     */
+    GameSession getSession(String id) throws HttpException {
+        return this.findSession(id).session;
+    }
+
+    private Session findSession(String id) throws HttpException {
+        for (Map.Entry<String, GameSessionManager> profile : this.profiles.entrySet()) {
+            try {
+                return new Session(profile.getKey(), profile.getValue(), profile.getValue().get(id));
+            } catch (SessionNotFoundException e) {
+                // Try the next profile
+            }
+        }
+
+        throw new HttpException(404, String.format("There is no game %s", id));
+    }
+
+    /**
+     * Sends the events of a game to a listener, see {@link GameEventChannel}. All listeners of a game share a channel.
+     *
+     * @param session  The game.
+     * @param listener Called with the WebSocket frame of each event.
+     * @return The channel of the game, from which the listener must be removed when it is no longer needed.
+     */
+    GameEventChannel subscribe(GameSession session, Consumer<ByteBuffer> listener) {
+        GameEventChannel channel;
+        try {
+            channel = this.eventChannels.get(session, () -> new GameEventChannel(session));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        channel.subscribe(listener);
+        return channel;
+    }
+
+    /**
+     * Shuts down the managers of all profiles.
+     */
+    public void shutdown() {
+        this.profiles.values().forEach(GameSessionManager::shutdown);
+    }
+
+    private static final class Session {
+        private final String profile;
+        private final GameSessionManager manager;
+        private final GameSession session;
+
+        private Session(String profile, GameSessionManager manager, GameSession session) {
+            this.profile = profile;
+            this.manager = manager;
+            this.session = session;
+        }
+
+        private BoardGeometry geometry() {
+            return BoardGeometry.of(this.manager.getConfig().getNumberOfRowsAndColumnsOfBoard());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package ch.ffhs.ftoop.bridge.dame.server.http;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.server.GameSession;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Streams the events of a game to its WebSocket listeners as JSON documents: {"type": "move", "color": ..., "from":
+ * ..., "to": ..., "captures": ...} for every move, {"type": "turn", "sideToMove": ..., "position": ...} when the other
+ * player is to move and {"type": "ended", "winner": ...} at the end of the game.
+ * <p>
+ * The channel observes the game only once, however many listeners it has, and every event is written as JSON and
+ * encoded as a WebSocket frame only once: all listeners receive a duplicate of the same read-only buffer. Listeners
+ * are called on the thread delivering the events, so they must only queue the frame and not block.
+ * <p>
+ * The channel does not refer to the session, so it can be kept in a map with weak keys until the session is gone.
+ */
+final class GameEventChannel {
+    private static final Logger logger = LogManager.getLogger(GameEventChannel.class);
+
+    private final String id;
+    private final Set<Consumer<ByteBuffer>> listeners = ConcurrentHashMap.newKeySet();
+    private ByteBuffer endFrame;
+
+    /**
+     * Creates the channel and starts observing the game of the session.
+     *
+     * @param session The session of the game.
+     */
+    GameEventChannel(GameSession session) {
+        checkNotNull(session);
+
+        this.id = session.getId();
+        BoardGeometry geometry = BoardGeometry.of(session.getPosition().getNumberOfRowsAndColumns());
+        session.registerMovePlayedObserver((player, move, capturedPieces) -> {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("type", "move");
+            json.put("color", player.getColor());
+            json.put("from", geometry.squareAt(move.getFrom()) + 1);
+            json.put("to", geometry.squareAt(move.getTo()) + 1);
+            json.put("captures", capturedPieces);
+            this.broadcast(encode(json));
+        });
+        session.registerTurnFinishedObserver(player -> {
+            BoardNotation position = session.getPosition();
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("type", "turn");
+            json.put("sideToMove", position.getSideToMove());
+            json.put("position", position.toString());
+            this.broadcast(encode(json));
+        });
+        session.registerGameEndedObserver((winner, loser) -> this.onGameEnded(winner == null ? null : winner.getColor()));
+        if (session.isFinished()) {
+            this.onGameEnded(session.getWinner());
+        }
+    }
+
+    private static ByteBuffer encode(Map<String, Object> json) {
+        return WebSocketFrames.text(Json.write(json)).asReadOnlyBuffer();
+    }
+
+    private synchronized void onGameEnded(PieceColor winner) {
+        if (this.endFrame != null) {
+            return;
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("type", "ended");
+        json.put("winner", winner);
+        this.endFrame = encode(json);
+        this.broadcast(this.endFrame);
+    }
+
+    private void broadcast(ByteBuffer frame) {
+        for (Consumer<ByteBuffer> listener : this.listeners) {
+            this.send(listener, frame);
+        }
+    }
+
+    private void send(Consumer<ByteBuffer> listener, ByteBuffer frame) {
+        try {
+            listener.accept(frame.duplicate());
+        } catch (RuntimeException e) {
+            logger.warn("Removing listener of session {}", this.id, e);
+            this.listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Adds a listener, which receives the events from now on. If the game is already over, it only receives the end of
+     * the game.
+     *
+     * @param listener Called with the WebSocket frame of every event, ready to be written.
+     */
+    synchronized void subscribe(Consumer<ByteBuffer> listener) {
+        checkNotNull(listener);
+
+        if (this.endFrame != null) {
+            this.send(listener, this.endFrame);
+            return;
+        }
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener, eg. when its connection has been closed.
+     *
+     * @param listener The listener.
+     */
+    void unsubscribe(Consumer<ByteBuffer> listener) {
+        this.listeners.remove(listener);
+    }
+
+    int getNumberOfListeners() {
+        return this.listeners.size();
+    }
+}
@@ -0,0 +1,508 @@
+package ch.ffhs.ftoop.bridge.dame.server.http;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.server.GameSession;
+import ch.ffhs.ftoop.bridge.dame.server.GameSessionManager;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Serves the {@link GameApi} over HTTP/1.1 and streams the events of a game over WebSockets, eg. to a web front end.
+ * <p>
+ * Like the {@link ch.ffhs.ftoop.bridge.dame.server.protocol.GameServer}, all connections are handled by a single
+ * thread with a non-blocking selector loop. Requests are answered by a small pool of handler threads, so that a
+ * request waiting for a game does not hold up the other connections. Long analyses do not even hold up a handler
+ * thread, they are answered once their searches have finished. The responses and the events are handed back to the
+ * selector thread, which is the only one touching the connections. Requests of a connection are answered one
+ * after another, in the order they were received.
+ */
+public class HttpApiServer {
+    private static final Logger logger = LogManager.getLogger(HttpApiServer.class);
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_BODY_LENGTH = 65536;
+    private static final int MAX_FRAME_LENGTH = 4096;
+    private static final int MAX_BUFFERS_PER_WRITE = 32;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+    private final GameApi api;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final ExecutorService handlers;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Creates the server and binds it to the address.
+     *
+     * @param api            The API to serve.
+     * @param address        The address to listen to, port 0 for any free port.
+     * @param handlerThreads The number of threads answering the requests.
+     * @throws IOException Thrown if the server could not be bound.
+     */
+    public HttpApiServer(GameApi api, InetSocketAddress address, int handlerThreads) throws IOException {
+        this.api = checkNotNull(api);
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.bind(checkNotNull(address));
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.handlers = Executors.newFixedThreadPool(handlerThreads,
+                new ThreadFactoryBuilder().setNameFormat("http-handler-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Starts the selector loop on its own thread.
+     */
+    public synchronized void start() {
+        checkState(this.thread == null, "The server has already been started");
+
+        this.running = true;
+        this.thread = new Thread(this::run, "http-server");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        logger.info("HTTP server listening on port {}", this.getPort());
+    }
+
+    public int getPort() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    private void run() {
+        try {
+            while (this.running) {
+                this.selector.select();
+
+                Runnable task;
+                while ((task = this.tasks.poll()) != null) {
+                    task.run();
+                }
+
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    this.handle(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (this.running) {
+                logger.error("The HTTP server has stopped", e);
+            }
+        }
+    }
+
+    /**
+     * Runs a task on the selector thread.
+     */
+    private void execute(Runnable task) {
+        this.tasks.add(task);
+        this.selector.wakeup();
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        if (key.isAcceptable()) {
+            try {
+                this.accept();
+            } catch (IOException e) {
+                logger.warn("Could not accept a connection", e);
+            }
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.read();
+            }
+
+            if (key.isValid() && key.isWritable()) {
+                connection.write();
+            }
+        } catch (IOException e) {
+            logger.debug("Closing connection {}: {}", connection, e.getMessage());
+            connection.close();
+        } catch (RuntimeException e) {
+            logger.error("Closing connection {}", connection, e);
+            connection.close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = this.serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Stops the server and closes all connections. The games are left to the API.
+     */
+    public void shutdown() {
+        this.running = false;
+        this.handlers.shutdownNow();
+        try {
+            for (SelectionKey key : this.selector.keys()) {
+                key.channel().close();
+            }
+            this.selector.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the HTTP server", e);
+        }
+    }
+
+    /**
+     * A connection of a client, which is only used on the selector thread.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+        private final Queue<ByteBuffer> output = new ArrayDeque<>();
+        private final ByteBuffer[] writeBuffers = new ByteBuffer[MAX_BUFFERS_PER_WRITE];
+        private SelectionKey key;
+        private boolean busy;
+        private boolean webSocket;
+        private boolean closeAfterWriting;
+        private GameEventChannel events;
+        private Consumer<ByteBuffer> listener;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read() throws IOException {
+            if (!this.input.hasRemaining()) {
+                // Wait until the requests received have been answered
+                this.key.interestOps(this.key.interestOps() & ~SelectionKey.OP_READ);
+                return;
+            }
+
+            // Never read more than fits behind the incomplete request received before
+            HttpApiServer.this.readBuffer.clear();
+            HttpApiServer.this.readBuffer.limit(Math.min(BUFFER_SIZE, this.input.remaining()));
+            if (this.channel.read(HttpApiServer.this.readBuffer) < 0) {
+                this.close();
+                return;
+            }
+
+            HttpApiServer.this.readBuffer.flip();
+            this.input.put(HttpApiServer.this.readBuffer);
+            this.processInput();
+        }
+
+        private void processInput() {
+            this.input.flip();
+            try {
+                while (!this.busy && !this.closeAfterWriting && this.input.hasRemaining()) {
+                    if (this.webSocket) {
+                        WebSocketFrames.Frame frame = WebSocketFrames.decode(this.input, MAX_FRAME_LENGTH);
+                        if (frame == null) {
+                            break;
+                        }
+                        this.handle(frame);
+                    } else {
+                        HttpRequest request = this.readRequest();
+                        if (request == null) {
+                            break;
+                        }
+                        this.handle(request);
+                    }
+                }
+            } catch (HttpException e) {
+                this.fail(e);
+            } finally {
+                this.input.compact();
+                if (this.input.position() == 0 && this.input.capacity() > BUFFER_SIZE) {
+                    this.input = ByteBuffer.allocate(BUFFER_SIZE);
+                }
+            }
+
+            if (!this.input.hasRemaining() && !this.busy && !this.closeAfterWriting) {
+                // The buffer is full without containing a complete request
+                this.fail(new HttpException(413, "Request is too large"));
+            }
+        }
+
+        private void fail(HttpException e) {
+            if (this.webSocket) {
+                this.send(WebSocketFrames.encode(WebSocketFrames.CLOSE, new byte[0]));
+                this.closeAfterWriting = true;
+            } else {
+                this.respond(new HttpResponse(e.getStatus(), Json.write(errorOf(e.getMessage()))), false);
+            }
+        }
+
+        private HttpRequest readRequest() throws HttpException {
+            int start = this.input.position();
+            int end = this.indexOfHeaderEnd();
+            if (end < 0) {
+                return null;
+            }
+
+            byte[] head = new byte[end - start];
+            this.input.get(head);
+            String[] lines = new String(head, StandardCharsets.ISO_8859_1).split("\r\n");
+            String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3) {
+                throw new HttpException(400, "Invalid request line");
+            }
+
+            Map<String, String> headers = new HashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon > 0) {
+                    headers.put(lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT), lines[i].substring(colon + 1).trim());
+                }
+            }
+
+            int length;
+            try {
+                length = headers.containsKey("content-length") ? Integer.parseInt(headers.get("content-length")) : 0;
+            } catch (NumberFormatException e) {
+                throw new HttpException(400, "Invalid content length");
+            }
+            if (length < 0 || length > MAX_BODY_LENGTH) {
+                throw new HttpException(413, "Request is too large");
+            }
+
+            if (this.input.remaining() < HEADER_END.length + length) {
+                this.input.position(start);
+                int size = end - start + HEADER_END.length + length;
+                if (size > this.input.capacity()) {
+                    // Only a connection sending a large body, eg. a batch of positions, gets a buffer to fit it
+                    this.input = ByteBuffer.allocate(size).put(this.input);
+                    this.input.flip();
+                }
+                return null;
+            }
+
+            this.input.position(end + HEADER_END.length);
+            byte[] body = new byte[length];
+            this.input.get(body);
+
+            String path = requestLine[1];
+            int query = path.indexOf('?');
+            return new HttpRequest(requestLine[0], query < 0 ? path : path.substring(0, query), headers, body);
+        }
+
+        private int indexOfHeaderEnd() {
+            for (int i = this.input.position(); i + HEADER_END.length <= this.input.limit(); i++) {
+                int j = 0;
+                while (j < HEADER_END.length && this.input.get(i + j) == HEADER_END[j]) {
+                    j++;
+                }
+                if (j == HEADER_END.length) {
+                    return i;
+                }
+            }
+
+            return -1;
+        }
+
+        private void handle(HttpRequest request) throws HttpException {
+            if (request.isWebSocketUpgrade()) {
+                this.upgrade(request);
+                return;
+            }
+
+            boolean keepAlive = request.isKeepAlive();
+            this.busy = true;
+            try {
+                HttpApiServer.this.handlers.execute(() -> HttpApiServer.this.api.handle(request)
+                        .thenAccept(response -> HttpApiServer.this.execute(() -> this.respond(response, keepAlive))));
+            } catch (RejectedExecutionException e) {
+                throw new HttpException(503, "The server is shutting down");
+            }
+        }
+
+        private void respond(HttpResponse response, boolean keepAlive) {
+            if (!this.key.isValid()) {
+                return;
+            }
+
+            this.busy = false;
+            this.send(response.encode(keepAlive));
+            if (!keepAlive) {
+                this.closeAfterWriting = true;
+            } else {
+                this.key.interestOps(this.key.interestOps() | SelectionKey.OP_READ);
+                if (this.input.position() > 0) {
+                    // Answer the requests that have been received in the meantime
+                    this.processInput();
+                }
+            }
+        }
+
+        private void upgrade(HttpRequest request) throws HttpException {
+            String[] parts = request.getPath().replaceAll("^/+|/+$", "").split("/+");
+            if (parts.length != 3 || !"games".equals(parts[0]) || !"events".equals(parts[2])) {
+                throw new HttpException(404, "Not found");
+            }
+
+            String webSocketKey = request.getHeader("sec-websocket-key");
+            if (webSocketKey == null || webSocketKey.trim().isEmpty()) {
+                throw new HttpException(400, "The WebSocket key is missing");
+            }
+
+            GameSession session = HttpApiServer.this.api.getSession(parts[1]);
+            String handshake = "HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                    + "Sec-WebSocket-Accept: " + WebSocketFrames.acceptKey(webSocketKey) + "\r\n\r\n";
+            this.send(ByteBuffer.wrap(handshake.getBytes(StandardCharsets.US_ASCII)));
+            this.webSocket = true;
+
+            this.listener = frame -> HttpApiServer.this.execute(() -> {
+                if (this.key.isValid() && !this.closeAfterWriting) {
+                    this.send(frame);
+                }
+            });
+            this.events = HttpApiServer.this.api.subscribe(session, this.listener);
+        }
+
+        private void handle(WebSocketFrames.Frame frame) {
+            switch (frame.getOpcode()) {
+                case WebSocketFrames.CLOSE:
+                    this.send(WebSocketFrames.encode(WebSocketFrames.CLOSE, frame.getPayload()));
+                    this.closeAfterWriting = true;
+                    break;
+                case WebSocketFrames.PING:
+                    this.send(WebSocketFrames.encode(WebSocketFrames.PONG, frame.getPayload()));
+                    break;
+                default:
+                    // Clients only listen to the events
+                    break;
+            }
+        }
+
+        private void send(ByteBuffer buffer) {
+            this.output.add(buffer);
+            if (this.key.isValid()) {
+                this.key.interestOps(this.key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * Writes as many queued buffers as possible with one gathering write.
+         */
+        private void write() throws IOException {
+            int count = 0;
+            for (ByteBuffer buffer : this.output) {
+                if (count == MAX_BUFFERS_PER_WRITE) {
+                    break;
+                }
+                this.writeBuffers[count++] = buffer;
+            }
+
+            this.channel.write(this.writeBuffers, 0, count);
+            for (int i = 0; i < count; i++) {
+                if (this.writeBuffers[i].hasRemaining()) {
+                    break;
+                }
+                this.output.poll();
+                this.writeBuffers[i] = null;
+            }
+
+            if (this.output.isEmpty()) {
+                if (this.closeAfterWriting) {
+                    this.close();
+                    return;
+                }
+                this.key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        private void close() {
+            if (this.events != null) {
+                this.events.unsubscribe(this.listener);
+                this.events = null;
+            }
+
+            this.key.cancel();
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                logger.debug("Could not close connection {}", this, e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(this.channel.socket().getRemoteSocketAddress());
+        }
+    }
+
+    private static Map<String, Object> errorOf(String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("error", message);
+        return json;
+    }
+
+    /**
+     * Starts a server with a profile per game configuration and serves until the process is stopped.
+     *
+     * @param args The port and the game configurations, the name of the file without its extension is the name of
+     *             the profile. Without configurations the default one is served as profile "default".
+     * @throws ConfigurationException Thrown if a game configuration could not be loaded.
+     * @throws IOException            Thrown if the server could not be started.
+     * @throws InterruptedException   Thrown if the server was interrupted.
+     */
+    public static void main(String[] args) throws ConfigurationException, IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: HttpApiServer <port> [game configuration]...");
+            System.exit(1);
+        }
+
+        Map<String, GameSessionManager> profiles = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String name = Paths.get(args[i]).getFileName().toString().replaceFirst("\\.properties$", "");
+            profiles.put(name, GameSessionManager.open(new GameConfig(args[i])));
+        }
+        if (profiles.isEmpty()) {
+            profiles.put("default", GameSessionManager.open(new GameConfig()));
+        }
+
+        GameApi api = new GameApi(profiles);
+        Runtime.getRuntime().addShutdownHook(new Thread(api::shutdown));
+        HttpApiServer server = new HttpApiServer(api, new InetSocketAddress(Integer.parseInt(args[0])),
+                Runtime.getRuntime().availableProcessors());
+        server.start();
+        server.thread.join();
+    }
+}
@@ -0,0 +1,17 @@
+package ch.ffhs.ftoop.bridge.dame.server.http;
+
+/**
+ * Indicates that a request cannot be answered successfully, with the HTTP status to respond with.
+ */
+public class HttpException extends Exception {
+    private final int status;
+
+    public HttpException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+}
@@ -0,0 +1,77 @@
+package ch.ffhs.ftoop.bridge.dame.server.http;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A request received by the {@link HttpApiServer}.
+ */
+public final class HttpRequest {
+    private final String method;
+    private final String path;
+    private final Map<String, String> headers;
+    private final byte[] body;
+
+    /**
+     * Creates the request.
+     *
+     * @param method  The method, eg. GET.
+     * @param path    The path, without the query.
+     * @param headers The headers, with the names in lower case.
+     * @param body    The body, empty if there is none.
+     */
+    public HttpRequest(String method, String path, Map<String, String> headers, byte[] body) {
+        this.method = method;
+        this.path = path;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+    }
+
+    public String getMethod() {
+        return this.method;
+    }
+
+    public String getPath() {
+        return this.path;
+    }
+
+    /**
+     * A header of the request.
+     *
+     * @param name The name of the header, in lower case.
+     * @return The value, or null if the header has not been sent.
+     */
+    public String getHeader(String name) {
+        return this.headers.get(name);
+    }
+
+    public String getBody() {
+        return new String(this.body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Whether the request asks to upgrade the connection to a WebSocket.
+     *
+     * @return True if it is a WebSocket handshake.
+     */
+    public boolean isWebSocketUpgrade() {
+        String upgrade = this.getHeader("upgrade");
+        return "GET".equals(this.method) && upgrade != null && upgrade.equalsIgnoreCase("websocket");
+    }
+
+    /**
+     * Whether the client wants to keep the connection open after the response.
+     *
+     * @return True unless the client has asked to close it.
+     */
+    public boolean isKeepAlive() {
+        String connection = this.getHeader("connection");
+        return connection == null || !connection.equalsIgnoreCase("close");
+    }
+
+    @Override
+    public String toString() {
+        return this.method + " " + this.path;
+    }
+}
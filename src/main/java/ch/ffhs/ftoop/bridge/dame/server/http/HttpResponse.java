@@ -0,0 +1,86 @@
+package ch.ffhs.ftoop.bridge.dame.server.http;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A response of the {@link GameApi}, with a JSON body.
+ */
+public final class HttpResponse {
+    private final int status;
+    private final String body;
+
+    public HttpResponse(int status, String body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    /**
+     * A response with the JSON document of the value.
+     *
+     * @param status The HTTP status.
+     * @param value  The value, see {@link Json#write(Object)}.
+     * @return The response.
+     */
+    static HttpResponse json(int status, Object value) {
+        return new HttpResponse(status, Json.write(value));
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+
+    public String getBody() {
+        return this.body;
+    }
+
+    /**
+     * Encodes the response as it is sent.
+     *
+     * @param keepAlive Whether the connection is kept open afterwards.
+     * @return The bytes to send.
+     */
+    ByteBuffer encode(boolean keepAlive) {
+        byte[] content = this.body.getBytes(StandardCharsets.UTF_8);
+        String head = String.format("HTTP/1.1 %d %s\r\nContent-Type: application/json; charset=utf-8\r\n"
+                        + "Content-Length: %d\r\nConnection: %s\r\n\r\n", this.status, reasonOf(this.status), content.length,
+                keepAlive ? "keep-alive" : "close");
+
+        byte[] headBytes = head.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocate(headBytes.length + content.length);
+        buffer.put(headBytes).put(content).flip();
+        return buffer;
+    }
+
+    static String reasonOf(int status) {
+        switch (status) {
+            case 200:
+                return "OK";
+            case 201:
+                return "Created";
+            case 400:
+                return "Bad Request";
+            case 404:
+                return "Not Found";
+            case 405:
+                return "Method Not Allowed";
+            case 409:
+                return "Conflict";
+            case 413:
+                return "Payload Too Large";
+            case 500:
+                return "Internal Server Error";
+            case 501:
+                return "Not Implemented";
+            case 503:
+                return "Service Unavailable";
+            default:
+                return status < 400 ? "OK" : "Error";
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.status + " " + this.body;
+    }
+}
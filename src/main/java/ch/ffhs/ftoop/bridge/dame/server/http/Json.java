@@ -0,0 +1,274 @@
+package ch.ffhs.ftoop.bridge.dame.server.http;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the JSON documents of the {@link GameApi} and reads the JSON objects it receives. Only what the API needs is
+ * supported: objects read may contain strings, numbers, booleans, null and arrays of them, but no nested objects.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * Writes a value as JSON.
+     *
+     * @param value A map (with string keys), list, string, number, boolean or null.
+     * @return The JSON document.
+     */
+    static String write(Object value) {
+        StringBuilder builder = new StringBuilder(256);
+        write(builder, value);
+        return builder.toString();
+    }
+
+    private static void write(StringBuilder builder, Object value) {
+        if (value == null) {
+            builder.append("null");
+        } else if (value instanceof String) {
+            writeString(builder, (String) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else if (value instanceof Map) {
+            builder.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                writeString(builder, String.valueOf(entry.getKey()));
+                builder.append(':');
+                write(builder, entry.getValue());
+            }
+            builder.append('}');
+        } else if (value instanceof List) {
+            builder.append('[');
+            boolean first = true;
+            for (Object element : (List<?>) value) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                write(builder, element);
+            }
+            builder.append(']');
+        } else {
+            writeString(builder, value.toString());
+        }
+    }
+
+    private static void writeString(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        builder.append('"');
+    }
+
+    /**
+     * Reads a JSON object, whose members are values or arrays, but not objects.
+     *
+     * @param json The JSON document, an empty document is read as an empty object.
+     * @return The members of the object, numbers as {@link Long} or {@link Double} and arrays as {@link List}.
+     * @throws HttpException Thrown with status 400, if the document is not such a JSON object.
+     */
+    static Map<String, Object> readObject(String json) throws HttpException {
+        Map<String, Object> members = new LinkedHashMap<>();
+        Reader reader = new Reader(json);
+        if (reader.atEnd()) {
+            return members;
+        }
+
+        reader.expect('{');
+        if (!reader.consume('}')) {
+            do {
+                String name = reader.readString();
+                reader.expect(':');
+                members.put(name, reader.readValue());
+            } while (reader.consume(','));
+            reader.expect('}');
+        }
+
+        if (!reader.atEnd()) {
+            throw reader.error("Unexpected content after the object");
+        }
+        return members;
+    }
+
+    private static final class Reader {
+        private final String json;
+        private int index;
+
+        private Reader(String json) {
+            this.json = json;
+        }
+
+        private void skipWhitespace() {
+            while (this.index < this.json.length() && Character.isWhitespace(this.json.charAt(this.index))) {
+                this.index++;
+            }
+        }
+
+        private boolean atEnd() {
+            this.skipWhitespace();
+            return this.index == this.json.length();
+        }
+
+        private boolean consume(char c) {
+            this.skipWhitespace();
+            if (this.index < this.json.length() && this.json.charAt(this.index) == c) {
+                this.index++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) throws HttpException {
+            if (!this.consume(c)) {
+                throw this.error(String.format("Expected '%c'", c));
+            }
+        }
+
+        private Object readValue() throws HttpException {
+            this.skipWhitespace();
+            if (this.index == this.json.length()) {
+                throw this.error("Expected a value");
+            }
+
+            char c = this.json.charAt(this.index);
+            if (c == '"') {
+                return this.readString();
+            }
+            if (c == '[') {
+                return this.readArray();
+            }
+            if (this.json.startsWith("true", this.index)) {
+                this.index += 4;
+                return Boolean.TRUE;
+            }
+            if (this.json.startsWith("false", this.index)) {
+                this.index += 5;
+                return Boolean.FALSE;
+            }
+            if (this.json.startsWith("null", this.index)) {
+                this.index += 4;
+                return null;
+            }
+            return this.readNumber();
+        }
+
+        private List<Object> readArray() throws HttpException {
+            this.expect('[');
+            List<Object> elements = new ArrayList<>();
+            if (!this.consume(']')) {
+                do {
+                    elements.add(this.readValue());
+                } while (this.consume(','));
+                this.expect(']');
+            }
+            return elements;
+        }
+
+        private Object readNumber() throws HttpException {
+            int start = this.index;
+            while (this.index < this.json.length() && "+-0123456789.eE".indexOf(this.json.charAt(this.index)) >= 0) {
+                this.index++;
+            }
+
+            String number = this.json.substring(start, this.index);
+            try {
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    return Long.parseLong(number);
+                }
+                return Double.parseDouble(number);
+            } catch (NumberFormatException e) {
+                throw this.error("Expected a value");
+            }
+        }
+
+        private String readString() throws HttpException {
+            this.expect('"');
+
+            StringBuilder builder = new StringBuilder();
+            while (this.index < this.json.length()) {
+                char c = this.json.charAt(this.index++);
+                if (c == '"') {
+                    return builder.toString();
+                }
+                if (c != '\\') {
+                    builder.append(c);
+                    continue;
+                }
+                if (this.index == this.json.length()) {
+                    break;
+                }
+
+                char escaped = this.json.charAt(this.index++);
+                switch (escaped) {
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'u':
+                        if (this.index + 4 > this.json.length()) {
+                            throw this.error("Invalid escape sequence");
+                        }
+                        try {
+                            builder.append((char) Integer.parseInt(this.json.substring(this.index, this.index + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw this.error("Invalid escape sequence");
+                        }
+                        this.index += 4;
+                        break;
+                    default:
+                        builder.append(escaped);
+                }
+            }
+
+            throw this.error("Unterminated string");
+        }
+
+        private HttpException error(String message) {
+            return new HttpException(400, String.format("Invalid JSON at %d: %s", this.index, message));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ch.ffhs.ftoop.bridge.dame.server.http;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the frames of a WebSocket connection (RFC 6455), as far as needed to stream events to the
+ * clients: messages are never fragmented and only text, close, ping and pong frames are handled.
+ */
+final class WebSocketFrames {
+    static final int TEXT = 0x1;
+    static final int CLOSE = 0x8;
+    static final int PING = 0x9;
+    static final int PONG = 0xA;
+    private static final String HANDSHAKE_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private WebSocketFrames() {
+    }
+
+    /**
+     * Calculates the key the server accepts the handshake with.
+     *
+     * @param key The key sent by the client.
+     * @return The value of the Sec-WebSocket-Accept header.
+     */
+    static String acceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return Base64.getEncoder().encodeToString(sha1.digest((key.trim() + HANDSHAKE_GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available", e);
+        }
+    }
+
+    static ByteBuffer text(String text) {
+        return encode(TEXT, text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Encodes an unmasked frame, as sent by the server.
+     *
+     * @param opcode  The type of the frame.
+     * @param payload The payload.
+     * @return The frame, ready to be sent.
+     */
+    static ByteBuffer encode(int opcode, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(payload.length + 10);
+        buffer.put((byte) (0x80 | opcode));
+        if (payload.length < 126) {
+            buffer.put((byte) payload.length);
+        } else if (payload.length < 65536) {
+            buffer.put((byte) 126).putShort((short) payload.length);
+        } else {
+            buffer.put((byte) 127).putLong(payload.length);
+        }
+
+        buffer.put(payload).flip();
+        return buffer;
+    }
+
+    /**
+     * Decodes the next frame, masked or not.
+     *
+     * @param buffer        The received bytes, ready to be read. The position is moved behind the frame.
+     * @param maxFrameLength The maximal length of the payload.
+     * @return The frame, or null if more bytes are needed.
+     * @throws HttpException Thrown if the frame is longer than allowed.
+     */
+    static Frame decode(ByteBuffer buffer, int maxFrameLength) throws HttpException {
+        int start = buffer.position();
+        if (buffer.remaining() < 2) {
+            return null;
+        }
+
+        int opcode = buffer.get() & 0x0F;
+        int second = buffer.get() & 0xFF;
+        boolean masked = (second & 0x80) != 0;
+        long length = second & 0x7F;
+        if (length == 126) {
+            if (buffer.remaining() < 2) {
+                buffer.position(start);
+                return null;
+            }
+            length = buffer.getShort() & 0xFFFF;
+        } else if (length == 127) {
+            if (buffer.remaining() < 8) {
+                buffer.position(start);
+                return null;
+            }
+            length = buffer.getLong();
+        }
+
+        if (length < 0 || length > maxFrameLength) {
+            throw new HttpException(413, "WebSocket frame is too long");
+        }
+
+        if (buffer.remaining() < (masked ? 4 : 0) + length) {
+            buffer.position(start);
+            return null;
+        }
+
+        byte[] mask = new byte[4];
+        if (masked) {
+            buffer.get(mask);
+        }
+
+        byte[] payload = new byte[(int) length];
+        buffer.get(payload);
+        for (int i = 0; i < payload.length; i++) {
+            payload[i] ^= mask[i % 4];
+        }
+
+        return new Frame(opcode, payload);
+    }
+
+    static final class Frame {
+        private final int opcode;
+        private final byte[] payload;
+
+        private Frame(int opcode, byte[] payload) {
+            this.opcode = opcode;
+            this.payload = payload;
+        }
+
+        int getOpcode() {
+            return this.opcode;
+        }
+
+        byte[] getPayload() {
+            return this.payload;
+        }
+
+        String getText() {
+            return new String(this.payload, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package ch.ffhs.ftoop.bridge.dame.server.protocol;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The change of the board by a single move, as sent to spectators in a {@link Protocol#DIFF} frame: the piece moved,
+ * the squares of the pieces captured and whether the piece has become a king. Diffs are numbered, so a spectator can
+ * tell which diffs follow the snapshot it has received.
+ */
+public final class BoardDiff {
+    private final int sequence;
+    private final PieceColor color;
+    private final int from;
+    private final int to;
+    private final int[] removedSquares;
+    private final boolean promotion;
+
+    BoardDiff(int sequence, PieceColor color, int from, int to, int[] removedSquares, boolean promotion) {
+        this.sequence = sequence;
+        this.color = checkNotNull(color);
+        this.from = from;
+        this.to = to;
+        this.removedSquares = checkNotNull(removedSquares);
+        this.promotion = promotion;
+    }
+
+    /**
+     * Determines the diff of a move by comparing the positions before and after it.
+     *
+     * @param sequence The number of the diff.
+     * @param color    The color of the player who has moved.
+     * @param from     The from-square.
+     * @param to       The to-square.
+     * @param before   The position before the move.
+     * @param after    The position after the move.
+     * @return The diff.
+     */
+    static BoardDiff between(int sequence, PieceColor color, int from, int to, Position before, Position after) {
+        int[] removed = new int[before.getGeometry().getNumberOfSquares()];
+        int count = 0;
+        for (int square = 0; square < removed.length; square++) {
+            if (square != from && square != to && !before.isEmpty(square) && after.isEmpty(square)) {
+                removed[count++] = square;
+            }
+        }
+
+        boolean promotion = !Position.isKing(before.get(from)) && Position.isKing(after.get(to));
+        return new BoardDiff(sequence, color, from, to, Arrays.copyOf(removed, count), promotion);
+    }
+
+    /**
+     * Plays the move of the diff on a position, which then has the opponent of the player to move.
+     *
+     * @param position The position before the move, ie. the snapshot or the position after the previous diff.
+     */
+    public void applyTo(Position position) {
+        byte piece = position.get(this.from);
+        position.set(this.from, Position.EMPTY);
+        for (int square : this.removedSquares) {
+            position.set(square, Position.EMPTY);
+        }
+        position.set(this.to, this.promotion ? (byte) (piece | Position.KING) : piece);
+        position.setSideToMove(Position.opponentOf(this.color));
+    }
+
+    public int getSequence() {
+        return this.sequence;
+    }
+
+    public PieceColor getColor() {
+        return this.color;
+    }
+
+    public int getFrom() {
+        return this.from;
+    }
+
+    public int getTo() {
+        return this.to;
+    }
+
+    public int[] getRemovedSquares() {
+        return this.removedSquares.clone();
+    }
+
+    public boolean isPromotion() {
+        return this.promotion;
+    }
+
+    @Override
+    public String toString() {
+        return "BoardDiff{" +
+                "sequence=" + sequence +
+                ", color=" + color +
+                ", from=" + from +
+                ", to=" + to +
+                ", removedSquares=" + Arrays.toString(removedSquares) +
+                ", promotion=" + promotion +
+                '}';
+    }
+}
@@ -0,0 +1,190 @@
+package ch.ffhs.ftoop.bridge.dame.server.protocol;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A frame of the {@link Protocol} that has been received. The getters decode the payload of the respective frame
+ * types.
+ */
+public final class Frame {
+    private final byte type;
+    private final ByteBuffer payload;
+
+    Frame(byte type, ByteBuffer payload) {
+        this.type = type;
+        this.payload = payload;
+    }
+
+    public byte getType() {
+        return this.type;
+    }
+
+    /**
+     * The color of a {@link Protocol#JOIN}, {@link Protocol#JOINED} or {@link Protocol#MOVE_PLAYED} frame.
+     *
+     * @return The color.
+     * @throws InvalidFrameException Thrown if the frame is too short or the color is unknown.
+     */
+    public PieceColor getColor() throws InvalidFrameException {
+        return Protocol.colorOf(this.byteAt(0));
+    }
+
+    /**
+     * The name of the player of a {@link Protocol#JOIN} frame.
+     *
+     * @return The name.
+     * @throws InvalidFrameException Thrown if the frame is too short.
+     */
+    public String getName() throws InvalidFrameException {
+        return Protocol.decodeText(this.payloadFrom(1));
+    }
+
+    /**
+     * The game id of a {@link Protocol#WATCH} or {@link Protocol#JOINED} frame.
+     *
+     * @return The id.
+     * @throws InvalidFrameException Thrown if the frame is too short.
+     */
+    public String getGameId() throws InvalidFrameException {
+        return Protocol.decodeText(this.payloadFrom(this.type == Protocol.JOINED ? 2 : 0));
+    }
+
+    /**
+     * The message of an {@link Protocol#ERROR} frame.
+     *
+     * @return The message.
+     * @throws InvalidFrameException Thrown if the frame is too short.
+     */
+    public String getMessage() throws InvalidFrameException {
+        return Protocol.decodeText(this.payloadFrom(0));
+    }
+
+    /**
+     * The from-square of a {@link Protocol#MOVE} or {@link Protocol#MOVE_PLAYED} frame.
+     *
+     * @return The square, starting from 0.
+     * @throws InvalidFrameException Thrown if the frame is too short.
+     */
+    public int getFrom() throws InvalidFrameException {
+        return this.byteAt(this.type == Protocol.MOVE ? 0 : 1) & 0xFF;
+    }
+
+    /**
+     * The to-square of a {@link Protocol#MOVE} or {@link Protocol#MOVE_PLAYED} frame.
+     *
+     * @return The square, starting from 0.
+     * @throws InvalidFrameException Thrown if the frame is too short.
+     */
+    public int getTo() throws InvalidFrameException {
+        return this.byteAt(this.type == Protocol.MOVE ? 1 : 2) & 0xFF;
+    }
+
+    public int getCapturedPieces() throws InvalidFrameException {
+        return this.byteAt(3) & 0xFF;
+    }
+
+    /**
+     * The board size of a {@link Protocol#JOINED} frame.
+     *
+     * @return The number of rows and columns.
+     * @throws InvalidFrameException Thrown if the frame is too short.
+     */
+    public int getNumberOfRowsAndColumns() throws InvalidFrameException {
+        return this.byteAt(this.type == Protocol.JOINED ? 1 : this.positionOffset()) & 0xFF;
+    }
+
+    /**
+     * The number of the last diff played in a {@link Protocol#SNAPSHOT} frame or the number of a {@link Protocol#DIFF}
+     * frame.
+     *
+     * @return The number.
+     * @throws InvalidFrameException Thrown if the frame is too short.
+     */
+    public int getSequence() throws InvalidFrameException {
+        this.byteAt(3);
+        return this.payload.getInt(0);
+    }
+
+    /**
+     * The diff of a {@link Protocol#DIFF} frame.
+     *
+     * @return The diff.
+     * @throws InvalidFrameException Thrown if the frame is too short or the color is unknown.
+     */
+    public BoardDiff getDiff() throws InvalidFrameException {
+        int[] removed = new int[this.byteAt(8) & 0xFF];
+        for (int i = 0; i < removed.length; i++) {
+            removed[i] = this.byteAt(9 + i) & 0xFF;
+        }
+
+        return new BoardDiff(this.getSequence(), Protocol.colorOf(this.byteAt(4)), this.byteAt(5) & 0xFF,
+                this.byteAt(6) & 0xFF, removed, this.byteAt(7) != 0);
+    }
+
+    /**
+     * The position of a {@link Protocol#POSITION} or {@link Protocol#SNAPSHOT} frame.
+     *
+     * @return The position.
+     * @throws InvalidFrameException Thrown if the frame is too short or the board size is invalid.
+     */
+    public Position getPosition() throws InvalidFrameException {
+        BoardGeometry geometry;
+        try {
+            geometry = BoardGeometry.of(this.getNumberOfRowsAndColumns());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFrameException(e.getMessage());
+        }
+
+        int offset = this.positionOffset();
+        Position position = Position.empty(geometry, Protocol.colorOf(this.byteAt(offset + 1)));
+        for (int square = 0; square < geometry.getNumberOfSquares(); square++) {
+            int pieces = this.byteAt(offset + 2 + square / 2);
+            position.set(square, (byte) (square % 2 == 0 ? pieces & 0x0F : pieces >> 4 & 0x0F));
+        }
+
+        return position;
+    }
+
+    /**
+     * The winner of a {@link Protocol#GAME_ENDED} frame.
+     *
+     * @return The color of the winner, or null for a draw.
+     * @throws InvalidFrameException Thrown if the frame is too short or the color is unknown.
+     */
+    public PieceColor getWinner() throws InvalidFrameException {
+        byte winner = this.byteAt(0);
+        return winner == Protocol.DRAW ? null : Protocol.colorOf(winner);
+    }
+
+    private int positionOffset() {
+        return this.type == Protocol.SNAPSHOT ? 4 : 0;
+    }
+
+    private byte byteAt(int index) throws InvalidFrameException {
+        if (index >= this.payload.limit()) {
+            throw new InvalidFrameException(String.format("Frame of type %d is too short", this.type));
+        }
+
+        return this.payload.get(index);
+    }
+
+    private ByteBuffer payloadFrom(int index) throws InvalidFrameException {
+        this.byteAt(index);
+
+        ByteBuffer buffer = this.payload.duplicate();
+        buffer.position(index);
+        return buffer;
+    }
+
+    @Override
+    public String toString() {
+        return "Frame{" +
+                "type=" + type +
+                ", length=" + payload.limit() +
+                '}';
+    }
+}
@@ -0,0 +1,154 @@
+package ch.ffhs.ftoop.bridge.dame.server.protocol;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A client of the {@link GameServer}. Commands are collected in a direct buffer and only sent with {@link #flush()},
+ * so that several commands are sent with a single write. Frames of the server are read one after another with
+ * {@link #readFrame()}, which blocks until the frame has been received.
+ */
+public class GameClient implements Closeable {
+    private static final int BUFFER_SIZE = 4096;
+
+    private final SocketChannel channel;
+    private final ByteBuffer output = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    private GameClient(SocketChannel channel) {
+        this.channel = channel;
+        this.input.flip();
+    }
+
+    /**
+     * Connects to a server.
+     *
+     * @param address The address of the server.
+     * @return The client.
+     * @throws IOException Thrown if the connection could not be established.
+     */
+    public static GameClient connect(InetSocketAddress address) throws IOException {
+        checkNotNull(address);
+
+        SocketChannel channel = SocketChannel.open(address);
+        channel.socket().setTcpNoDelay(true);
+        return new GameClient(channel);
+    }
+
+    /**
+     * Joins a new game against the computer.
+     *
+     * @param name  The name of the player.
+     * @param color The color the player wants to play.
+     * @throws IOException Thrown if the commands collected before could not be sent.
+     */
+    public void join(String name, PieceColor color) throws IOException {
+        this.ensureCapacity();
+        Protocol.writeJoin(this.output, name, color);
+    }
+
+    /**
+     * Watches a game played by someone else. The server sends a {@link Protocol#SNAPSHOT} of the game first and then a
+     * {@link Protocol#DIFF} for every move.
+     *
+     * @param id The id of the game, as sent to its player in the {@link Protocol#JOINED} frame.
+     * @throws IOException Thrown if the commands collected before could not be sent.
+     */
+    public void watch(String id) throws IOException {
+        this.ensureCapacity();
+        Protocol.writeWatch(this.output, id);
+    }
+
+    /**
+     * Plays a move.
+     *
+     * @param from The from-square, starting from 0.
+     * @param to   The to-square, starting from 0.
+     * @throws IOException Thrown if the commands collected before could not be sent.
+     */
+    public void move(int from, int to) throws IOException {
+        this.ensureCapacity();
+        Protocol.writeMove(this.output, from, to);
+    }
+
+    /**
+     * Gives up the game.
+     *
+     * @throws IOException Thrown if the commands collected before could not be sent.
+     */
+    public void resign() throws IOException {
+        this.ensureCapacity();
+        Protocol.writeResign(this.output);
+    }
+
+    private void ensureCapacity() throws IOException {
+        if (this.output.remaining() < Protocol.MAX_FRAME_LENGTH) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Sends all commands collected.
+     *
+     * @throws IOException Thrown if the commands could not be sent.
+     */
+    public void flush() throws IOException {
+        this.output.flip();
+        while (this.output.hasRemaining()) {
+            this.channel.write(this.output);
+        }
+        this.output.clear();
+    }
+
+    /**
+     * Reads the next frame sent by the server.
+     *
+     * @return The frame.
+     * @throws EOFException          Thrown if the server has closed the connection.
+     * @throws InvalidFrameException Thrown if the server has sent an invalid frame.
+     * @throws IOException           Thrown if the frame could not be read.
+     */
+    public Frame readFrame() throws IOException {
+        Frame frame;
+        while ((frame = Protocol.readFrame(this.input)) == null) {
+            this.input.compact();
+            int read = this.channel.read(this.input);
+            this.input.flip();
+            if (read < 0) {
+                throw new EOFException("The server has closed the connection");
+            }
+        }
+
+        return frame;
+    }
+
+    /**
+     * Reads frames until a frame of the given type or an error has been received, eg. to skip the positions sent after
+     * every move.
+     *
+     * @param type The type of the frame.
+     * @return The frame of the type or the error.
+     * @throws IOException Thrown if the frame could not be read.
+     */
+    public Frame readFrame(byte type) throws IOException {
+        Frame frame;
+        do {
+            frame = this.readFrame();
+        } while (frame.getType() != type && frame.getType() != Protocol.ERROR);
+
+        return frame;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
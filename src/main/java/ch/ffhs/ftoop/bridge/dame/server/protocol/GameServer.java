@@ -0,0 +1,479 @@
+package ch.ffhs.ftoop.bridge.dame.server.protocol;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.move.InvalidMoveException;
+import ch.ffhs.ftoop.bridge.dame.server.GameSession;
+import ch.ffhs.ftoop.bridge.dame.server.GameSessionManager;
+import ch.ffhs.ftoop.bridge.dame.server.SessionLimitReachedException;
+import ch.ffhs.ftoop.bridge.dame.server.SessionNotFoundException;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Serves the games of a {@link GameSessionManager} to remote players over the binary {@link Protocol}.
+ * <p>
+ * All connections are handled by a single thread with a non-blocking selector loop, so the number of players is not
+ * limited by the number of threads. Each connection plays one session: the moves received are played on the
+ * session, the computer's answers are searched on the workers of the manager, and the moves, positions and the end of
+ * the game are pushed to the client as they are observed. Frames to send are queued per connection and written by the
+ * selector thread, several at once.
+ * <p>
+ * A connection can also watch a game played on another connection instead. The spectators of a game share a
+ * {@link SpectatorChannel}, so the frames for them are only encoded once.
+ */
+public class GameServer {
+    private static final Logger logger = LogManager.getLogger(GameServer.class);
+    private static final int BUFFER_SIZE = 4096;
+    private static final int MAX_BUFFERS_PER_WRITE = 32;
+
+    private final GameSessionManager manager;
+    private final BoardGeometry geometry;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private final Map<String, SpectatorChannel> spectatorChannels = new ConcurrentHashMap<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Creates the server and binds it to the address.
+     *
+     * @param manager The manager of the sessions to serve.
+     * @param config  The game configuration of the sessions.
+     * @param address The address to listen to, port 0 for any free port.
+     * @throws IOException Thrown if the server could not be bound.
+     */
+    public GameServer(GameSessionManager manager, GameConfig config, InetSocketAddress address) throws IOException {
+        this.manager = checkNotNull(manager);
+        this.geometry = BoardGeometry.of(config.getNumberOfRowsAndColumnsOfBoard());
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.bind(checkNotNull(address));
+        this.serverChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Starts the selector loop on its own thread.
+     */
+    public synchronized void start() {
+        checkState(this.thread == null, "The server has already been started");
+
+        this.running = true;
+        this.thread = new Thread(this::run, "game-server");
+        this.thread.setDaemon(true);
+        this.thread.start();
+        logger.info("Game server listening on port {}", this.getPort());
+    }
+
+    public int getPort() {
+        return this.serverChannel.socket().getLocalPort();
+    }
+
+    private void run() {
+        try {
+            while (this.running) {
+                this.selector.select();
+
+                Connection connection;
+                while ((connection = this.pendingWrites.poll()) != null) {
+                    connection.enableWriting();
+                }
+
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    this.handle(key);
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (this.running) {
+                logger.error("The game server has stopped", e);
+            }
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            return;
+        }
+
+        if (key.isAcceptable()) {
+            try {
+                this.accept();
+            } catch (IOException e) {
+                logger.warn("Could not accept a connection", e);
+            }
+            return;
+        }
+
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable()) {
+                connection.read();
+            }
+
+            if (key.isValid() && key.isWritable()) {
+                connection.write();
+            }
+        } catch (IOException e) {
+            logger.debug("Closing connection {}: {}", connection, e.getMessage());
+            connection.close();
+        } catch (RuntimeException e) {
+            logger.error("Closing connection {}", connection, e);
+            connection.close();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = this.serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(this.selector, SelectionKey.OP_READ, connection);
+        logger.debug("Accepted connection {}", connection);
+    }
+
+    /**
+     * Stops the server and closes all connections. The sessions are left to the manager.
+     */
+    public void shutdown() {
+        this.running = false;
+        try {
+            for (SelectionKey key : this.selector.keys()) {
+                key.channel().close();
+            }
+            this.selector.close();
+        } catch (IOException e) {
+            logger.warn("Could not close the game server", e);
+        }
+    }
+
+    /**
+     * A connection of a client, which plays one session.
+     */
+    private final class Connection {
+        private final SocketChannel channel;
+        private final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+        private final Queue<ByteBuffer> output = new ConcurrentLinkedQueue<>();
+        private final ByteBuffer[] writeBuffers = new ByteBuffer[MAX_BUFFERS_PER_WRITE];
+        private SelectionKey key;
+        private GameSession session;
+        private SpectatorChannel watching;
+        private Consumer<ByteBuffer> spectator;
+        private boolean closeAfterWriting;
+
+        private Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        private void read() throws IOException {
+            // Never read more than fits behind the incomplete frame received before
+            GameServer.this.readBuffer.clear();
+            GameServer.this.readBuffer.limit(Math.min(BUFFER_SIZE, this.input.remaining()));
+            if (this.channel.read(GameServer.this.readBuffer) < 0) {
+                this.close();
+                return;
+            }
+
+            GameServer.this.readBuffer.flip();
+            this.input.put(GameServer.this.readBuffer);
+            this.input.flip();
+            try {
+                Frame frame;
+                while (!this.closeAfterWriting && (frame = Protocol.readFrame(this.input)) != null) {
+                    this.handle(frame);
+                }
+            } catch (InvalidFrameException e) {
+                this.fail(e.getMessage());
+            } finally {
+                this.input.compact();
+            }
+        }
+
+        private void handle(Frame frame) throws InvalidFrameException {
+            switch (frame.getType()) {
+                case Protocol.JOIN:
+                    this.join(frame);
+                    break;
+                case Protocol.MOVE:
+                    this.move(frame);
+                    break;
+                case Protocol.RESIGN:
+                    this.resign();
+                    break;
+                case Protocol.WATCH:
+                    this.watch(frame);
+                    break;
+                default:
+                    this.fail(String.format("Unknown frame type %d", frame.getType()));
+            }
+        }
+
+        private void join(Frame frame) throws InvalidFrameException {
+            if (this.session != null || this.watching != null) {
+                this.send(buffer -> Protocol.writeError(buffer, "Already joined a game"));
+                return;
+            }
+
+            try {
+                this.session = GameServer.this.manager.create(frame.getName(), frame.getColor());
+            } catch (SessionLimitReachedException e) {
+                this.fail(e.getMessage());
+                return;
+            } catch (InvalidNumberOfPiecesPerPlayerException | InvalidBoardDimensionsException e) {
+                logger.error("Could not create a session", e);
+                this.fail("Could not create a game");
+                return;
+            }
+
+            GameSession session = this.session;
+            session.registerMovePlayedObserver((player, move, capturedPieces) -> this.send(buffer ->
+                    Protocol.writeMovePlayed(buffer, player.getColor(), GameServer.this.geometry.squareAt(move.getFrom()),
+                            GameServer.this.geometry.squareAt(move.getTo()), capturedPieces)));
+            session.registerTurnFinishedObserver(player -> this.sendPosition(session));
+            session.registerGameEndedObserver((winner, loser) -> {
+                GameServer.this.manager.close(session.getId());
+                this.send(buffer -> Protocol.writeGameEnded(buffer, winner == null ? null : winner.getColor()));
+            });
+
+            this.send(buffer -> Protocol.writeJoined(buffer, session.getHuman().getColor(),
+                    GameServer.this.geometry.getNumberOfRowsAndColumns(), session.getId()));
+            this.sendPosition(session);
+            if (!session.isHumanToMove()) {
+                GameServer.this.manager.playComputerMove(session);
+            }
+        }
+
+        private void watch(Frame frame) throws InvalidFrameException {
+            if (this.session != null || this.watching != null) {
+                this.send(buffer -> Protocol.writeError(buffer, "Already joined a game"));
+                return;
+            }
+
+            GameSession session;
+            try {
+                session = GameServer.this.manager.get(frame.getGameId());
+            } catch (SessionNotFoundException e) {
+                this.send(buffer -> Protocol.writeError(buffer, e.getMessage()));
+                return;
+            }
+
+            // Channels are only created on the selector thread, so there is never more than one per session
+            SpectatorChannel channel = GameServer.this.spectatorChannels.get(session.getId());
+            if (channel == null) {
+                channel = new SpectatorChannel(session);
+                GameServer.this.spectatorChannels.put(session.getId(), channel);
+                session.registerGameEndedObserver((winner, loser) -> GameServer.this.spectatorChannels.remove(session.getId()));
+            }
+
+            this.watching = channel;
+            this.spectator = this::sendShared;
+            channel.subscribe(this.spectator);
+        }
+
+        private void move(Frame frame) throws InvalidFrameException {
+            GameSession session = this.activeSession();
+            if (session == null) {
+                return;
+            }
+
+            int from = frame.getFrom();
+            int to = frame.getTo();
+            if (from >= GameServer.this.geometry.getNumberOfSquares() || to >= GameServer.this.geometry.getNumberOfSquares()) {
+                this.send(buffer -> Protocol.writeError(buffer, "Invalid square"));
+                return;
+            }
+
+            try {
+                session.playMove(GameServer.this.geometry.positionOf(from), GameServer.this.geometry.positionOf(to));
+            } catch (InvalidBoardPositionException | InvalidMoveException | IllegalStateException e) {
+                this.send(buffer -> Protocol.writeError(buffer, e.getMessage() == null ? "Invalid move" : e.getMessage()));
+                return;
+            }
+
+            if (!session.isFinished()) {
+                GameServer.this.manager.playComputerMove(session);
+            }
+        }
+
+        private void resign() {
+            GameSession session = this.activeSession();
+            if (session == null) {
+                return;
+            }
+
+            try {
+                session.resign();
+            } catch (IllegalStateException e) {
+                this.send(buffer -> Protocol.writeError(buffer, e.getMessage()));
+            }
+        }
+
+        private GameSession activeSession() {
+            if (this.session == null) {
+                this.send(buffer -> Protocol.writeError(buffer, "Not joined a game"));
+                return null;
+            }
+
+            if (this.session.isFinished()) {
+                this.send(buffer -> Protocol.writeError(buffer, "The game is over"));
+                return null;
+            }
+
+            try {
+                return GameServer.this.manager.get(this.session.getId());
+            } catch (SessionNotFoundException e) {
+                this.fail("The game has expired");
+                return null;
+            }
+        }
+
+        private void sendPosition(GameSession session) {
+            Position position = Position.from(session.getPosition());
+            this.send(buffer -> Protocol.writePosition(buffer, position));
+        }
+
+        /**
+         * Sends an error and closes the connection, once everything has been sent.
+         */
+        private void fail(String message) {
+            this.send(buffer -> Protocol.writeError(buffer, message));
+            this.closeAfterWriting = true;
+        }
+
+        /**
+         * Queues a frame to be sent by the selector thread. May be called on any thread.
+         */
+        private void send(Consumer<ByteBuffer> frame) {
+            ByteBuffer buffer = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH);
+            frame.accept(buffer);
+            buffer.flip();
+            this.sendShared(buffer);
+        }
+
+        /**
+         * Queues a frame that has already been encoded, eg. a frame of a {@link SpectatorChannel}. May be called on any
+         * thread.
+         */
+        private void sendShared(ByteBuffer frame) {
+            this.output.add(frame);
+            GameServer.this.pendingWrites.add(this);
+            GameServer.this.selector.wakeup();
+        }
+
+        private void enableWriting() {
+            if (this.key.isValid()) {
+                this.key.interestOps(this.key.interestOps() | SelectionKey.OP_WRITE);
+            }
+        }
+
+        /**
+         * Writes as many queued frames as possible with one gathering write.
+         */
+        private void write() throws IOException {
+            int count = 0;
+            for (ByteBuffer buffer : this.output) {
+                if (count == MAX_BUFFERS_PER_WRITE) {
+                    break;
+                }
+                this.writeBuffers[count++] = buffer;
+            }
+
+            this.channel.write(this.writeBuffers, 0, count);
+            for (int i = 0; i < count; i++) {
+                if (this.writeBuffers[i].hasRemaining()) {
+                    break;
+                }
+                this.output.poll();
+                this.writeBuffers[i] = null;
+            }
+
+            if (this.output.isEmpty()) {
+                if (this.closeAfterWriting) {
+                    this.close();
+                    return;
+                }
+                this.key.interestOps(SelectionKey.OP_READ);
+                // A frame queued in the meantime re-enables writing through the pending writes
+            }
+        }
+
+        private void close() {
+            this.key.cancel();
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                logger.debug("Could not close connection {}", this, e);
+            }
+
+            if (this.session != null) {
+                GameServer.this.manager.close(this.session.getId());
+                SpectatorChannel channel = GameServer.this.spectatorChannels.remove(this.session.getId());
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+            if (this.watching != null) {
+                this.watching.unsubscribe(this.spectator);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(this.channel.socket().getRemoteSocketAddress());
+        }
+    }
+
+    /**
+     * Starts a server for the game configuration and serves until the process is stopped.
+     *
+     * @param args The port and optionally the game configuration.
+     * @throws ConfigurationException Thrown if the game configuration could not be loaded.
+     * @throws IOException            Thrown if the server could not be started.
+     * @throws InterruptedException   Thrown if the server was interrupted.
+     */
+    public static void main(String[] args) throws ConfigurationException, IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Usage: GameServer <port> [game configuration]");
+            System.exit(1);
+        }
+
+        GameConfig config = args.length > 1 ? new GameConfig(args[1]) : new GameConfig();
+        GameSessionManager manager = GameSessionManager.open(config);
+        Runtime.getRuntime().addShutdownHook(new Thread(manager::shutdown));
+        GameServer server = new GameServer(manager, config, new InetSocketAddress(Integer.parseInt(args[0])));
+        server.start();
+        server.thread.join();
+    }
+}
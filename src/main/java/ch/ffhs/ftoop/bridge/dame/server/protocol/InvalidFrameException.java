@@ -0,0 +1,12 @@
+package ch.ffhs.ftoop.bridge.dame.server.protocol;
+
+import java.io.IOException;
+
+/**
+ * Indicates that a frame received does not follow the {@link Protocol}.
+ */
+public class InvalidFrameException extends IOException {
+    public InvalidFrameException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,248 @@
+package ch.ffhs.ftoop.bridge.dame.server.protocol;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The binary wire protocol between the {@link GameServer} and its clients. Every frame starts with its length
+ * (2 bytes, not counting the length itself) and its type (1 byte), followed by the payload:
+ * <table summary="Frames">
+ * <tr><th>Frame</th><th>Sent by</th><th>Payload</th></tr>
+ * <tr><td>{@link #JOIN}</td><td>Client</td><td>color (1), length of the name (1), name (UTF-8)</td></tr>
+ * <tr><td>{@link #MOVE}</td><td>Client</td><td>from-square (1), to-square (1)</td></tr>
+ * <tr><td>{@link #RESIGN}</td><td>Client</td><td>-</td></tr>
+ * <tr><td>{@link #WATCH}</td><td>Client</td><td>length of the game id (1), game id (UTF-8)</td></tr>
+ * <tr><td>{@link #JOINED}</td><td>Server</td><td>color of the client (1), number of rows and columns (1), length of
+ * the game id (1), game id (UTF-8)</td></tr>
+ * <tr><td>{@link #POSITION}</td><td>Server</td><td>number of rows and columns (1), side to move (1), one piece code
+ * (see {@link Position}) per square in 4 bits</td></tr>
+ * <tr><td>{@link #MOVE_PLAYED}</td><td>Server</td><td>color of the player (1), from-square (1), to-square (1),
+ * number of captured pieces (1)</td></tr>
+ * <tr><td>{@link #GAME_ENDED}</td><td>Server</td><td>color of the winner (1), {@link #DRAW} for a draw</td></tr>
+ * <tr><td>{@link #SNAPSHOT}</td><td>Server</td><td>number of the last diff included (4), followed by the payload of a
+ * {@link #POSITION}</td></tr>
+ * <tr><td>{@link #DIFF}</td><td>Server</td><td>number of the diff (4), color of the player (1), from-square (1),
+ * to-square (1), promotion (1), number of captured pieces (1), their squares (1 each)</td></tr>
+ * <tr><td>{@link #ERROR}</td><td>Server</td><td>length of the message (1), message (UTF-8)</td></tr>
+ * </table>
+ * Squares are numbered from 0, like in {@link BoardGeometry}, colors are {@link #DARK} and {@link #LIGHT}. Spectators
+ * of a game receive a {@link #SNAPSHOT} and then a {@link #DIFF} for every move, see {@link SpectatorChannel}.
+ */
+public final class Protocol {
+    public static final byte JOIN = 0x01;
+    public static final byte MOVE = 0x02;
+    public static final byte RESIGN = 0x03;
+    public static final byte WATCH = 0x04;
+    public static final byte JOINED = 0x11;
+    public static final byte POSITION = 0x12;
+    public static final byte MOVE_PLAYED = 0x13;
+    public static final byte GAME_ENDED = 0x14;
+    public static final byte SNAPSHOT = 0x15;
+    public static final byte DIFF = 0x16;
+    public static final byte ERROR = 0x1F;
+
+    public static final byte DARK = 0;
+    public static final byte LIGHT = 1;
+    public static final byte DRAW = 2;
+
+    /**
+     * The maximal length of a frame, including its length and type.
+     */
+    public static final int MAX_FRAME_LENGTH = 256;
+    static final int HEADER_LENGTH = 3;
+    private static final int MAX_TEXT_LENGTH = 200;
+
+    private Protocol() {
+    }
+
+    public static void writeJoin(ByteBuffer buffer, String name, PieceColor color) {
+        checkNotNull(color);
+
+        byte[] text = encodeText(name);
+        writeHeader(buffer, JOIN, 2 + text.length);
+        buffer.put(colorCode(color)).put((byte) text.length).put(text);
+    }
+
+    public static void writeMove(ByteBuffer buffer, int from, int to) {
+        writeHeader(buffer, MOVE, 2);
+        buffer.put(squareCode(from)).put(squareCode(to));
+    }
+
+    public static void writeResign(ByteBuffer buffer) {
+        writeHeader(buffer, RESIGN, 0);
+    }
+
+    public static void writeWatch(ByteBuffer buffer, String id) {
+        byte[] text = encodeText(id);
+        writeHeader(buffer, WATCH, 1 + text.length);
+        buffer.put((byte) text.length).put(text);
+    }
+
+    public static void writeJoined(ByteBuffer buffer, PieceColor color, int numberOfRowsAndColumns, String id) {
+        checkNotNull(color);
+
+        byte[] text = encodeText(id);
+        writeHeader(buffer, JOINED, 3 + text.length);
+        buffer.put(colorCode(color)).put((byte) numberOfRowsAndColumns).put((byte) text.length).put(text);
+    }
+
+    public static void writePosition(ByteBuffer buffer, Position position) {
+        checkNotNull(position);
+
+        writeHeader(buffer, POSITION, positionLength(position));
+        writePositionPayload(buffer, position);
+    }
+
+    /**
+     * Writes the position of a game for its spectators.
+     *
+     * @param buffer   The buffer to write to.
+     * @param sequence The number of the last diff, that has been played in the position.
+     * @param position The position.
+     */
+    public static void writeSnapshot(ByteBuffer buffer, int sequence, Position position) {
+        checkNotNull(position);
+
+        writeHeader(buffer, SNAPSHOT, 4 + positionLength(position));
+        buffer.putInt(sequence);
+        writePositionPayload(buffer, position);
+    }
+
+    public static void writeDiff(ByteBuffer buffer, BoardDiff diff) {
+        checkNotNull(diff);
+
+        int[] removed = diff.getRemovedSquares();
+        writeHeader(buffer, DIFF, 9 + removed.length);
+        buffer.putInt(diff.getSequence()).put(colorCode(diff.getColor())).put(squareCode(diff.getFrom()))
+                .put(squareCode(diff.getTo())).put((byte) (diff.isPromotion() ? 1 : 0)).put((byte) removed.length);
+        for (int square : removed) {
+            buffer.put(squareCode(square));
+        }
+    }
+
+    private static int positionLength(Position position) {
+        return 2 + (position.getGeometry().getNumberOfSquares() + 1) / 2;
+    }
+
+    private static void writePositionPayload(ByteBuffer buffer, Position position) {
+        BoardGeometry geometry = position.getGeometry();
+        int squares = geometry.getNumberOfSquares();
+        buffer.put((byte) geometry.getNumberOfRowsAndColumns()).put(colorCode(position.getSideToMove()));
+        for (int square = 0; square < squares; square += 2) {
+            int high = square + 1 < squares ? position.get(square + 1) : Position.EMPTY;
+            buffer.put((byte) (high << 4 | position.get(square)));
+        }
+    }
+
+    public static void writeMovePlayed(ByteBuffer buffer, PieceColor color, int from, int to, int capturedPieces) {
+        checkNotNull(color);
+
+        writeHeader(buffer, MOVE_PLAYED, 4);
+        buffer.put(colorCode(color)).put(squareCode(from)).put(squareCode(to)).put((byte) capturedPieces);
+    }
+
+    /**
+     * Writes the end of the game.
+     *
+     * @param buffer The buffer to write to.
+     * @param winner The color of the winner, or null for a draw.
+     */
+    public static void writeGameEnded(ByteBuffer buffer, PieceColor winner) {
+        writeHeader(buffer, GAME_ENDED, 1);
+        buffer.put(winner == null ? DRAW : colorCode(winner));
+    }
+
+    public static void writeError(ByteBuffer buffer, String message) {
+        byte[] text = encodeText(message);
+        writeHeader(buffer, ERROR, 1 + text.length);
+        buffer.put((byte) text.length).put(text);
+    }
+
+    private static void writeHeader(ByteBuffer buffer, byte type, int payloadLength) {
+        buffer.putShort((short) (1 + payloadLength)).put(type);
+    }
+
+    /**
+     * Reads the next frame, if it has been received completely.
+     *
+     * @param buffer The received bytes, ready to be read. The position is moved behind the frame.
+     * @return The frame, or null if more bytes are needed.
+     * @throws InvalidFrameException Thrown if the frame is longer than allowed or empty.
+     */
+    public static Frame readFrame(ByteBuffer buffer) throws InvalidFrameException {
+        if (buffer.remaining() < 2) {
+            return null;
+        }
+
+        int length = buffer.getShort(buffer.position()) & 0xFFFF;
+        if (length < 1 || length + 2 > MAX_FRAME_LENGTH) {
+            throw new InvalidFrameException(String.format("Invalid frame length %d", length));
+        }
+
+        if (buffer.remaining() < length + 2) {
+            return null;
+        }
+
+        buffer.position(buffer.position() + 2);
+        byte type = buffer.get();
+        ByteBuffer payload = buffer.slice();
+        payload.limit(length - 1);
+        buffer.position(buffer.position() + length - 1);
+
+        // Copy the payload, as the buffer is reused for the next bytes received
+        ByteBuffer copy = ByteBuffer.allocate(payload.remaining());
+        copy.put(payload).flip();
+        return new Frame(type, copy.asReadOnlyBuffer());
+    }
+
+    static byte colorCode(PieceColor color) {
+        return color == PieceColor.DARK ? DARK : LIGHT;
+    }
+
+    static PieceColor colorOf(byte code) throws InvalidFrameException {
+        switch (code) {
+            case DARK:
+                return PieceColor.DARK;
+            case LIGHT:
+                return PieceColor.LIGHT;
+            default:
+                throw new InvalidFrameException(String.format("Invalid color %d", code));
+        }
+    }
+
+    private static byte squareCode(int square) {
+        checkArgument(square >= 0 && square < 256, "Invalid square %s", square);
+        return (byte) square;
+    }
+
+    private static byte[] encodeText(String text) {
+        checkNotNull(text);
+
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length <= MAX_TEXT_LENGTH) {
+            return bytes;
+        }
+
+        byte[] truncated = new byte[MAX_TEXT_LENGTH];
+        System.arraycopy(bytes, 0, truncated, 0, MAX_TEXT_LENGTH);
+        return truncated;
+    }
+
+    static String decodeText(ByteBuffer payload) throws InvalidFrameException {
+        int length = payload.get() & 0xFF;
+        if (payload.remaining() < length) {
+            throw new InvalidFrameException("Text is longer than the frame");
+        }
+
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
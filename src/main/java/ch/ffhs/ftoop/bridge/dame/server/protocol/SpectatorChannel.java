@@ -0,0 +1,152 @@
+package ch.ffhs.ftoop.bridge.dame.server.protocol;
+
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import ch.ffhs.ftoop.bridge.dame.server.GameSession;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Broadcasts a game to its spectators. Every move is sent as a {@link BoardDiff} instead of the whole board, and each
+ * frame is encoded only once: all spectators receive a duplicate of the same read-only buffer, so the work per move
+ * does not grow with the number of spectators, apart from handing over the buffer. Spectators joining late receive a
+ * {@link Protocol#SNAPSHOT} of the current position first, which is also encoded only once per move, and then the
+ * diffs of the following moves.
+ * <p>
+ * Spectators are called on the thread playing the move, while holding the lock of the channel, so they must only queue
+ * the frame and not block.
+ */
+public class SpectatorChannel {
+    private static final Logger logger = LogManager.getLogger(SpectatorChannel.class);
+
+    private final GameSession session;
+    private final BoardGeometry geometry;
+    private final Set<Consumer<ByteBuffer>> spectators = ConcurrentHashMap.newKeySet();
+    private Position position;
+    private int sequence;
+    private ByteBuffer snapshot;
+    private ByteBuffer endFrame;
+
+    /**
+     * Creates the channel and starts observing the game of the session.
+     *
+     * @param session The session of the game.
+     */
+    public SpectatorChannel(GameSession session) {
+        this.session = checkNotNull(session);
+        this.geometry = BoardGeometry.of(session.getPosition().getNumberOfRowsAndColumns());
+
+        // No move is played between taking the position and registering the observers
+        session.runBetweenMoves(() -> {
+            this.initialize(Position.from(session.getPosition()));
+            session.registerMovePlayedObserver((player, move, capturedPieces) -> this.onMovePlayed(player, move));
+            session.registerGameEndedObserver((winner, loser) -> this.onGameEnded(winner == null ? null : winner.getColor()));
+            if (session.isFinished()) {
+                this.onGameEnded(session.getWinner());
+            }
+        });
+    }
+
+    private synchronized void initialize(Position position) {
+        this.position = position;
+    }
+
+    private synchronized void onMovePlayed(Player player, Move move) {
+        // The position of the session has already been updated by its own observer
+        Position after = Position.from(this.session.getPosition());
+        BoardDiff diff = BoardDiff.between(++this.sequence, player.getColor(), this.geometry.squareAt(move.getFrom()),
+                this.geometry.squareAt(move.getTo()), this.position, after);
+        this.position = after;
+        this.snapshot = null;
+
+        this.broadcast(this.encode(buffer -> Protocol.writeDiff(buffer, diff)));
+    }
+
+    private synchronized void onGameEnded(PieceColor winner) {
+        if (this.endFrame != null) {
+            return;
+        }
+
+        this.endFrame = this.encode(buffer -> Protocol.writeGameEnded(buffer, winner));
+        this.broadcast(this.endFrame);
+    }
+
+    private ByteBuffer encode(Consumer<ByteBuffer> frame) {
+        ByteBuffer buffer = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH);
+        frame.accept(buffer);
+        buffer.flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    private void broadcast(ByteBuffer frame) {
+        for (Consumer<ByteBuffer> spectator : this.spectators) {
+            this.send(spectator, frame);
+        }
+    }
+
+    private void send(Consumer<ByteBuffer> spectator, ByteBuffer frame) {
+        try {
+            spectator.accept(frame.duplicate());
+        } catch (RuntimeException e) {
+            logger.warn("Removing spectator of session {}", this.session.getId(), e);
+            this.spectators.remove(spectator);
+        }
+    }
+
+    /**
+     * Adds a spectator, which immediately receives the snapshot of the game, followed by the diffs of all later moves
+     * and the end of the game.
+     *
+     * @param spectator Called with every frame, ready to be read. The buffer is read-only and shares its content with
+     *                  the buffers of the other spectators.
+     */
+    public synchronized void subscribe(Consumer<ByteBuffer> spectator) {
+        checkNotNull(spectator);
+
+        if (this.snapshot == null) {
+            Position position = this.position;
+            int sequence = this.sequence;
+            this.snapshot = this.encode(buffer -> Protocol.writeSnapshot(buffer, sequence, position));
+        }
+
+        this.send(spectator, this.snapshot);
+        if (this.endFrame != null) {
+            this.send(spectator, this.endFrame);
+            return;
+        }
+        this.spectators.add(spectator);
+    }
+
+    /**
+     * Tells all spectators that the game has been closed before it ended and removes them.
+     */
+    public synchronized void close() {
+        if (this.endFrame == null) {
+            this.endFrame = this.encode(buffer -> Protocol.writeError(buffer, "The game has been closed"));
+            this.broadcast(this.endFrame);
+        }
+        this.spectators.clear();
+    }
+
+    public void unsubscribe(Consumer<ByteBuffer> spectator) {
+        this.spectators.remove(spectator);
+    }
+
+    public int getNumberOfSpectators() {
+        return this.spectators.size();
+    }
+
+    public synchronized boolean isEnded() {
+        return this.endFrame != null;
+    }
+}
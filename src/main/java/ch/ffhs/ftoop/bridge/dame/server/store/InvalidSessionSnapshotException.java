@@ -0,0 +1,9 @@
+package ch.ffhs.ftoop.bridge.dame.server.store;
+
+import java.io.IOException;
+
+public class InvalidSessionSnapshotException extends IOException {
+    public InvalidSessionSnapshotException(String message) {
+        super(message);
+    }
+}
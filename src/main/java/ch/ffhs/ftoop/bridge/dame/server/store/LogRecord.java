@@ -0,0 +1,144 @@
+package ch.ffhs.ftoop.bridge.dame.server.store;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static ch.ffhs.ftoop.bridge.dame.server.store.SessionStoreFormat.CLOSED;
+import static ch.ffhs.ftoop.bridge.dame.server.store.SessionStoreFormat.CREATED;
+import static ch.ffhs.ftoop.bridge.dame.server.store.SessionStoreFormat.MOVED;
+import static ch.ffhs.ftoop.bridge.dame.server.store.SessionStoreFormat.RECORD_HEADER_SIZE;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A record of the log of a {@link SessionStore}, see {@link SessionStoreFormat}.
+ */
+final class LogRecord {
+    private final byte type;
+    private final String sessionId;
+    private final String name;
+    private final PieceColor color;
+    private final int ply;
+    private final int from;
+    private final int to;
+
+    private LogRecord(byte type, String sessionId, String name, PieceColor color, int ply, int from, int to) {
+        this.type = type;
+        this.sessionId = checkNotNull(sessionId);
+        this.name = name;
+        this.color = color;
+        this.ply = ply;
+        this.from = from;
+        this.to = to;
+    }
+
+    static LogRecord created(String sessionId, String name, PieceColor color) {
+        return new LogRecord(CREATED, sessionId, checkNotNull(name), checkNotNull(color), 0, 0, 0);
+    }
+
+    static LogRecord moved(String sessionId, int ply, int from, int to) {
+        return new LogRecord(MOVED, sessionId, null, null, ply, from, to);
+    }
+
+    static LogRecord closed(String sessionId) {
+        return new LogRecord(CLOSED, sessionId, null, null, 0, 0, 0);
+    }
+
+    /**
+     * Encodes the record with its length and checksum.
+     *
+     * @return The bytes to append to the log.
+     */
+    byte[] encode() {
+        int length = 1 + 2 + this.sessionId.getBytes(StandardCharsets.UTF_8).length;
+        if (this.type == CREATED) {
+            length += 2 + this.name.getBytes(StandardCharsets.UTF_8).length + 1;
+        } else if (this.type == MOVED) {
+            length += 8;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        buffer.putInt(length).putInt(0).put(this.type);
+        SessionStoreFormat.putText(buffer, this.sessionId);
+        if (this.type == CREATED) {
+            SessionStoreFormat.putText(buffer, this.name);
+            buffer.put(this.color == PieceColor.DARK ? SessionStoreFormat.DARK : SessionStoreFormat.LIGHT);
+        } else if (this.type == MOVED) {
+            buffer.putInt(this.ply).putShort((short) this.from).putShort((short) this.to);
+        }
+
+        buffer.putInt(4, SessionStoreFormat.checksumOf(buffer, RECORD_HEADER_SIZE, length));
+        return buffer.array();
+    }
+
+    /**
+     * Reads the next record of a log segment.
+     *
+     * @param buffer The segment, positioned at the record. The position is moved behind the record.
+     * @return The record, or null if the rest of the segment is not a complete, valid record.
+     */
+    static LogRecord read(ByteBuffer buffer) {
+        if (buffer.remaining() < RECORD_HEADER_SIZE) {
+            return null;
+        }
+
+        int start = buffer.position();
+        int length = buffer.getInt(start);
+        int checksum = buffer.getInt(start + 4);
+        if (length <= 0 || length > buffer.remaining() - RECORD_HEADER_SIZE
+                || checksum != SessionStoreFormat.checksumOf(buffer, start + RECORD_HEADER_SIZE, length)) {
+            return null;
+        }
+
+        ByteBuffer body = buffer.duplicate();
+        body.limit(start + RECORD_HEADER_SIZE + length).position(start + RECORD_HEADER_SIZE);
+        buffer.position(start + RECORD_HEADER_SIZE + length);
+        try {
+            byte type = body.get();
+            String sessionId = SessionStoreFormat.getText(body);
+            switch (type) {
+                case CREATED:
+                    String name = SessionStoreFormat.getText(body);
+                    return created(sessionId, name, body.get() == SessionStoreFormat.DARK ? PieceColor.DARK : PieceColor.LIGHT);
+                case MOVED:
+                    return moved(sessionId, body.getInt(), body.getShort() & 0xFFFF, body.getShort() & 0xFFFF);
+                case CLOSED:
+                    return closed(sessionId);
+                default:
+                    return null;
+            }
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    byte getType() {
+        return this.type;
+    }
+
+    String getSessionId() {
+        return this.sessionId;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    PieceColor getColor() {
+        return this.color;
+    }
+
+    int getPly() {
+        return this.ply;
+    }
+
+    int getFrom() {
+        return this.from;
+    }
+
+    int getTo() {
+        return this.to;
+    }
+}
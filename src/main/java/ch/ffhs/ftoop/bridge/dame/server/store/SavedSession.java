@@ -0,0 +1,106 @@
+package ch.ffhs.ftoop.bridge.dame.server.store;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The state of a session in a {@link SessionStore}. A session recovered by the store has the position of its latest
+ * snapshot and the moves logged after it, which have to be played again to continue the game.
+ */
+public final class SavedSession {
+    private final String id;
+    private final String name;
+    private final PieceColor color;
+    private final BoardNotation position;
+    private final int plies;
+    private final List<int[]> moves = new ArrayList<>();
+
+    /**
+     * Describes the state of a session.
+     *
+     * @param id       The id of the session.
+     * @param name     The name of the human player.
+     * @param color    The color of the human player.
+     * @param position The current position, or null for the initial position.
+     * @param plies    The number of plies played to reach the position.
+     */
+    public SavedSession(String id, String name, PieceColor color, BoardNotation position, int plies) {
+        this.id = checkNotNull(id);
+        this.name = checkNotNull(name);
+        this.color = checkNotNull(color);
+        this.position = position;
+        this.plies = plies;
+    }
+
+    /**
+     * Adds a move logged for the session, if it follows the moves known so far. Moves that are already part of the
+     * snapshot are ignored.
+     *
+     * @param ply  The number of plies played before the move.
+     * @param from The from-square.
+     * @param to   The to-square.
+     * @return Whether the move is the next move.
+     */
+    boolean addMove(int ply, int from, int to) {
+        if (ply != this.plies + this.moves.size()) {
+            return false;
+        }
+
+        this.moves.add(new int[]{from, to});
+        return true;
+    }
+
+    public String getId() {
+        return this.id;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public PieceColor getColor() {
+        return this.color;
+    }
+
+    /**
+     * The position of the snapshot.
+     *
+     * @return The position, or null if the game has been created after the snapshot and starts with the initial
+     * position.
+     */
+    public BoardNotation getPosition() {
+        return this.position;
+    }
+
+    /**
+     * The number of plies played in the position of the snapshot.
+     *
+     * @return The number of plies.
+     */
+    public int getPlies() {
+        return this.plies;
+    }
+
+    /**
+     * The moves played after the snapshot.
+     *
+     * @return The from- and to-square of each move, in the order they have been played.
+     */
+    public List<int[]> getMoves() {
+        return this.moves;
+    }
+
+    @Override
+    public String toString() {
+        return "SavedSession{" +
+                "id='" + id + '\'' +
+                ", plies=" + plies +
+                ", moves=" + moves.size() +
+                '}';
+    }
+}
@@ -0,0 +1,340 @@
+package ch.ffhs.ftoop.bridge.dame.server.store;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * The write-ahead log of a {@link SessionStore}. Records are appended by any thread and written by a single writer
+ * thread, which commits them in groups: all records queued while the previous group was being written and synced to
+ * the disk are written with one write and synced with one {@code fsync}. So the number of syncs does not grow with
+ * the number of games, and a record waits for at most two syncs.
+ * <p>
+ * The log is split into segments, so the records covered by a snapshot can be deleted. A log never appends to an
+ * existing segment, as its end may have been torn by a crash. For the same reason, a group that could not be committed
+ * is cut off the segment again, so it does not hide the groups written after it: a segment is only read up to its
+ * first torn record.
+ */
+class SessionLog implements Closeable {
+    private static final Logger logger = LogManager.getLogger(SessionLog.class);
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_RECORDS_PER_COMMIT = 4096;
+
+    private final Path directory;
+    private final SegmentOpener opener;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final Thread writer;
+    private FileChannel channel;
+    private long committedSize;
+    private boolean broken;
+    private int segment;
+    private boolean closed;
+
+    private SessionLog(Path directory, int segment, SegmentOpener opener) throws IOException {
+        this.directory = directory;
+        this.opener = opener;
+        this.segment = segment;
+        this.channel = this.openSegment(segment);
+        this.writer = new Thread(this::run, "session-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens the log of a directory. Records are appended to a new segment following the existing ones.
+     *
+     * @param directory The directory.
+     * @return The log.
+     * @throws IOException Thrown if the segment could not be created.
+     */
+    static SessionLog open(Path directory) throws IOException {
+        return open(directory, file -> FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Opens the log of a directory, with the given way to open the files of new segments, eg. for tests.
+     */
+    static SessionLog open(Path directory, SegmentOpener opener) throws IOException {
+        checkNotNull(directory);
+        checkNotNull(opener);
+
+        List<Integer> segments = new ArrayList<>(findSegments(directory).keySet());
+        return new SessionLog(directory, segments.isEmpty() ? 1 : segments.get(segments.size() - 1) + 1, opener);
+    }
+
+    /**
+     * Finds the log segments of a directory.
+     *
+     * @param directory The directory.
+     * @return The files of the segments by their number, in ascending order.
+     * @throws IOException Thrown if the directory could not be read.
+     */
+    static TreeMap<Integer, Path> findSegments(Path directory) throws IOException {
+        TreeMap<Integer, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                int segment = SessionStoreFormat.segmentOf(file.getFileName().toString());
+                if (segment >= 0) {
+                    segments.put(segment, file);
+                }
+            }
+        }
+
+        return segments;
+    }
+
+    /**
+     * Reads the records of the log segments, starting with the given segment. Each segment is read up to its first
+     * torn record.
+     *
+     * @param directory The directory.
+     * @param from      The number of the first segment to read.
+     * @return The records, in the order they have been appended.
+     * @throws IOException Thrown if a segment could not be read.
+     */
+    static List<LogRecord> read(Path directory, int from) throws IOException {
+        List<LogRecord> records = new ArrayList<>();
+        for (Path file : findSegments(directory).tailMap(from).values()) {
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+            LogRecord record;
+            while ((record = LogRecord.read(bytes)) != null) {
+                records.add(record);
+            }
+
+            if (bytes.hasRemaining()) {
+                logger.warn("Ignoring {} bytes of a torn record at the end of {}", bytes.remaining(), file);
+            }
+        }
+
+        return records;
+    }
+
+    private FileChannel openSegment(int segment) throws IOException {
+        return this.opener.open(this.directory.resolve(SessionStoreFormat.segmentFileName(segment)));
+    }
+
+    /**
+     * Appends a record to the log.
+     *
+     * @param record The record.
+     * @return Completed when the record has been synced to the disk, or exceptionally if it could not be written.
+     */
+    CompletableFuture<Void> append(LogRecord record) {
+        checkNotNull(record);
+
+        Entry entry = new Entry(record.encode(), 0);
+        this.enqueue(entry);
+        return entry.committed;
+    }
+
+    /**
+     * Starts a new segment. Records appended before are written to the previous segments, all records appended
+     * afterwards to the new segment or later ones.
+     *
+     * @return Completed with the number of the new segment when it has been opened, or exceptionally if it could not
+     * be opened. The records are then still written to the previous segment.
+     */
+    synchronized CompletableFuture<Integer> rotate() {
+        Entry entry = new Entry(null, ++this.segment);
+        this.enqueue(entry);
+        return entry.committed.thenApply(committed -> entry.segment);
+    }
+
+    private synchronized void enqueue(Entry entry) {
+        checkState(!this.closed, "The log has been closed");
+        this.queue.add(entry);
+    }
+
+    /**
+     * Deletes all segments before the given one, eg. because they are covered by a snapshot.
+     *
+     * @param segment The first segment to keep.
+     * @throws IOException Thrown if a segment could not be deleted.
+     */
+    void deleteSegmentsBefore(int segment) throws IOException {
+        for (Path file : findSegments(this.directory).headMap(segment).values()) {
+            Files.delete(file);
+        }
+    }
+
+    private void run() {
+        List<Entry> group = new ArrayList<>();
+        while (true) {
+            try {
+                group.add(this.queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            this.queue.drainTo(group, MAX_RECORDS_PER_COMMIT - 1);
+
+            boolean stop = false;
+            try {
+                for (Entry entry : group) {
+                    if (entry == Entry.CLOSE) {
+                        stop = true;
+                    } else if (entry.bytes == null) {
+                        this.switchSegment(entry);
+                    } else if (this.broken) {
+                        entry.committed.completeExceptionally(
+                                new IOException("The log segment could not be repaired after a failed commit"));
+                    } else {
+                        this.write(entry.bytes);
+                    }
+                }
+                this.flush();
+                this.channel.force(false);
+                this.committedSize = this.channel.position();
+                group.forEach(entry -> entry.committed.complete(null));
+            } catch (IOException e) {
+                logger.error("Could not write {} records to the session log", group.size(), e);
+                group.forEach(entry -> entry.committed.completeExceptionally(e));
+                this.discardUncommitted();
+            }
+
+            group.clear();
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (bytes.length > this.buffer.remaining()) {
+            this.flush();
+        }
+
+        if (bytes.length > this.buffer.remaining()) {
+            this.writeFully(ByteBuffer.wrap(bytes));
+        } else {
+            this.buffer.put(bytes);
+        }
+    }
+
+    private void flush() throws IOException {
+        this.buffer.flip();
+        this.writeFully(this.buffer);
+        this.buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            this.channel.write(bytes);
+        }
+    }
+
+    /**
+     * Cuts the records of a failed commit off the segment, so the next group follows the last one committed. If that
+     * fails too, no more records are written until the next segment has been started.
+     */
+    private void discardUncommitted() {
+        this.buffer.clear();
+        if (this.broken) {
+            return;
+        }
+
+        try {
+            this.channel.truncate(this.committedSize);
+            this.channel.position(this.committedSize);
+        } catch (IOException e) {
+            logger.error("Could not cut the failed commit off the log segment, waiting for the next segment", e);
+            this.broken = true;
+        }
+    }
+
+    /**
+     * Continues the log in the segment of the entry. The current segment is only closed once the new one has been
+     * opened, so the log can still be written if it cannot, and only the rotation fails.
+     */
+    private void switchSegment(Entry entry) throws IOException {
+        FileChannel next;
+        try {
+            next = this.openSegment(entry.segment);
+        } catch (IOException e) {
+            logger.error("Could not start the log segment {}, continuing with the previous one", entry.segment, e);
+            entry.committed.completeExceptionally(e);
+            return;
+        }
+
+        if (!this.broken) {
+            try {
+                this.flush();
+                this.channel.force(false);
+            } catch (IOException e) {
+                next.close();
+                throw e;
+            }
+        }
+
+        FileChannel previous = this.channel;
+        this.channel = next;
+        this.committedSize = 0;
+        this.broken = false;
+        previous.close();
+    }
+
+    /**
+     * Commits all records appended and closes the log.
+     *
+     * @throws IOException Thrown if the log could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (this.closed) {
+                return;
+            }
+            this.queue.add(Entry.CLOSE);
+            this.closed = true;
+        }
+
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.channel.close();
+    }
+
+    /**
+     * Opens the file of a new segment for writing.
+     */
+    @FunctionalInterface
+    interface SegmentOpener {
+        FileChannel open(Path file) throws IOException;
+    }
+
+    /**
+     * A record to write, or the start of a new segment.
+     */
+    private static final class Entry {
+        private static final Entry CLOSE = new Entry(null, -1);
+
+        private final byte[] bytes;
+        private final int segment;
+        private final CompletableFuture<Void> committed = new CompletableFuture<>();
+
+        private Entry(byte[] bytes, int segment) {
+            this.bytes = bytes;
+            this.segment = segment;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package ch.ffhs.ftoop.bridge.dame.server.store;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stores the sessions of a server durably, so they can be continued after a restart or crash. Every change of a
+ * session is appended to a write-ahead log, see {@link SessionLog}, and from time to time a compact snapshot of the
+ * positions of all sessions is taken, after which the log before the snapshot is deleted. So recovering a session
+ * only needs its position in the snapshot and the few moves logged since.
+ * <p>
+ * Moves are logged with the number of plies played before them. A snapshot is taken after starting a new log
+ * segment, so every move logged in an earlier segment is part of the snapshot; moves of the newer segments that the
+ * snapshot already contains are recognized by their ply and skipped when recovering. See {@link SessionStoreFormat}
+ * for the files.
+ */
+public class SessionStore implements Closeable {
+    private static final Logger logger = LogManager.getLogger(SessionStore.class);
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final SessionLog log;
+    private final List<SavedSession> recoveredSessions;
+
+    private SessionStore(Path directory, SessionLog log, List<SavedSession> recoveredSessions) {
+        this.directory = directory;
+        this.log = log;
+        this.recoveredSessions = recoveredSessions;
+    }
+
+    /**
+     * Opens the store in a directory and recovers the sessions stored in it.
+     *
+     * @param directory The directory, which is created if it does not exist.
+     * @return The store.
+     * @throws InvalidSessionSnapshotException Thrown if the snapshot is corrupt.
+     * @throws IOException                     Thrown if the files could not be read or the log could not be created.
+     */
+    public static SessionStore open(Path directory) throws IOException {
+        checkNotNull(directory);
+        Files.createDirectories(directory);
+
+        long start = System.nanoTime();
+        Map<String, SavedSession> sessions = new LinkedHashMap<>();
+        int segment = readSnapshot(directory.resolve(SessionStoreFormat.SNAPSHOT_FILE), sessions);
+        List<LogRecord> records = SessionLog.read(directory, segment);
+        for (LogRecord record : records) {
+            recover(sessions, record);
+        }
+
+        logger.info("Recovered {} sessions from {} with {} log records in {} ms", sessions.size(), directory,
+                records.size(), (System.nanoTime() - start) / 1000000);
+        return new SessionStore(directory, SessionLog.open(directory), new ArrayList<>(sessions.values()));
+    }
+
+    private static void recover(Map<String, SavedSession> sessions, LogRecord record) {
+        switch (record.getType()) {
+            case SessionStoreFormat.CREATED:
+                sessions.putIfAbsent(record.getSessionId(),
+                        new SavedSession(record.getSessionId(), record.getName(), record.getColor(), null, 0));
+                break;
+            case SessionStoreFormat.MOVED:
+                SavedSession session = sessions.get(record.getSessionId());
+                if (session != null && !session.addMove(record.getPly(), record.getFrom(), record.getTo())
+                        && record.getPly() > session.getPlies() + session.getMoves().size()) {
+                    logger.warn("Session {}: missing moves before ply {}", record.getSessionId(), record.getPly());
+                }
+                break;
+            case SessionStoreFormat.CLOSED:
+                sessions.remove(record.getSessionId());
+                break;
+            default:
+                throw new IllegalStateException("Unknown record type " + record.getType());
+        }
+    }
+
+    /**
+     * The sessions that were stored when the store was opened.
+     *
+     * @return The sessions, which are not closed or finished.
+     */
+    public List<SavedSession> getRecoveredSessions() {
+        return Collections.unmodifiableList(this.recoveredSessions);
+    }
+
+    /**
+     * Logs a new session.
+     *
+     * @param sessionId The id of the session.
+     * @param name      The name of the human player.
+     * @param color     The color of the human player.
+     * @return Completed when the record is durable.
+     */
+    public CompletableFuture<Void> logCreated(String sessionId, String name, PieceColor color) {
+        return this.log.append(LogRecord.created(sessionId, name, color));
+    }
+
+    /**
+     * Logs a move of a session.
+     *
+     * @param sessionId The id of the session.
+     * @param ply       The number of plies played before the move.
+     * @param from      The from-square.
+     * @param to        The to-square.
+     * @return Completed when the record is durable.
+     */
+    public CompletableFuture<Void> logMoved(String sessionId, int ply, int from, int to) {
+        return this.log.append(LogRecord.moved(sessionId, ply, from, to));
+    }
+
+    /**
+     * Logs that a session has been closed or has finished, so it will not be recovered.
+     *
+     * @param sessionId The id of the session.
+     * @return Completed when the record is durable.
+     */
+    public CompletableFuture<Void> logClosed(String sessionId) {
+        return this.log.append(LogRecord.closed(sessionId));
+    }
+
+    /**
+     * Takes a snapshot of all sessions and deletes the log covered by it.
+     *
+     * @param sessions Supplies the current state of the sessions. It is called after a new log segment has been
+     *                 started, and must take the state of each session consistently with its moves.
+     * @throws IOException Thrown if the snapshot could not be written or the log could not be deleted.
+     */
+    public synchronized void snapshot(Supplier<Collection<SavedSession>> sessions) throws IOException {
+        checkNotNull(sessions);
+
+        long start = System.nanoTime();
+        CompletableFuture<Integer> rotation = this.log.rotate();
+        Collection<SavedSession> states = sessions.get();
+        int segment;
+        try {
+            segment = rotation.join();
+        } catch (CompletionException e) {
+            // Without a new segment, the records logged after taking the states would be deleted with the old one
+            throw new IOException("Could not start a new log segment", e.getCause());
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 + states.size() * 128);
+        buffer.putInt(SessionStoreFormat.MAGIC).put((byte) SessionStoreFormat.VERSION).putInt(segment).putInt(states.size());
+        for (SavedSession state : states) {
+            // UTF-8 takes at most 3 bytes per char, a board at most 1 byte per 2 squares
+            buffer = ensureCapacity(buffer, 3 * (state.getId().length() + state.getName().length()) + 512);
+            SessionStoreFormat.putText(buffer, state.getId());
+            SessionStoreFormat.putText(buffer, state.getName());
+            buffer.put(state.getColor() == PieceColor.DARK ? SessionStoreFormat.DARK : SessionStoreFormat.LIGHT);
+            buffer.putInt(state.getPlies());
+
+            Position position = Position.from(checkNotNull(state.getPosition()));
+            int squares = position.getGeometry().getNumberOfSquares();
+            buffer.put((byte) position.getGeometry().getNumberOfRowsAndColumns());
+            buffer.put(position.getSideToMove() == PieceColor.DARK ? SessionStoreFormat.DARK : SessionStoreFormat.LIGHT);
+            for (int square = 0; square < squares; square += 2) {
+                int high = square + 1 < squares ? position.get(square + 1) : Position.EMPTY;
+                buffer.put((byte) (high << 4 | position.get(square)));
+            }
+        }
+        buffer.putInt(SessionStoreFormat.checksumOf(buffer, 0, buffer.position()));
+        buffer.flip();
+
+        Path file = this.directory.resolve(SessionStoreFormat.SNAPSHOT_FILE);
+        Path temporary = this.directory.resolve(SessionStoreFormat.SNAPSHOT_FILE + TEMPORARY_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.log.deleteSegmentsBefore(segment);
+
+        logger.info("Took a snapshot of {} sessions in {} ms", states.size(), (System.nanoTime() - start) / 1000000);
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int needed) {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+
+        ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        return larger.put(buffer);
+    }
+
+    /**
+     * Reads the snapshot, if there is one.
+     *
+     * @param file     The snapshot file.
+     * @param sessions The map to put the sessions into.
+     * @return The first log segment not covered by the snapshot.
+     */
+    private static int readSnapshot(Path file, Map<String, SavedSession> sessions) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 4 || buffer.getInt(buffer.limit() - 4) != SessionStoreFormat.checksumOf(buffer, 0, buffer.limit() - 4)) {
+            throw new InvalidSessionSnapshotException(String.format("The checksum of the snapshot %s does not match", file));
+        }
+        buffer.limit(buffer.limit() - 4);
+
+        try {
+            if (buffer.getInt() != SessionStoreFormat.MAGIC || buffer.get() != SessionStoreFormat.VERSION) {
+                throw new InvalidSessionSnapshotException(String.format("%s is not a snapshot of version %d", file, SessionStoreFormat.VERSION));
+            }
+
+            int segment = buffer.getInt();
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                String id = SessionStoreFormat.getText(buffer);
+                String name = SessionStoreFormat.getText(buffer);
+                PieceColor color = colorOf(buffer.get());
+                int plies = buffer.getInt();
+
+                BoardGeometry geometry;
+                try {
+                    geometry = BoardGeometry.of(buffer.get() & 0xFF);
+                } catch (IllegalArgumentException e) {
+                    throw new InvalidSessionSnapshotException(e.getMessage());
+                }
+                Position position = Position.empty(geometry, colorOf(buffer.get()));
+                for (int square = 0; square < geometry.getNumberOfSquares(); square += 2) {
+                    int pieces = buffer.get();
+                    position.set(square, (byte) (pieces & 0x0F));
+                    if (square + 1 < geometry.getNumberOfSquares()) {
+                        position.set(square + 1, (byte) (pieces >> 4 & 0x0F));
+                    }
+                }
+
+                sessions.put(id, new SavedSession(id, name, color, position.toNotation(), plies));
+            }
+
+            return segment;
+        } catch (BufferUnderflowException e) {
+            throw new InvalidSessionSnapshotException(String.format("The snapshot %s is truncated", file));
+        }
+    }
+
+    private static PieceColor colorOf(byte code) {
+        return code == SessionStoreFormat.DARK ? PieceColor.DARK : PieceColor.LIGHT;
+    }
+
+    /**
+     * Commits the records logged and closes the log.
+     *
+     * @throws IOException Thrown if the log could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        this.log.close();
+    }
+}
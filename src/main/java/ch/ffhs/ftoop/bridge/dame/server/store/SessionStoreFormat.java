@@ -0,0 +1,88 @@
+package ch.ffhs.ftoop.bridge.dame.server.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Layout of the files of a {@link SessionStore}.
+ * <p>
+ * The log is split into numbered segments ({@code sessions-00000001.log}, ...). Each record of a segment consists of
+ * the length of its body (4 bytes), the CRC-32 of the body (4 bytes) and the body: the record type (1 byte) and the
+ * session id, followed by
+ * <ul>
+ * <li>{@link #CREATED}: the name (text) and color (1 byte) of the human player</li>
+ * <li>{@link #MOVED}: the number of plies played before the move (4 bytes), the from- and to-square (2 bytes each,
+ * numbered as in {@link ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry})</li>
+ * <li>{@link #CLOSED}: nothing</li>
+ * </ul>
+ * Texts are stored as their length (2 bytes) and their UTF-8 bytes. A record that is incomplete or whose checksum does
+ * not match has been torn by a crash, and ends the segment.
+ * <p>
+ * The snapshot ({@code sessions.snapshot}) starts with a header: {@link #MAGIC}, {@link #VERSION} (1 byte), the first
+ * log segment not covered by the snapshot (4 bytes) and the number of sessions (4 bytes). For each session follow the
+ * id and name (texts), color of the human player (1 byte), number of plies played (4 bytes), the number of rows and
+ * columns (1 byte), the side to move (1 byte) and the pieces, one piece code of
+ * {@link ch.ffhs.ftoop.bridge.dame.game.engine.Position} per square in 4 bits. The snapshot ends with the CRC-32 of
+ * everything before it.
+ */
+final class SessionStoreFormat {
+    static final int MAGIC = 0x44535331; // "DSS1"
+    static final int VERSION = 1;
+    static final String SNAPSHOT_FILE = "sessions.snapshot";
+    static final String SEGMENT_PREFIX = "sessions-";
+    static final String SEGMENT_SUFFIX = ".log";
+
+    static final byte CREATED = 1;
+    static final byte MOVED = 2;
+    static final byte CLOSED = 3;
+
+    static final int RECORD_HEADER_SIZE = 8;
+
+    static final byte DARK = 0;
+    static final byte LIGHT = 1;
+
+    private SessionStoreFormat() {
+    }
+
+    static String segmentFileName(int segment) {
+        return String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Extracts the number of a log segment from its file name.
+     *
+     * @param fileName The file name.
+     * @return The number, or -1 if the file is not a log segment.
+     */
+    static int segmentOf(String fileName) {
+        if (!fileName.startsWith(SEGMENT_PREFIX) || !fileName.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    static void putText(ByteBuffer buffer, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    static String getText(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int checksumOf(ByteBuffer buffer, int offset, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer bytes = buffer.duplicate();
+        bytes.limit(offset + length).position(offset);
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
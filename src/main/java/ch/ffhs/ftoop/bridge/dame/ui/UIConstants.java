@@ -38,6 +38,11 @@ public final class UIConstants {
     public static final int GAME_CURRENT_PLAYER_TEXT_SIZE = 26;
     public static final String GAME_CURRENT_PLAYER_DESCRIPTION = "Am Zug";
     public static final int GAME_CURRENT_PLAYER_DESCRIPTION_TEXT_SIZE = 14;
+    public static final String GAME_COMPUTER_THINKING = "%s denkt nach...";
+
+    public static final String GAME_UNDO_BUTTON_TEXT = "Zug zurücknehmen";
+    public static final String GAME_REDO_BUTTON_TEXT = "Zug wiederholen";
+    public static final int GAME_HISTORY_BUTTON_WIDTH = 160;
 
     public static final int GAME_PLAYER_SCORE_TEXT_SIZE = 18;
     public static final String GAME_PLAYER_SCORE_TEXT_COLOR = "#f7f1e3";
@@ -65,6 +70,7 @@ public final class UIConstants {
     public static final String MESSAGE_GAME_ENDED_PLAYER_WON_BODY = "Glückwunsch, Sie haben das Spiel mit %d zu %d gewonnen!\n\nMöchten Sie ein neues Spiel starten?";
     public static final String MESSAGE_GAME_ENDED_PLAYER_LOST_BODY = "Schade, leider haben Sie das Spiel %d zu %d gegen den Computer verloren.\n\nMöchten Sie ein neues Spiel starten?";
     public static final String MESSAGE_COMPUTER_COULD_NOT_FIND_VALID_TURN = "Der Computer konnte kein gültigen Zug finde.\n\nMöchten Sie ein neues Spiel starten?";
+    public static final String MESSAGE_COMPUTER_TURN_TIMED_OUT = "Der Computer hat zu lange für seinen Zug gebraucht.\n\nMöchten Sie ein neues Spiel starten?";
 
     public static final String MESSAGE_COULD_NOT_START_GAME_TITLE = "Fehler beim Starten";
     public static final String MESSAGE_COULD_NOT_START_GAME_BODY = "Das Spiel konnte nicht gestartet werden!\nBitte starten sie das Programm erneut.";
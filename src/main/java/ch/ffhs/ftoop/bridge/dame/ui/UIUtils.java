@@ -14,11 +14,15 @@ import javafx.scene.layout.Priority;
 import javafx.scene.paint.Color;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.ALERT_EXCEPTION_STACKTRACE_LABEL;
 
 public final class UIUtils {
+    private static final Map<String, Image> images = new ConcurrentHashMap<>();
+
     private UIUtils() {}
 
     public static BackgroundFill backgroundFillFor(String color) {
@@ -29,8 +33,28 @@ public final class UIUtils {
         return new BackgroundFill(Color.TRANSPARENT, CornerRadii.EMPTY, Insets.EMPTY);
     }
 
+    /**
+     * Loads an image from the classpath. Each image is decoded only once and then shared, so it can be used by any
+     * number of image views.
+     *
+     * @param clazz    The class whose class loader finds the image.
+     * @param filename The path of the image on the classpath.
+     * @return The decoded image.
+     */
     public static Image imageFromClassLoader(Class<?> clazz, String filename) {
-        return new Image(clazz.getClassLoader().getResourceAsStream(filename));
+        return images.computeIfAbsent(filename, name -> new Image(clazz.getClassLoader().getResourceAsStream(name)));
+    }
+
+    /**
+     * Decodes images ahead of time, so they are ready when they are shown for the first time.
+     *
+     * @param clazz     The class whose class loader finds the images.
+     * @param filenames The paths of the images on the classpath.
+     */
+    public static void preloadImages(Class<?> clazz, String... filenames) {
+        for (String filename : filenames) {
+            imageFromClassLoader(clazz, filename);
+        }
     }
 
     public static Color colorFor(String color) {
@@ -17,9 +17,13 @@ import ch.ffhs.ftoop.bridge.dame.game.move.Move;
 import ch.ffhs.ftoop.bridge.dame.game.move.MoveFinder;
 import ch.ffhs.ftoop.bridge.dame.game.move.MoveRule;
 import ch.ffhs.ftoop.bridge.dame.game.move.MoveRuleValidator;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Cursor;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.effect.BlurType;
 import javafx.scene.effect.DropShadow;
@@ -32,31 +36,46 @@ import javafx.scene.layout.BorderStrokeStyle;
 import javafx.scene.layout.BorderWidths;
 import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.TextAlignment;
+import javafx.util.Duration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.ALERT_GENERAL_TITLE;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_BOARD_BORDER;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_BOARD_BORDER_WIDTH;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_COMPUTER_THINKING;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_CURRENT_PLAYER_DESCRIPTION;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_CURRENT_PLAYER_DESCRIPTION_TEXT_SIZE;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_CURRENT_PLAYER_TEXT_SIZE;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_HISTORY_BUTTON_WIDTH;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_PLAYER_SCORE_TEXT_COLOR;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_PLAYER_SCORE_TEXT_SHADOW_COLOR;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_PLAYER_SCORE_TEXT_SHADOW_OFFSET;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_PLAYER_SCORE_TEXT_SHADOW_OPACITY;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_PLAYER_SCORE_TEXT_SHADOW_RADIUS;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_PLAYER_SCORE_TEXT_SIZE;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_REDO_BUTTON_TEXT;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.GAME_UNDO_BUTTON_TEXT;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MENU_START_BUTTON_BACKGROUND_COLOR;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MENU_START_BUTTON_BACKGROUND_COLOR_HOVER;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MENU_START_BUTTON_HEIGHT;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MENU_START_BUTTON_TEXT_COLOR;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MESSAGE_ATTEMPTED_INVALID_MOVE;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MESSAGE_COMPUTER_COULD_NOT_FIND_VALID_TURN;
+import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MESSAGE_COMPUTER_TURN_TIMED_OUT;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MESSAGE_GAME_ENDED_PLAYER_LOST_BODY;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MESSAGE_GAME_ENDED_PLAYER_WON_BODY;
 import static ch.ffhs.ftoop.bridge.dame.ui.UIConstants.MESSAGE_GAME_ENDED_TITLE;
@@ -82,15 +101,23 @@ public class GameUI extends BorderPane {
     private final Player player;
     private final Computer computer;
     private final boolean showDebugAids;
+    private final ExecutorService computerTurnExecutor;
 
     private Label currentPlayerLabel;
     private Label darkScoreLabel;
     private Label lightScoreLabel;
 
     private GridPane gameBoard;
+    private Button undoButton;
+    private Button redoButton;
 
     private Tile selectedTile;
 
+    // The computer's turn runs in the background, all of these are only accessed from the JavaFX application thread
+    private Future<?> computerTurn;
+    private PauseTransition computerTurnTimeout;
+    private int computerTurnNumber;
+
     public GameUI(Game game, Player player, Computer computer, boolean showDebugAids) {
         checkNotNull(game);
         checkNotNull(player);
@@ -101,6 +128,10 @@ public class GameUI extends BorderPane {
         this.computer = computer;
         this.showDebugAids = showDebugAids;
         this.selectedTile = null;
+        this.computerTurnExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("computer-turn-%d")
+                .setDaemon(true)
+                .build());
 
         this.setup();
         this.registerGameEventObservers();
@@ -117,12 +148,15 @@ public class GameUI extends BorderPane {
 
         this.setTop(this.createInformationArea());
         this.setCenter(this.gameBoard);
+        this.setBottom(this.createHistoryArea());
     }
 
     private void registerGameEventObservers() {
         this.game.registerGameStartedObserver(this::handleGameStarted);
         this.game.registerTurnFinishedObserver(this::handleTurnFinished);
-        this.game.registerGameEndedObserver(this::handleGameEnded);
+        // The dialog at the end waits for the player, which must not hold up the game while it finishes the move
+        this.game.registerGameEndedObserver((winner, loser) -> Platform.runLater(() -> this.handleGameEnded(winner, loser)));
+        this.game.registerHistoryChangedObserver(this::handleHistoryChanged);
     }
 
     private Label createCurrentPlayerLabel() {
@@ -224,6 +258,31 @@ public class GameUI extends BorderPane {
         return area;
     }
 
+    private HBox createHistoryArea() {
+        this.undoButton = this.createHistoryButton(GAME_UNDO_BUTTON_TEXT, this::handleUndoClicked);
+        this.redoButton = this.createHistoryButton(GAME_REDO_BUTTON_TEXT, this::handleRedoClicked);
+
+        HBox historyArea = new HBox(2 * SPACER, this.undoButton, this.redoButton);
+        historyArea.setAlignment(Pos.CENTER);
+        historyArea.setPadding(new Insets(2 * SPACER, 0, 0, 0));
+
+        return historyArea;
+    }
+
+    private Button createHistoryButton(String text, Runnable handler) {
+        Button button = new Button(text);
+        button.setPadding(new Insets(SPACER));
+        button.setPrefSize(GAME_HISTORY_BUTTON_WIDTH, MENU_START_BUTTON_HEIGHT);
+        button.setTextFill(Color.web(MENU_START_BUTTON_TEXT_COLOR));
+        button.setBackground(new Background(backgroundFillFor(MENU_START_BUTTON_BACKGROUND_COLOR)));
+        button.setOnMouseEntered(e -> button.setBackground(new Background(backgroundFillFor(MENU_START_BUTTON_BACKGROUND_COLOR_HOVER))));
+        button.setOnMouseExited(e -> button.setBackground(new Background(backgroundFillFor(MENU_START_BUTTON_BACKGROUND_COLOR))));
+        button.setOnAction(e -> handler.run());
+        button.setDisable(true);
+
+        return button;
+    }
+
     public void startGame() throws PlayersUsingSamePieceColorException, GameAlreadyStartedException {
         this.game.start(this.player, this.computer);
 
@@ -231,7 +290,12 @@ public class GameUI extends BorderPane {
 
     private void handleGameStarted() {
         logger.info("Game started");
+        this.computer.resetSearch();
         this.render();
+
+        if (!this.isComputer(this.game.getCurrentPlayer())) {
+            this.startComputerPondering();
+        }
     }
 
     private void render() {
@@ -241,6 +305,8 @@ public class GameUI extends BorderPane {
 
         this.renderGameBoard(currentPlayer);
         this.renderScores();
+        this.undoButton.setDisable(!this.game.canUndo());
+        this.redoButton.setDisable(!this.game.canRedo());
     }
 
     private void renderGameBoard(Player currentPlayer) {
@@ -286,32 +352,128 @@ public class GameUI extends BorderPane {
 
         if (this.isComputer(newCurrentPlayer)) {
             this.handleComputerTurn();
+        } else {
+            this.startComputerPondering();
         }
     }
 
+    private void startComputerPondering() {
+        this.computer.startPondering(this.game.getBoard(), this.game.getConfig().getEnabledRules());
+    }
+
     private boolean isComputer(Player player) {
         return (player instanceof Computer);
     }
 
+    /**
+     * Lets the computer find its move on a background thread, so the UI stays responsive while it is thinking. The
+     * move is then played on the JavaFX application thread.
+     */
     private void handleComputerTurn() {
-        try {
-            logger.info("Computer is finding next move");
-            List<MoveRule> enabledRules = this.game.getConfig().getEnabledRules();
-            Move move = this.computer.findNextMove(this.game.getBoard(), enabledRules);
+        logger.info("Computer is finding next move");
+        this.setComputerThinking(true);
+
+        int turnNumber = ++this.computerTurnNumber;
+        Board board = this.game.getBoard();
+        List<MoveRule> enabledRules = this.game.getConfig().getEnabledRules();
+
+        this.computerTurn = this.computerTurnExecutor.submit(() -> {
+            try {
+                Move move = this.computer.findNextMove(board, enabledRules);
+                Platform.runLater(() -> this.playComputerMove(turnNumber, move));
+            } catch (NoValidComputerMoveFoundException | RuntimeException e) {
+                Platform.runLater(() -> this.handleComputerTurnFailed(turnNumber, e));
+            }
+        });
 
+        this.computerTurnTimeout = new PauseTransition(Duration.millis(this.game.getConfig().getComputerTurnTimeoutMillis()));
+        this.computerTurnTimeout.setOnFinished(e -> this.handleComputerTurnTimedOut(turnNumber));
+        this.computerTurnTimeout.play();
+    }
+
+    private void playComputerMove(int turnNumber, Move move) {
+        if (!this.isCurrentComputerTurn(turnNumber)) {
+            logger.debug("Discarding move {} of cancelled computer turn", move);
+            return;
+        }
+
+        this.finishComputerTurn();
+
+        try {
             logger.info("Computer selected move {}", move);
             this.game.doMove(move);
-
-        } catch (NoValidComputerMoveFoundException | InvalidBoardPositionException | InvalidMoveException e) {
+        } catch (InvalidBoardPositionException | InvalidMoveException e) {
             logger.error("Computer could not find a valid move", e);
             showConfirmation(ALERT_GENERAL_TITLE, MESSAGE_COMPUTER_COULD_NOT_FIND_VALID_TURN, this::restart, this::quit);
         }
     }
 
+    private void handleComputerTurnFailed(int turnNumber, Exception e) {
+        if (!this.isCurrentComputerTurn(turnNumber)) {
+            logger.debug("Ignoring failure of cancelled computer turn", e);
+            return;
+        }
+
+        this.finishComputerTurn();
+        logger.error("Computer could not find a valid move", e);
+        showConfirmation(ALERT_GENERAL_TITLE, MESSAGE_COMPUTER_COULD_NOT_FIND_VALID_TURN, this::restart, this::quit);
+    }
+
+    private void handleComputerTurnTimedOut(int turnNumber) {
+        if (!this.isCurrentComputerTurn(turnNumber)) {
+            return;
+        }
+
+        logger.error("Computer did not find a move within {} ms", this.game.getConfig().getComputerTurnTimeoutMillis());
+        this.cancelComputerTurn();
+        showConfirmation(ALERT_GENERAL_TITLE, MESSAGE_COMPUTER_TURN_TIMED_OUT, this::restart, this::quit);
+    }
+
+    private boolean isCurrentComputerTurn(int turnNumber) {
+        return this.computerTurn != null && turnNumber == this.computerTurnNumber;
+    }
+
+    /**
+     * Cancels the computer's turn, if it is still thinking. A move it might still find is discarded.
+     */
+    private void cancelComputerTurn() {
+        if (this.computerTurn == null) {
+            return;
+        }
+
+        logger.info("Cancelling computer turn");
+        this.computerTurn.cancel(true);
+        this.computerTurnNumber++;
+        this.finishComputerTurn();
+    }
+
+    private void finishComputerTurn() {
+        this.computerTurn = null;
+        if (this.computerTurnTimeout != null) {
+            this.computerTurnTimeout.stop();
+            this.computerTurnTimeout = null;
+        }
+
+        this.setComputerThinking(false);
+    }
+
+    private void setComputerThinking(boolean thinking) {
+        this.setCursor(thinking ? Cursor.WAIT : Cursor.DEFAULT);
+        if (thinking) {
+            this.currentPlayerLabel.setText(String.format(GAME_COMPUTER_THINKING, this.computer.getName()));
+        }
+    }
+
     private void handleTileClicked(Tile tile) {
         logger.info("Tile clicked: {}", tile);
         logger.debug("Selected tile is {}", this.selectedTile);
 
+        // The player has to wait until the computer has played its move
+        if (this.computerTurn != null) {
+            logger.debug("Computer is still thinking, ignoring click");
+            return;
+        }
+
         Player currentPlayer = this.game.getCurrentPlayer();
 
         // Player must select a tile from which to do the move
@@ -367,8 +529,58 @@ public class GameUI extends BorderPane {
         }
     }
 
+    /**
+     * Takes back moves until it is the player's turn again, so the computer's answer is taken back as well.
+     */
+    private void handleUndoClicked() {
+        this.stopComputer();
+
+        do {
+            this.game.undo();
+        } while (this.game.canUndo() && this.isComputer(this.game.getCurrentPlayer()));
+
+        this.continueAfterHistoryChange();
+    }
+
+    /**
+     * Plays a move again, together with the computer's answer.
+     */
+    private void handleRedoClicked() {
+        this.stopComputer();
+
+        do {
+            this.game.redo();
+        } while (this.game.canRedo() && this.isComputer(this.game.getCurrentPlayer()));
+
+        this.continueAfterHistoryChange();
+    }
+
+    private void stopComputer() {
+        this.cancelComputerTurn();
+        this.computer.stopPondering();
+    }
+
+    private void continueAfterHistoryChange() {
+        // After the move ending the game has been played again, nobody is to move anymore
+        if (this.game.isOver()) {
+            return;
+        }
+
+        if (this.isComputer(this.game.getCurrentPlayer())) {
+            this.handleComputerTurn();
+        } else {
+            this.startComputerPondering();
+        }
+    }
+
+    private void handleHistoryChanged(Player currentPlayer) {
+        this.selectedTile = null;
+        this.render();
+    }
+
     private void handleGameEnded(Player winner, Player loser) {
         logger.info("Game has ended. Winner: {}, Loser: {}", winner, loser);
+        this.computer.stopPondering();
 
         String confirmationText;
         if (this.isComputer(winner)) {
@@ -385,6 +597,8 @@ public class GameUI extends BorderPane {
 
     private void restart() {
         this.selectedTile = null;
+        this.cancelComputerTurn();
+        this.computer.stopPondering();
         this.game.restart();
 
         Platform.runLater(this::render);
@@ -393,6 +607,9 @@ public class GameUI extends BorderPane {
 
     private void quit() {
         logger.info("Player has quit the game");
+        this.cancelComputerTurn();
+        this.computer.stopPondering();
+        this.computerTurnExecutor.shutdownNow();
         Platform.exit();
     }
 
@@ -10,6 +10,7 @@ import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
+import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.StackPane;
@@ -54,6 +55,7 @@ public class TileUI extends StackPane {
     private Label interactableLabel;
 
     private Button pieceButton;
+    private ImageView pieceView;
     private ImageView moveCandidateIndicator;
     private ImageView selectedIndicator;
 
@@ -71,6 +73,7 @@ public class TileUI extends StackPane {
         this.setAlignment(Pos.CENTER);
 
         this.pieceButton = this.createPieceButton();
+        this.pieceView = this.createPieceView();
         this.selectedIndicator = this.createSelectedIndicator();
         this.moveCandidateIndicator = this.createMoveCandidateIndicator();
 
@@ -138,7 +141,8 @@ public class TileUI extends StackPane {
 
         if (this.tile.isOccupied()) {
             Piece piece = this.tile.getPiece();
-            this.pieceButton.setGraphic(this.getPieceImage(piece));
+            this.pieceView.setImage(this.getPieceImage(piece));
+            this.pieceButton.setGraphic(this.pieceView);
         } else {
             this.pieceButton.setGraphic(null);
         }
@@ -166,8 +170,9 @@ public class TileUI extends StackPane {
         this.notifyTileClickedHandlers();
     }
 
-    private ImageView getPieceImage(Piece piece) {
-        ImageView view = new ImageView(imageFromClassLoader(this.getClass(), this.getPieceImageFileName(piece)));
+    private ImageView createPieceView() {
+        // The view is kept for the whole game, only its image changes with the piece on the tile
+        ImageView view = new ImageView();
         view.setFitWidth(TILE_PIECE_SIZE);
         view.setFitHeight(TILE_PIECE_SIZE);
         view.setSmooth(true);
@@ -175,6 +180,10 @@ public class TileUI extends StackPane {
         return view;
     }
 
+    private Image getPieceImage(Piece piece) {
+        return imageFromClassLoader(this.getClass(), this.getPieceImageFileName(piece));
+    }
+
     private void notifyTileClickedHandlers() {
         this.tileClickedHandlers.forEach(handler -> handler.onTileControlClicked(this.tile));
     }
@@ -0,0 +1,138 @@
+package ch.ffhs.ftoop.bridge.dame.game;
+
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.move.InvalidMoveException;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition.from;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+public class ConcurrentGameTest {
+    private final Player dark = new Player("Dark", PieceColor.DARK);
+    private final Player light = new Player("Light", PieceColor.LIGHT);
+    private ExecutorService executor;
+    private Game game;
+    private ConcurrentGame concurrentGame;
+
+    @Before
+    public void setUp() throws Exception {
+        this.executor = Executors.newFixedThreadPool(4);
+        this.game = new Game(new GameConfig("game-test.properties"));
+        this.concurrentGame = new ConcurrentGame(this.game, this.executor);
+        this.game.start(this.dark, this.light);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testSnapshotFollowsMovesAndRestart() throws Exception {
+        BoardNotation initial = this.concurrentGame.getSnapshot().getPosition();
+        assertThat(initial.getSideToMove(), is(PieceColor.DARK));
+
+        this.concurrentGame.submit(game -> {
+            game.doMove(Move.from(this.dark, game.getBoard().getTile(from(5, 2)).getPiece(), from(5, 2), from(4, 3)));
+            return null;
+        }).get();
+
+        GameSnapshot snapshot = this.concurrentGame.getSnapshot();
+        assertThat(snapshot.getSideToMove(), is(PieceColor.LIGHT));
+        assertThat(snapshot.getNumberOfPlayedMoves(), is(1));
+        assertThat(snapshot.getPosition(), is(BoardNotation.of(this.game.getBoard(), PieceColor.LIGHT)));
+        assertFalse(snapshot.isOver());
+
+        this.concurrentGame.restart().get();
+        assertThat(this.concurrentGame.getSnapshot().getPosition(), is(initial));
+        assertThat(this.concurrentGame.getSnapshot().getNumberOfPlayedMoves(), is(0));
+    }
+
+    @Test
+    public void testFailedCommandDoesNotChangeGame() throws Exception {
+        GameSnapshot before = this.concurrentGame.getSnapshot();
+
+        CompletableFuture<Void> result = this.concurrentGame.submit(game -> {
+            game.doMove(Move.from(this.dark, game.getBoard().getTile(from(5, 2)).getPiece(), from(5, 2), from(5, 4)));
+            return null;
+        });
+        try {
+            result.get();
+            fail("The move should have been rejected");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(InvalidMoveException.class));
+        }
+
+        assertThat(this.concurrentGame.getSnapshot(), is(before));
+        // The queue goes on after a failed command
+        assertThat(this.concurrentGame.submit(game -> game.getCurrentPlayer()).get(), is(this.dark));
+    }
+
+    @Test
+    public void testExecutesCommandsOneAfterAnotherInOrder() throws Exception {
+        int threads = 4;
+        int commandsPerThread = 500;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        int[] executed = new int[1];
+        List<List<Integer>> orders = new ArrayList<>();
+        List<Thread> submitters = new ArrayList<>();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            List<Integer> order = new ArrayList<>();
+            orders.add(order);
+            submitters.add(new Thread(() -> {
+                for (int i = 0; i < commandsPerThread; i++) {
+                    int number = i;
+                    CompletableFuture<Integer> result = this.concurrentGame.submit(game -> {
+                        if (running.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        // Not synchronised, so only correct if no two commands run at the same time
+                        order.add(number);
+                        int count = ++executed[0];
+                        running.decrementAndGet();
+                        return count;
+                    });
+                    synchronized (results) {
+                        results.add(result);
+                    }
+                }
+            }));
+        }
+
+        submitters.forEach(Thread::start);
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        synchronized (results) {
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get();
+        }
+
+        assertThat(overlaps.get(), is(0));
+        assertThat(this.concurrentGame.submit(game -> executed[0]).get(), is(threads * commandsPerThread));
+        for (List<Integer> order : orders) {
+            for (int i = 0; i < commandsPerThread; i++) {
+                assertThat(order.get(i), is(i));
+            }
+        }
+    }
+}
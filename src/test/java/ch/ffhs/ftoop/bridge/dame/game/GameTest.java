@@ -2,6 +2,7 @@ package ch.ffhs.ftoop.bridge.dame.game;
 
 import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
 import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
 import ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition;
 import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
 import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
@@ -19,7 +20,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition.from;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class GameTest {
     private static final Logger logger = LogManager.getLogger(GameTest.class);
@@ -178,5 +185,87 @@ public class GameTest {
         game.start(player1, player2);
     }
 
+    @Test
+    public void testUndoAndRedoRestoreBoardScoresAndCurrentPlayer() throws Exception {
+        Game game = new Game(this.config);
+        Player player1 = new Player("Player 1", PieceColor.DARK);
+        Player player2 = new Player("Player 2", PieceColor.LIGHT);
+        game.start(player1, player2);
+
+        // 11-15 22-18 15x22 25x18
+        List<String> positions = new ArrayList<>();
+        positions.add(BoardNotation.of(game.getBoard(), PieceColor.DARK).toString());
+        this.playMove(game, Move.from(player1, this.pieceFrom(game.getBoard(), from(5, 2)), from(5, 2), from(4, 3)));
+        positions.add(BoardNotation.of(game.getBoard(), PieceColor.LIGHT).toString());
+        this.playMove(game, Move.from(player2, this.pieceFrom(game.getBoard(), from(2, 5)), from(2, 5), from(3, 4)));
+        positions.add(BoardNotation.of(game.getBoard(), PieceColor.DARK).toString());
+        this.playMove(game, Move.from(player1, this.pieceFrom(game.getBoard(), from(4, 3)), from(4, 3), from(2, 5)));
+        positions.add(BoardNotation.of(game.getBoard(), PieceColor.LIGHT).toString());
+        this.playMove(game, Move.from(player2, this.pieceFrom(game.getBoard(), from(1, 6)), from(1, 6), from(3, 4)));
+        positions.add(BoardNotation.of(game.getBoard(), PieceColor.DARK).toString());
+
+        for (int ply = 3; ply >= 0; ply--) {
+            game.undo();
+            assertEquals(positions.get(ply), BoardNotation.of(game.getBoard(), game.getCurrentPlayer().getColor()).toString());
+        }
+        assertFalse(game.canUndo());
+        assertEquals(0, player1.getScore());
+        assertEquals(0, player2.getScore());
+
+        for (int ply = 1; ply <= 4; ply++) {
+            game.redo();
+            assertEquals(positions.get(ply), BoardNotation.of(game.getBoard(), game.getCurrentPlayer().getColor()).toString());
+        }
+        assertFalse(game.canRedo());
+        assertEquals(1, player1.getScore());
+        assertEquals(1, player2.getScore());
+
+        // Playing another move after taking back discards the moves taken back
+        game.undo();
+        game.undo();
+        this.playMove(game, Move.from(player1, this.pieceFrom(game.getBoard(), from(4, 3)), from(4, 3), from(5, 4)));
+        assertFalse(game.canRedo());
+        assertEquals(3, game.getPlayedMoves().size());
+    }
+
+    @Test
+    public void testUndoTakesBackPromotion() throws Exception {
+        Game game = new Game(this.config);
+        Player player1 = new Player("Player 1", PieceColor.DARK);
+        Player player2 = new Player("Player 2", PieceColor.LIGHT);
+        game.start(player1, player2);
+        BoardNotation.parse("B:W1,2:B25", 8).applyTo(game.getBoard());
+
+        this.playMove(game, Move.from(player1, this.pieceFrom(game.getBoard(), from(1, 6)), from(1, 6), from(0, 7)));
+        assertTrue(this.pieceFrom(game.getBoard(), from(0, 7)).isKing());
+
+        game.undo();
+        assertFalse(this.pieceFrom(game.getBoard(), from(1, 6)).isKing());
+        assertEquals(player1, game.getCurrentPlayer());
+
+        game.redo();
+        assertTrue(this.pieceFrom(game.getBoard(), from(0, 7)).isKing());
+        assertEquals(player2, game.getCurrentPlayer());
+    }
+
+    @Test
+    public void testRedoingMoveThatEndedGameEndsGameAgain() throws Exception {
+        Game game = new Game(this.config);
+        Player player1 = new Player("Player 1", PieceColor.DARK);
+        Player player2 = new Player("Player 2", PieceColor.LIGHT);
+        game.start(player1, player2);
+        BoardNotation.parse("B:W22:B17", 8).applyTo(game.getBoard());
+
+        this.playMove(game, Move.from(player1, this.pieceFrom(game.getBoard(), from(1, 4)), from(1, 4), from(3, 6)));
+        assertTrue(game.isOver());
 
+        game.undo();
+        assertFalse(game.isOver());
+        assertEquals(player1, game.getCurrentPlayer());
+
+        game.redo();
+        assertTrue(game.isOver());
+        assertEquals(player1, game.getCurrentPlayer());
+        assertEquals(0, game.getBoard().getPieces(PieceColor.LIGHT).size());
+    }
 }
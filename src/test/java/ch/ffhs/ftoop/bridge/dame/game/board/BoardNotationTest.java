@@ -0,0 +1,69 @@
+package ch.ffhs.ftoop.bridge.dame.game.board;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition.from;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class BoardNotationTest {
+    private static final String INITIAL_POSITION = "B:W21,22,23,24,25,26,27,28,29,30,31,32:B1,2,3,4,5,6,7,8,9,10,11,12";
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testWritesInitialPosition() throws Exception {
+        Board board = new Board(8);
+        board.populateWithInitialPieces(12);
+
+        assertThat(BoardNotation.of(board, PieceColor.DARK).toString(), is(INITIAL_POSITION));
+    }
+
+    @Test
+    public void testLoadsBoardInOnePass() throws Exception {
+        Board board = new Board(8);
+        board.populateWithInitialPieces(12);
+
+        BoardNotation.parse("W:WK1,32:B5-7,K18.", 8).applyTo(board);
+
+        assertThat(board.getPieces(PieceColor.LIGHT), hasSize(2));
+        assertThat(board.getPieces(PieceColor.DARK), hasSize(4));
+        assertThat(board.getTile(from(1, 0)).getPiece().getColor(), is(PieceColor.LIGHT));
+        assertTrue(board.getTile(from(1, 0)).getPiece().isKing());
+        assertThat(board.getTile(from(0, 1)).getPiece().getColor(), is(PieceColor.DARK));
+        assertFalse(board.getTile(from(0, 1)).getPiece().isKing());
+        assertTrue(board.getTile(from(3, 4)).getPiece().isKing());
+        assertThat(board.getTile(from(5, 2)).getPiece(), is(nullValue()));
+    }
+
+    @Test
+    public void testReadsWhatItWrites() throws Exception {
+        BoardNotation notation = BoardNotation.parse("W:W18,24,27,28,K10,K15:B12,16,20,K22,K25,K29", 8);
+        Position position = Position.from(notation);
+
+        assertThat(position.getSideToMove(), is(PieceColor.LIGHT));
+        assertThat(position.count(PieceColor.DARK), is(6));
+        assertThat(BoardNotation.parse(notation.toString(), 8), is(notation));
+        assertThat(position.toNotation(), is(notation));
+    }
+
+    @Test
+    public void testRejectsSquareOccupiedTwice() throws InvalidBoardNotationException {
+        this.thrown.expect(InvalidBoardNotationException.class);
+        BoardNotation.parse("B:W1-4:B4", 8);
+    }
+
+    @Test
+    public void testRejectsSquareOutsideBoard() throws InvalidBoardNotationException {
+        this.thrown.expect(InvalidBoardNotationException.class);
+        BoardNotation.parse("B:W33:B1", 8);
+    }
+}
@@ -0,0 +1,99 @@
+package ch.ffhs.ftoop.bridge.dame.game.book;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OpeningBookTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private RuleSet rules;
+    private MoveGenerator generator;
+    private Position initialPosition;
+    private int[] firstMoves;
+
+    @Before
+    public void setUp() throws Exception {
+        GameConfig config = new GameConfig("game-test.properties");
+        Board board = new Board(config.getNumberOfRowsAndColumnsOfBoard());
+        board.populateWithInitialPieces(config.getNumberOfPiecesPerPlayer());
+
+        this.rules = RuleSet.from(config.getEnabledRules());
+        this.generator = new MoveGenerator(this.rules);
+        this.initialPosition = Position.from(board, PieceColor.DARK);
+        this.firstMoves = this.generator.generateMoves(this.initialPosition);
+    }
+
+    @Test
+    public void testMovesAreWeightedByResult() throws Exception {
+        int[] replies = this.repliesTo(this.firstMoves[0]);
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(this.initialPosition, this.rules, 2);
+        builder.addGame(new BookGame(new int[]{this.firstMoves[0], replies[0]}, PieceColor.DARK));
+        builder.addGame(new BookGame(new int[]{this.firstMoves[0], replies[1]}, null));
+        builder.addGame(new BookGame(new int[]{this.firstMoves[1]}, PieceColor.LIGHT));
+
+        OpeningBook book = this.writeAndOpen(builder, 1);
+        assertThat(book.probe(this.initialPosition, this.generator), contains(new BookMove(this.firstMoves[0], 3)));
+        assertThat(book.selectMove(this.initialPosition, this.generator, new Random(1)), is(this.firstMoves[0]));
+
+        // The reply of the loser is not in the book, only the one of the drawn game
+        Position afterFirstMove = this.initialPosition.copy();
+        afterFirstMove.doMove(this.firstMoves[0]);
+        assertThat(book.probe(afterFirstMove, this.generator), contains(new BookMove(replies[1], 1)));
+
+        // Positions out of the book
+        afterFirstMove.doMove(replies[1]);
+        assertThat(book.probe(afterFirstMove, this.generator), is(Collections.emptyList()));
+        assertEquals(PackedMove.NONE, book.selectMove(afterFirstMove, this.generator, new Random(1)));
+    }
+
+    @Test
+    public void testGamesAreAggregatedInParallel() throws Exception {
+        OpeningBookBuilder builder = new OpeningBookBuilder(this.initialPosition, this.rules, 4);
+        builder.addGames(Stream.concat(
+                IntStream.range(0, 1000).mapToObj(i -> new BookGame(new int[]{this.firstMoves[0]}, PieceColor.DARK)),
+                IntStream.range(0, 500).mapToObj(i -> new BookGame(new int[]{this.firstMoves[1]}, null))));
+        builder.addGames(IntStream.range(0, 200).mapToObj(builder::playRandomGame));
+
+        OpeningBook book = this.writeAndOpen(builder, 600);
+        assertTrue(book.supports(this.initialPosition.getGeometry().getNumberOfRowsAndColumns(), this.rules));
+
+        BookMove best = book.probe(this.initialPosition, this.generator).get(0);
+        assertEquals(this.firstMoves[0], best.getMove());
+        assertTrue(best.getWeight() >= 2000);
+    }
+
+    private int[] repliesTo(int move) {
+        Position position = this.initialPosition.copy();
+        position.doMove(move);
+        return this.generator.generateMoves(position);
+    }
+
+    private OpeningBook writeAndOpen(OpeningBookBuilder builder, int minWeight) throws Exception {
+        Path file = this.folder.getRoot().toPath().resolve("book.bin");
+        builder.write(file, minWeight);
+        return OpeningBook.open(file);
+    }
+}
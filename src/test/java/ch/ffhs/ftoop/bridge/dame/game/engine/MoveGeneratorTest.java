@@ -0,0 +1,143 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardDimensionsException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidBoardPositionException;
+import ch.ffhs.ftoop.bridge.dame.game.board.InvalidNumberOfPiecesPerPlayerException;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.board.Tile;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import ch.ffhs.ftoop.bridge.dame.game.move.MoveFinder;
+import org.apache.commons.configuration2.ex.ConfigurationException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition.from;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MoveGeneratorTest {
+    private static final Logger logger = LogManager.getLogger(MoveGeneratorTest.class);
+
+    @Test
+    public void testGeneratesSameMovesAsMoveFinderWithoutCompulsoryJump() throws ConfigurationException, InvalidBoardDimensionsException, InvalidBoardPositionException {
+        this.compareWithMoveFinder(new GameConfig("game-test-no-compulsory-jump.properties"), 1);
+    }
+
+    @Test
+    public void testGeneratesSameMovesAsMoveFinderWithCompulsoryJump() throws ConfigurationException, InvalidBoardDimensionsException, InvalidBoardPositionException {
+        this.compareWithMoveFinder(new GameConfig("game-test.properties"), 2);
+    }
+
+    private void compareWithMoveFinder(GameConfig config, long seed) throws InvalidBoardDimensionsException, InvalidBoardPositionException {
+        Random random = new Random(seed);
+        BoardGeometry geometry = BoardGeometry.of(config.getNumberOfRowsAndColumnsOfBoard());
+        MoveGenerator generator = new MoveGenerator(RuleSet.from(config.getEnabledRules()));
+
+        for (int i = 0; i < 20; i++) {
+            Position position = this.randomPosition(geometry, random);
+            Board board = new Board(config.getNumberOfRowsAndColumnsOfBoard());
+            position.applyTo(board);
+
+            for (PieceColor color : PieceColor.values()) {
+                position.setSideToMove(color);
+                Player player = new Player("Test", color);
+
+                Set<String> expected = new HashSet<>();
+                for (Tile tile : board.getTiles()) {
+                    if (tile.isOccupied() && tile.getPiece().getColor() == color) {
+                        expected.addAll(MoveFinder.findValidMoves(board, player, tile.getPiece(), tile.getPosition(), config.getEnabledRules()).stream()
+                                .map(Move::getTo)
+                                .map(to -> tile.getPosition() + "->" + to)
+                                .collect(Collectors.toList()));
+                    }
+                }
+
+                Set<String> actual = Arrays.stream(generator.generateMoves(position))
+                        .mapToObj(move -> geometry.positionOf(PackedMove.from(move)) + "->" + geometry.positionOf(PackedMove.to(move)))
+                        .collect(Collectors.toSet());
+
+                logger.debug("Position:\n{}Expected: {}\nActual: {}", position, expected, actual);
+                assertEquals(position.toString(), expected, actual);
+                assertEquals(!expected.isEmpty(), generator.hasMoves(position, color));
+            }
+        }
+    }
+
+    private Position randomPosition(BoardGeometry geometry, Random random) {
+        Position position = Position.empty(geometry, PieceColor.DARK);
+        int pieces = 4 + random.nextInt(12);
+
+        for (int i = 0; i < pieces; i++) {
+            int square = random.nextInt(geometry.getNumberOfSquares());
+            PieceColor color = random.nextBoolean() ? PieceColor.DARK : PieceColor.LIGHT;
+            boolean king = random.nextInt(4) == 0 || geometry.isKingsRow(square, color);
+            position.set(square, Position.pieceCode(color, king));
+        }
+
+        return position;
+    }
+
+    @Test
+    public void testDoAndUndoMoveWithCapture() throws ConfigurationException, InvalidBoardDimensionsException {
+        GameConfig config = new GameConfig("game-test-no-compulsory-jump.properties");
+        BoardGeometry geometry = BoardGeometry.of(config.getNumberOfRowsAndColumnsOfBoard());
+        MoveGenerator generator = new MoveGenerator(RuleSet.from(config.getEnabledRules()));
+
+        // Dark man on (1, 0) can jump over the light pieces on (2, 1) and (4, 3) onto (5, 4)
+        Position position = Position.empty(geometry, PieceColor.DARK);
+        position.set(geometry.squareAt(from(1, 0)), Position.DARK_MAN);
+        position.set(geometry.squareAt(from(2, 1)), Position.LIGHT_MAN);
+        position.set(geometry.squareAt(from(4, 3)), Position.LIGHT_KING);
+        Position original = position.copy();
+
+        int doubleJump = Arrays.stream(generator.generateMoves(position))
+                .filter(move -> PackedMove.to(move) == geometry.squareAt(from(5, 4)))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        assertEquals(2, PackedMove.captures(doubleJump));
+
+        position.doMove(doubleJump);
+        assertEquals(PieceColor.LIGHT, position.getSideToMove());
+        assertEquals(0, position.count(PieceColor.LIGHT));
+        assertEquals(Position.DARK_MAN, position.get(geometry.squareAt(from(5, 4))));
+        assertNotEquals(original.getHash(), position.getHash());
+        assertEquals(position.copy().getHash(), position.getHash()); // Incremental hash equals the one computed from scratch
+
+        position.undoMove();
+        assertEquals(original, position);
+        assertEquals(2, position.count(PieceColor.LIGHT));
+        assertEquals(original.getHash(), position.getHash());
+    }
+
+    @Test
+    public void testManBecomesKingOnKingsRow() throws InvalidNumberOfPiecesPerPlayerException, ConfigurationException {
+        GameConfig config = new GameConfig("game-test-no-compulsory-jump.properties");
+        BoardGeometry geometry = BoardGeometry.of(config.getNumberOfRowsAndColumnsOfBoard());
+        MoveGenerator generator = new MoveGenerator(RuleSet.from(config.getEnabledRules()));
+
+        Position position = Position.empty(geometry, PieceColor.LIGHT);
+        position.set(geometry.squareAt(from(2, 1)), Position.LIGHT_MAN);
+
+        int[] moves = generator.generateMoves(position);
+        assertEquals(2, moves.length);
+        assertTrue(Arrays.stream(moves).allMatch(PackedMove::isPromotion));
+
+        position.doMove(moves[0]);
+        assertTrue(Position.isKing(position.get(PackedMove.to(moves[0]))));
+
+        position.undoMove();
+        assertFalse(Position.isKing(position.get(geometry.squareAt(from(2, 1)))));
+    }
+}
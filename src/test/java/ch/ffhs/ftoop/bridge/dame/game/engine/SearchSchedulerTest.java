@@ -0,0 +1,100 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+// The tickets are not used in their blocks, they only hold the slots of the searches until the end of them
+@SuppressWarnings("try")
+public class SearchSchedulerTest {
+    private final List<String> events = new CopyOnWriteArrayList<>();
+
+    private Thread search(SearchScheduler scheduler, String name, long deadline) {
+        Thread thread = new Thread(() -> {
+            try (SearchScheduler.Ticket ignored = scheduler.start(deadline)) {
+                this.events.add(name);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(SearchScheduler scheduler, int searches) throws InterruptedException {
+        while (scheduler.getNumberOfWaitingSearches() < searches) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void testRunsWaitingSearchesByDeadline() throws Exception {
+        SearchScheduler scheduler = new SearchScheduler(1, 1000);
+        Thread late;
+        Thread early;
+
+        try (SearchScheduler.Ticket ignored = scheduler.start(Long.MAX_VALUE)) {
+            late = this.search(scheduler, "late", 200);
+            awaitWaiting(scheduler, 1);
+            early = this.search(scheduler, "early", 100);
+            awaitWaiting(scheduler, 2);
+            assertThat(scheduler.getNumberOfRunningSearches(), is(1));
+        }
+
+        late.join();
+        early.join();
+        assertThat(this.events, contains("early", "late"));
+        assertThat(scheduler.getNumberOfRunningSearches(), is(0));
+    }
+
+    @Test
+    public void testPausesSearchAfterQuantumForMoreUrgentSearch() throws Exception {
+        SearchScheduler scheduler = new SearchScheduler(1, 1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        Thread background = new Thread(() -> {
+            try (SearchScheduler.Ticket ignored = scheduler.start(Long.MAX_VALUE)) {
+                started.countDown();
+                awaitWaiting(scheduler, 1);
+                Thread.sleep(5);
+                this.events.add("iteration");
+                scheduler.checkpoint();
+                this.events.add("resumed");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        background.start();
+        started.await();
+        Thread urgent = this.search(scheduler, "urgent", System.nanoTime());
+
+        background.join();
+        urgent.join();
+        assertThat(this.events, contains("iteration", "urgent", "resumed"));
+        assertThat(scheduler.getNumberOfPreemptions(), is(1L));
+    }
+
+    @Test
+    public void testKeepsRunningWithoutMoreUrgentSearch() throws Exception {
+        SearchScheduler scheduler = new SearchScheduler(1, 1);
+        Thread background;
+
+        try (SearchScheduler.Ticket ignored = scheduler.start(100)) {
+            background = this.search(scheduler, "background", Long.MAX_VALUE);
+            awaitWaiting(scheduler, 1);
+            Thread.sleep(5);
+            scheduler.checkpoint();
+            this.events.add("iteration");
+        }
+
+        background.join();
+        assertThat(this.events, contains("iteration", "background"));
+        assertThat(scheduler.getNumberOfPreemptions(), is(0L));
+    }
+}
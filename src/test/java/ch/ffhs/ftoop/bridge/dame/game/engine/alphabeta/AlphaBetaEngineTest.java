@@ -0,0 +1,116 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.alphabeta;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Difficulty;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Evaluator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchLimits;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchStats;
+import ch.ffhs.ftoop.bridge.dame.game.engine.TranspositionTable;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertTrue;
+
+public class AlphaBetaEngineTest {
+    private RuleSet rules;
+    private Position initialPosition;
+
+    @Before
+    public void setUp() throws Exception {
+        GameConfig config = new GameConfig("game-test-no-compulsory-jump.properties");
+        Board board = new Board(config.getNumberOfRowsAndColumnsOfBoard());
+        board.populateWithInitialPieces(config.getNumberOfPiecesPerPlayer());
+
+        this.rules = RuleSet.from(config.getEnabledRules());
+        this.initialPosition = Position.from(board, PieceColor.DARK);
+    }
+
+    private AlphaBetaEngine createEngine(int evaluationNoise, long seed) {
+        return new AlphaBetaEngine(this.rules, Evaluator.withDefaultWeights(), new TranspositionTable(1), evaluationNoise, seed);
+    }
+
+    @Test
+    public void testFindsWinningCapture() {
+        BoardGeometry geometry = BoardGeometry.of(8);
+        Position position = Position.empty(geometry, PieceColor.LIGHT);
+        position.set(geometry.squareAt(2, 5), Position.LIGHT_MAN);
+        position.set(geometry.squareAt(6, 7), Position.LIGHT_MAN);
+        position.set(geometry.squareAt(3, 4), Position.DARK_MAN);
+
+        int move = this.createEngine(0, 0).search(position, SearchLimits.ofDepth(3));
+
+        assertTrue(PackedMove.isCapture(move));
+        assertThat(PackedMove.to(move), is(geometry.squareAt(4, 3)));
+    }
+
+    @Test
+    public void testEnforcesNodeBudgetExactly() {
+        AlphaBetaEngine engine = this.createEngine(0, 0);
+
+        engine.search(this.initialPosition, SearchLimits.ofNodes(1234));
+
+        assertThat(engine.getNodes(), is(1234L));
+    }
+
+    @Test
+    public void testSearchesWithSameSeedAreReproducible() {
+        SearchLimits limits = Difficulty.EASY.getLimits();
+        SearchLimits budget = new SearchLimits(SearchLimits.UNLIMITED, limits.getMaxNodes(), limits.getMaxDepth());
+        Position position = this.initialPosition.copy();
+
+        for (int ply = 0; ply < 10; ply++) {
+            int move = this.createEngine(Difficulty.EASY.getEvaluationNoise(), 42).search(position, budget);
+            int sameMove = this.createEngine(Difficulty.EASY.getEvaluationNoise(), 42).search(position, budget);
+
+            assertThat(sameMove, is(move));
+            position.doMove(move);
+        }
+    }
+
+    @Test
+    public void testPublishesSearchStats() {
+        AlphaBetaEngine engine = this.createEngine(0, 0);
+        List<SearchStats> published = new ArrayList<>();
+        engine.registerSearchFinishedObserver(published::add);
+
+        engine.search(this.initialPosition, SearchLimits.ofDepth(5));
+
+        assertThat(published, hasSize(1));
+        SearchStats stats = published.get(0);
+        assertThat(stats.getNodes(), is(engine.getNodes()));
+        assertThat(stats.getQuiescenceNodes(), lessThan(stats.getNodes()));
+        assertThat(stats.getDepth(), is(5));
+        assertThat(stats.getTableProbes(), greaterThan(0L));
+        assertThat(stats.getTableHits(), lessThanOrEqualTo(stats.getTableProbes()));
+        assertThat(stats.getCutoffs(), greaterThan(0L));
+        assertThat(stats.getFirstMoveCutoffs(), lessThanOrEqualTo(stats.getCutoffs()));
+        assertThat(stats.getEffectiveBranchingFactor(), greaterThan(1.0));
+    }
+
+    @Test
+    public void testNotifiesEveryCompletedIteration() {
+        AlphaBetaEngine engine = this.createEngine(0, 0);
+        List<Integer> depths = new ArrayList<>();
+        engine.registerIterationFinishedObserver(depths::add);
+
+        engine.search(this.initialPosition, SearchLimits.ofDepth(4));
+
+        assertThat(depths, contains(1, 2, 3, 4));
+    }
+}
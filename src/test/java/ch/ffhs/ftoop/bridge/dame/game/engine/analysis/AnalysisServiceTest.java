@@ -0,0 +1,97 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.analysis;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Evaluator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchLimits;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchScheduler;
+import ch.ffhs.ftoop.bridge.dame.game.engine.TranspositionTable;
+import ch.ffhs.ftoop.bridge.dame.game.engine.alphabeta.AlphaBetaEngine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertTrue;
+
+public class AnalysisServiceTest {
+    private final BoardGeometry geometry = BoardGeometry.of(8);
+    private ExecutorService executor;
+    private AnalysisService service;
+    private Position initialPosition;
+
+    @Before
+    public void setUp() throws Exception {
+        GameConfig config = new GameConfig("game-test-no-compulsory-jump.properties");
+        Board board = new Board(config.getNumberOfRowsAndColumnsOfBoard());
+        board.populateWithInitialPieces(config.getNumberOfPiecesPerPlayer());
+
+        this.executor = Executors.newFixedThreadPool(2);
+        this.service = new AnalysisService(RuleSet.from(config.getEnabledRules()), Evaluator.withDefaultWeights(),
+                new TranspositionTable(1), this.executor, 2, new SearchScheduler(1, 50));
+        this.initialPosition = Position.from(board, PieceColor.DARK);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    private Position winningCapture() {
+        Position position = Position.empty(this.geometry, PieceColor.LIGHT);
+        position.set(this.geometry.squareAt(2, 5), Position.LIGHT_MAN);
+        position.set(this.geometry.squareAt(6, 7), Position.LIGHT_MAN);
+        position.set(this.geometry.squareAt(3, 4), Position.DARK_MAN);
+        return position;
+    }
+
+    @Test
+    public void testAnalysesPositionsInOrder() {
+        List<PositionAnalysis> analyses = this.service.analyze(
+                Arrays.asList(this.winningCapture(), this.initialPosition), SearchLimits.ofDepth(3)).join();
+
+        assertThat(analyses, hasSize(2));
+        assertThat(analyses.get(0).getPosition(), is(this.winningCapture()));
+        assertTrue(PackedMove.isCapture(analyses.get(0).getBestMove()));
+        assertThat(PackedMove.to(analyses.get(0).getBestMove()), is(this.geometry.squareAt(4, 3)));
+        assertTrue(AlphaBetaEngine.isMateScore(analyses.get(0).getScore()));
+        assertThat(analyses.get(0).getScore(), greaterThan(0));
+
+        assertThat(analyses.get(1).getPosition(), is(this.initialPosition));
+        assertThat(analyses.get(1).getDepth(), is(3));
+    }
+
+    @Test
+    public void testSearchesIdenticalPositionsOnce() {
+        Position position = this.initialPosition.copy();
+
+        List<PositionAnalysis> analyses = this.service.analyze(
+                Arrays.asList(this.initialPosition, this.winningCapture(), position), SearchLimits.ofDepth(2)).join();
+
+        assertThat(analyses, hasSize(3));
+        assertThat(analyses.get(2), is(sameInstance(analyses.get(0))));
+    }
+
+    @Test
+    public void testLeavesPositionsUnchanged() {
+        Position position = this.winningCapture();
+
+        this.service.analyze(Arrays.asList(position), SearchLimits.ofDepth(3)).join();
+
+        assertThat(position, is(this.winningCapture()));
+    }
+}
@@ -0,0 +1,155 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.mcts;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Ponderer;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchLimits;
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertTrue;
+
+public class MctsEngineTest {
+    private RuleSet rules;
+    private MoveGenerator generator;
+    private Position initialPosition;
+    private MctsEngine engine;
+
+    @Before
+    public void setUp() throws Exception {
+        GameConfig config = new GameConfig("game-test-no-compulsory-jump.properties");
+        Board board = new Board(config.getNumberOfRowsAndColumnsOfBoard());
+        board.populateWithInitialPieces(config.getNumberOfPiecesPerPlayer());
+
+        this.rules = RuleSet.from(config.getEnabledRules());
+        this.generator = new MoveGenerator(this.rules);
+        this.initialPosition = Position.from(board, PieceColor.DARK);
+    }
+
+    @After
+    public void tearDown() {
+        if (this.engine != null) {
+            this.engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testFindsWinningCapture() {
+        this.engine = new MctsEngine(this.rules, 2, MctsParallelism.TREE, MctsEngine.DEFAULT_EXPLORATION);
+
+        BoardGeometry geometry = BoardGeometry.of(8);
+        Position position = Position.empty(geometry, PieceColor.LIGHT);
+        position.set(geometry.squareAt(2, 5), Position.LIGHT_MAN);
+        position.set(geometry.squareAt(6, 7), Position.LIGHT_MAN);
+        position.set(geometry.squareAt(3, 4), Position.DARK_MAN);
+
+        int move = this.engine.search(position, SearchLimits.ofNodes(2000));
+
+        assertTrue(PackedMove.isCapture(move));
+        assertThat(PackedMove.to(move), is(geometry.squareAt(4, 3)));
+    }
+
+    @Test
+    public void testReusesTreeAfterMoveAndReply() {
+        this.engine = new MctsEngine(this.rules, 1, MctsParallelism.TREE, MctsEngine.DEFAULT_EXPLORATION);
+
+        Position position = this.initialPosition.copy();
+        int move = this.engine.search(position, SearchLimits.ofNodes(5000));
+        position.doMove(move);
+        position.doMove(this.generator.generateMoves(position)[0]);
+
+        this.engine.search(position, SearchLimits.ofNodes(500));
+
+        // The statistics of the first search are kept for the new root
+        assertThat(this.engine.getRootVisits(), greaterThan(500));
+    }
+
+    @Test
+    public void testPonderingWarmsUpTree() throws InterruptedException {
+        this.engine = new MctsEngine(this.rules, 2, MctsParallelism.TREE, MctsEngine.DEFAULT_EXPLORATION);
+        Ponderer ponderer = new Ponderer(this.engine);
+
+        Position position = this.initialPosition.copy();
+        ponderer.start(position);
+        Thread.sleep(300);
+        ponderer.stop();
+
+        position.doMove(this.generator.generateMoves(position)[0]);
+        this.engine.search(position, SearchLimits.ofNodes(100));
+        ponderer.shutdown();
+
+        // The opponent's position has been searched in the background, the move played is in the tree already
+        assertThat(this.engine.getRootVisits(), greaterThan(100));
+    }
+
+    @Test
+    public void testRootParallelSearchReturnsValidMove() {
+        this.engine = new MctsEngine(this.rules, 3, MctsParallelism.ROOT, MctsEngine.DEFAULT_EXPLORATION);
+
+        int move = this.engine.search(this.initialPosition, SearchLimits.ofNodes(3000));
+
+        int[] validMoves = this.generator.generateMoves(this.initialPosition);
+        assertTrue(Arrays.stream(validMoves).anyMatch(validMove -> validMove == move));
+    }
+
+    @Test
+    public void testStopsWhenTimeIsUp() {
+        this.engine = new MctsEngine(this.rules, 2, MctsParallelism.TREE, MctsEngine.DEFAULT_EXPLORATION);
+
+        long start = System.nanoTime();
+        int move = this.engine.search(this.initialPosition, SearchLimits.ofTime(200));
+
+        assertThat(move, is(not(PackedMove.NONE)));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 2000);
+    }
+
+    @Test
+    public void testCallsIterationObserversOnSearchingThread() {
+        this.engine = new MctsEngine(this.rules, 2, MctsParallelism.TREE, MctsEngine.DEFAULT_EXPLORATION);
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        this.engine.registerIterationFinishedObserver(depth -> threads.add(Thread.currentThread()));
+
+        int move = this.engine.search(this.initialPosition, SearchLimits.ofTime(200));
+
+        assertThat(move, is(not(PackedMove.NONE)));
+        assertThat(threads, is(not(empty())));
+        assertThat(threads, everyItem(sameInstance(Thread.currentThread())));
+    }
+
+    @Test
+    public void testPausesDoNotUseUpPlayouts() {
+        this.engine = new MctsEngine(this.rules, 2, MctsParallelism.TREE, MctsEngine.DEFAULT_EXPLORATION);
+        List<SearchStats> stats = new CopyOnWriteArrayList<>();
+        this.engine.registerSearchFinishedObserver(stats::add);
+        this.engine.registerIterationFinishedObserver(depth -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        this.engine.search(this.initialPosition, SearchLimits.ofNodes(50_000));
+
+        assertThat(stats.get(0).getNodes(), is(50_000L));
+    }
+}
@@ -0,0 +1,45 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.telemetry;
+
+import ch.ffhs.ftoop.bridge.dame.game.engine.SearchStats;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+
+public class SearchTelemetryTest {
+    @Test
+    public void testTotalsSearches() {
+        SearchTelemetry telemetry = new SearchTelemetry();
+
+        telemetry.onSearchFinished(new SearchStats("test", 1000, 200, 1_000_000_000L, 4, 100, 30, 50, 40, 3.0));
+        telemetry.onSearchFinished(new SearchStats("test", 3000, 400, 1_000_000_000L, 6, 100, 70, 50, 50, 2.0));
+
+        assertThat(telemetry.getSearches(), is(2L));
+        assertThat(telemetry.getTotalNodes(), is(4000L));
+        assertThat(telemetry.getAverageNodesPerSecond(), is(2000L));
+        assertThat(telemetry.getTableHitRate(), closeTo(0.5, 1e-9));
+        assertThat(telemetry.getFirstMoveCutoffRate(), closeTo(0.9, 1e-9));
+        assertThat(telemetry.getLastDepth(), is(6));
+        assertThat(telemetry.getLastNodesPerSecond(), is(3000L));
+    }
+
+    @Test
+    public void testExportsViaJmx() throws Exception {
+        SearchTelemetry telemetry = new SearchTelemetry();
+        telemetry.onSearchFinished(new SearchStats("test", 500, 0, 1_000_000L, 3, 0, 0, 0, 0, 0));
+        telemetry.register("Test");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("ch.ffhs.ftoop.bridge.dame:type=SearchTelemetry,name=\"Test\"");
+        assertThat(server.getAttribute(name, "LastNodes"), is(500L));
+
+        telemetry.unregister();
+        assertFalse(server.isRegistered(name));
+    }
+}
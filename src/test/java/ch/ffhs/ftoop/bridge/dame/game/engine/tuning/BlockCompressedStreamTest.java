@@ -0,0 +1,54 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class BlockCompressedStreamTest {
+
+    @Test
+    public void testRoundTripOverManyBlocks() throws Exception {
+        // Compressible data: few distinct values, like the piece codes of a position
+        Random random = new Random(1);
+        byte[] data = new byte[100_000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (random.nextInt(8) == 0 ? random.nextInt(7) : 0);
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new BlockCompressedOutputStream(compressed, 4096)) {
+            output.write(data, 0, 10);
+            output.write(data[10]);
+            output.write(data, 11, data.length - 11);
+        }
+
+        assertThat(compressed.size(), lessThan(data.length / 2));
+
+        byte[] read = new byte[data.length + 1];
+        int length = 0;
+        try (InputStream input = new BlockCompressedInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            for (int n = input.read(read, 0, read.length); n > 0; n = input.read(read, length, read.length - length)) {
+                length += n;
+            }
+
+            assertThat(input.read(), is(-1));
+        }
+
+        assertThat(length, is(data.length));
+        assertThat(Arrays.equals(Arrays.copyOf(read, length), data), is(true));
+    }
+
+    @Test(expected = InvalidTrainingDataFileException.class)
+    public void testRejectsUncompressedStream() throws Exception {
+        new BlockCompressedInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5}));
+    }
+}
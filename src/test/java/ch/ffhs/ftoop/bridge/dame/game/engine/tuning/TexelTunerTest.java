@@ -0,0 +1,133 @@
+package ch.ffhs.ftoop.bridge.dame.game.engine.tuning;
+
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Evaluator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.fail;
+
+public class TexelTunerTest {
+    private static final BoardGeometry GEOMETRY = BoardGeometry.of(8);
+    private static final int[] TRUE_WEIGHTS = {100, 300, 3, 10, 6, -4};
+    private static final double TRUE_SCALE = 100;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static Position randomPosition(Random random) {
+        Position position = Position.empty(GEOMETRY, random.nextBoolean() ? PieceColor.DARK : PieceColor.LIGHT);
+        int pieces = 2 + random.nextInt(16);
+
+        for (int i = 0; i < pieces; i++) {
+            int square = random.nextInt(GEOMETRY.getNumberOfSquares());
+            PieceColor color = random.nextBoolean() ? PieceColor.DARK : PieceColor.LIGHT;
+            // Men never stand on their kings row
+            boolean king = random.nextInt(4) == 0 || GEOMETRY.isKingsRow(square, color);
+            position.set(square, Position.pieceCode(color, king));
+        }
+
+        return position;
+    }
+
+    private static TrainingSet trainingSet(int size, long seed) {
+        Random random = new Random(seed);
+        TrainingSet set = new TrainingSet();
+        int[] features = new int[Evaluator.NUMBER_OF_FEATURES];
+
+        for (int i = 0; i < size; i++) {
+            Position position = randomPosition(random);
+            Evaluator.features(position, features);
+
+            double evaluation = 0;
+            for (int feature = 0; feature < Evaluator.NUMBER_OF_FEATURES; feature++) {
+                evaluation += TRUE_WEIGHTS[feature] * features[feature];
+            }
+
+            double darkWins = 1 / (1 + Math.exp(-evaluation / TRUE_SCALE));
+            set.add(position, random.nextDouble() < darkWins ? 1 : 0);
+        }
+
+        return set;
+    }
+
+    @Test
+    public void testTuningFindsWeightsTheResultsDependOn() {
+        TrainingSet set = trainingSet(50_000, 1);
+        TexelTuner tuner = new TexelTuner(set);
+        int[] initialWeights = Evaluator.withDefaultWeights().getWeights();
+
+        int[] weights = tuner.tune(initialWeights, 400, TexelTuner.DEFAULT_LEARNING_RATE);
+
+        double scale = tuner.fitScale(toDoubles(weights));
+        assertThat(tuner.loss(toDoubles(weights), scale), lessThan(tuner.loss(toDoubles(initialWeights), tuner.fitScale(toDoubles(initialWeights)))));
+        assertThat(weights[Evaluator.MEN], is(100));
+        assertThat(weights[Evaluator.KINGS], allOf(greaterThan(240), lessThan(360)));
+    }
+
+    @Test
+    public void testTrainingDataAndWeightsFilesRoundTrip() throws Exception {
+        Random random = new Random(2);
+        Position first = randomPosition(random);
+        Position second = randomPosition(random);
+        Path data = this.folder.getRoot().toPath().resolve("training-data.bin");
+
+        try (TrainingDataWriter writer = TrainingDataWriter.create(data, GEOMETRY)) {
+            writer.write(first, PieceColor.DARK);
+            writer.write(second, null);
+        }
+
+        try (TrainingDataReader reader = TrainingDataReader.open(data)) {
+            assertThat(reader.next(), is(true));
+            assertThat(reader.getPosition(), is(first));
+            assertThat(reader.getResult(), is(1.0));
+            assertThat(reader.next(), is(true));
+            assertThat(reader.getPosition(), is(second));
+            assertThat(reader.getResult(), is(0.5));
+            assertThat(reader.next(), is(false));
+        }
+
+        TrainingSet set = TrainingSet.load(Collections.singletonList(data));
+        assertThat(set.size(), is(2));
+        assertThat(set.result(1), is(0.5));
+
+        Path weightsFile = this.folder.getRoot().toPath().resolve("weights.properties");
+        Evaluator evaluator = new Evaluator(new int[]{100, 250, 5, 12, 4, -2});
+        evaluator.save(weightsFile);
+        assertThat(Arrays.equals(Evaluator.load(weightsFile).getWeights(), evaluator.getWeights()), is(true));
+    }
+
+    @Test
+    public void testTrainingSetGrowsUpToItsMaximum() {
+        Random random = new Random(1);
+        TrainingSet set = new TrainingSet(100_000);
+        for (int i = 0; i < 100_000; i++) {
+            set.add(randomPosition(random), 1);
+        }
+        assertThat(set.size(), is(100_000));
+
+        try {
+            set.add(randomPosition(random), 1);
+            fail("The full training set should not accept more positions");
+        } catch (IllegalStateException e) {
+            assertThat(set.size(), is(100_000));
+        }
+    }
+
+    private static double[] toDoubles(int[] weights) {
+        return Arrays.stream(weights).asDoubleStream().toArray();
+    }
+}
@@ -0,0 +1,118 @@
+package ch.ffhs.ftoop.bridge.dame.game.observer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertTrue;
+
+public class ObserverBusTest {
+
+    @Test
+    public void testDeliversSynchronouslyInOrderOfRegistration() {
+        ObserverBus<IntConsumer> bus = new ObserverBus<>(16);
+        List<String> received = new ArrayList<>();
+        bus.register(value -> received.add("first " + value));
+        bus.register(value -> {
+            throw new IllegalStateException("Failing observer");
+        });
+        bus.register(value -> received.add("second " + value));
+
+        bus.publish(observer -> observer.accept(1));
+
+        assertThat(received, contains("first 1", "second 1"));
+    }
+
+    @Test
+    public void testDeliversAsynchronouslyInOrder() throws Exception {
+        ObserverBus<IntConsumer> bus = new ObserverBus<>(1000);
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(500);
+        bus.register(value -> {
+            received.add(value);
+            done.countDown();
+        }, Delivery.ASYNCHRONOUS);
+
+        for (int i = 0; i < 500; i++) {
+            int value = i;
+            bus.publish(observer -> observer.accept(value));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 500; i++) {
+            assertThat(received.get(i), is(i));
+        }
+    }
+
+    @Test
+    public void testNeverBlocksOnSlowObserver() throws Exception {
+        ObserverBus<IntConsumer> bus = new ObserverBus<>(10);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(11);
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        bus.register(value -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(value);
+            delivered.countDown();
+        }, Delivery.ASYNCHRONOUS);
+
+        bus.publish(observer -> observer.accept(-1));
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            bus.publish(observer -> observer.accept(value));
+        }
+        release.countDown();
+
+        // Only the newest events fit into the queue, while the observer was blocked
+        assertThat(bus.getNumberOfDroppedEvents(), is(90L));
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertThat(received.get(1), is(90));
+        assertThat(received.get(10), is(99));
+    }
+
+    @Test
+    public void testLosslessBusNeverDropsEvents() throws Exception {
+        ObserverBus<IntConsumer> bus = new ObserverBus<>(10, true);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(101);
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        bus.register(value -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(value);
+            delivered.countDown();
+        }, Delivery.ASYNCHRONOUS);
+
+        bus.publish(observer -> observer.accept(-1));
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            bus.publish(observer -> observer.accept(value));
+        }
+        release.countDown();
+
+        assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        assertThat(bus.getNumberOfDroppedEvents(), is(0L));
+        assertThat(received.get(100), is(99));
+    }
+}
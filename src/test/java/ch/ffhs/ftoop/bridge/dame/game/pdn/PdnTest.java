@@ -0,0 +1,132 @@
+package ch.ffhs.ftoop.bridge.dame.game.pdn;
+
+import ch.ffhs.ftoop.bridge.dame.game.Game;
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PdnTest {
+    /**
+     * The White Dyke, as played in the GameTest, with the usual decorations of PDN files.
+     */
+    private static final String WHITE_DYKE = "[Event \"White \\\"Dyke\\\"\"]\n"
+            + "[Black \"Dark\"]\n"
+            + "[White \"Light\"]\n"
+            + "[Result \"1-0\"]\n"
+            + "\n"
+            + "1. 11-15 22-18 2. 15x22 25x18 {Both sides recapture} 3.12-16 29-25 4. 9-13 (4. 8-11 18-14) 18-14 $1\n"
+            + "5. 10x17 21x14 6. 16-20 24-19! 7. 6-10 25-21 8. 10x17 21x14 9. 2-6 30-25?! 10. 6-10 25-21\n"
+            + "; the end is near\n"
+            + "11. 10x17 21x14 12. 1-6 1-0\n";
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private GameConfig config;
+
+    @Before
+    public void setUp() throws Exception {
+        this.config = new GameConfig("game-test-no-compulsory-jump.properties");
+    }
+
+    @Test
+    public void testReadsAndReplaysGame() throws Exception {
+        PdnReader reader = new PdnReader(new StringReader(WHITE_DYKE));
+        PdnGame game = reader.next();
+
+        assertThat(reader.next(), is(nullValue()));
+        assertThat(game.getTag("Event"), is("White \"Dyke\""));
+        assertThat(game.getResult(), is(PdnResult.DARK_WINS));
+        assertThat(game.getMoves(), hasSize(23));
+        assertThat(game.getMoves().get(2), is(PdnMove.of(14, 21, true)));
+
+        Game replayed = game.replay(this.config);
+        assertThat(replayed.getBoard().getPieces(PieceColor.DARK), hasSize(8));
+        assertThat(replayed.getBoard().getPieces(PieceColor.LIGHT), hasSize(8));
+    }
+
+    @Test
+    public void testWritesGamesThatReadTheSame() throws Exception {
+        PdnGame game = new PdnReader(new StringReader(WHITE_DYKE)).next();
+        StringWriter text = new StringWriter();
+        try (PdnWriter writer = new PdnWriter(text)) {
+            writer.write(game);
+            writer.write(game);
+        }
+
+        PdnReader reader = new PdnReader(new StringReader(text.toString()));
+        PdnGame first = reader.next();
+        PdnGame second = reader.next();
+
+        assertThat(first.getTags(), is(game.getTags()));
+        assertThat(first.getMoves(), is(game.getMoves()));
+        assertThat(second.getMoves(), is(game.getMoves()));
+        assertThat(second.getResult(), is(game.getResult()));
+        assertThat(reader.next(), is(nullValue()));
+    }
+
+    @Test
+    public void testReplayRejectsInvalidMove() throws Exception {
+        PdnGame game = new PdnReader(new StringReader("1. 11-15 22-17 2. 15-10 *")).next();
+
+        this.thrown.expect(InvalidPdnException.class);
+        game.replay(this.config);
+    }
+
+    @Test
+    public void testReadsArchiveInParallelAndSkipsInvalidGames() throws Exception {
+        Path file = this.folder.getRoot().toPath().resolve("archive.pdn");
+        StringBuilder archive = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            archive.append(i == 250 ? "[Event \"Broken\"]\n\n1. 11-15 22-18 2. 15q22 *\n" : WHITE_DYKE).append('\n');
+        }
+        Files.write(file, archive.toString().getBytes(StandardCharsets.UTF_8));
+
+        PdnArchive pdnArchive = new PdnArchive(file);
+        long[] boundaries = pdnArchive.split(8);
+        byte[] bytes = Files.readAllBytes(file);
+        for (int i = 1; i + 1 < boundaries.length; i++) {
+            assertThat((char) bytes[(int) boundaries[i]], is('['));
+            assertThat((char) bytes[(int) boundaries[i] - 1], is('\n'));
+            assertThat((char) bytes[(int) boundaries[i] - 2], is('\n'));
+        }
+        assertThat(boundaries.length, greaterThan(2));
+
+        List<PdnGame> games = Collections.synchronizedList(new ArrayList<>());
+        long numberOfGames = pdnArchive.read(4, games::add);
+
+        assertThat(numberOfGames, is(499L));
+        assertThat(games, hasSize(499));
+        assertThat(pdnArchive.getNumberOfInvalidGames(), is(1L));
+    }
+
+    @Test
+    public void testRejectsUnterminatedComment() throws IOException {
+        PdnReader reader = new PdnReader(new StringReader("1. 11-15 {never closed"));
+
+        this.thrown.expect(InvalidPdnException.class);
+        reader.next();
+    }
+}
@@ -0,0 +1,103 @@
+package ch.ffhs.ftoop.bridge.dame.game.record;
+
+import ch.ffhs.ftoop.bridge.dame.game.Game;
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.actor.Player;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition.from;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class GameRecordTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private GameConfig config;
+    private Game game;
+    private Player player1;
+    private Player player2;
+
+    @Before
+    public void setUp() throws Exception {
+        this.config = new GameConfig("game-test-no-compulsory-jump.properties");
+        this.game = new Game(this.config);
+        this.player1 = new Player("Player 1", PieceColor.DARK);
+        this.player2 = new Player("Player 2", PieceColor.LIGHT);
+    }
+
+    @Test
+    public void testRecordsAndReplaysGame() throws Exception {
+        Path file = this.playRecordedOpening();
+
+        // 2 simple moves and 2 captures after the header
+        assertThat(Files.size(file), is((long) GameRecordFormat.HEADER_SIZE + 2 + 2 + 3 + 3));
+
+        GameRecord record = GameRecord.read(file);
+        assertThat(record.getNumberOfMoves(), is(4));
+        assertThat(record.getGeometry().getNumberOfRowsAndColumns(), is(this.config.getNumberOfRowsAndColumnsOfBoard()));
+        assertThat(record.getNumberOfPiecesPerPlayer(), is(this.config.getNumberOfPiecesPerPlayer()));
+        assertThat(record.getEnabledRules(), is(this.config.getEnabledRules()));
+        assertThat(PackedMove.captures(record.getMove(0)), is(0));
+        assertThat(PackedMove.captures(record.getMove(2)), is(1));
+        assertThat(record.positionAt(4), is(Position.from(this.game.getBoard(), PieceColor.DARK)));
+        assertThat(record.positionAt(0).count(PieceColor.LIGHT), is(this.config.getNumberOfPiecesPerPlayer()));
+        assertThat(record.positionAt(3).count(PieceColor.LIGHT), is(this.config.getNumberOfPiecesPerPlayer() - 1));
+    }
+
+    @Test
+    public void testIgnoresIncompleteLastMove() throws Exception {
+        Path file = this.playRecordedOpening();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+
+        GameRecord record = GameRecord.read(file);
+
+        assertThat(record.getNumberOfMoves(), is(3));
+    }
+
+    /**
+     * Plays the first moves of the White Dyke, in which each player captures a piece.
+     */
+    private Path playRecordedOpening() throws Exception {
+        Path directory = this.folder.getRoot().toPath().resolve("games");
+        GameRecorder recorder = new GameRecorder(directory, this.config);
+        recorder.attachTo(this.game);
+        this.game.start(this.player1, this.player2);
+
+        this.play(this.player1, from(5, 2), from(4, 3));
+        this.play(this.player2, from(2, 5), from(3, 4));
+        this.play(this.player1, from(4, 3), from(2, 5));
+        this.play(this.player2, from(1, 6), from(3, 4));
+        recorder.onGameEnded(this.player1, this.player2);
+        recorder.close();
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.collect(Collectors.toList());
+        }
+
+        assertThat(files, hasSize(1));
+        return files.get(0);
+    }
+
+    private void play(Player player, BoardPosition from, BoardPosition to) throws Exception {
+        this.game.doMove(Move.from(player, this.game.getBoard().getTile(from).getPiece(), from, to));
+    }
+}
@@ -0,0 +1,150 @@
+package ch.ffhs.ftoop.bridge.dame.game.tablebase;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.PackedMove;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition.from;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TablebaseTest {
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static BoardGeometry geometry;
+    private static MoveGenerator generator;
+    private static Tablebase tablebase;
+
+    @BeforeClass
+    public static void generateTablebase() throws Exception {
+        GameConfig config = new GameConfig("game-test-no-compulsory-jump.properties");
+        RuleSet rules = RuleSet.from(config.getEnabledRules());
+
+        geometry = BoardGeometry.of(config.getNumberOfRowsAndColumnsOfBoard());
+        generator = new MoveGenerator(rules);
+
+        new TablebaseGenerator(config.getNumberOfRowsAndColumnsOfBoard(), rules, 2).generate(3, folder.getRoot().toPath());
+        tablebase = Tablebase.open(folder.getRoot().toPath());
+    }
+
+    @Test
+    public void testIndexerRestoresPositions() {
+        SliceIndexer indexer = new SliceIndexer(geometry, MaterialSlice.of(1, 1, 1, 0));
+        Position position = Position.empty(geometry, PieceColor.DARK);
+        int valid = 0;
+
+        for (long index = 0; index < indexer.size(); index++) {
+            if (indexer.decode(index, position)) {
+                assertEquals(index, indexer.index(position));
+                valid++;
+            }
+        }
+
+        // Every placement of a dark man, a light man and a dark king, with the men not on their kings row
+        int squares = geometry.getNumberOfSquares();
+        int manSquares = squares - geometry.getSquaresPerRow();
+        int overlappingMen = manSquares - geometry.getSquaresPerRow();
+        assertEquals((manSquares * manSquares - overlappingMen) * (squares - 2), valid);
+    }
+
+    @Test
+    public void testCapturingLastPieceIsWonInOnePly() {
+        Position position = Position.empty(geometry, PieceColor.DARK);
+        position.set(geometry.squareAt(from(1, 0)), Position.DARK_MAN);
+        position.set(geometry.squareAt(from(2, 1)), Position.LIGHT_MAN);
+
+        assertThat(tablebase.probe(position), is(Optional.of(new TablebaseResult(TablebaseOutcome.WIN, 1))));
+
+        int move = tablebase.findBestMove(position, generator);
+        assertTrue(PackedMove.isCapture(move));
+        assertEquals(geometry.squareAt(from(3, 2)), PackedMove.to(move));
+    }
+
+    @Test
+    public void testBlockedPlayerHasLost() {
+        // The light man cannot move forward, as the dark kings are in the way and there is no room behind them to jump to
+        Position position = Position.empty(geometry, PieceColor.LIGHT);
+        position.set(geometry.squareAt(from(6, 5)), Position.DARK_MAN);
+        position.set(geometry.squareAt(from(2, 1)), Position.LIGHT_MAN);
+        position.set(geometry.squareAt(from(1, 0)), Position.DARK_KING);
+        position.set(geometry.squareAt(from(3, 0)), Position.DARK_KING);
+
+        assertEquals(0, generator.generateMoves(position).length);
+        assertFalse(tablebase.probe(position).isPresent()); // 4 pieces are not covered
+
+        position.set(geometry.squareAt(from(6, 5)), Position.EMPTY);
+        assertThat(tablebase.probe(position), is(Optional.of(new TablebaseResult(TablebaseOutcome.LOSS, 0))));
+        assertThat(tablebase.hasMoves(position, PieceColor.LIGHT), is(Optional.of(false)));
+        assertThat(tablebase.hasMoves(position, PieceColor.DARK), is(Optional.of(true)));
+    }
+
+    @Test
+    public void testResultsAreConsistentWithMoves() {
+        for (MaterialSlice slice : Arrays.asList(MaterialSlice.of(0, 1, 0, 1), MaterialSlice.of(1, 0, 0, 1), MaterialSlice.of(0, 2, 1, 0))) {
+            SliceIndexer indexer = new SliceIndexer(geometry, slice);
+            Position position = Position.empty(geometry, PieceColor.DARK);
+
+            for (long index = 0; index < indexer.size(); index++) {
+                if (!indexer.decode(index, position)) {
+                    continue;
+                }
+
+                for (PieceColor color : PieceColor.values()) {
+                    position.setSideToMove(color);
+                    this.assertConsistentWithMoves(position);
+                }
+            }
+        }
+    }
+
+    private void assertConsistentWithMoves(Position position) {
+        TablebaseResult result = tablebase.probe(position).orElseThrow(IllegalStateException::new);
+        int shortestLoss = Integer.MAX_VALUE;
+        int longestWin = -1;
+        boolean allWin = true;
+
+        for (int move : generator.generateMoves(position)) {
+            position.doMove(move);
+            TablebaseResult successor = tablebase.probe(position).orElseThrow(IllegalStateException::new);
+            position.undoMove();
+
+            if (successor.getOutcome() == TablebaseOutcome.LOSS) {
+                shortestLoss = Math.min(shortestLoss, successor.getDistance());
+            }
+            if (successor.getOutcome() == TablebaseOutcome.WIN) {
+                longestWin = Math.max(longestWin, successor.getDistance());
+            } else {
+                allWin = false;
+            }
+        }
+
+        switch (result.getOutcome()) {
+            case WIN:
+                assertEquals(position.toString(), result.getDistance() - 1, shortestLoss);
+                break;
+            case LOSS:
+                assertTrue(position.toString(), allWin);
+                assertEquals(position.toString(), result.getDistance() - 1, longestWin);
+                break;
+            case DRAW:
+                assertEquals(position.toString(), Integer.MAX_VALUE, shortestLoss);
+                assertFalse(position.toString(), allWin);
+                break;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.isOneOf;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class HeadlessRunnerTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private GameConfig config;
+    private HeadlessRunner runner;
+
+    @Before
+    public void setUp() throws Exception {
+        this.config = new GameConfig("game-test.properties");
+        this.runner = new HeadlessRunner(this.config);
+    }
+
+    @After
+    public void tearDown() {
+        this.runner.shutdown();
+    }
+
+    @Test
+    public void testPlaysGamesAndWritesResults() throws Exception {
+        Path resultsFile = this.folder.getRoot().toPath().resolve("results.csv");
+
+        List<GameResult> results = this.runner.run(2, resultsFile);
+
+        assertThat(results, hasSize(2));
+        for (GameResult result : results) {
+            assertThat(result.getPlies(), greaterThan(0));
+            if (!result.isDraw()) {
+                assertThat(result.getReason(), isOneOf(GameResult.Reason.GAME_OVER, GameResult.Reason.NO_MOVES));
+            }
+        }
+
+        List<String> lines = Files.readAllLines(resultsFile);
+        assertThat(lines, hasSize(3));
+        assertThat(lines.get(1), startsWith("1;"));
+    }
+
+    @Test
+    public void testGameIsDrawnAtMoveLimit() throws Exception {
+        HeadlessGame game = new HeadlessGame(this.config, this.runner.createComputer(PieceColor.DARK, 1),
+                this.runner.createComputer(PieceColor.LIGHT, 2), 4);
+
+        GameResult result = game.play();
+
+        assertThat(result.getWinner(), is(nullValue()));
+        assertThat(result.getReason(), is(GameResult.Reason.MOVE_LIMIT));
+        assertThat(result.getPlies(), is(4));
+    }
+}
@@ -0,0 +1,45 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.engine.tuning.TrainingSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class SelfPlayDataGeneratorTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWritesAllPositionsIntoOneShardPerWorker() throws Exception {
+        Path directory = this.folder.getRoot().toPath().resolve("training-data");
+        SelfPlayDataGenerator generator = new SelfPlayDataGenerator(new GameConfig("game-test.properties"), 2, 1);
+
+        long numberOfPositions;
+        try {
+            numberOfPositions = generator.generate(directory, 3);
+        } finally {
+            generator.shutdown();
+        }
+
+        List<Path> shards;
+        try (Stream<Path> files = Files.list(directory)) {
+            shards = files.sorted().collect(Collectors.toList());
+        }
+
+        assertThat(shards, hasSize(2));
+        assertThat(numberOfPositions, greaterThan(0L));
+        assertThat((long) TrainingSet.load(shards).size(), is(numberOfPositions));
+    }
+}
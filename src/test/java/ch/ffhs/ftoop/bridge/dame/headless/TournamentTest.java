@@ -0,0 +1,49 @@
+package ch.ffhs.ftoop.bridge.dame.headless;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class TournamentTest {
+
+    @Test
+    public void testEloDifferenceOfScore() {
+        MatchScore score = new MatchScore(60, 30, 10);
+
+        assertThat(score.getScore(), is(0.75));
+        assertThat(score.getEloDifference(), closeTo(190.8, 0.1));
+        assertThat(score.getEloErrorMargin(), allOf(greaterThan(0.0), lessThan(100.0)));
+        assertThat(new MatchScore(10, 20, 10).getEloDifference(), is(0.0));
+    }
+
+    @Test
+    public void testSprtDecidesClearResultsEarly() {
+        Sprt sprt = new Sprt(0, 10, 0.05, 0.05);
+
+        assertThat(sprt.decide(MatchScore.EMPTY), is(Sprt.Decision.CONTINUE));
+        assertThat(sprt.decide(new MatchScore(6, 2, 4)), is(Sprt.Decision.CONTINUE));
+        assertThat(sprt.decide(new MatchScore(300, 100, 100)), is(Sprt.Decision.ACCEPT_H1));
+        assertThat(sprt.decide(new MatchScore(100, 100, 300)), is(Sprt.Decision.ACCEPT_H0));
+    }
+
+    @Test
+    public void testPlaysPairsOfGamesConcurrently() throws Exception {
+        GameConfig config = new GameConfig("game-test.properties");
+        Tournament tournament = new Tournament(config, config, 2, 2, new Sprt(0, 10, 0.05, 0.05));
+
+        try {
+            TournamentResult result = tournament.run(4);
+
+            assertThat(result.getScore().getGames(), is(4));
+            assertThat(result.getDecision(), is(Sprt.Decision.CONTINUE));
+        } finally {
+            tournament.shutdown();
+        }
+    }
+}
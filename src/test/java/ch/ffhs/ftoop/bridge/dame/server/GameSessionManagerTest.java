@@ -0,0 +1,137 @@
+package ch.ffhs.ftoop.bridge.dame.server;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.game.engine.analysis.PositionAnalysis;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static ch.ffhs.ftoop.bridge.dame.game.board.BoardPosition.from;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GameSessionManagerTest {
+    private GameConfig config;
+    private GameSessionManager manager;
+
+    @Before
+    public void setUp() throws Exception {
+        this.config = new GameConfig("game-test.properties");
+        this.manager = new GameSessionManager(this.config);
+    }
+
+    @After
+    public void tearDown() {
+        this.manager.shutdown();
+    }
+
+    @Test
+    public void testComputerAnswersMoveOfHuman() throws Exception {
+        GameSession session = this.manager.create("TEST", PieceColor.DARK);
+        assertTrue(session.isHumanToMove());
+
+        session.playMove(from(5, 2), from(4, 3));
+        assertFalse(session.isHumanToMove());
+        this.manager.playComputerMove(session).get();
+
+        assertThat(session.getPlies(), is(2));
+        assertTrue(session.isHumanToMove());
+        assertThat(session.getComputer().getColor(), is(PieceColor.LIGHT));
+    }
+
+    @Test
+    public void testComputerStartsWhenHumanPlaysLight() throws Exception {
+        GameSession session = this.manager.create("TEST", PieceColor.LIGHT);
+        assertFalse(session.isHumanToMove());
+
+        this.manager.playComputerMove(session).get();
+
+        assertThat(session.getPlies(), is(1));
+        assertTrue(session.isHumanToMove());
+    }
+
+    @Test
+    public void testSessionsAreIsolatedAndLimited() throws Exception {
+        GameSession first = this.manager.create("A", PieceColor.DARK);
+        GameSession second = this.manager.create("B", PieceColor.DARK);
+        first.playMove(from(5, 2), from(4, 3));
+
+        assertThat(first.getId(), is(not(second.getId())));
+        assertThat(first.getPosition(), is(not(second.getPosition())));
+        assertThat(this.manager.get(second.getId()), is(second));
+
+        try {
+            this.manager.create("C", PieceColor.DARK);
+            fail("The third session should not have been created");
+        } catch (SessionLimitReachedException e) {
+            assertThat(this.manager.getNumberOfSessions(), is(2));
+        }
+
+        assertTrue(this.manager.close(first.getId()));
+        assertFalse(this.manager.close(first.getId()));
+        this.manager.create("C", PieceColor.DARK);
+    }
+
+    @Test(expected = SessionNotFoundException.class)
+    public void testEvictsIdleSessions() throws Exception {
+        GameSession session = this.manager.create("TEST", PieceColor.DARK);
+
+        assertThat(this.manager.evictIdleSessions(System.currentTimeMillis()), is(0));
+        assertThat(this.manager.evictIdleSessions(System.currentTimeMillis() + 3_600_000), is(1));
+        assertThat(this.manager.getNumberOfSessions(), is(0));
+
+        this.manager.get(session.getId());
+    }
+
+    @Test
+    public void testComputerMoveDoesNotWaitForAnalysis() throws Exception {
+        CompletableFuture<List<PositionAnalysis>> analysis = this.manager.analyze(this.randomPositions(2000));
+
+        GameSession session = this.manager.create("TEST", PieceColor.LIGHT);
+        this.manager.playComputerMove(session).get();
+
+        assertThat(session.getPlies(), is(1));
+        assertFalse(analysis.isDone());
+        assertThat(analysis.get(), hasSize(2000));
+    }
+
+    /**
+     * Collects the different positions of random games.
+     */
+    private List<Position> randomPositions(int numberOfPositions) throws Exception {
+        Board board = new Board(this.config.getNumberOfRowsAndColumnsOfBoard());
+        board.populateWithInitialPieces(this.config.getNumberOfPiecesPerPlayer());
+        MoveGenerator generator = new MoveGenerator(RuleSet.from(this.config.getEnabledRules()));
+        Random random = new Random(42);
+
+        Set<Position> positions = new LinkedHashSet<>();
+        while (positions.size() < numberOfPositions) {
+            Position position = Position.from(board, PieceColor.DARK);
+            int[] moves = generator.generateMoves(position);
+            while (moves.length > 0 && positions.size() < numberOfPositions) {
+                position.doMove(moves[random.nextInt(moves.length)]);
+                positions.add(position.copy());
+                moves = generator.generateMoves(position);
+            }
+        }
+
+        return new ArrayList<>(positions);
+    }
+}
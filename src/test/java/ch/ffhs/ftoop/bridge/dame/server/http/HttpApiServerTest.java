@@ -0,0 +1,257 @@
+package ch.ffhs.ftoop.bridge.dame.server.http;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.Board;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.MoveGenerator;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.engine.RuleSet;
+import ch.ffhs.ftoop.bridge.dame.server.GameSessionManager;
+import com.google.common.io.ByteStreams;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+public class HttpApiServerTest {
+    private GameApi api;
+    private HttpApiServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        GameSessionManager manager = new GameSessionManager(new GameConfig("game-test.properties"));
+        this.api = new GameApi(Collections.singletonMap("test", manager));
+        this.server = new HttpApiServer(this.api, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        this.server.start();
+    }
+
+    @After
+    public void tearDown() {
+        this.server.shutdown();
+        this.api.shutdown();
+    }
+
+    @Test
+    public void testCreatesGameAndPlaysMove() throws Exception {
+        Response created = this.request("POST", "/games", "{\"name\": \"TEST\", \"color\": \"DARK\"}");
+        assertThat(created.status, is(201));
+        Map<String, Object> game = Json.readObject(created.body);
+        assertThat(game.get("profile"), is("test"));
+        assertThat(game.get("sideToMove"), is("DARK"));
+        String id = (String) game.get("id");
+
+        Response moves = this.request("GET", "/games/" + id + "/moves", null);
+        assertThat(moves.status, is(200));
+        assertThat(moves.body, containsString("{\"from\":11,\"to\":15}"));
+        assertThat(this.request("GET", "/games/" + id + "/moves", null).body, is(moves.body));
+
+        Response played = this.request("POST", "/games/" + id + "/moves", "{\"from\": 11, \"to\": 15}");
+        assertThat(played.status, is(200));
+        assertThat(Json.readObject(played.body).get("plies"), is(1L));
+    }
+
+    @Test
+    public void testReportsErrors() throws Exception {
+        assertThat(this.request("GET", "/games/unknown", null).status, is(404));
+        assertThat(this.request("GET", "/players", null).status, is(404));
+        assertThat(this.request("POST", "/games", "{\"color\": ").status, is(400));
+        assertThat(this.request("POST", "/games", "{\"profile\": \"other\"}").status, is(400));
+
+        String id = (String) Json.readObject(this.request("POST", "/games", "{}").body).get("id");
+        Response invalidMove = this.request("POST", "/games/" + id + "/moves", "{\"from\": 11, \"to\": 19}");
+        assertThat(invalidMove.status, is(400));
+        assertThat(Json.readObject(invalidMove.body).containsKey("error"), is(true));
+        assertThat(this.request("PUT", "/games/" + id, "{}").status, is(405));
+    }
+
+    @Test
+    public void testAnalysesLargeBatchOfPositions() throws Exception {
+        String initial = (String) Json.readObject(this.request("POST", "/games", "{}").body).get("position");
+        StringBuilder body = new StringBuilder("{\"positions\": [\"W:W21:B\"");
+        for (int i = 0; i < 200; i++) {
+            body.append(", \"").append(initial).append('"');
+        }
+        body.append("]}");
+
+        Response analysed = this.request("POST", "/analysis", body.toString());
+        assertThat(analysed.status, is(200));
+        assertThat(analysed.body.split("\"position\":").length - 1, is(201));
+        assertThat(analysed.body, startsWith("[{\"position\":\"W:W21:B\",\"score\":"));
+        assertThat(analysed.body, containsString("\"bestMove\":null},{\"position\":\"" + initial + "\""));
+
+        assertThat(this.request("POST", "/analysis", "{\"positions\": [\"X:W1\"]}").status, is(400));
+        assertThat(this.request("GET", "/analysis", null).status, is(405));
+    }
+
+    @Test
+    public void testAnalysisDoesNotHoldUpHandlerThread() throws Exception {
+        String body = "{\"positions\": [" + String.join(", ", this.randomPositions(400)) + "]}";
+
+        CompletableFuture<HttpResponse> analysis = this.api.handle(
+                new HttpRequest("POST", "/analysis", Collections.emptyMap(), body.getBytes(StandardCharsets.UTF_8)));
+
+        // The handler returns while the positions are still being searched
+        assertThat(analysis.isDone(), is(false));
+        assertThat(analysis.get().getStatus(), is(200));
+    }
+
+    @Test
+    public void testStreamsEventsOverWebSocket() throws Exception {
+        String id = (String) Json.readObject(this.request("POST", "/games", "{\"color\": \"DARK\"}").body).get("id");
+
+        try (Socket socket = this.openWebSocket(id, "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n")) {
+            InputStream in = socket.getInputStream();
+            String handshake = this.readHead(in);
+            assertThat(handshake, containsString("101 Switching Protocols"));
+            assertThat(handshake, containsString("Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo="));
+
+            this.request("POST", "/games/" + id + "/moves", "{\"from\": 11, \"to\": 15}");
+
+            assertThat(this.readEvent(in), containsString("{\"type\":\"move\",\"color\":\"DARK\",\"from\":11,\"to\":15"));
+            assertThat(this.readEvent(in), containsString("\"type\":\"turn\",\"sideToMove\":\"LIGHT\""));
+            assertThat(this.readEvent(in), containsString("\"type\":\"move\",\"color\":\"LIGHT\""));
+            assertThat(this.readEvent(in), containsString("\"type\":\"turn\",\"sideToMove\":\"DARK\""));
+        }
+    }
+
+    @Test
+    public void testRemovesListenerWhenWebSocketIsClosed() throws Exception {
+        String id = (String) Json.readObject(this.request("POST", "/games", "{\"color\": \"DARK\"}").body).get("id");
+        GameEventChannel channel = this.api.subscribe(this.api.getSession(id), frame -> {
+        });
+
+        try (Socket first = this.openWebSocket(id, "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n");
+             Socket second = this.openWebSocket(id, "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n")) {
+            assertThat(this.readHead(first.getInputStream()), containsString("101 Switching Protocols"));
+            assertThat(this.readHead(second.getInputStream()), containsString("101 Switching Protocols"));
+            assertThat(this.api.subscribe(this.api.getSession(id), frame -> {
+            }), is(channel));
+            assertThat(channel.getNumberOfListeners(), is(4));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (channel.getNumberOfListeners() > 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(channel.getNumberOfListeners(), is(2));
+    }
+
+    @Test
+    public void testRejectsWebSocketWithoutKey() throws Exception {
+        String id = (String) Json.readObject(this.request("POST", "/games", "{}").body).get("id");
+
+        try (Socket socket = this.openWebSocket(id, "")) {
+            assertThat(this.readHead(socket.getInputStream()), containsString("400 Bad Request"));
+        }
+    }
+
+    private Socket openWebSocket(String id, String keyHeader) throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), this.server.getPort());
+        OutputStream out = socket.getOutputStream();
+        out.write(("GET /games/" + id + "/events HTTP/1.1\r\nHost: localhost\r\nUpgrade: websocket\r\n"
+                + "Connection: Upgrade\r\n" + keyHeader + "Sec-WebSocket-Version: 13\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return socket;
+    }
+
+    private String readHead(InputStream in) throws IOException {
+        StringBuilder head = new StringBuilder();
+        while (!head.toString().endsWith("\r\n\r\n")) {
+            head.append((char) in.read());
+        }
+        return head.toString();
+    }
+
+    private String readEvent(InputStream in) throws Exception {
+        byte[] header = new byte[2];
+        ByteStreams.readFully(in, header);
+        byte[] payload = new byte[header[1] & 0x7F];
+        if (payload.length == 126) {
+            byte[] length = new byte[2];
+            ByteStreams.readFully(in, length);
+            payload = new byte[ByteBuffer.wrap(length).getShort() & 0xFFFF];
+        }
+        ByteStreams.readFully(in, payload);
+
+        ByteBuffer frame = ByteBuffer.allocate(4 + payload.length);
+        frame.put(header[0]).put((byte) (payload.length < 126 ? payload.length : 126));
+        if (payload.length >= 126) {
+            frame.putShort((short) payload.length);
+        }
+        frame.put(payload).flip();
+
+        WebSocketFrames.Frame decoded = WebSocketFrames.decode(frame, 4096);
+        assertThat(decoded.getOpcode(), is(WebSocketFrames.TEXT));
+        return decoded.getText();
+    }
+
+    /**
+     * Collects the different positions of random games, as quoted notations.
+     */
+    private Set<String> randomPositions(int numberOfPositions) throws Exception {
+        GameConfig config = new GameConfig("game-test.properties");
+        Board board = new Board(config.getNumberOfRowsAndColumnsOfBoard());
+        board.populateWithInitialPieces(config.getNumberOfPiecesPerPlayer());
+        MoveGenerator generator = new MoveGenerator(RuleSet.from(config.getEnabledRules()));
+        Random random = new Random(42);
+
+        Set<String> positions = new LinkedHashSet<>();
+        while (positions.size() < numberOfPositions) {
+            Position position = Position.from(board, PieceColor.DARK);
+            int[] moves = generator.generateMoves(position);
+            while (moves.length > 0 && positions.size() < numberOfPositions) {
+                position.doMove(moves[random.nextInt(moves.length)]);
+                positions.add('"' + position.toNotation().toString() + '"');
+                moves = generator.generateMoves(position);
+            }
+        }
+
+        return positions;
+    }
+
+    private Response request(String method, String path, String body) throws IOException {
+        URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), this.server.getPort(), path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        return new Response(status, new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8));
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ch.ffhs.ftoop.bridge.dame.server.protocol;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.server.GameSessionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class GameServerTest {
+    private final BoardGeometry geometry = BoardGeometry.of(8);
+    private GameSessionManager manager;
+    private GameServer server;
+    private GameClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        GameConfig config = new GameConfig("game-test.properties");
+        this.manager = new GameSessionManager(config);
+        this.server = new GameServer(this.manager, config, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        this.server.start();
+        this.client = GameClient.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.server.getPort()));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.client.close();
+        this.server.shutdown();
+        this.manager.shutdown();
+    }
+
+    @Test
+    public void testPlaysAgainstComputer() throws Exception {
+        this.client.join("TEST", PieceColor.DARK);
+        this.client.flush();
+
+        Frame joined = this.client.readFrame();
+        assertThat(joined.getType(), is(Protocol.JOINED));
+        assertThat(joined.getColor(), is(PieceColor.DARK));
+        assertThat(joined.getNumberOfRowsAndColumns(), is(8));
+
+        Position initial = this.client.readFrame(Protocol.POSITION).getPosition();
+        assertThat(initial.getSideToMove(), is(PieceColor.DARK));
+        assertThat(initial.count(PieceColor.DARK), is(12));
+        assertThat(initial.count(PieceColor.LIGHT), is(12));
+
+        this.client.move(this.geometry.squareAt(5, 2), this.geometry.squareAt(4, 3));
+        this.client.flush();
+
+        Frame move = this.client.readFrame(Protocol.MOVE_PLAYED);
+        assertThat(move.getColor(), is(PieceColor.DARK));
+        assertThat(move.getFrom(), is(this.geometry.squareAt(5, 2)));
+        assertThat(move.getTo(), is(this.geometry.squareAt(4, 3)));
+        assertThat(move.getCapturedPieces(), is(0));
+
+        Frame answer = this.client.readFrame(Protocol.MOVE_PLAYED);
+        assertThat(answer.getColor(), is(PieceColor.LIGHT));
+
+        Position position = this.client.readFrame(Protocol.POSITION).getPosition();
+        assertThat(position.getSideToMove(), is(PieceColor.DARK));
+        assertThat(position.get(this.geometry.squareAt(4, 3)), is(Position.DARK_MAN));
+        assertThat(position.get(answer.getTo()), is(Position.LIGHT_MAN));
+    }
+
+    @Test
+    public void testSendsBatchedCommandsAndReportsInvalidMoves() throws Exception {
+        this.client.join("TEST", PieceColor.DARK);
+        this.client.move(this.geometry.squareAt(4, 3), this.geometry.squareAt(3, 4));
+        this.client.flush();
+
+        assertThat(this.client.readFrame().getType(), is(Protocol.JOINED));
+        assertThat(this.client.readFrame().getType(), is(Protocol.POSITION));
+        assertThat(this.client.readFrame().getType(), is(Protocol.ERROR));
+    }
+
+    @Test
+    public void testPushesEndOfGameWhenResigning() throws Exception {
+        this.client.join("TEST", PieceColor.LIGHT);
+        this.client.flush();
+        this.client.readFrame(Protocol.MOVE_PLAYED);
+
+        this.client.resign();
+        this.client.flush();
+
+        Frame ended = this.client.readFrame(Protocol.GAME_ENDED);
+        assertThat(ended.getWinner(), is(PieceColor.DARK));
+        assertThat(this.manager.getNumberOfSessions(), is(0));
+    }
+
+    @Test
+    public void testSendsDiffsToSpectators() throws Exception {
+        this.client.join("TEST", PieceColor.DARK);
+        this.client.flush();
+        String id = this.client.readFrame(Protocol.JOINED).getGameId();
+        assertThat(id, is(this.manager.get(id).getId()));
+
+        try (GameClient spectator = GameClient.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.server.getPort()))) {
+            spectator.watch(id);
+            spectator.flush();
+            Frame snapshot = spectator.readFrame();
+            assertThat(snapshot.getType(), is(Protocol.SNAPSHOT));
+            assertThat(snapshot.getSequence(), is(0));
+            Position position = snapshot.getPosition();
+
+            this.client.move(this.geometry.squareAt(5, 2), this.geometry.squareAt(4, 3));
+            this.client.flush();
+
+            BoardDiff move = spectator.readFrame(Protocol.DIFF).getDiff();
+            assertThat(move.getSequence(), is(1));
+            assertThat(move.getFrom(), is(this.geometry.squareAt(5, 2)));
+            move.applyTo(position);
+            BoardDiff answer = spectator.readFrame(Protocol.DIFF).getDiff();
+            assertThat(answer.getColor(), is(PieceColor.LIGHT));
+            answer.applyTo(position);
+
+            assertThat(position, is(Position.from(this.manager.get(id).getPosition())));
+        }
+    }
+
+    @Test(expected = InvalidFrameException.class)
+    public void testRejectsFramesLongerThanAllowed() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH + 2);
+        buffer.putShort((short) Protocol.MAX_FRAME_LENGTH).put(Protocol.MOVE).flip();
+
+        Protocol.readFrame(buffer);
+    }
+}
@@ -0,0 +1,120 @@
+package ch.ffhs.ftoop.bridge.dame.server.protocol;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.engine.BoardGeometry;
+import ch.ffhs.ftoop.bridge.dame.game.engine.Position;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import ch.ffhs.ftoop.bridge.dame.server.GameSession;
+import ch.ffhs.ftoop.bridge.dame.server.GameSessionManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+public class SpectatorChannelTest {
+    private final BoardGeometry geometry = BoardGeometry.of(8);
+    private GameSessionManager manager;
+    private GameSession session;
+    private SpectatorChannel channel;
+
+    @Before
+    public void setUp() throws Exception {
+        this.manager = new GameSessionManager(new GameConfig("game-test.properties"));
+        this.session = this.manager.create("TEST", PieceColor.DARK);
+        this.channel = new SpectatorChannel(this.session);
+    }
+
+    @After
+    public void tearDown() {
+        this.manager.shutdown();
+    }
+
+    @Test
+    public void testSendsSnapshotAndDiffsToLateSpectators() throws Exception {
+        List<Frame> early = new ArrayList<>();
+        this.channel.subscribe(frame -> early.add(this.read(frame)));
+        this.playMoves();
+
+        List<Frame> late = new ArrayList<>();
+        this.channel.subscribe(frame -> late.add(this.read(frame)));
+        this.playMoves();
+
+        assertThat(early, hasSize(5));
+        assertThat(late, hasSize(3));
+        assertThat(this.replay(early), is(Position.from(this.session.getPosition())));
+        assertThat(this.replay(late), is(Position.from(this.session.getPosition())));
+
+        assertThat(late.get(0).getType(), is(Protocol.SNAPSHOT));
+        assertThat(late.get(0).getSequence(), is(2));
+        BoardDiff diff = late.get(1).getDiff();
+        assertThat(diff.getSequence(), is(3));
+        assertThat(diff.getColor(), is(PieceColor.DARK));
+        assertThat(diff.isPromotion(), is(false));
+    }
+
+    @Test
+    public void testDiffContainsCapturedPieces() throws Exception {
+        Position before = Position.empty(this.geometry, PieceColor.DARK);
+        int from = this.geometry.squareAt(0, 5);
+        int captured = this.geometry.squareAt(1, 6);
+        before.set(from, Position.DARK_MAN);
+        before.set(captured, Position.LIGHT_MAN);
+        Position after = Position.empty(this.geometry, PieceColor.LIGHT);
+        int to = this.geometry.squareAt(2, 7);
+        after.set(to, Position.DARK_KING);
+
+        BoardDiff diff = BoardDiff.between(7, PieceColor.DARK, from, to, before, after);
+        ByteBuffer buffer = ByteBuffer.allocate(Protocol.MAX_FRAME_LENGTH);
+        Protocol.writeDiff(buffer, diff);
+        buffer.flip();
+        BoardDiff decoded = this.read(buffer).getDiff();
+
+        assertThat(decoded.getRemovedSquares(), is(new int[]{captured}));
+        assertThat(decoded.isPromotion(), is(true));
+        decoded.applyTo(before);
+        assertThat(before, is(after));
+    }
+
+    @Test
+    public void testSendsEndOfGameToLateSpectators() throws Exception {
+        this.session.resign();
+
+        List<Frame> frames = new ArrayList<>();
+        this.channel.subscribe(frame -> frames.add(this.read(frame)));
+
+        assertThat(frames, hasSize(2));
+        assertThat(frames.get(1).getType(), is(Protocol.GAME_ENDED));
+        assertThat(frames.get(1).getWinner(), is(PieceColor.LIGHT));
+        assertThat(this.channel.getNumberOfSpectators(), is(0));
+    }
+
+    private void playMoves() throws Exception {
+        Move move = this.session.findValidMoves().get(0);
+        this.session.playMove(move.getFrom(), move.getTo());
+        this.manager.playComputerMove(this.session).get();
+    }
+
+    private Position replay(List<Frame> frames) throws InvalidFrameException {
+        Position position = frames.get(0).getPosition();
+        for (Frame frame : frames.subList(1, frames.size())) {
+            frame.getDiff().applyTo(position);
+        }
+        return position;
+    }
+
+    private Frame read(ByteBuffer buffer) {
+        try {
+            return Protocol.readFrame(buffer);
+        } catch (InvalidFrameException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package ch.ffhs.ftoop.bridge.dame.server.store;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.fail;
+
+public class SessionLogTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private FailingChannel channel;
+
+    private SessionLog open(boolean truncateFails) throws IOException {
+        return SessionLog.open(this.folder.getRoot().toPath(), file -> {
+            FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            if (this.channel != null) {
+                return opened;
+            }
+            this.channel = new FailingChannel(opened, truncateFails);
+            return this.channel;
+        });
+    }
+
+    private List<String> readSessionIds() throws IOException {
+        return SessionLog.read(this.folder.getRoot().toPath(), 1).stream()
+                .map(LogRecord::getSessionId)
+                .collect(Collectors.toList());
+    }
+
+    private static void assertFails(CompletableFuture<Void> commit) throws InterruptedException {
+        try {
+            commit.get();
+            fail("The commit should have failed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IOException.class));
+        }
+    }
+
+    @Test
+    public void testRecoversRecordsAfterFailedCommit() throws Exception {
+        try (SessionLog log = this.open(false)) {
+            log.append(LogRecord.closed("a")).get();
+            this.channel.failNextWrite = true;
+            assertFails(log.append(LogRecord.closed("b")));
+            log.append(LogRecord.closed("c")).get();
+        }
+
+        // The torn record of the failed commit has been cut off, so it does not hide the later ones
+        assertThat(this.readSessionIds(), contains("a", "c"));
+    }
+
+    @Test
+    public void testWaitsForNextSegmentIfFailedCommitCannotBeCutOff() throws Exception {
+        try (SessionLog log = this.open(true)) {
+            log.append(LogRecord.closed("a")).get();
+            this.channel.failNextWrite = true;
+            assertFails(log.append(LogRecord.closed("b")));
+            assertFails(log.append(LogRecord.closed("c")));
+
+            log.rotate().get();
+            log.append(LogRecord.closed("d")).get();
+        }
+
+        assertThat(this.readSessionIds(), contains("a", "d"));
+    }
+
+    /**
+     * Writes only half of the bytes and fails when told to, like a full disk.
+     */
+    private static final class FailingChannel extends FileChannel {
+        private final FileChannel channel;
+        private final boolean truncateFails;
+        private volatile boolean failNextWrite;
+
+        private FailingChannel(FileChannel channel, boolean truncateFails) {
+            this.channel = channel;
+            this.truncateFails = truncateFails;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (this.failNextWrite) {
+                this.failNextWrite = false;
+                ByteBuffer half = src.duplicate();
+                half.limit(src.position() + src.remaining() / 2);
+                src.position(half.limit());
+                this.channel.write(half);
+                throw new IOException("No space left on device");
+            }
+            return this.channel.write(src);
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            if (this.truncateFails) {
+                throw new IOException("Input/output error");
+            }
+            this.channel.truncate(size);
+            return this;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return this.channel.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return this.channel.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return this.channel.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return this.channel.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            this.channel.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return this.channel.size();
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            this.channel.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return this.channel.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return this.channel.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return this.channel.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return this.channel.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return this.channel.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return this.channel.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return this.channel.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            this.channel.close();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package ch.ffhs.ftoop.bridge.dame.server.store;
+
+import ch.ffhs.ftoop.bridge.dame.game.GameConfig;
+import ch.ffhs.ftoop.bridge.dame.game.board.BoardNotation;
+import ch.ffhs.ftoop.bridge.dame.game.board.PieceColor;
+import ch.ffhs.ftoop.bridge.dame.game.move.Move;
+import ch.ffhs.ftoop.bridge.dame.server.GameSession;
+import ch.ffhs.ftoop.bridge.dame.server.GameSessionManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.fail;
+
+public class SessionStoreTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testRecoversSessionsAfterCrash() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        GameConfig config = new GameConfig("game-test.properties");
+        SessionStore store = SessionStore.open(directory);
+        GameSessionManager manager = new GameSessionManager(config, store);
+
+        GameSession session = manager.create("TEST", PieceColor.DARK);
+        Move move = session.findValidMoves().get(0);
+        session.playMove(move.getFrom(), move.getTo());
+        manager.playComputerMove(session).get();
+        // Records are committed in order, so all records before this one are durable
+        store.logClosed("unknown").get();
+
+        // The first manager is never shut down, as if the server had crashed
+        GameSessionManager restarted = new GameSessionManager(config, SessionStore.open(directory));
+        try {
+            GameSession restored = restarted.get(session.getId());
+            assertThat(restored.getPosition(), is(session.getPosition()));
+            assertThat(restored.getPlies(), is(2));
+            assertThat(restored.getHuman().getName(), is("TEST"));
+            assertThat(restored.isHumanToMove(), is(true));
+        } finally {
+            restarted.shutdown();
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    public void testReplaysOnlyLogAfterSnapshot() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        BoardNotation position = BoardNotation.parse("W:W21,22:B1-4", 8);
+
+        try (SessionStore store = SessionStore.open(directory)) {
+            store.logCreated("a", "A", PieceColor.DARK);
+            store.logMoved("a", 0, 8, 12);
+            store.logCreated("b", "B", PieceColor.LIGHT);
+            store.logCreated("c", "C", PieceColor.DARK);
+            store.snapshot(() -> Collections.singletonList(new SavedSession("a", "A", PieceColor.DARK, position, 1)));
+            // Logged after the rotation, but part of the snapshot already
+            store.logMoved("a", 0, 8, 12);
+            store.logMoved("a", 1, 21, 17);
+            store.logCreated("d", "D", PieceColor.LIGHT);
+            store.logClosed("d");
+        }
+
+        try (SessionStore store = SessionStore.open(directory)) {
+            List<SavedSession> sessions = store.getRecoveredSessions();
+            assertThat(sessions, hasSize(1));
+            SavedSession session = sessions.get(0);
+            assertThat(session.getId(), is("a"));
+            assertThat(session.getPosition(), is(position));
+            assertThat(session.getPlies(), is(1));
+            assertThat(session.getMoves(), hasSize(1));
+            assertThat(session.getMoves().get(0)[0], is(21));
+        }
+    }
+
+    @Test
+    public void testKeepsLoggingIfNewSegmentCannotBeOpened() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        BoardNotation position = BoardNotation.parse("W:W21,22:B1-4", 8);
+
+        try (SessionStore store = SessionStore.open(directory)) {
+            store.logCreated("a", "A", PieceColor.DARK);
+            // The segment the snapshot would start exists already
+            Files.createFile(directory.resolve(SessionStoreFormat.segmentFileName(2)));
+            try {
+                store.snapshot(() -> Collections.singletonList(new SavedSession("a", "A", PieceColor.DARK, position, 1)));
+                fail("The snapshot must fail without a new segment");
+            } catch (IOException e) {
+                // Expected
+            }
+            store.logMoved("a", 0, 8, 12).get();
+        }
+
+        try (SessionStore store = SessionStore.open(directory)) {
+            List<SavedSession> sessions = store.getRecoveredSessions();
+            assertThat(sessions, hasSize(1));
+            assertThat(sessions.get(0).getPosition(), is(nullValue()));
+            assertThat(sessions.get(0).getMoves(), hasSize(1));
+        }
+    }
+
+    @Test
+    public void testIgnoresTornRecordAtEndOfLog() throws Exception {
+        Path directory = this.folder.getRoot().toPath();
+        try (SessionStore store = SessionStore.open(directory)) {
+            store.logCreated("a", "A", PieceColor.LIGHT);
+        }
+
+        Path segment = SessionLog.findSegments(directory).lastEntry().getValue();
+        byte[] torn = LogRecord.moved("a", 0, 9, 13).encode();
+        Files.write(segment, Arrays.copyOf(torn, torn.length - 3), StandardOpenOption.APPEND);
+
+        try (SessionStore store = SessionStore.open(directory)) {
+            assertThat(store.getRecoveredSessions(), hasSize(1));
+            assertThat(store.getRecoveredSessions().get(0).getPosition(), is(nullValue()));
+            assertThat(store.getRecoveredSessions().get(0).getMoves(), is(empty()));
+        }
+
+        assertThat(SessionLog.findSegments(directory).keySet(), contains(1, 2));
+    }
+}